@@ -42,7 +42,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-import static com.amazonaws.athena.connectors.cloudera.ImpalaConstants.FETCH_SIZE;
 import static com.amazonaws.athena.connectors.cloudera.ImpalaConstants.IMPALA_DEFAULT_PORT;
 import static com.amazonaws.athena.connectors.cloudera.ImpalaConstants.IMPALA_DRIVER_CLASS;
 import static com.amazonaws.athena.connectors.cloudera.ImpalaConstants.IMPALA_NAME;
@@ -75,7 +74,6 @@ public class ImpalaRecordHandler extends JdbcRecordHandler
     public PreparedStatement buildSplitSql(Connection jdbcConnection, String catalogName, TableName tableName, Schema schema, Constraints constraints, Split split) throws SQLException
     {
         PreparedStatement preparedStatement = jdbcSplitQueryBuilder.buildSql(jdbcConnection, null, tableName.getSchemaName(), tableName.getTableName(), schema, constraints, split);
-        preparedStatement.setFetchSize(FETCH_SIZE);
         return preparedStatement;
     }
 }
@@ -105,7 +105,7 @@ public class MetricsMetadataHandler
     //The minimum number of splits we'd like to have for some parallelization
     private static final int MIN_NUM_SPLITS_FOR_PARALLELIZATION = 3;
     //Used to handle throttling events by applying AIMD congestion control
-    private final ThrottlingInvoker invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER).build();
+    private final ThrottlingInvoker invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, "monitoring").build();
 
     private final AmazonCloudWatch metrics;
 
@@ -115,7 +115,7 @@ public class CloudwatchMetadataHandler
     }
 
     private final AWSLogs awsLogs;
-    private final ThrottlingInvoker invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER).build();
+    private final ThrottlingInvoker invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, "logs").build();
     private final CloudwatchTableResolver tableResolver;
 
     public CloudwatchMetadataHandler()
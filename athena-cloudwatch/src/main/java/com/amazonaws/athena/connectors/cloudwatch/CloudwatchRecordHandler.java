@@ -70,7 +70,7 @@ public class CloudwatchRecordHandler
     //Used to tag log lines generated by this connector for diagnostic purposes when interacting with Athena.
     private static final String SOURCE_TYPE = "cloudwatch";
     //Used to handle Throttling events and apply AIMD congestion control
-    ThrottlingInvoker invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER).build();
+    ThrottlingInvoker invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, "logs").build();
     private final AtomicLong count = new AtomicLong(0);
     private final AWSLogs awsLogs;
 
@@ -44,7 +44,6 @@ import java.sql.SQLException;
 public class DataLakeGen2RecordHandler extends JdbcRecordHandler
 {
     private static final String QUOTE_CHARACTER = "\"";
-    private static final int FETCH_SIZE = 1000;
     private final JdbcSplitQueryBuilder jdbcSplitQueryBuilder;
     public DataLakeGen2RecordHandler()
     {
@@ -66,8 +65,6 @@ public class DataLakeGen2RecordHandler extends JdbcRecordHandler
     public PreparedStatement buildSplitSql(Connection jdbcConnection, String catalogName, TableName tableName, Schema schema, Constraints constraints, Split split) throws SQLException
     {
         PreparedStatement preparedStatement = jdbcSplitQueryBuilder.buildSql(jdbcConnection, null, tableName.getSchemaName(), tableName.getTableName(), schema, constraints, split);
-        // Disable fetching all rows.
-        preparedStatement.setFetchSize(FETCH_SIZE);
         return preparedStatement;
     }
 }
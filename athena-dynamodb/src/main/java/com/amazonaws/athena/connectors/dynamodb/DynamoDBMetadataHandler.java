@@ -130,7 +130,7 @@ public class DynamoDBMetadataHandler
     // used to filter out Glue databases which lack the DYNAMO_DB_FLAG in the URI.
     private static final DatabaseFilter DB_FILTER = (Database database) -> (database.getLocationUri() != null && database.getLocationUri().contains(DYNAMO_DB_FLAG));
 
-    private final ThrottlingInvoker invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER).build();
+    private final ThrottlingInvoker invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, "dynamodb").build();
     private final AmazonDynamoDB ddbClient;
     private final AWSGlue glueClient;
     private final DynamoDBTableResolver tableResolver;
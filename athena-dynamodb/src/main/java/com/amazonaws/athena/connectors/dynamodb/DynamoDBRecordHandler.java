@@ -104,7 +104,7 @@ public class DynamoDBRecordHandler
             public ThrottlingInvoker load(String tableName)
                     throws Exception
             {
-                return ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER).build();
+                return ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, "dynamodb:" + tableName).build();
             }
         });
     private final AmazonDynamoDB ddbClient;
@@ -0,0 +1,191 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.FieldResolver;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The schemas the benchmarks are parameterized over, along with deterministic values for their columns. Use the enum
+ * constant names as the value of a JMH {@code @Param}.
+ */
+public enum BenchmarkSchema
+{
+    /**
+     * A handful of fixed width columns, typical of a key/value or metrics source.
+     */
+    NARROW_PRIMITIVE(primitiveSchema(1)),
+    /**
+     * Many fixed width columns, typical of a fact table.
+     */
+    WIDE_PRIMITIVE(primitiveSchema(8)),
+    /**
+     * A key column and a few VARCHAR columns.
+     */
+    NARROW_VARCHAR(varcharSchema(4)),
+    /**
+     * A key column and many VARCHAR columns, typical of document and log sources.
+     */
+    WIDE_VARCHAR(varcharSchema(32)),
+    /**
+     * Primitive columns alongside LIST and STRUCT columns, typical of document sources.
+     */
+    COMPLEX(complexSchema());
+
+    private static final String[] WORDS = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel"};
+
+    private final Schema schema;
+
+    BenchmarkSchema(Schema schema)
+    {
+        this.schema = schema;
+    }
+
+    public Schema getSchema()
+    {
+        return schema;
+    }
+
+    /**
+     * @return True if every column of this schema can be written by a GeneratedRowWriter.
+     */
+    public boolean isFlat()
+    {
+        return this != COMPLEX;
+    }
+
+    /**
+     * Writes rows [0, numRows) of deterministic data into the block and sets its row count.
+     *
+     * @param block The Block to write to, which must have been created with this schema.
+     * @param numRows The number of rows to write.
+     */
+    public void fill(Block block, int numRows)
+    {
+        for (FieldVector vector : block.getFieldVectors()) {
+            Field field = vector.getField();
+            for (int row = 0; row < numRows; row++) {
+                Object value = value(field, row);
+                if (field.getChildren().isEmpty()) {
+                    BlockUtils.setValue(vector, row, value);
+                }
+                else {
+                    BlockUtils.setComplexValue(vector, row, FieldResolver.DEFAULT, value);
+                }
+            }
+        }
+        block.setRowCount(numRows);
+    }
+
+    /**
+     * Provides the value of the given column for the given row, every 16th row of nullable columns is null.
+     *
+     * @param field The column.
+     * @param row The row number.
+     * @return The value, in the Java type that BlockUtils.setValue (or setComplexValue) expects for the column.
+     */
+    public static Object value(Field field, int row)
+    {
+        if (row % 16 == 15 && !field.getName().equals("id")) {
+            return null;
+        }
+        switch (Types.getMinorTypeForArrowType(field.getType())) {
+            case INT:
+                return row * 31;
+            case BIGINT:
+                return (long) row * 1_000_003L;
+            case FLOAT8:
+                return row / 7.0D;
+            case BIT:
+                return row % 3 == 0;
+            case DATEDAY:
+                return LocalDate.ofEpochDay(18_000 + row % 1_000);
+            case DATEMILLI:
+                return LocalDateTime.of(2020, 1, 1, 0, 0).plusSeconds(row * 37L);
+            case DECIMAL:
+                return BigDecimal.valueOf(row * 1_013L, 2);
+            case VARCHAR:
+                return WORDS[row % WORDS.length] + "-" + row;
+            case LIST:
+                List<Object> list = new ArrayList<>();
+                for (int i = 0; i < row % 4; i++) {
+                    list.add(WORDS[(row + i) % WORDS.length]);
+                }
+                return list;
+            case STRUCT:
+                Map<String, Object> struct = new HashMap<>();
+                for (Field child : field.getChildren()) {
+                    struct.put(child.getName(), value(child, row));
+                }
+                return struct;
+            default:
+                throw new IllegalArgumentException("Unsupported benchmark type " + field.getType());
+        }
+    }
+
+    private static Schema primitiveSchema(int groups)
+    {
+        SchemaBuilder builder = SchemaBuilder.newBuilder().addBigIntField("id");
+        for (int i = 0; i < groups; i++) {
+            builder.addIntField("int" + i)
+                    .addFloat8Field("float8" + i)
+                    .addBitField("bit" + i)
+                    .addDateDayField("dateday" + i)
+                    .addDateMilliField("datemilli" + i)
+                    .addDecimalField("decimal" + i, 18, 2);
+        }
+        return builder.build();
+    }
+
+    private static Schema varcharSchema(int columns)
+    {
+        SchemaBuilder builder = SchemaBuilder.newBuilder().addBigIntField("id");
+        for (int i = 0; i < columns; i++) {
+            builder.addStringField("varchar" + i);
+        }
+        return builder.build();
+    }
+
+    private static Schema complexSchema()
+    {
+        return SchemaBuilder.newBuilder()
+                .addBigIntField("id")
+                .addStringField("name")
+                .addListField("tags", Types.MinorType.VARCHAR.getType())
+                .addStructField("address")
+                .addChildField("address", "street", Types.MinorType.VARCHAR.getType())
+                .addChildField("address", "number", Types.MinorType.INT.getType())
+                .build();
+    }
+}
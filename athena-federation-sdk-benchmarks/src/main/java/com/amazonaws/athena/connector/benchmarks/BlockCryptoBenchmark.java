@@ -0,0 +1,103 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.security.AesGcmBlockCrypto;
+import com.amazonaws.athena.connector.lambda.security.EncryptionKey;
+import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures AesGcmBlockCrypto encrypting and decrypting a Block, as done for every encrypted spill write and read.
+ * One operation is one Block.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BlockCryptoBenchmark
+{
+    @Param({"NARROW_PRIMITIVE", "WIDE_PRIMITIVE", "NARROW_VARCHAR", "WIDE_VARCHAR", "COMPLEX"})
+    public String schemaName;
+
+    @Param({"4096"})
+    public int rows;
+
+    private BlockAllocatorImpl allocator;
+    private AesGcmBlockCrypto crypto;
+    private EncryptionKey key;
+    private Schema schema;
+    private Block block;
+    private byte[] encrypted;
+
+    @Setup
+    public void setup()
+    {
+        BenchmarkSchema benchmarkSchema = BenchmarkSchema.valueOf(schemaName);
+        schema = benchmarkSchema.getSchema();
+        allocator = new BlockAllocatorImpl();
+        crypto = new AesGcmBlockCrypto(allocator);
+        key = new LocalKeyFactory().create();
+        block = allocator.createBlock(schema);
+        benchmarkSchema.fill(block, rows);
+        encrypted = crypto.encrypt(key, block);
+    }
+
+    @TearDown
+    public void tearDown()
+            throws Exception
+    {
+        block.close();
+        allocator.close();
+    }
+
+    @Benchmark
+    public byte[] encrypt()
+    {
+        return crypto.encrypt(key, block);
+    }
+
+    @Benchmark
+    public int decrypt()
+            throws Exception
+    {
+        try (Block decrypted = crypto.decrypt(key, encrypted, schema)) {
+            return decrypted.getRowCount();
+        }
+    }
+}
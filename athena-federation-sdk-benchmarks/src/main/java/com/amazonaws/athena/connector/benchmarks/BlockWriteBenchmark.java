@@ -0,0 +1,115 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per value cost of writing boxed values of each type through BlockUtils.setValue(...) and
+ * Block.setValue(...), the path used by connectors which don't use a GeneratedRowWriter. One operation is one value.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BlockWriteBenchmark
+{
+    private static final int ROWS = 4096;
+    private static final String COLUMN = "col";
+
+    @Param({"INT", "BIGINT", "FLOAT8", "BIT", "DATEDAY", "DATEMILLI", "DECIMAL", "VARCHAR"})
+    public String type;
+
+    private BlockAllocatorImpl allocator;
+    private Block block;
+    private FieldVector vector;
+    private Object[] values;
+
+    @Setup
+    public void setup()
+    {
+        Types.MinorType minorType = Types.MinorType.valueOf(type);
+        ArrowType arrowType = (minorType == Types.MinorType.DECIMAL) ? new ArrowType.Decimal(18, 2) : minorType.getType();
+        Schema schema = SchemaBuilder.newBuilder().addField(COLUMN, arrowType).build();
+
+        allocator = new BlockAllocatorImpl();
+        block = allocator.createBlock(schema);
+        vector = block.getFieldVector(COLUMN);
+
+        Field field = schema.findField(COLUMN);
+        values = new Object[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            values[i] = BenchmarkSchema.value(field, i);
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+            throws Exception
+    {
+        block.close();
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public FieldVector blockUtilsSetValue()
+    {
+        for (int i = 0; i < ROWS; i++) {
+            BlockUtils.setValue(vector, i, values[i]);
+        }
+        return vector;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Block blockSetValue()
+    {
+        for (int i = 0; i < ROWS; i++) {
+            block.setValue(COLUMN, i, values[i]);
+        }
+        return block;
+    }
+}
@@ -0,0 +1,130 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures evaluating a BIGINT SortedRangeSet against boxed values, both directly and through the
+ * ConstraintEvaluator as a connector's row filter would. The ranges are disjoint and roughly half of the values
+ * fall inside one of them. One operation is one value.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConstraintEvaluationBenchmark
+{
+    private static final int VALUES = 4096;
+    private static final String COLUMN = "col";
+    private static final long RANGE_WIDTH = 100;
+
+    @Param({"1", "16", "1024"})
+    public int rangeCount;
+
+    private BlockAllocatorImpl allocator;
+    private SortedRangeSet rangeSet;
+    private ConstraintEvaluator evaluator;
+    private Object[] values;
+
+    @Setup
+    public void setup()
+    {
+        ArrowType type = Types.MinorType.BIGINT.getType();
+        allocator = new BlockAllocatorImpl();
+
+        //Ranges [0, 100), [200, 300), ... so values spread over twice the covered span hit about half the time.
+        List<Range> ranges = new ArrayList<>();
+        for (int i = 0; i < rangeCount; i++) {
+            long low = i * RANGE_WIDTH * 2;
+            ranges.add(Range.range(allocator, type, low, true, low + RANGE_WIDTH, false));
+        }
+        rangeSet = SortedRangeSet.copyOf(type, ranges, false);
+
+        Schema schema = SchemaBuilder.newBuilder().addField(COLUMN, type).build();
+        evaluator = new ConstraintEvaluator(allocator, schema,
+                new Constraints(Collections.<String, ValueSet>singletonMap(COLUMN, rangeSet)));
+
+        long span = rangeCount * RANGE_WIDTH * 2;
+        values = new Object[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            values[i] = (i * 7_919L) % span;
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+            throws Exception
+    {
+        evaluator.close();
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int sortedRangeSetContainsValue()
+    {
+        int matched = 0;
+        for (Object next : values) {
+            matched += rangeSet.containsValue(next) ? 1 : 0;
+        }
+        return matched;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int constraintEvaluatorApply()
+    {
+        int matched = 0;
+        for (Object next : values) {
+            matched += evaluator.apply(COLUMN, next) ? 1 : 0;
+        }
+        return matched;
+    }
+}
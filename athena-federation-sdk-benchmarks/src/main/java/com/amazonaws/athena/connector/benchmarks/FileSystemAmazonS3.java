@@ -0,0 +1,221 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.Bucket;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A minimal, thread safe stand-in for AmazonS3 which stores each object as a file under a root directory, at
+ * root/bucket/key, each bucket being a directory directly under the root. Unlike InMemoryAmazonS3 it can hold spill sets larger than the heap, so it is used to run
+ * end-to-end scans where every split may spill. Objects are written to a temporary file and then moved into place,
+ * so readers following a spill directory never see a partially written object.
+ */
+public class FileSystemAmazonS3
+        extends AbstractAmazonS3
+{
+    private final Path root;
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    /**
+     * @param root The directory to store objects under, it is created if it doesn't exist.
+     */
+    public FileSystemAmazonS3(Path root)
+    {
+        this.root = root;
+        try {
+            Files.createDirectories(root);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public Bucket createBucket(String bucket)
+    {
+        try {
+            Files.createDirectories(root.resolve(bucket));
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new Bucket(bucket);
+    }
+
+    @Override
+    public List<Bucket> listBuckets()
+    {
+        try (Stream<Path> paths = Files.list(root)) {
+            return paths.filter(Files::isDirectory)
+                    .map(next -> new Bucket(next.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public PutObjectResult putObject(PutObjectRequest request)
+    {
+        if (!Files.isDirectory(root.resolve(request.getBucketName()))) {
+            AmazonS3Exception s3Ex = new AmazonS3Exception("The specified bucket does not exist.");
+            s3Ex.setStatusCode(404);
+            s3Ex.setErrorCode("NoSuchBucket");
+            throw s3Ex;
+        }
+
+        Path path = path(request.getBucketName(), request.getKey());
+        try (InputStream in = (request.getInputStream() != null) ? request.getInputStream() : new FileInputStream(request.getFile())) {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), ".put-", ".tmp");
+            long size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            bytesWritten.addAndGet(size);
+            return new PutObjectResult();
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public PutObjectResult putObject(String bucket, String key, InputStream input, ObjectMetadata metadata)
+    {
+        return putObject(new PutObjectRequest(bucket, key, input, metadata));
+    }
+
+    @Override
+    public S3Object getObject(String bucket, String key)
+    {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path(bucket, key));
+        }
+        catch (NoSuchFileException ex) {
+            AmazonS3Exception s3Ex = new AmazonS3Exception("The specified key does not exist.");
+            s3Ex.setStatusCode(404);
+            s3Ex.setErrorCode("NoSuchKey");
+            throw s3Ex;
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        bytesRead.addAndGet(bytes.length);
+
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(bytes.length);
+        S3Object object = new S3Object();
+        object.setBucketName(bucket);
+        object.setKey(key);
+        object.setObjectMetadata(metadata);
+        object.setObjectContent(new ByteArrayInputStream(bytes));
+        return object;
+    }
+
+    @Override
+    public S3Object getObject(GetObjectRequest request)
+    {
+        return getObject(request.getBucketName(), request.getKey());
+    }
+
+    @Override
+    public boolean doesObjectExist(String bucket, String key)
+    {
+        return Files.exists(path(bucket, key));
+    }
+
+    @Override
+    public void deleteObject(String bucket, String key)
+    {
+        try {
+            Files.deleteIfExists(path(bucket, key));
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @return The total number of bytes written since this instance was created.
+     */
+    public long getBytesWritten()
+    {
+        return bytesWritten.get();
+    }
+
+    /**
+     * @return The total number of bytes read since this instance was created.
+     */
+    public long getBytesRead()
+    {
+        return bytesRead.get();
+    }
+
+    /**
+     * Deletes all stored objects, leaving the root directory and the buckets in place.
+     */
+    public void clear()
+    {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .filter(next -> !next.equals(root) && !next.getParent().equals(root))
+                    .forEach(next -> {
+                        try {
+                            Files.delete(next);
+                        }
+                        catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    });
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Path path(String bucket, String key)
+    {
+        return root.resolve(bucket).resolve(key.startsWith("/") ? key.substring(1) : key);
+    }
+}
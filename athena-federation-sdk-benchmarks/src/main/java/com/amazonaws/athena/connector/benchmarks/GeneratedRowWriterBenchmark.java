@@ -0,0 +1,204 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.writers.GeneratedRowWriter;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.BigIntExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.BitExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.DateDayExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.DateMilliExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.DecimalExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.Extractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.Float8Extractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.IntExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.VarCharExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.holders.NullableDecimalHolder;
+import com.amazonaws.athena.connector.lambda.data.writers.holders.NullableVarCharHolder;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import org.apache.arrow.vector.holders.NullableBigIntHolder;
+import org.apache.arrow.vector.holders.NullableBitHolder;
+import org.apache.arrow.vector.holders.NullableDateDayHolder;
+import org.apache.arrow.vector.holders.NullableDateMilliHolder;
+import org.apache.arrow.vector.holders.NullableFloat8Holder;
+import org.apache.arrow.vector.holders.NullableIntHolder;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures GeneratedRowWriter.writeRow(...) for the flat benchmark schemas, optionally with a constraint on the id
+ * column which every row passes. One operation is one row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GeneratedRowWriterBenchmark
+{
+    private static final int ROWS = 4096;
+
+    @Param({"NARROW_PRIMITIVE", "WIDE_PRIMITIVE", "NARROW_VARCHAR", "WIDE_VARCHAR"})
+    public String schemaName;
+
+    @Param({"false", "true"})
+    public boolean constrained;
+
+    private BlockAllocatorImpl allocator;
+    private Block block;
+    private GeneratedRowWriter rowWriter;
+    private Object[][] rows;
+
+    @Setup
+    public void setup()
+    {
+        Schema schema = BenchmarkSchema.valueOf(schemaName).getSchema();
+        allocator = new BlockAllocatorImpl();
+        block = allocator.createBlock(schema);
+
+        Map<String, ValueSet> summary = new HashMap<>();
+        if (constrained) {
+            summary.put("id", SortedRangeSet.of(false,
+                    Range.greaterThanOrEqual(allocator, Types.MinorType.BIGINT.getType(), 0L)));
+        }
+
+        List<Field> fields = schema.getFields();
+        GeneratedRowWriter.RowWriterBuilder builder = GeneratedRowWriter.newBuilder(new Constraints(summary));
+        for (int i = 0; i < fields.size(); i++) {
+            builder.withExtractor(fields.get(i).getName(), makeExtractor(fields.get(i), i));
+        }
+        rowWriter = builder.build();
+
+        rows = new Object[ROWS][];
+        for (int row = 0; row < ROWS; row++) {
+            rows[row] = new Object[fields.size()];
+            for (int i = 0; i < fields.size(); i++) {
+                rows[row][i] = BenchmarkSchema.value(fields.get(i), row);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+            throws Exception
+    {
+        block.close();
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int writeRow()
+            throws Exception
+    {
+        int matched = 0;
+        for (int row = 0; row < ROWS; row++) {
+            matched += rowWriter.writeRow(block, row, rows[row]) ? 1 : 0;
+        }
+        return matched;
+    }
+
+    /**
+     * Creates an Extractor which reads the column at the given position from an Object[] row.
+     */
+    private static Extractor makeExtractor(Field field, int pos)
+    {
+        switch (Types.getMinorTypeForArrowType(field.getType())) {
+            case INT:
+                return (IntExtractor) (Object context, NullableIntHolder dst) -> {
+                    Object value = ((Object[]) context)[pos];
+                    dst.isSet = value == null ? 0 : 1;
+                    dst.value = value == null ? 0 : (int) value;
+                };
+            case BIGINT:
+                return (BigIntExtractor) (Object context, NullableBigIntHolder dst) -> {
+                    Object value = ((Object[]) context)[pos];
+                    dst.isSet = value == null ? 0 : 1;
+                    dst.value = value == null ? 0 : (long) value;
+                };
+            case FLOAT8:
+                return (Float8Extractor) (Object context, NullableFloat8Holder dst) -> {
+                    Object value = ((Object[]) context)[pos];
+                    dst.isSet = value == null ? 0 : 1;
+                    dst.value = value == null ? 0 : (double) value;
+                };
+            case BIT:
+                return (BitExtractor) (Object context, NullableBitHolder dst) -> {
+                    Object value = ((Object[]) context)[pos];
+                    dst.isSet = value == null ? 0 : 1;
+                    dst.value = value != null && (boolean) value ? 1 : 0;
+                };
+            case DATEDAY:
+                return (DateDayExtractor) (Object context, NullableDateDayHolder dst) -> {
+                    Object value = ((Object[]) context)[pos];
+                    dst.isSet = value == null ? 0 : 1;
+                    dst.value = value == null ? 0 : (int) ((LocalDate) value).toEpochDay();
+                };
+            case DATEMILLI:
+                return (DateMilliExtractor) (Object context, NullableDateMilliHolder dst) -> {
+                    Object value = ((Object[]) context)[pos];
+                    dst.isSet = value == null ? 0 : 1;
+                    dst.value = value == null ? 0 : ((LocalDateTime) value).toInstant(ZoneOffset.UTC).toEpochMilli();
+                };
+            case DECIMAL:
+                return (DecimalExtractor) (Object context, NullableDecimalHolder dst) -> {
+                    Object value = ((Object[]) context)[pos];
+                    dst.isSet = value == null ? 0 : 1;
+                    dst.value = (BigDecimal) value;
+                };
+            case VARCHAR:
+                return (VarCharExtractor) (Object context, NullableVarCharHolder dst) -> {
+                    Object value = ((Object[]) context)[pos];
+                    dst.isSet = value == null ? 0 : 1;
+                    dst.value = (String) value;
+                };
+            default:
+                throw new IllegalArgumentException("Unsupported benchmark type " + field.getType());
+        }
+    }
+}
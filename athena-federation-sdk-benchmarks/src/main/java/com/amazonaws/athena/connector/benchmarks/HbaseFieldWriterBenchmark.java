@@ -0,0 +1,189 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.writers.GeneratedRowWriter;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connectors.hbase.HbaseFieldWriterFactory;
+import com.amazonaws.athena.connectors.hbase.HbaseSchemaUtils;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing HBase Results into a Block for a wide column family, both with the per-split GeneratedRowWriter
+ * built by HbaseFieldWriterFactory and with the per-cell path HbaseRecordHandler used before it (splitting the column
+ * name, copying the value out of the Result, coercing it and offering it to the Block). The constraint, when enabled,
+ * is on the first column of the family and every row passes it. One operation is one row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HbaseFieldWriterBenchmark
+{
+    private static final int ROWS = 4096;
+    private static final int COLUMNS = 32;
+    private static final String ROW_COLUMN = "row";
+    private static final String FAMILY = "family";
+    private static final Types.MinorType[] COLUMN_TYPES = {
+            Types.MinorType.BIGINT,
+            Types.MinorType.INT,
+            Types.MinorType.FLOAT8,
+            Types.MinorType.BIT,
+            Types.MinorType.VARCHAR
+    };
+
+    @Param({"false", "true"})
+    public boolean isNative;
+
+    @Param({"false", "true"})
+    public boolean constrained;
+
+    private BlockAllocatorImpl allocator;
+    private Schema schema;
+    private Block block;
+    private GeneratedRowWriter rowWriter;
+    private Result[] rows;
+
+    @Setup
+    public void setup()
+    {
+        List<Field> fields = new ArrayList<>();
+        fields.add(Field.nullable(ROW_COLUMN, Types.MinorType.VARCHAR.getType()));
+        for (int i = 0; i < COLUMNS; i++) {
+            fields.add(Field.nullable(String.format("%s:c%02d", FAMILY, i),
+                    COLUMN_TYPES[i % COLUMN_TYPES.length].getType()));
+        }
+        schema = new Schema(fields);
+        allocator = new BlockAllocatorImpl();
+        block = allocator.createBlock(schema);
+
+        Map<String, ValueSet> summary = new HashMap<>();
+        if (constrained) {
+            summary.put(fields.get(1).getName(), SortedRangeSet.of(true,
+                    Range.greaterThanOrEqual(allocator, Types.MinorType.BIGINT.getType(), 0L)));
+        }
+        Constraints constraints = new Constraints(summary);
+        rowWriter = HbaseFieldWriterFactory.makeRowWriter(isNative, schema, constraints);
+        block.constrain(new ConstraintEvaluator(allocator, schema, constraints));
+
+        rows = new Result[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            byte[] rowKey = Bytes.toBytes("row-" + row);
+            List<Cell> cells = new ArrayList<>();
+            for (Field next : fields.subList(1, fields.size())) {
+                //HBase has no nulls, a null value is a missing cell.
+                Object value = BenchmarkSchema.value(next, row);
+                if (value != null) {
+                    String[] columnParts = HbaseSchemaUtils.extractColumnParts(next.getName());
+                    cells.add(new KeyValue(rowKey, Bytes.toBytes(columnParts[0]), Bytes.toBytes(columnParts[1]),
+                            HbaseSchemaUtils.toBytes(isNative, value)));
+                }
+            }
+            Collections.sort(cells, KeyValue.COMPARATOR);
+            rows[row] = Result.create(cells);
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+            throws Exception
+    {
+        block.close();
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int writeRow()
+            throws Exception
+    {
+        int matched = 0;
+        for (int row = 0; row < ROWS; row++) {
+            matched += rowWriter.writeRow(block, row, rows[row]) ? 1 : 0;
+        }
+        return matched;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int writeFieldByField()
+    {
+        int matched = 0;
+        for (int row = 0; row < ROWS; row++) {
+            boolean match = true;
+            for (Field next : schema.getFields()) {
+                if (match) {
+                    match &= writeField(block, next, rows[row], row);
+                }
+            }
+            matched += match ? 1 : 0;
+        }
+        return matched;
+    }
+
+    /**
+     * The per-cell write HbaseRecordHandler made for every field of every row before HbaseFieldWriterFactory.
+     */
+    private boolean writeField(Block block, Field field, Result row, int rowNum)
+    {
+        String fieldName = field.getName();
+        if (ROW_COLUMN.equals(fieldName)) {
+            return block.offerValue(fieldName, rowNum, Bytes.toString(row.getRow()));
+        }
+        String[] columnParts = HbaseSchemaUtils.extractColumnParts(fieldName);
+        byte[] rawValue = row.getValue(columnParts[0].getBytes(), columnParts[1].getBytes());
+        Object value = HbaseSchemaUtils.coerceType(isNative, field.getType(), rawValue);
+        return block.offerValue(fieldName, rowNum, value);
+    }
+}
@@ -0,0 +1,128 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.google.common.io.ByteStreams;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A minimal, thread safe, in-memory stand-in for AmazonS3 which supports the calls made when spilling and reading
+ * spilled Blocks. This keeps network latency and S3 throttling out of the measurements so that the benchmarks measure
+ * only the SDK's own serialization, encryption and copying.
+ */
+public class InMemoryAmazonS3
+        extends AbstractAmazonS3
+{
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    @Override
+    public PutObjectResult putObject(PutObjectRequest request)
+    {
+        try (InputStream in = (request.getInputStream() != null) ? request.getInputStream() : new FileInputStream(request.getFile())) {
+            byte[] bytes = ByteStreams.toByteArray(in);
+            objects.put(path(request.getBucketName(), request.getKey()), bytes);
+            bytesWritten.addAndGet(bytes.length);
+            return new PutObjectResult();
+        }
+        catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @Override
+    public PutObjectResult putObject(String bucket, String key, InputStream input, ObjectMetadata metadata)
+    {
+        return putObject(new PutObjectRequest(bucket, key, input, metadata));
+    }
+
+    @Override
+    public S3Object getObject(String bucket, String key)
+    {
+        byte[] bytes = objects.get(path(bucket, key));
+        if (bytes == null) {
+            AmazonS3Exception ex = new AmazonS3Exception("The specified key does not exist.");
+            ex.setStatusCode(404);
+            ex.setErrorCode("NoSuchKey");
+            throw ex;
+        }
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(bytes.length);
+        S3Object object = new S3Object();
+        object.setBucketName(bucket);
+        object.setKey(key);
+        object.setObjectMetadata(metadata);
+        object.setObjectContent(new ByteArrayInputStream(bytes));
+        return object;
+    }
+
+    @Override
+    public S3Object getObject(GetObjectRequest request)
+    {
+        return getObject(request.getBucketName(), request.getKey());
+    }
+
+    @Override
+    public boolean doesObjectExist(String bucket, String key)
+    {
+        return objects.containsKey(path(bucket, key));
+    }
+
+    @Override
+    public void deleteObject(String bucket, String key)
+    {
+        objects.remove(path(bucket, key));
+    }
+
+    /**
+     * @return The total number of bytes written since this instance was created.
+     */
+    public long getBytesWritten()
+    {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Removes all stored objects, which benchmarks should do between iterations to bound their memory use.
+     */
+    public void clear()
+    {
+        objects.clear();
+    }
+
+    private static String path(String bucket, String key)
+    {
+        return bucket + "/" + key;
+    }
+}
@@ -0,0 +1,143 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.FieldResolver;
+import com.amazonaws.athena.connector.lambda.data.S3BlockSpiller;
+import com.amazonaws.athena.connector.lambda.data.SpillConfig;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures S3BlockSpiller.writeRows(...) end to end, one row per call as connectors do, including spilling (and
+ * optionally encrypting) full blocks to an in-memory AmazonS3. One operation is one row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class S3BlockSpillerBenchmark
+{
+    private static final int ROWS = 16_384;
+    private static final long MAX_BLOCK_BYTES = 1024 * 1024;
+
+    @Param({"NARROW_PRIMITIVE", "WIDE_PRIMITIVE", "NARROW_VARCHAR", "WIDE_VARCHAR", "COMPLEX"})
+    public String schemaName;
+
+    @Param({"false", "true"})
+    public boolean encrypted;
+
+    private final InMemoryAmazonS3 amazonS3 = new InMemoryAmazonS3();
+    private Schema schema;
+    private List<Field> fields;
+    private Object[][] rows;
+    private SpillConfig spillConfig;
+
+    @Setup
+    public void setup()
+    {
+        schema = BenchmarkSchema.valueOf(schemaName).getSchema();
+        fields = schema.getFields();
+        rows = new Object[ROWS][];
+        for (int row = 0; row < ROWS; row++) {
+            rows[row] = new Object[fields.size()];
+            for (int i = 0; i < fields.size(); i++) {
+                rows[row][i] = BenchmarkSchema.value(fields.get(i), row);
+            }
+        }
+
+        spillConfig = SpillConfig.newBuilder()
+                .withEncryptionKey(encrypted ? new LocalKeyFactory().create() : null)
+                .withRequestId("benchmark")
+                .withSpillLocation(S3SpillLocation.newBuilder()
+                        .withBucket("benchmark-bucket")
+                        .withPrefix("spill")
+                        .withQueryId("query")
+                        .withSplitId("split")
+                        .withIsDirectory(true)
+                        .build())
+                .withNumSpillThreads(0)
+                .withMaxBlockBytes(MAX_BLOCK_BYTES)
+                .withMaxInlineBlockBytes(0)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        amazonS3.clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int writeRows()
+            throws Exception
+    {
+        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl()) {
+            S3BlockSpiller spiller = new S3BlockSpiller(amazonS3, spillConfig, allocator, schema,
+                    ConstraintEvaluator.emptyEvaluator());
+            try {
+                for (Object[] row : rows) {
+                    spiller.writeRows((block, rowNum) -> {
+                        for (int i = 0; i < row.length; i++) {
+                            Field field = fields.get(i);
+                            if (field.getChildren().isEmpty()) {
+                                block.setValue(field.getName(), rowNum, row[i]);
+                            }
+                            else {
+                                BlockUtils.setComplexValue(block.getFieldVector(field.getName()), rowNum,
+                                        FieldResolver.DEFAULT, row[i]);
+                            }
+                        }
+                        return 1;
+                    });
+                }
+                return spiller.spilled() ? spiller.getSpillLocations().size() : 0;
+            }
+            finally {
+                spiller.close();
+                amazonS3.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.request.FederationResponse;
+import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.amazonaws.athena.connector.lambda.serde.v4.FramedSerDeV4;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serializing and deserializing a ReadRecordsResponse carrying an inline Block, using the ObjectMapper for
+ * SerDe versions 2 and 3 and the framed SerDe for version 4. One operation is one response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerDeBenchmark
+{
+    private static final String CATALOG = "catalog";
+
+    @Param({"NARROW_PRIMITIVE", "WIDE_PRIMITIVE", "NARROW_VARCHAR", "WIDE_VARCHAR", "COMPLEX"})
+    public String schemaName;
+
+    @Param({"2", "3", "4"})
+    public int serDeVersion;
+
+    @Param({"4096"})
+    public int rows;
+
+    private BlockAllocatorImpl allocator;
+    private Block block;
+    private ReadRecordsResponse response;
+    private ObjectMapper mapper;
+    private ObjectReader reader;
+    private byte[] serialized;
+
+    @Setup
+    public void setup()
+            throws IOException
+    {
+        BenchmarkSchema benchmarkSchema = BenchmarkSchema.valueOf(schemaName);
+        allocator = new BlockAllocatorImpl();
+        block = allocator.createBlock(benchmarkSchema.getSchema());
+        benchmarkSchema.fill(block, rows);
+        response = new ReadRecordsResponse(CATALOG, block);
+
+        if (serDeVersion != FramedSerDeV4.SERDE_VERSION) {
+            mapper = VersionedObjectMapperFactory.getCached(serDeVersion);
+            reader = mapper.readerFor(FederationResponse.class)
+                    .withAttribute(VersionedObjectMapperFactory.ALLOCATOR_ATTRIBUTE, allocator);
+        }
+        serialized = serialize().toByteArray();
+    }
+
+    @TearDown
+    public void tearDown()
+            throws Exception
+    {
+        block.close();
+        allocator.close();
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream serialize()
+            throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(serialized == null ? 1024 : serialized.length);
+        if (mapper != null) {
+            mapper.writeValue(out, response);
+        }
+        else {
+            FramedSerDeV4.write(response, out);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public int deserialize()
+            throws Exception
+    {
+        FederationResponse result;
+        if (reader != null) {
+            result = reader.readValue(serialized);
+        }
+        else {
+            result = FramedSerDeV4.read(FederationResponse.class, new ByteArrayInputStream(serialized), allocator);
+        }
+        try (ReadRecordsResponse records = (ReadRecordsResponse) result) {
+            return records.getRecordCount();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Collects the latency and heap allocation of each call made in one stage of a harness run, for example every
+ * ReadRecordsRequest, and summarizes them as percentiles and rates. Allocation is measured for the calling thread
+ * only, work handed off to other threads (such as S3BlockSpiller's async spill threads) is not included.
+ */
+public class StageStats
+{
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+    private final String name;
+    private long[] latencies = new long[64];
+    private int count;
+    private long totalLatencyNanos;
+    private long totalAllocatedBytes;
+
+    public StageStats(String name)
+    {
+        this.name = name;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Runs the call on the current thread and records its latency and the bytes it allocated, calls which throw are
+     * not recorded.
+     *
+     * @param call The call to measure.
+     * @return The result of the call.
+     */
+    public <T> T measure(Callable<T> call)
+            throws Exception
+    {
+        long startAllocated = allocatedBytes();
+        long start = System.nanoTime();
+        T result = call.call();
+        long latency = System.nanoTime() - start;
+        long allocated = allocatedBytes() - startAllocated;
+        record(latency, allocated);
+        return result;
+    }
+
+    /**
+     * Records a single call.
+     *
+     * @param latencyNanos The latency of the call.
+     * @param allocatedBytes The bytes allocated by the call, or a negative value if unknown.
+     */
+    public synchronized void record(long latencyNanos, long allocatedBytes)
+    {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        totalLatencyNanos += latencyNanos;
+        totalAllocatedBytes += Math.max(allocatedBytes, 0);
+    }
+
+    public synchronized int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 100.
+     * @return The latency at the given percentile in milliseconds, using the nearest rank method.
+     */
+    public synchronized double getLatencyMillis(double percentile)
+    {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100D * count);
+        return sorted[Math.max(rank, 1) - 1] / 1_000_000D;
+    }
+
+    /**
+     * @return The bytes allocated per second spent in this stage, in MB/s.
+     */
+    public synchronized double getAllocationRateMBPerSecond()
+    {
+        if (totalLatencyNanos == 0) {
+            return 0;
+        }
+        return (totalAllocatedBytes / (1024D * 1024D)) / (totalLatencyNanos / 1_000_000_000D);
+    }
+
+    /**
+     * @return The mean bytes allocated per call, in KB.
+     */
+    public synchronized double getAllocatedKBPerCall()
+    {
+        return (count == 0) ? 0 : totalAllocatedBytes / 1024D / count;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%-16s %8d %10.2f %10.2f %10.2f %10.2f %12.1f %14.1f",
+                name,
+                getCount(),
+                getLatencyMillis(50),
+                getLatencyMillis(90),
+                getLatencyMillis(99),
+                getLatencyMillis(100),
+                getAllocationRateMBPerSecond(),
+                getAllocatedKBPerCall());
+    }
+
+    /**
+     * @return A header line for the columns of toString().
+     */
+    public static String header()
+    {
+        return String.format("%-16s %8s %10s %10s %10s %10s %12s %14s",
+                "stage", "calls", "p50 ms", "p90 ms", "p99 ms", "max ms", "alloc MB/s", "alloc KB/call");
+    }
+
+    private static long allocatedBytes()
+    {
+        return (THREAD_MX_BEAN == null) ? 0 : THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean()
+    {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+        return bean;
+    }
+}
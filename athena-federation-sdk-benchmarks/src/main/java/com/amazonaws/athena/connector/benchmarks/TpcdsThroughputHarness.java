@@ -0,0 +1,557 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.S3BlockSpillReader;
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
+import com.amazonaws.athena.connector.lambda.handlers.CompositeHandler;
+import com.amazonaws.athena.connector.lambda.handlers.SerDeVersion;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutResponse;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableResponse;
+import com.amazonaws.athena.connector.lambda.metadata.ListSchemasRequest;
+import com.amazonaws.athena.connector.lambda.metadata.ListSchemasResponse;
+import com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest;
+import com.amazonaws.athena.connector.lambda.metadata.ListTablesResponse;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.records.RecordResponse;
+import com.amazonaws.athena.connector.lambda.records.RemoteReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.request.FederationRequest;
+import com.amazonaws.athena.connector.lambda.request.FederationResponse;
+import com.amazonaws.athena.connector.lambda.request.PingRequest;
+import com.amazonaws.athena.connector.lambda.request.PingResponse;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
+import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.amazonaws.athena.connector.lambda.serde.v4.FramedSerDeV4;
+import com.amazonaws.athena.connectors.tpcds.TPCDSMetadataHandler;
+import com.amazonaws.athena.connectors.tpcds.TPCDSRecordHandler;
+import com.amazonaws.services.athena.AbstractAmazonAthena;
+import com.amazonaws.services.athena.model.GetQueryExecutionRequest;
+import com.amazonaws.services.athena.model.GetQueryExecutionResult;
+import com.amazonaws.services.athena.model.QueryExecution;
+import com.amazonaws.services.athena.model.QueryExecutionState;
+import com.amazonaws.services.athena.model.QueryExecutionStatus;
+import com.amazonaws.services.secretsmanager.AbstractAWSSecretsManager;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest.UNLIMITED_PAGE_SIZE_VALUE;
+
+/**
+ * Runs the full sequence of requests Athena makes to a connector (Ping, ListSchemas, ListTables, GetTable,
+ * GetTableLayout, GetSplits and a ReadRecords per split) in-process against the TPC-DS connector's CompositeHandler,
+ * then reads back any spilled Blocks the way Athena would. Every request is serialized in the SerDe version under test
+ * and handed to the CompositeHandler's Lambda entry point, which picks the SerDe version of its response from the
+ * request just as it does when invoked by Athena. For SerDe version 4 this means the PingRequest is sent framed and the
+ * run fails unless the handler's PingResponse advertises version 4. Spilled Blocks are written to a bucket in a
+ * FileSystemAmazonS3 rather than S3, which the MetadataHandler also uses to check that the spill bucket exists.
+ * <p>
+ * Each run is repeated for every combination of the SerDe versions, reader thread counts, spill thresholds and
+ * encryption settings provided, and reports scan throughput in rows/sec and bytes/sec along with the latency
+ * percentiles and allocation rate of each stage. See the module's README.md for usage.
+ */
+public class TpcdsThroughputHarness
+{
+    private static final Logger logger = LoggerFactory.getLogger(TpcdsThroughputHarness.class);
+
+    private static final String CATALOG = "tpcds";
+    private static final String SPILL_BUCKET = "athena-harness-spill";
+    private static final String SPILL_PREFIX = "athena-spill";
+    private static final FederatedIdentity IDENTITY = new FederatedIdentity("HARNESS_ARN",
+            "HARNESS_ACCOUNT",
+            Collections.emptyMap(),
+            Collections.emptyList());
+
+    private static final String PING = "Ping";
+    private static final String LIST_SCHEMAS = "ListSchemas";
+    private static final String LIST_TABLES = "ListTables";
+    private static final String GET_TABLE = "GetTable";
+    private static final String GET_TABLE_LAYOUT = "GetTableLayout";
+    private static final String GET_SPLITS = "GetSplits";
+    private static final String READ_RECORDS = "ReadRecords";
+    private static final String READ_SPILLED = "ReadSpilled";
+
+    private final HarnessConfig harnessConfig;
+    private final RunConfig runConfig;
+    private final FileSystemAmazonS3 amazonS3;
+    private final CompositeHandler compositeHandler;
+    private final Map<String, StageStats> stages = new LinkedHashMap<>();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong inlineBytes = new AtomicLong();
+
+    private TpcdsThroughputHarness(HarnessConfig harnessConfig, RunConfig runConfig, FileSystemAmazonS3 amazonS3)
+    {
+        this.harnessConfig = harnessConfig;
+        this.runConfig = runConfig;
+        this.amazonS3 = amazonS3;
+
+        RunningQueryAthena athena = new RunningQueryAthena();
+        AbstractAWSSecretsManager secretsManager = new AbstractAWSSecretsManager() {};
+        TPCDSMetadataHandler metadataHandler = new TPCDSMetadataHandler(runConfig.encryption ? new LocalKeyFactory() : null,
+                secretsManager,
+                athena,
+                amazonS3,
+                SPILL_BUCKET,
+                SPILL_PREFIX) {};
+        TPCDSRecordHandler recordHandler = new TPCDSRecordHandler(amazonS3, secretsManager, athena) {};
+        this.compositeHandler = new CompositeHandler(metadataHandler, recordHandler);
+
+        for (String next : Arrays.asList(PING, LIST_SCHEMAS, LIST_TABLES, GET_TABLE, GET_TABLE_LAYOUT, GET_SPLITS, READ_RECORDS, READ_SPILLED)) {
+            stages.put(next, new StageStats(next));
+        }
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        HarnessConfig harnessConfig = HarnessConfig.fromArgs(args);
+        if (harnessConfig == null) {
+            return;
+        }
+
+        FileSystemAmazonS3 amazonS3 = new FileSystemAmazonS3(harnessConfig.spillDirectory);
+        amazonS3.createBucket(SPILL_BUCKET);
+        List<String> reports = new ArrayList<>();
+        for (RunConfig next : harnessConfig.getRunConfigs()) {
+            for (int i = 0; i < harnessConfig.warmupRuns; i++) {
+                logger.info("Warmup run {} of {} for {}", i + 1, harnessConfig.warmupRuns, next);
+                new TpcdsThroughputHarness(harnessConfig, next, amazonS3).run();
+            }
+            for (int i = 0; i < harnessConfig.measuredRuns; i++) {
+                String report = new TpcdsThroughputHarness(harnessConfig, next, amazonS3).run();
+                logger.info("Run {} of {} for {}\n{}", i + 1, harnessConfig.measuredRuns, next, report);
+                reports.add(next + "\n" + report);
+            }
+        }
+        logger.info("Summary\n\n{}", String.join("\n\n", reports));
+    }
+
+    /**
+     * Plans and reads every split of the configured tables and deletes any spilled Blocks afterwards.
+     *
+     * @return A report of the run's throughput and per stage statistics.
+     */
+    private String run()
+            throws Exception
+    {
+        long spilledBytesBefore = amazonS3.getBytesWritten();
+        List<SplitRead> reads = new ArrayList<>();
+        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl()) {
+            String queryId = UUID.randomUUID().toString();
+            try (PingResponse ping = invoke(PING, allocator, new PingRequest(IDENTITY, CATALOG, queryId))) {
+                if (ping.getSerDeVersion() != runConfig.serDeVersion) {
+                    throw new IllegalStateException("Sent a SerDe version " + runConfig.serDeVersion + " PingRequest but "
+                            + ping.getSourceType() + " answered with SerDe version " + ping.getSerDeVersion());
+                }
+            }
+
+            try (ListSchemasResponse schemas = invoke(LIST_SCHEMAS, allocator, new ListSchemasRequest(IDENTITY, queryId, CATALOG))) {
+                if (!schemas.getSchemas().contains(harnessConfig.schema)) {
+                    throw new IllegalArgumentException("Unknown schema " + harnessConfig.schema + ", expected one of " + schemas.getSchemas());
+                }
+            }
+
+            List<TableName> tables;
+            try (ListTablesResponse response = invoke(LIST_TABLES, allocator,
+                    new ListTablesRequest(IDENTITY, queryId, CATALOG, harnessConfig.schema, null, UNLIMITED_PAGE_SIZE_VALUE))) {
+                tables = response.getTables().stream()
+                        .filter(next -> harnessConfig.tables.isEmpty() || harnessConfig.tables.contains(next.getTableName()))
+                        .collect(Collectors.toList());
+            }
+            if (tables.isEmpty()) {
+                throw new IllegalArgumentException("None of the tables " + harnessConfig.tables + " exist in " + harnessConfig.schema);
+            }
+
+            for (TableName table : tables) {
+                reads.addAll(planTable(allocator, queryId, table));
+            }
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(runConfig.threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (SplitRead next : reads) {
+                futures.add(executor.submit(() -> {
+                    readSplit(next);
+                    return null;
+                }));
+            }
+            for (Future<?> next : futures) {
+                next.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        long readNanos = System.nanoTime() - start;
+        long spilledBytes = amazonS3.getBytesWritten() - spilledBytesBefore;
+        amazonS3.clear();
+
+        double seconds = readNanos / 1_000_000_000D;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("read %d splits, %d rows, %.1f MB inline and %.1f MB spilled in %.2f s: %.0f rows/s, %.1f MB/s%n",
+                reads.size(),
+                rows.get(),
+                inlineBytes.get() / (1024D * 1024D),
+                spilledBytes / (1024D * 1024D),
+                seconds,
+                rows.get() / seconds,
+                (inlineBytes.get() + spilledBytes) / (1024D * 1024D) / seconds));
+        report.append(StageStats.header());
+        for (StageStats next : stages.values()) {
+            report.append(System.lineSeparator()).append(next);
+        }
+        return report.toString();
+    }
+
+    /**
+     * Gets the table's schema, layout and all of its splits.
+     */
+    private List<SplitRead> planTable(BlockAllocator allocator, String queryId, TableName table)
+            throws Exception
+    {
+        Constraints constraints = new Constraints(Collections.emptyMap());
+        List<SplitRead> reads = new ArrayList<>();
+        try (GetTableResponse tableResponse = invoke(GET_TABLE, allocator, new GetTableRequest(IDENTITY, queryId, CATALOG, table))) {
+            Schema schema = tableResponse.getSchema();
+            try (GetTableLayoutResponse layout = invoke(GET_TABLE_LAYOUT, allocator,
+                    new GetTableLayoutRequest(IDENTITY, queryId, CATALOG, table, constraints, schema, tableResponse.getPartitionColumns()))) {
+                String continuationToken = null;
+                do {
+                    try (GetSplitsResponse splits = invoke(GET_SPLITS, allocator, new GetSplitsRequest(IDENTITY,
+                            queryId,
+                            CATALOG,
+                            table,
+                            layout.getPartitions(),
+                            new ArrayList<>(tableResponse.getPartitionColumns()),
+                            constraints,
+                            continuationToken))) {
+                        for (Split next : splits.getSplits()) {
+                            reads.add(new SplitRead(queryId, table, schema, next));
+                        }
+                        continuationToken = splits.getContinuationToken();
+                    }
+                }
+                while (continuationToken != null);
+            }
+        }
+        return reads;
+    }
+
+    /**
+     * Reads a split and then any Blocks it spilled.
+     */
+    private void readSplit(SplitRead read)
+            throws Exception
+    {
+        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl()) {
+            ReadRecordsRequest request = new ReadRecordsRequest(IDENTITY,
+                    read.queryId,
+                    CATALOG,
+                    read.table,
+                    read.schema,
+                    read.split,
+                    new Constraints(Collections.emptyMap()),
+                    runConfig.maxBlockBytes,
+                    runConfig.maxInlineBlockBytes);
+
+            try (RecordResponse response = invoke(READ_RECORDS, allocator, request)) {
+                if (response instanceof ReadRecordsResponse) {
+                    rows.addAndGet(((ReadRecordsResponse) response).getRecordCount());
+                    return;
+                }
+
+                RemoteReadRecordsResponse remoteResponse = (RemoteReadRecordsResponse) response;
+                S3BlockSpillReader reader = new S3BlockSpillReader(amazonS3, allocator);
+                StageStats readSpilled = stages.get(READ_SPILLED);
+                for (SpillLocation next : remoteResponse.getRemoteBlocks()) {
+                    try (Block block = readSpilled.measure(() ->
+                            reader.read((S3SpillLocation) next, remoteResponse.getEncryptionKey(), remoteResponse.getSchema()))) {
+                        rows.addAndGet(block.getRowCount());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the request to the CompositeHandler as Athena would, by serializing it and passing it to the handler's Lambda
+     * entry point, then deserializes the response. The time and allocations of all of this are recorded against the
+     * stage.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends FederationResponse> T invoke(String stage, BlockAllocator allocator, FederationRequest request)
+            throws Exception
+    {
+        return (T) stages.get(stage).measure(() -> {
+            ByteArrayOutputStream requestBytes = new ByteArrayOutputStream();
+            write(request, requestBytes);
+
+            ByteArrayOutputStream responseBytes = new ByteArrayOutputStream();
+            compositeHandler.handleRequest(new ByteArrayInputStream(requestBytes.toByteArray()), responseBytes, null);
+
+            if (READ_RECORDS.equals(stage)) {
+                inlineBytes.addAndGet(responseBytes.size());
+            }
+            return read(FederationResponse.class, responseBytes.toByteArray(), allocator);
+        });
+    }
+
+    private void write(Object value, OutputStream out)
+            throws IOException
+    {
+        if (runConfig.serDeVersion == FramedSerDeV4.SERDE_VERSION) {
+            FramedSerDeV4.write(value, out);
+        }
+        else {
+            VersionedObjectMapperFactory.getCached(runConfig.serDeVersion).writeValue(out, value);
+        }
+    }
+
+    private <T> T read(Class<T> type, byte[] bytes, BlockAllocator allocator)
+            throws IOException
+    {
+        if (runConfig.serDeVersion == FramedSerDeV4.SERDE_VERSION) {
+            return FramedSerDeV4.read(type, new ByteArrayInputStream(bytes), allocator);
+        }
+        return VersionedObjectMapperFactory.getCached(runConfig.serDeVersion)
+                .readerFor(type)
+                .withAttribute(VersionedObjectMapperFactory.ALLOCATOR_ATTRIBUTE, allocator)
+                .readValue(bytes);
+    }
+
+    /**
+     * Reports every query as running, so the QueryStatusChecker never ends a read early.
+     */
+    private static class RunningQueryAthena
+            extends AbstractAmazonAthena
+    {
+        @Override
+        public GetQueryExecutionResult getQueryExecution(GetQueryExecutionRequest request)
+        {
+            return new GetQueryExecutionResult().withQueryExecution(new QueryExecution()
+                    .withQueryExecutionId(request.getQueryExecutionId())
+                    .withStatus(new QueryExecutionStatus().withState(QueryExecutionState.RUNNING)));
+        }
+    }
+
+    private static class SplitRead
+    {
+        private final String queryId;
+        private final TableName table;
+        private final Schema schema;
+        private final Split split;
+
+        SplitRead(String queryId, TableName table, Schema schema, Split split)
+        {
+            this.queryId = queryId;
+            this.table = table;
+            this.schema = schema;
+            this.split = split;
+        }
+    }
+
+    /**
+     * One combination of the settings being varied.
+     */
+    private static class RunConfig
+    {
+        private final int serDeVersion;
+        private final int threads;
+        private final long maxBlockBytes;
+        private final long maxInlineBlockBytes;
+        private final boolean encryption;
+
+        RunConfig(int serDeVersion, int threads, long maxBlockBytes, long maxInlineBlockBytes, boolean encryption)
+        {
+            this.serDeVersion = serDeVersion;
+            this.threads = threads;
+            this.maxBlockBytes = maxBlockBytes;
+            this.maxInlineBlockBytes = maxInlineBlockBytes;
+            this.encryption = encryption;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "serDeVersion=" + serDeVersion +
+                    ", threads=" + threads +
+                    ", maxBlockBytes=" + maxBlockBytes +
+                    ", maxInlineBlockBytes=" + maxInlineBlockBytes +
+                    ", encryption=" + encryption;
+        }
+    }
+
+    private static class HarnessConfig
+    {
+        private static final String SCHEMA_ARG = "schema";
+        private static final String TABLES_ARG = "tables";
+        private static final String SERDE_VERSIONS_ARG = "serde-versions";
+        private static final String THREADS_ARG = "threads";
+        private static final String MAX_BLOCK_BYTES_ARG = "max-block-bytes";
+        private static final String MAX_INLINE_BLOCK_BYTES_ARG = "max-inline-block-bytes";
+        private static final String ENCRYPTION_ARG = "encryption";
+        private static final String SPILL_DIRECTORY_ARG = "spill-dir";
+        private static final String WARMUP_RUNS_ARG = "warmup-runs";
+        private static final String RUNS_ARG = "runs";
+        private static final String HELP_ARG = "help";
+
+        private final String schema;
+        private final List<String> tables;
+        private final List<Integer> serDeVersions;
+        private final List<Integer> threads;
+        private final List<Long> maxBlockBytes;
+        private final List<Long> maxInlineBlockBytes;
+        private final List<Boolean> encryption;
+        private final Path spillDirectory;
+        private final int warmupRuns;
+        private final int measuredRuns;
+
+        private HarnessConfig(CommandLine args)
+                throws IOException
+        {
+            schema = args.getOptionValue(SCHEMA_ARG, "tpcds1");
+            tables = parseList(args.getOptionValue(TABLES_ARG, "customer,item,store_returns"), Function.identity());
+            serDeVersions = parseList(args.getOptionValue(SERDE_VERSIONS_ARG, "2,4"), Integer::parseInt);
+            for (int next : serDeVersions) {
+                if (next != SerDeVersion.SERDE_VERSION && next != FramedSerDeV4.SERDE_VERSION) {
+                    throw new IllegalArgumentException("Unsupported SerDe version " + next + ", handlers answer in SerDe version "
+                            + SerDeVersion.SERDE_VERSION + " or " + FramedSerDeV4.SERDE_VERSION);
+                }
+            }
+            threads = parseList(args.getOptionValue(THREADS_ARG, "1,4"), Integer::parseInt);
+            maxBlockBytes = parseList(args.getOptionValue(MAX_BLOCK_BYTES_ARG, "16000000"), Long::parseLong);
+            maxInlineBlockBytes = parseList(args.getOptionValue(MAX_INLINE_BLOCK_BYTES_ARG, "5242880"), Long::parseLong);
+            encryption = parseList(args.getOptionValue(ENCRYPTION_ARG, "true"), Boolean::parseBoolean);
+            spillDirectory = args.hasOption(SPILL_DIRECTORY_ARG) ?
+                    Paths.get(args.getOptionValue(SPILL_DIRECTORY_ARG)) : Files.createTempDirectory("athena-harness-spill");
+            warmupRuns = Integer.parseInt(args.getOptionValue(WARMUP_RUNS_ARG, "1"));
+            measuredRuns = Integer.parseInt(args.getOptionValue(RUNS_ARG, "1"));
+        }
+
+        /**
+         * @return The parsed config, or null if usage information was printed instead.
+         */
+        static HarnessConfig fromArgs(String[] args)
+                throws IOException
+        {
+            Options options = new Options();
+            options.addOption("s", SCHEMA_ARG, true,
+                    "The TPC-DS schema to read, which sets the scale factor. Defaults to tpcds1.");
+            options.addOption("t", TABLES_ARG, true,
+                    "Comma separated list of tables to read. Defaults to customer,item,store_returns.");
+            options.addOption("v", SERDE_VERSIONS_ARG, true,
+                    "Comma separated list of SerDe versions to run with, 2 (JSON) or 4 (framed). Defaults to 2,4.");
+            options.addOption("n", THREADS_ARG, true,
+                    "Comma separated list of the number of splits to read concurrently. Defaults to 1,4.");
+            options.addOption("b", MAX_BLOCK_BYTES_ARG, true,
+                    "Comma separated list of max Block sizes, beyond which Blocks are spilled. Defaults to 16000000.");
+            options.addOption("i", MAX_INLINE_BLOCK_BYTES_ARG, true,
+                    "Comma separated list of max inline Block sizes, 0 forces every split to spill. Defaults to 5242880.");
+            options.addOption("e", ENCRYPTION_ARG, true,
+                    "Comma separated list of true/false for whether to encrypt spilled Blocks. Defaults to true.");
+            options.addOption("d", SPILL_DIRECTORY_ARG, true,
+                    "The directory to spill to. Defaults to a new temporary directory.");
+            options.addOption("w", WARMUP_RUNS_ARG, true,
+                    "The number of unreported runs of each combination to make first. Defaults to 1.");
+            options.addOption("r", RUNS_ARG, true,
+                    "The number of reported runs of each combination. Defaults to 1.");
+            options.addOption("h", HELP_ARG, false, "Prints usage information.");
+
+            try {
+                CommandLine parsedArgs = new DefaultParser().parse(options, args);
+                if (!parsedArgs.hasOption(HELP_ARG)) {
+                    return new HarnessConfig(parsedArgs);
+                }
+            }
+            catch (ParseException ex) {
+                System.err.println(ex.getMessage());
+            }
+            new HelpFormatter().printHelp(TpcdsThroughputHarness.class.getName(), options);
+            return null;
+        }
+
+        List<RunConfig> getRunConfigs()
+        {
+            List<RunConfig> configs = new ArrayList<>();
+            for (int nextVersion : serDeVersions) {
+                for (int nextThreads : threads) {
+                    for (long nextMaxBlockBytes : maxBlockBytes) {
+                        for (long nextMaxInlineBlockBytes : maxInlineBlockBytes) {
+                            for (boolean nextEncryption : encryption) {
+                                configs.add(new RunConfig(nextVersion, nextThreads, nextMaxBlockBytes, nextMaxInlineBlockBytes, nextEncryption));
+                            }
+                        }
+                    }
+                }
+            }
+            return configs;
+        }
+
+        private static <T> List<T> parseList(String value, Function<String, T> parser)
+        {
+            return Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(next -> !next.isEmpty())
+                    .map(parser)
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.benchmarks;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.handlers.UserDefinedFunctionHandler;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Measures the per-row cost of a UDF invoked by UserDefinedFunctionHandler, once through the row-by-row path used for
+ * scalar UDFs and once through the batch overload of the same UDF. Each invocation processes a 4096 row request and
+ * allocates its output Block, as the handler does for every request. One operation is one row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UdfBatchBenchmark
+{
+    private static final int ROWS = 4096;
+
+    /**
+     * add(BIGINT, BIGINT) returns BIGINT, upper(VARCHAR) returns VARCHAR.
+     */
+    @Param({"add", "upper"})
+    public String function;
+
+    private BlockAllocatorImpl allocator;
+    private BenchmarkUdfHandler handler;
+    private Block inputRecords;
+    private Schema outputSchema;
+    private Method scalarMethod;
+    private Method batchMethod;
+
+    @Setup
+    public void setup()
+            throws Exception
+    {
+        allocator = new BlockAllocatorImpl();
+        handler = new BenchmarkUdfHandler();
+
+        Schema inputSchema;
+        switch (function) {
+            case "add":
+                inputSchema = new Schema(Arrays.asList(
+                        Field.nullable("a", Types.MinorType.BIGINT.getType()),
+                        Field.nullable("b", Types.MinorType.BIGINT.getType())));
+                outputSchema = new Schema(Collections.singletonList(
+                        Field.nullable("add", Types.MinorType.BIGINT.getType())));
+                scalarMethod = BenchmarkUdfHandler.class.getMethod("add", Long.class, Long.class);
+                batchMethod = BenchmarkUdfHandler.class.getMethod("add", BigIntVector.class, BigIntVector.class,
+                        BigIntVector.class);
+                break;
+            case "upper":
+                inputSchema = new Schema(Collections.singletonList(
+                        Field.nullable("s", Types.MinorType.VARCHAR.getType())));
+                outputSchema = new Schema(Collections.singletonList(
+                        Field.nullable("upper", Types.MinorType.VARCHAR.getType())));
+                scalarMethod = BenchmarkUdfHandler.class.getMethod("upper", String.class);
+                batchMethod = BenchmarkUdfHandler.class.getMethod("upper", VarCharVector.class, VarCharVector.class);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown function " + function);
+        }
+
+        inputRecords = allocator.createBlock(inputSchema);
+        for (FieldVector vector : inputRecords.getFieldVectors()) {
+            for (int row = 0; row < ROWS; row++) {
+                BlockUtils.setValue(vector, row, BenchmarkSchema.value(vector.getField(), row));
+            }
+        }
+        inputRecords.setRowCount(ROWS);
+    }
+
+    @TearDown
+    public void tearDown()
+            throws Exception
+    {
+        inputRecords.close();
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int rowByRow()
+            throws Exception
+    {
+        try (Block outputRecords = handler.rowByRow(allocator, scalarMethod, inputRecords, outputSchema)) {
+            return outputRecords.getRowCount();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int batch()
+            throws Exception
+    {
+        try (Block outputRecords = allocator.createBlock(outputSchema)) {
+            handler.batch(batchMethod, inputRecords, outputRecords);
+            return outputRecords.getRowCount();
+        }
+    }
+
+    /**
+     * Implements each benchmark UDF both as a scalar method and as its batch overload.
+     */
+    public static class BenchmarkUdfHandler
+            extends UserDefinedFunctionHandler
+    {
+        public BenchmarkUdfHandler()
+        {
+            super("benchmarks");
+        }
+
+        public Long add(Long a, Long b)
+        {
+            return (a == null || b == null) ? null : a + b;
+        }
+
+        public void add(BigIntVector a, BigIntVector b, BigIntVector output)
+        {
+            for (int row = 0; row < a.getValueCount(); row++) {
+                if (a.isNull(row) || b.isNull(row)) {
+                    output.setNull(row);
+                }
+                else {
+                    output.setSafe(row, a.get(row) + b.get(row));
+                }
+            }
+        }
+
+        public String upper(String s)
+        {
+            return s == null ? null : s.toUpperCase(Locale.ROOT);
+        }
+
+        public void upper(VarCharVector s, VarCharVector output)
+        {
+            for (int row = 0; row < s.getValueCount(); row++) {
+                if (s.isNull(row)) {
+                    output.setNull(row);
+                }
+                else {
+                    output.setSafe(row, new String(s.get(row), UTF_8).toUpperCase(Locale.ROOT).getBytes(UTF_8));
+                }
+            }
+        }
+
+        Block rowByRow(BlockAllocator allocator, Method udfMethod, Block inputRecords, Schema outputSchema)
+                throws Exception
+        {
+            return processRows(allocator, udfMethod, inputRecords, outputSchema);
+        }
+
+        void batch(Method batchMethod, Block inputRecords, Block outputRecords)
+                throws Exception
+        {
+            processBatch(batchMethod, inputRecords, outputRecords);
+        }
+    }
+}
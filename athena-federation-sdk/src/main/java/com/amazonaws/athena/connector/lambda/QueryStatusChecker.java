@@ -20,47 +20,35 @@
 package com.amazonaws.athena.connector.lambda;
 
 import com.amazonaws.services.athena.AmazonAthena;
-import com.amazonaws.services.athena.model.GetQueryExecutionRequest;
-import com.amazonaws.services.athena.model.GetQueryExecutionResult;
-import com.amazonaws.services.athena.model.InvalidRequestException;
-import com.google.common.collect.ImmutableSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
-
-import static java.lang.String.format;
-
 /**
  * This class provides a mechanism for callers to terminate in-progress work if the upstream Athena query waiting for that work has
  * already terminated.  Callers using the SDK as-is should only need to call #isQueryRunning, as #startQueryStatusChecker
  * should have already been called by {@link com.amazonaws.athena.connector.lambda.handlers.MetadataHandler} or
  * {@link com.amazonaws.athena.connector.lambda.handlers.RecordHandler}.
+ * <p>
+ * The status of the query is polled by a process-wide registry, rather than a thread per checker, so that concurrent
+ * checkers for the same query share a single poll schedule and all see the query terminate at the same time.
  */
 public class QueryStatusChecker
         implements AutoCloseable
 {
     private static final Logger logger = LoggerFactory.getLogger(QueryStatusChecker.class);
 
-    // progressively longer delays at which to poll
-    private static final int[] FIBONACCI = new int[] { 1, 1, 2, 3, 5, 8, 13, 21, 34, 55};
-    // Athena terminal states
-    private static final Set<String> TERMINAL_STATES = ImmutableSet.of("SUCCEEDED", "FAILED", "CANCELLED");
-
-    private boolean wasStarted = false;
-    private final AtomicBoolean isRunning = new AtomicBoolean(true);
     private final AmazonAthena athena;
     private final ThrottlingInvoker athenaInvoker;
     private final String queryId;
-    private final Thread checkerThread;
+    //Guarded by this.
+    private QueryStatusRegistry.QueryStatus status;
+    private boolean closed = false;
 
     public QueryStatusChecker(AmazonAthena athena, ThrottlingInvoker athenaInvoker, String queryId)
     {
         this.athena = athena;
         this.athenaInvoker = athenaInvoker;
         this.queryId = queryId;
-        this.checkerThread = new Thread(() -> runQueryStatusChecker(queryId), "QueryStatusCheckerThread-" + queryId);
     }
 
     /**
@@ -68,66 +56,35 @@ public class QueryStatusChecker
      */
     public boolean isQueryRunning()
     {
-        // start the checker thread if it hasn't started already
-        if (!wasStarted) {
-            synchronized (this) {
-                if (!wasStarted) {
-                    checkerThread.start();
-                    wasStarted = true;
-                }
+        QueryStatusRegistry.QueryStatus current;
+        synchronized (this) {
+            // start polling the query's status if we haven't already
+            if (status == null && !closed) {
+                status = QueryStatusRegistry.register(athena, athenaInvoker, queryId);
             }
+            current = status;
         }
-        return isRunning.get();
+        return current == null || current.isRunning();
     }
 
     /**
-     * Stops the status checker thread
+     * Stops polling the query's status on behalf of this checker
      */
     @Override
     public void close()
     {
-        // fine if the thread isn't running
-        checkerThread.interrupt();
-        logger.debug("Interrupt signal sent to status checker thread");
-    }
-
-    private void runQueryStatusChecker(String queryId)
-    {
-        int attempt = 0;
-        while (isRunning.get()) {
-            int delay = FIBONACCI[Math.min(attempt, FIBONACCI.length - 1)];
-            try {
-                Thread.sleep(delay * 1000);
-                checkStatus(queryId, attempt);
-            }
-            catch (InterruptedException e) {
-                logger.debug("Checker thread interrupted. Ceasing status polling");
+        QueryStatusRegistry.QueryStatus current;
+        synchronized (this) {
+            if (closed) {
                 return;
             }
-            attempt++;
+            closed = true;
+            current = status;
         }
-        logger.debug("Query terminated. Ceasing status polling");
-    }
-
-    private void checkStatus(String queryId, int attempt)
-            throws InterruptedException
-    {
-        logger.debug(format("Background thread checking status of Athena query %s, attempt %d", queryId, attempt));
-        try {
-            GetQueryExecutionResult queryExecution = athenaInvoker.invoke(() -> athena.getQueryExecution(new GetQueryExecutionRequest().withQueryExecutionId(queryId)));
-            String state = queryExecution.getQueryExecution().getStatus().getState();
-            if (TERMINAL_STATES.contains(state)) {
-                logger.debug("Query {} has terminated with state {}", queryId, state);
-                isRunning.set(false);
-            }
-        }
-        catch (Exception e) {
-            logger.warn("Exception {} thrown when calling Athena for query status: {}", e.getClass().getSimpleName(), e.getMessage());
-            if (e instanceof InvalidRequestException) {
-                // query does not exist, so no need to keep calling Athena
-                logger.debug("Athena reports query {} not found. Interrupting checker thread", queryId);
-                throw new InterruptedException();
-            }
+        // fine if polling was never started
+        if (current != null) {
+            QueryStatusRegistry.release(current);
+            logger.debug("Released status checker for query {}", queryId);
         }
     }
 }
@@ -0,0 +1,216 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.lambda;
+
+import com.amazonaws.services.athena.AmazonAthena;
+import com.amazonaws.services.athena.model.GetQueryExecutionRequest;
+import com.amazonaws.services.athena.model.GetQueryExecutionResult;
+import com.amazonaws.services.athena.model.InvalidRequestException;
+import com.google.common.collect.ImmutableSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.String.format;
+
+/**
+ * Process-wide registry of the Athena queries that QueryStatusCheckers are waiting on. Every query is polled at most once
+ * per schedule no matter how many checkers (e.g. concurrent splits of the same query) are open for it, and the query's
+ * termination is seen by all of those checkers at once. A query stops being polled when it terminates or when the last
+ * checker for it is closed.
+ * <p>
+ * A single shared scheduler thread only decides when each query is due, the (blocking and possibly throttled) calls to
+ * Athena are made on a small pool of poller threads so that one slow call doesn't hold up the polls of other queries.
+ */
+final class QueryStatusRegistry
+{
+    private static final Logger logger = LoggerFactory.getLogger(QueryStatusRegistry.class);
+
+    // progressively longer delays at which to poll
+    private static final int[] FIBONACCI = new int[] { 1, 1, 2, 3, 5, 8, 13, 21, 34, 55};
+    // Athena terminal states
+    private static final Set<String> TERMINAL_STATES = ImmutableSet.of("SUCCEEDED", "FAILED", "CANCELLED");
+
+    // max number of queries whose status is being fetched from Athena at the same time
+    private static final int MAX_POLLER_THREADS = 4;
+    private static final long POLLER_KEEP_ALIVE_SECONDS = 60;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor((Runnable runnable) -> {
+        Thread thread = new Thread(runnable, "QueryStatusCheckerThread");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService POLLERS = makePollers();
+
+    //Guarded by itself.
+    private static final Map<String, QueryStatus> QUERIES = new HashMap<>();
+
+    private QueryStatusRegistry() {}
+
+    private static ExecutorService makePollers()
+    {
+        ThreadPoolExecutor pollers = new ThreadPoolExecutor(MAX_POLLER_THREADS, MAX_POLLER_THREADS,
+                POLLER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), (Runnable runnable) -> {
+                    Thread thread = new Thread(runnable, "QueryStatusPollerThread");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        //Idle pollers exit so that no threads are held between queries.
+        pollers.allowCoreThreadTimeOut(true);
+        return pollers;
+    }
+
+    /**
+     * Registers interest in the status of the given query, starting to poll it if this is the first registration.
+     *
+     * @param athena The Athena client to poll with if polling isn't already underway.
+     * @param athenaInvoker The ThrottlingInvoker to poll with if polling isn't already underway.
+     * @param queryId The query to poll.
+     * @return The shared status of the query, which must be released once no longer needed.
+     */
+    static QueryStatus register(AmazonAthena athena, ThrottlingInvoker athenaInvoker, String queryId)
+    {
+        synchronized (QUERIES) {
+            QueryStatus status = QUERIES.get(queryId);
+            if (status == null) {
+                status = new QueryStatus(athena, athenaInvoker, queryId);
+                QUERIES.put(queryId, status);
+                status.schedule();
+            }
+            status.references++;
+            return status;
+        }
+    }
+
+    /**
+     * Releases a registration made by register(...), polling of the query stops once all registrations are released.
+     *
+     * @param status The status returned by register(...).
+     */
+    static void release(QueryStatus status)
+    {
+        synchronized (QUERIES) {
+            if (--status.references > 0) {
+                return;
+            }
+            if (QUERIES.get(status.queryId) == status) {
+                QUERIES.remove(status.queryId);
+            }
+            status.cancel();
+        }
+        logger.debug("Released the last status checker for query {}. Ceasing status polling", status.queryId);
+    }
+
+    static final class QueryStatus
+    {
+        private final AmazonAthena athena;
+        private final ThrottlingInvoker athenaInvoker;
+        private final String queryId;
+        private final AtomicBoolean isRunning = new AtomicBoolean(true);
+        //Guarded by QUERIES.
+        private int references = 0;
+        //Guarded by this.
+        private int attempt = 0;
+        private ScheduledFuture<?> nextPoll;
+        private boolean cancelled = false;
+
+        private QueryStatus(AmazonAthena athena, ThrottlingInvoker athenaInvoker, String queryId)
+        {
+            this.athena = athena;
+            this.athenaInvoker = athenaInvoker;
+            this.queryId = queryId;
+        }
+
+        boolean isRunning()
+        {
+            return isRunning.get();
+        }
+
+        private synchronized void schedule()
+        {
+            if (cancelled) {
+                return;
+            }
+            int delay = FIBONACCI[Math.min(attempt, FIBONACCI.length - 1)];
+            //The next poll is only scheduled once this one completes, so a query never occupies more than one poller.
+            nextPoll = SCHEDULER.schedule(() -> POLLERS.execute(this::poll), delay, TimeUnit.SECONDS);
+        }
+
+        private synchronized void cancel()
+        {
+            cancelled = true;
+            if (nextPoll != null) {
+                nextPoll.cancel(false);
+            }
+        }
+
+        private void poll()
+        {
+            int currentAttempt;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                currentAttempt = attempt++;
+            }
+
+            if (checkStatus(currentAttempt)) {
+                schedule();
+            }
+        }
+
+        /**
+         * @return True if the query should continue to be polled.
+         */
+        private boolean checkStatus(int attempt)
+        {
+            logger.debug(format("Checking status of Athena query %s, attempt %d", queryId, attempt));
+            try {
+                GetQueryExecutionResult queryExecution = athenaInvoker.invoke(() -> athena.getQueryExecution(new GetQueryExecutionRequest().withQueryExecutionId(queryId)));
+                String state = queryExecution.getQueryExecution().getStatus().getState();
+                if (TERMINAL_STATES.contains(state)) {
+                    logger.debug("Query {} has terminated with state {}", queryId, state);
+                    isRunning.set(false);
+                    return false;
+                }
+            }
+            catch (Exception e) {
+                logger.warn("Exception {} thrown when calling Athena for query status: {}", e.getClass().getSimpleName(), e.getMessage());
+                if (e instanceof InvalidRequestException) {
+                    // query does not exist, so no need to keep calling Athena
+                    logger.debug("Athena reports query {} not found. Ceasing status polling", queryId);
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
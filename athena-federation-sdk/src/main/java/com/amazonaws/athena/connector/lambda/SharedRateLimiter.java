@@ -0,0 +1,185 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2020 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.lambda;
+
+import com.google.common.base.MoreObjects;
+import org.apache.arrow.util.VisibleForTesting;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A lock-free leaky bucket which spaces calls against a shared resource (e.g. a DynamoDB table or the Athena API) at
+ * no less than the current interval, across every thread and every ThrottlingInvoker that shares the limiter. Callers
+ * reserve a slot and are told how long to wait for it, so the limiter never parks a thread itself, which lets async
+ * callers wait on a scheduler instead of a sleeping thread.
+ * <p>
+ * The interval is adjusted by the ThrottlingInvoker's AIMD logic and is bounded below by the configured max rate.
+ * Limiters are shared process-wide by resource name, see {@link #forResource(String, double)}.
+ */
+public class SharedRateLimiter
+{
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final Map<String, SharedRateLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    private final String resource;
+    private final long minIntervalNanos;
+    private final AtomicLong intervalNanos;
+    //The source of time, System.nanoTime() outside of tests.
+    private final LongSupplier nanoClock;
+    //The time (per the nanoClock) at which the next slot becomes free.
+    private final AtomicLong nextFreeNanos;
+
+    /**
+     * @param resource The name of the resource this limiter protects.
+     * @param maxPermitsPerSecond The max rate at which calls are allowed, or 0 for no upper bound.
+     */
+    public SharedRateLimiter(String resource, double maxPermitsPerSecond)
+    {
+        this(resource, maxPermitsPerSecond, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    SharedRateLimiter(String resource, double maxPermitsPerSecond, LongSupplier nanoClock)
+    {
+        if (maxPermitsPerSecond < 0) {
+            throw new IllegalArgumentException("maxPermitsPerSecond was " + maxPermitsPerSecond + " but must be >= 0");
+        }
+        this.resource = resource;
+        this.minIntervalNanos = (maxPermitsPerSecond > 0) ? (long) Math.ceil(NANOS_PER_SECOND / maxPermitsPerSecond) : 0;
+        this.intervalNanos = new AtomicLong(minIntervalNanos);
+        this.nanoClock = nanoClock;
+        this.nextFreeNanos = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Gets the process-wide limiter for the given resource, creating it on first use. The max rate of an existing
+     * limiter is not changed.
+     *
+     * @param resource The name of the resource the limiter protects.
+     * @param maxPermitsPerSecond The max rate at which calls are allowed if the limiter is created, or 0 for no upper bound.
+     * @return The limiter shared by all callers of the resource.
+     */
+    public static SharedRateLimiter forResource(String resource, double maxPermitsPerSecond)
+    {
+        return LIMITERS.computeIfAbsent(resource, (String next) -> new SharedRateLimiter(next, maxPermitsPerSecond));
+    }
+
+    /**
+     * Reserves the next free slot.
+     *
+     * @return The number of nanoseconds the caller must wait before using its slot, 0 if it can proceed now.
+     */
+    public long reserve()
+    {
+        long interval = intervalNanos.get();
+        if (interval == 0) {
+            return 0;
+        }
+
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long nextFree = nextFreeNanos.get();
+            long slot = Math.max(nextFree, now);
+            if (nextFreeNanos.compareAndSet(nextFree, slot + interval)) {
+                return slot - now;
+            }
+        }
+    }
+
+    /**
+     * Multiplicatively lengthens the interval between calls (e.g. in response to congestion).
+     *
+     * @param decrease The factor by which to decrease the call rate, between .001 and 1.
+     * @param initialIntervalNanos The interval to use if calls are currently unlimited.
+     * @param maxIntervalNanos The longest allowed interval.
+     * @return The new interval in nanoseconds.
+     */
+    public long slowDown(double decrease, long initialIntervalNanos, long maxIntervalNanos)
+    {
+        long newInterval = intervalNanos.updateAndGet((long current) -> {
+            long next = (long) Math.ceil(current / decrease);
+            if (current == minIntervalNanos && next < initialIntervalNanos) {
+                //The first sign of congestion takes us to at least the initial interval.
+                next = initialIntervalNanos;
+            }
+            return Math.max(Math.min(next, maxIntervalNanos), minIntervalNanos);
+        });
+        //Nobody should call the congested resource until a full new interval has passed.
+        long earliest = nanoClock.getAsLong() + newInterval;
+        nextFreeNanos.accumulateAndGet(earliest, Math::max);
+        return newInterval;
+    }
+
+    /**
+     * Additively shortens the interval between calls (e.g. when calls are succeeding), never going below the interval
+     * implied by the max rate.
+     *
+     * @param increaseNanos The amount by which to shorten the interval.
+     * @return The new interval in nanoseconds.
+     */
+    public long speedUp(long increaseNanos)
+    {
+        return intervalNanos.updateAndGet((long current) -> Math.max(current - increaseNanos, minIntervalNanos));
+    }
+
+    /**
+     * @return True if the interval is longer than the one implied by the max rate, i.e. we are backing off.
+     */
+    public boolean isSlowed()
+    {
+        return intervalNanos.get() > minIntervalNanos;
+    }
+
+    /**
+     * @return The current interval between calls in nanoseconds, 0 if calls are unlimited.
+     */
+    public long getIntervalNanos()
+    {
+        return intervalNanos.get();
+    }
+
+    /**
+     * @return The current rate in calls per second, or Double.POSITIVE_INFINITY if calls are unlimited.
+     */
+    public double getRate()
+    {
+        long interval = intervalNanos.get();
+        return (interval > 0) ? (double) NANOS_PER_SECOND / interval : Double.POSITIVE_INFINITY;
+    }
+
+    public String getResource()
+    {
+        return resource;
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this)
+                .add("resource", resource)
+                .add("minIntervalNanos", minIntervalNanos)
+                .add("intervalNanos", intervalNanos)
+                .toString();
+    }
+}
@@ -27,7 +27,12 @@ import org.apache.arrow.util.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -39,7 +44,13 @@ import java.util.concurrent.atomic.AtomicReference;
  * thread or entity its own instance the logic will still work but may take a bit longer (couple extra calls)
  * to detect the congestion and converge. This utility works best when all callers use it, otherwise callers
  * that do not use this logic will get a larger % of the available call capacity because the other callers
- * will back off when they see congestion and get starved out by the greedy caller
+ * will back off when they see congestion and get starved out by the greedy caller.
+ * <p>
+ * By default the delay is tracked per instance and applied by sleeping the calling thread. When built with a shared
+ * rate limit (see {@link Builder#withSharedRateLimit(String, double)}) the same AIMD logic instead adjusts the interval
+ * of a process-wide {@link SharedRateLimiter}, so that every thread, split and instance calling the same resource
+ * shares one budget. In either mode {@link #invokeAsync(Callable, long, Executor)} waits for capacity on a scheduler
+ * rather than by parking a thread.
  */
 public class ThrottlingInvoker
 {
@@ -53,6 +64,10 @@ public class ThrottlingInvoker
     private static final String THROTTLE_DECREASE_FACTOR = "throttle_decrease_factor";
     //The additive factor by which we should increase our call rate (e.g. decrease delay) when we seem free of congestion.
     private static final String THROTTLE_INCREASE_MS = "throttle_increase_ms";
+    //When set, invokers built for the same resource share a process-wide rate limit of at most this many calls per second.
+    private static final String THROTTLE_MAX_TPS = "throttle_max_tps";
+    //Overrides throttle_max_tps for a single resource, e.g. throttle_max_tps_dynamodb_mytable for dynamodb:mytable.
+    private static final String THROTTLE_MAX_TPS_PREFIX = THROTTLE_MAX_TPS + "_";
 
     //10ms is our initial delay, this takes us from unlimited TPS to 100 TPS as a first step.
     private static final long DEFAULT_INITIAL_DELAY_MS = 10;
@@ -70,8 +85,12 @@ public class ThrottlingInvoker
     private final ExceptionFilter filter;
     private final AtomicReference<BlockSpiller> spillerRef;
     private final AtomicLong delay = new AtomicLong(0);
+    private final SharedRateLimiter rateLimiter;
     private volatile State state = State.FAST_START;
 
+    private final AtomicLong throttleEvents = new AtomicLong(0);
+    private final AtomicLong sleepTimeNanos = new AtomicLong(0);
+
     public enum State
     {FAST_START, CONGESTED, AVOIDANCE}
 
@@ -87,7 +106,8 @@ public class ThrottlingInvoker
                 builder.decrease,
                 builder.increase,
                 builder.filter,
-                builder.spiller);
+                builder.spiller,
+                builder.rateLimiter);
     }
 
     @VisibleForTesting
@@ -97,6 +117,17 @@ public class ThrottlingInvoker
             long increase,
             ExceptionFilter filter,
             BlockSpiller spiller)
+    {
+        this(initialDelayMs, maxDelayMs, decrease, increase, filter, spiller, null);
+    }
+
+    private ThrottlingInvoker(long initialDelayMs,
+            long maxDelayMs,
+            double decrease,
+            long increase,
+            ExceptionFilter filter,
+            BlockSpiller spiller,
+            SharedRateLimiter rateLimiter)
     {
         if (decrease > 1 || decrease < .001) {
             throw new IllegalArgumentException("decrease was " + decrease + " but should be between .001 and 1");
@@ -116,6 +147,7 @@ public class ThrottlingInvoker
         this.increase = increase;
         this.filter = filter;
         this.spillerRef = new AtomicReference<>(spiller);
+        this.rateLimiter = rateLimiter;
     }
 
     /**
@@ -135,6 +167,20 @@ public class ThrottlingInvoker
      * @return The new Builder with default values.
      */
     public static Builder newDefaultBuilder(ExceptionFilter filter)
+    {
+        return newDefaultBuilder(filter, null);
+    }
+
+    /**
+     * Produces a Builder with default values set allowing you to override only specific defaults. If the
+     * throttle_max_tps_&lt;resource&gt; or throttle_max_tps environment variable is set the invoker shares a rate limit
+     * with every other invoker built for the same resource (see {@link #getMaxTps(String, Map)}).
+     *
+     * @param filter The exception filter to apply to any exception when attemtping to identify congestion.
+     * @param resource The name of the resource being called (e.g. dynamodb:tableName), null if it shares no rate limit.
+     * @return The new Builder with default values.
+     */
+    public static Builder newDefaultBuilder(ExceptionFilter filter, String resource)
     {
         long initialDelayMs = (System.getenv(THROTTLE_INITIAL_DELAY_MS) != null) ?
                 Long.parseLong(System.getenv(THROTTLE_INITIAL_DELAY_MS)) : DEFAULT_INITIAL_DELAY_MS;
@@ -145,12 +191,48 @@ public class ThrottlingInvoker
         long increase = (System.getenv(THROTTLE_INCREASE_MS) != null) ?
                 Long.parseLong(System.getenv(THROTTLE_INCREASE_MS)) : DEFAULT_INCREASE_MS;
 
-        return newBuilder()
+        Builder builder = newBuilder()
                 .withInitialDelayMs(initialDelayMs)
                 .withMaxDelayMs(maxDelayMs)
                 .withDecrease(decreaseFactor)
                 .withIncrease(increase)
                 .withFilter(filter);
+
+        Double maxTps = (resource != null) ? getMaxTps(resource, System.getenv()) : null;
+        if (maxTps != null) {
+            builder.withSharedRateLimit(resource, maxTps);
+        }
+        return builder;
+    }
+
+    /**
+     * Resolves the shared rate limit of a resource from its throttle_max_tps_&lt;resource&gt; environment variable,
+     * falling back to the global throttle_max_tps. Since environment variable names can only contain letters, digits and
+     * underscores any other character of the resource name is replaced with an underscore, so the limit for
+     * dynamodb:mytable is set via throttle_max_tps_dynamodb_mytable.
+     *
+     * @param resource The name of the resource being called.
+     * @param env The environment variables.
+     * @return The max calls per second for the resource, null if neither variable is set.
+     */
+    @VisibleForTesting
+    static Double getMaxTps(String resource, Map<String, String> env)
+    {
+        String name = THROTTLE_MAX_TPS_PREFIX + resource.replaceAll("[^A-Za-z0-9_]", "_");
+        if (env.get(name) == null) {
+            name = THROTTLE_MAX_TPS;
+        }
+
+        String value = env.get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        }
+        catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(name + " must be a number of calls per second but was " + value, ex);
+        }
     }
 
     /**
@@ -201,6 +283,70 @@ public class ThrottlingInvoker
         throw new TimeoutException("Timed out before call succeeded after " + (System.currentTimeMillis() - startTime) + " ms");
     }
 
+    /**
+     * Asynchronously invokes the callable on the given executor while applying our congestion control logic. Unlike
+     * invoke(...), no thread is parked while waiting for capacity, each attempt is instead scheduled to run on the
+     * executor once its delay has elapsed.
+     *
+     * @param callable The callable to invoke.
+     * @param <T> The return type of the Callable
+     * @param timeoutMillis The max number of milliseconds we should spend retrying if congestion
+     * prevents us from making a successful call, 0 for no timeout.
+     * @param executor The executor on which to invoke the callable.
+     * @return A future for the value returned by the Callable, completed exceptionally with a TimeoutException if we
+     * exceeded the timeout.
+     */
+    public <T> CompletableFuture<T> invokeAsync(Callable<T> callable, long timeoutMillis, Executor executor)
+    {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(callable, System.currentTimeMillis(), timeoutMillis, executor, result);
+        return result;
+    }
+
+    private <T> void attemptAsync(Callable<T> callable, long startTime, long timeoutMillis, Executor executor,
+            CompletableFuture<T> result)
+    {
+        long waitNanos = reserve();
+        sleepTimeNanos.addAndGet(waitNanos);
+        Executor attemptExecutor = (waitNanos > 0) ? CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, executor) : executor;
+
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return callable.call();
+            }
+            catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }, attemptExecutor).whenComplete((T value, Throwable error) -> {
+            if (error == null) {
+                handleAvoidance();
+                result.complete(value);
+                return;
+            }
+
+            Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+            try {
+                if (!(cause instanceof Exception) || !filter.isMatch((Exception) cause)) {
+                    //The exception did not match our filter for congestion, fail
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                handleThrottle((Exception) cause);
+            }
+            catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+                return;
+            }
+
+            if (isTimedOut(startTime, timeoutMillis)) {
+                result.completeExceptionally(new TimeoutException("Timed out before call succeeded after " +
+                        (System.currentTimeMillis() - startTime) + " ms"));
+                return;
+            }
+            attemptAsync(callable, startTime, timeoutMillis, executor, result);
+        });
+    }
+
     /**
      * Throttling Invoker can decide to propogate the congestion events to Athena if your Lambda has not generated any data
      * yet. To do this ThrottlingInvoker needs access to your BlockSpiller so that it can see if any data was spilled. Once
@@ -219,10 +365,39 @@ public class ThrottlingInvoker
         return state;
     }
 
+    /**
+     * @return The current rate, in calls per second, that this invoker is allowing, or Double.POSITIVE_INFINITY if
+     * calls are not currently being limited.
+     */
+    public double getCurrentRate()
+    {
+        if (rateLimiter != null) {
+            return rateLimiter.getRate();
+        }
+        long currentDelay = delay.get();
+        return (currentDelay > 0) ? 1000D / currentDelay : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return The number of congestion (throttling) events this invoker has encountered.
+     */
+    public long getThrottleEvents()
+    {
+        return throttleEvents.get();
+    }
+
+    /**
+     * @return The total number of milliseconds that calls made through this invoker have waited for capacity.
+     */
+    public long getSleepTimeMs()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(sleepTimeNanos.get());
+    }
+
     @VisibleForTesting
     long getDelay()
     {
-        return delay.get();
+        return (rateLimiter != null) ? TimeUnit.NANOSECONDS.toMillis(rateLimiter.getIntervalNanos()) : delay.get();
     }
 
     @Override
@@ -234,23 +409,33 @@ public class ThrottlingInvoker
                 .add("decrease", decrease)
                 .add("increase", increase)
                 .add("delay", delay)
+                .add("rateLimiter", rateLimiter)
                 .add("state", state)
                 .toString();
     }
 
-    private synchronized void handleThrottle(Exception ex)
+    private void handleThrottle(Exception ex)
     {
-        long newDelay = (long) Math.ceil(delay.get() / decrease);
-        if (newDelay == 0) {
-            newDelay = initialDelayMs;
+        throttleEvents.incrementAndGet();
+        if (rateLimiter != null) {
+            long newInterval = rateLimiter.slowDown(decrease,
+                    TimeUnit.MILLISECONDS.toNanos(initialDelayMs),
+                    TimeUnit.MILLISECONDS.toNanos(maxDelayMs));
+            logger.info("handleThrottle: Encountered a Throttling event[{}] adjusting {} interval to {} ns @ {} TPS",
+                    ex, rateLimiter.getResource(), newInterval, rateLimiter.getRate());
         }
-        else if (newDelay > maxDelayMs) {
-            newDelay = maxDelayMs;
+        else {
+            long newDelay = delay.updateAndGet((long current) -> {
+                long next = (long) Math.ceil(current / decrease);
+                if (next == 0) {
+                    return initialDelayMs;
+                }
+                return Math.min(next, maxDelayMs);
+            });
+            logger.info("handleThrottle: Encountered a Throttling event[{}] adjusting delay to {} ms @ {} TPS",
+                    ex, newDelay, 1000D / newDelay);
         }
-        logger.info("handleThrottle: Encountered a Throttling event[{}] adjusting delay to {} ms @ {} TPS",
-                ex, newDelay, 1000D / newDelay);
         state = State.CONGESTED;
-        delay.set(newDelay);
 
         if (spillerRef.get() != null && !spillerRef.get().spilled()) {
             //If no blocks have spilled, it is better to signal the Throttle to Athena by propagating.
@@ -258,26 +443,46 @@ public class ThrottlingInvoker
         }
     }
 
-    private synchronized void handleAvoidance()
+    private void handleAvoidance()
     {
-        long newDelay = delay.get() - increase;
-        if (newDelay <= 0) {
-            newDelay = 0;
+        if (rateLimiter != null) {
+            if (rateLimiter.isSlowed()) {
+                state = State.AVOIDANCE;
+                long newInterval = rateLimiter.speedUp(TimeUnit.MILLISECONDS.toNanos(increase));
+                logger.debug("handleAvoidance: Congestion AVOIDANCE active, decreasing {} interval to {} ns @ {} TPS",
+                        rateLimiter.getResource(), newInterval, rateLimiter.getRate());
+            }
+            return;
         }
 
         if (delay.get() > 0) {
             state = State.AVOIDANCE;
+            long newDelay = delay.updateAndGet((long current) -> Math.max(current - increase, 0));
             logger.info("handleAvoidance: Congestion AVOIDANCE active, decreasing delay to {} ms @ {} TPS",
                     newDelay, (newDelay > 0) ? 1000 / newDelay : "unlimited");
-            delay.set(newDelay);
         }
     }
 
+    /**
+     * Reserves capacity for the next call.
+     *
+     * @return The number of nanoseconds to wait before making the call.
+     */
+    private long reserve()
+    {
+        if (rateLimiter != null) {
+            return rateLimiter.reserve();
+        }
+        return TimeUnit.MILLISECONDS.toNanos(delay.get());
+    }
+
     private void applySleep()
     {
-        if (delay.get() > 0) {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            sleepTimeNanos.addAndGet(waitNanos);
             try {
-                Thread.sleep(delay.get());
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
             }
             catch (InterruptedException ex) {
                 Thread.currentThread().interrupt();
@@ -299,6 +504,7 @@ public class ThrottlingInvoker
         private long increase;
         private ExceptionFilter filter;
         private BlockSpiller spiller;
+        private SharedRateLimiter rateLimiter;
 
         public Builder withInitialDelayMs(long initialDelayMs)
         {
@@ -336,6 +542,27 @@ public class ThrottlingInvoker
             return this;
         }
 
+        /**
+         * Shares a process-wide rate limit, and the congestion detected by any of its users, with every other
+         * ThrottlingInvoker built for the same resource.
+         *
+         * @param resource The name of the resource being called (e.g. a DynamoDB table).
+         * @param maxPermitsPerSecond The max rate at which to call the resource, 0 for no upper bound.
+         * @return This Builder.
+         */
+        public Builder withSharedRateLimit(String resource, double maxPermitsPerSecond)
+        {
+            this.rateLimiter = SharedRateLimiter.forResource(resource, maxPermitsPerSecond);
+            return this;
+        }
+
+        @VisibleForTesting
+        Builder withRateLimiter(SharedRateLimiter rateLimiter)
+        {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
         public ThrottlingInvoker build()
         {
             return new ThrottlingInvoker(this);
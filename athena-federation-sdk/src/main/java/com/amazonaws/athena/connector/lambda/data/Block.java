@@ -36,6 +36,7 @@ import org.slf4j.LoggerFactory;
 
 import java.beans.Transient;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -79,6 +80,9 @@ public class Block
     //Note that we will _NOT_ close this ConstraintEvaluator because we may not own it and the emptyEvaluator
     //has no resources that could leak.
     private ConstraintEvaluator constraintEvaluator = ConstraintEvaluator.emptyEvaluator();
+    //Setters for the fields written via setValue(...) and offerValue(...), these cache the conversion from the
+    //Java class of the values being written to the field's type. Not included in equality or hashcode.
+    private final Map<String, FieldVectorSetter> setters = new HashMap<>();
 
     /**
      * Used by a BlockAllocator to construct a block by setting the key values that a Block 'holds'. Most of the meaningful
@@ -146,7 +150,11 @@ public class Block
     public boolean setValue(String fieldName, int row, Object value)
     {
         if (constraintEvaluator.apply(fieldName, value)) {
-            BlockUtils.setValue(getFieldVector(fieldName), row, value);
+            FieldVectorSetter setter = getFieldVectorSetter(fieldName);
+            if (setter == null) {
+                throw new NullPointerException("No field named " + fieldName + " in " + schema);
+            }
+            setter.setValue(row, value);
             return true;
         }
         return false;
@@ -170,15 +178,29 @@ public class Block
     public boolean offerValue(String fieldName, int row, Object value)
     {
         if (constraintEvaluator.apply(fieldName, value)) {
-            FieldVector vector = getFieldVector(fieldName);
-            if (vector != null) {
-                BlockUtils.setValue(vector, row, value);
+            FieldVectorSetter setter = getFieldVectorSetter(fieldName);
+            if (setter != null) {
+                setter.setValue(row, value);
             }
             return true;
         }
         return false;
     }
 
+    private FieldVectorSetter getFieldVectorSetter(String fieldName)
+    {
+        FieldVectorSetter setter = setters.get(fieldName);
+        if (setter == null) {
+            FieldVector vector = getFieldVector(fieldName);
+            if (vector == null) {
+                return null;
+            }
+            setter = new FieldVectorSetter(vector);
+            setters.put(fieldName, setter);
+        }
+        return setter;
+    }
+
     /**
      * Attempts to set the provided value for the given field name and row. If the Block's schema does not
      * contain such a field, this method does nothing and returns false.
@@ -0,0 +1,295 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.UInt1Vector;
+import org.apache.arrow.vector.UInt2Vector;
+import org.apache.arrow.vector.UInt4Vector;
+import org.apache.arrow.vector.UInt8Vector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.util.Text;
+import org.apache.commons.codec.Charsets;
+import org.joda.time.DateTimeZone;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.amazonaws.athena.connector.lambda.data.BlockUtils.EPOCH;
+import static com.amazonaws.athena.connector.lambda.data.BlockUtils.UTC_ZONE_ID;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes values to a single FieldVector using the conversion rules of {@link BlockUtils#setValue(FieldVector, int, Object)}.
+ * Rather than dispatching on the vector's type and the value's class for every value, the conversion for a given
+ * (vector type, value class) pair is resolved once into a ValueSetter and cached. Instances additionally remember the
+ * setter for the last value class they saw, values from a given source almost always have the same class so the
+ * common case is a single reference comparison followed by a call to a setter specialized for that class.
+ * <p>
+ * Instances are not thread safe, much like the FieldVector they write to.
+ */
+public class FieldVectorSetter
+{
+    /**
+     * Writes a value, of the Java class the setter was resolved for, to a FieldVector.
+     */
+    public interface ValueSetter
+    {
+        void set(FieldVector vector, int pos, Object value);
+    }
+
+    //Resolved setters, by vector type and then by value class.
+    private static final Map<Types.MinorType, ClassValue<ValueSetter>> SETTERS = new EnumMap<>(Types.MinorType.class);
+
+    static {
+        for (Types.MinorType next : Types.MinorType.values()) {
+            SETTERS.put(next, new ClassValue<ValueSetter>()
+            {
+                @Override
+                protected ValueSetter computeValue(Class<?> valueClass)
+                {
+                    return resolve(next, valueClass);
+                }
+            });
+        }
+    }
+
+    private final FieldVector vector;
+    private final Types.MinorType minorType;
+    private CachedSetter last;
+
+    public FieldVectorSetter(FieldVector vector)
+    {
+        this.vector = requireNonNull(vector, "vector is null");
+        this.minorType = vector.getMinorType();
+    }
+
+    public FieldVector getVector()
+    {
+        return vector;
+    }
+
+    /**
+     * Writes the provided value to the vector, see {@link BlockUtils#setValue(FieldVector, int, Object)}.
+     *
+     * @param pos The row number that the value should be written to.
+     * @param value The value to write.
+     */
+    public void setValue(int pos, Object value)
+    {
+        try {
+            if (value == null) {
+                BlockUtils.setNullValue(vector, pos);
+                return;
+            }
+            CachedSetter cached = last;
+            if (cached == null || cached.valueClass != value.getClass()) {
+                cached = new CachedSetter(value.getClass(), getSetter(minorType, value.getClass()));
+                last = cached;
+            }
+            cached.setter.set(vector, pos, value);
+        }
+        catch (RuntimeException ex) {
+            throw BlockUtils.setValueFailed(vector, value, ex);
+        }
+    }
+
+    /**
+     * Provides the, cached, setter used to write values of the given class to vectors of the given type.
+     *
+     * @param minorType The type of the vector being written to.
+     * @param valueClass The class of the values being written.
+     * @return The setter for the given vector type and value class.
+     */
+    public static ValueSetter getSetter(Types.MinorType minorType, Class<?> valueClass)
+    {
+        return SETTERS.get(minorType).get(valueClass);
+    }
+
+    private static class CachedSetter
+    {
+        private final Class<?> valueClass;
+        private final ValueSetter setter;
+
+        CachedSetter(Class<?> valueClass, ValueSetter setter)
+        {
+            this.valueClass = valueClass;
+            this.setter = setter;
+        }
+    }
+
+    /**
+     * We will convert any types that are not supported by the vector to types that are supported
+     * ex) (not supported) org.joda.time.LocalDateTime which is returned on read from vectors
+     * will be converted to (supported) java.time.ZonedDateTime
+     */
+    private static ValueSetter resolve(Types.MinorType minorType, Class<?> valueClass)
+    {
+        switch (minorType) {
+            case TIMESTAMPMILLITZ:
+                if (valueClass == org.joda.time.LocalDateTime.class) {
+                    return (vector, pos, value) -> {
+                        DateTimeZone dtz = ((org.joda.time.LocalDateTime) value).getChronology().getZone();
+                        long dateTimeWithZone = ((org.joda.time.LocalDateTime) value).toDateTime(dtz).getMillis();
+                        ((TimeStampMilliTZVector) vector).setSafe(pos, dateTimeWithZone);
+                    };
+                }
+                if (valueClass == ZonedDateTime.class) {
+                    return (vector, pos, value) ->
+                            ((TimeStampMilliTZVector) vector).setSafe(pos, DateTimeFormatterUtil.packDateTimeWithZone((ZonedDateTime) value));
+                }
+                if (valueClass == LocalDateTime.class) {
+                    return (vector, pos, value) -> {
+                        long dateTimeWithZone = DateTimeFormatterUtil.packDateTimeWithZone(
+                                ((LocalDateTime) value).atZone(UTC_ZONE_ID).toInstant().toEpochMilli(), UTC_ZONE_ID.getId());
+                        ((TimeStampMilliTZVector) vector).setSafe(pos, dateTimeWithZone);
+                    };
+                }
+                if (Date.class.isAssignableFrom(valueClass)) {
+                    return (vector, pos, value) -> {
+                        long ldtInLong = Instant.ofEpochMilli(((Date) value).getTime())
+                                .atZone(UTC_ZONE_ID).toInstant().toEpochMilli();
+                        long dateTimeWithZone = DateTimeFormatterUtil.packDateTimeWithZone(ldtInLong, UTC_ZONE_ID.getId());
+                        ((TimeStampMilliTZVector) vector).setSafe(pos, dateTimeWithZone);
+                    };
+                }
+                return (vector, pos, value) -> ((TimeStampMilliTZVector) vector).setSafe(pos, (long) value);
+            case DATEMILLI:
+                if (Date.class.isAssignableFrom(valueClass)) {
+                    return (vector, pos, value) -> ((DateMilliVector) vector).setSafe(pos, ((Date) value).getTime());
+                }
+                if (valueClass == LocalDateTime.class) {
+                    return (vector, pos, value) -> ((DateMilliVector) vector).setSafe(pos,
+                            ((LocalDateTime) value).atZone(UTC_ZONE_ID).toInstant().toEpochMilli());
+                }
+                return (vector, pos, value) -> ((DateMilliVector) vector).setSafe(pos, (long) value);
+            case DATEDAY:
+                if (Date.class.isAssignableFrom(valueClass)) {
+                    return (vector, pos, value) -> {
+                        org.joda.time.Days days = org.joda.time.Days.daysBetween(EPOCH,
+                                new org.joda.time.DateTime(((Date) value).getTime()));
+                        ((DateDayVector) vector).setSafe(pos, days.getDays());
+                    };
+                }
+                if (valueClass == LocalDate.class) {
+                    return (vector, pos, value) -> ((DateDayVector) vector).setSafe(pos, (int) ((LocalDate) value).toEpochDay());
+                }
+                if (valueClass == Long.class) {
+                    return (vector, pos, value) -> ((DateDayVector) vector).setSafe(pos, ((Long) value).intValue());
+                }
+                return (vector, pos, value) -> ((DateDayVector) vector).setSafe(pos, (int) value);
+            case FLOAT8:
+                return (vector, pos, value) -> ((Float8Vector) vector).setSafe(pos, (double) value);
+            case FLOAT4:
+                return (vector, pos, value) -> ((Float4Vector) vector).setSafe(pos, (float) value);
+            case INT:
+                if (valueClass == Long.class) {
+                    //This may seem odd at first but many frameworks (like Presto) use long as the preferred
+                    //native java type for representing integers. We do this to keep type conversions simple.
+                    return (vector, pos, value) -> ((IntVector) vector).setSafe(pos, ((Long) value).intValue());
+                }
+                return (vector, pos, value) -> ((IntVector) vector).setSafe(pos, (int) value);
+            case TINYINT:
+                if (valueClass == Byte.class) {
+                    return (vector, pos, value) -> ((TinyIntVector) vector).setSafe(pos, (byte) value);
+                }
+                return (vector, pos, value) -> ((TinyIntVector) vector).setSafe(pos, (int) value);
+            case SMALLINT:
+                if (valueClass == Short.class) {
+                    return (vector, pos, value) -> ((SmallIntVector) vector).setSafe(pos, (short) value);
+                }
+                return (vector, pos, value) -> ((SmallIntVector) vector).setSafe(pos, (int) value);
+            case UINT1:
+                if (valueClass == Byte.class) {
+                    return (vector, pos, value) -> ((UInt1Vector) vector).setSafe(pos, (byte) value);
+                }
+                return (vector, pos, value) -> ((UInt1Vector) vector).setSafe(pos, (int) value);
+            case UINT2:
+                if (valueClass == Character.class) {
+                    return (vector, pos, value) -> ((UInt2Vector) vector).setSafe(pos, (char) value);
+                }
+                return (vector, pos, value) -> ((UInt2Vector) vector).setSafe(pos, (int) value);
+            case UINT4:
+                return (vector, pos, value) -> ((UInt4Vector) vector).setSafe(pos, (int) value);
+            case UINT8:
+                if (valueClass == Long.class) {
+                    return (vector, pos, value) -> ((UInt8Vector) vector).setSafe(pos, (long) value);
+                }
+                return (vector, pos, value) -> ((UInt8Vector) vector).setSafe(pos, (int) value);
+            case BIGINT:
+                return (vector, pos, value) -> ((BigIntVector) vector).setSafe(pos, (long) value);
+            case VARBINARY:
+                return (vector, pos, value) -> ((VarBinaryVector) vector).setSafe(pos, (byte[]) value);
+            case DECIMAL:
+                if (valueClass == Double.class) {
+                    return (vector, pos, value) -> {
+                        DecimalVector dVector = (DecimalVector) vector;
+                        dVector.setSafe(pos, new BigDecimal((double) value).setScale(dVector.getScale(), RoundingMode.HALF_UP));
+                    };
+                }
+                return (vector, pos, value) -> {
+                    DecimalVector dVector = (DecimalVector) vector;
+                    dVector.setSafe(pos, ((BigDecimal) value).setScale(dVector.getScale(), RoundingMode.HALF_UP));
+                };
+            case VARCHAR:
+                if (Text.class.isAssignableFrom(valueClass)) {
+                    return (vector, pos, value) -> ((VarCharVector) vector).setSafe(pos, (Text) value);
+                }
+                if (valueClass == String.class) {
+                    return (vector, pos, value) -> ((VarCharVector) vector).setSafe(pos, ((String) value).getBytes(Charsets.UTF_8));
+                }
+                // always fall back to the object's toString()
+                return (vector, pos, value) -> ((VarCharVector) vector).setSafe(pos, value.toString().getBytes(Charsets.UTF_8));
+            case BIT:
+                if (valueClass == Integer.class) {
+                    return (vector, pos, value) -> ((BitVector) vector).setSafe(pos, (int) value > 0 ? 1 : 0);
+                }
+                if (valueClass == Boolean.class) {
+                    return (vector, pos, value) -> ((BitVector) vector).setSafe(pos, (boolean) value ? 1 : 0);
+                }
+                return (vector, pos, value) -> ((BitVector) vector).setSafe(pos, 0);
+            default:
+                return (vector, pos, value) -> {
+                    throw new IllegalArgumentException("Unknown type " + minorType);
+                };
+        }
+    }
+}
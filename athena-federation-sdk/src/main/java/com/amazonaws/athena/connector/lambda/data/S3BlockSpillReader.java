@@ -21,11 +21,13 @@ package com.amazonaws.athena.connector.lambda.data;
  */
 
 import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
 import com.amazonaws.athena.connector.lambda.security.AesGcmBlockCrypto;
 import com.amazonaws.athena.connector.lambda.security.BlockCrypto;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKey;
 import com.amazonaws.athena.connector.lambda.security.NoOpBlockCrypto;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.S3Object;
 import com.google.common.io.ByteStreams;
 import org.apache.arrow.vector.types.pojo.Schema;
@@ -33,6 +35,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.util.Objects.requireNonNull;
 
@@ -40,6 +49,10 @@ public class S3BlockSpillReader
 {
     private static final Logger logger = LoggerFactory.getLogger(S3BlockSpillReader.class);
 
+    private static final int NOT_FOUND = 404;
+    private static final long MIN_POLL_INTERVAL_MS = 10;
+    private static final long MAX_POLL_INTERVAL_MS = 1_000;
+
     private final AmazonS3 amazonS3;
     private final BlockAllocator allocator;
 
@@ -59,29 +72,11 @@ public class S3BlockSpillReader
      */
     public Block read(S3SpillLocation spillLocation, EncryptionKey key, Schema schema)
     {
-        S3Object fullObject = null;
-        try {
-            logger.debug("read: Started reading block from S3");
-            fullObject = amazonS3.getObject(spillLocation.getBucket(), spillLocation.getKey());
-            logger.debug("read: Completed reading block from S3");
-            BlockCrypto blockCrypto = (key != null) ? new AesGcmBlockCrypto(allocator) : new NoOpBlockCrypto(allocator);
-            Block block = blockCrypto.decrypt(key, ByteStreams.toByteArray(fullObject.getObjectContent()), schema);
-            logger.debug("read: Completed decrypting block of size.");
-            return block;
-        }
-        catch (IOException ex) {
-            throw new RuntimeException(ex);
-        }
-        finally {
-            if (fullObject != null) {
-                try {
-                    fullObject.close();
-                }
-                catch (IOException ex) {
-                    logger.warn("read: Exception while closing S3 object", ex);
-                }
-            }
-        }
+        byte[] bytes = getObjectBytes(spillLocation);
+        BlockCrypto blockCrypto = (key != null) ? new AesGcmBlockCrypto(allocator) : new NoOpBlockCrypto(allocator);
+        Block block = blockCrypto.decrypt(key, bytes, schema);
+        logger.debug("read: Completed decrypting block of size.");
+        return block;
     }
 
     /**
@@ -93,26 +88,220 @@ public class S3BlockSpillReader
      */
     public byte[] read(S3SpillLocation spillLocation, EncryptionKey key)
     {
-        S3Object fullObject = null;
-        try {
-            logger.debug("read: Started reading block from S3");
-            fullObject = amazonS3.getObject(spillLocation.getBucket(), spillLocation.getKey());
-            logger.debug("read: Completed reading block from S3");
+        byte[] bytes = getObjectBytes(spillLocation);
+        BlockCrypto blockCrypto = (key != null) ? new AesGcmBlockCrypto(allocator) : new NoOpBlockCrypto(allocator);
+        return blockCrypto.decrypt(key, bytes);
+    }
+
+    /**
+     * Reads the spilled blocks of a RemoteReadRecordsResponse, fetching and decrypting up to maxInFlight blocks in
+     * parallel ahead of the caller. The Blocks are returned in the order of the spill locations.
+     *
+     * @param spillLocations The locations to read the spilled Blocks from.
+     * @param key The encryption key to use when reading the spilled Blocks.
+     * @param schema The Schema to use when deserializing the spilled Blocks.
+     * @param executor The executor used to fetch the spilled Blocks.
+     * @param maxInFlight The max number of Blocks to fetch ahead of the caller, this bounds the memory used.
+     * @return An iterator over the spilled Blocks which must be closed if it isn't read to the end.
+     */
+    public SpilledBlockIterator read(List<SpillLocation> spillLocations, EncryptionKey key, Schema schema,
+            ExecutorService executor, int maxInFlight)
+    {
+        Iterator<SpillLocation> locations = spillLocations.iterator();
+        Iterator<S3SpillLocation> s3Locations = new Iterator<S3SpillLocation>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return locations.hasNext();
+            }
+
+            @Override
+            public S3SpillLocation next()
+            {
+                return (S3SpillLocation) locations.next();
+            }
+        };
+        return new SpilledBlockIterator(s3Locations, (S3SpillLocation next) -> read(next, key, schema), executor, maxInFlight);
+    }
+
+    /**
+     * Reads the blocks spilled to a split's spill directory, including while they are still being written. Spilled
+     * blocks are numbered in the order they are written (see S3BlockSpiller), so the Nth block is fetched as soon as
+     * it appears, and up to maxInFlight blocks are fetched and decrypted in parallel ahead of the caller. Reading
+     * ends once the writer has marked the end of the spill (see S3BlockSpiller#getSpillLocations()) and all of the
+     * blocks counted by that marker have been read. A block that is missing although the marker counts it fails the
+     * read, as does a block that neither appears nor is ruled out by the marker within waitTimeoutMs, since a slow
+     * writer can't be told apart from a lost one.
+     *
+     * @param spillDirectory The split's spill directory.
+     * @param key The encryption key to use when reading the spilled Blocks.
+     * @param schema The Schema to use when deserializing the spilled Blocks.
+     * @param executor The executor used to fetch the spilled Blocks.
+     * @param maxInFlight The max number of Blocks to fetch ahead of the caller, this bounds the memory used.
+     * @param waitTimeoutMs How long to wait for the next spilled Block to appear before failing.
+     * @return An iterator over the spilled Blocks which must be closed if it isn't read to the end.
+     */
+    public SpilledBlockIterator follow(S3SpillLocation spillDirectory, EncryptionKey key, Schema schema,
+            ExecutorService executor, int maxInFlight, long waitTimeoutMs)
+    {
+        if (!spillDirectory.isDirectory()) {
+            throw new IllegalArgumentException("Only spill directories can be followed but got " + spillDirectory);
+        }
+
+        Iterator<S3SpillLocation> s3Locations = new Iterator<S3SpillLocation>()
+        {
+            private long spillNumber = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return true;
+            }
+
+            @Override
+            public S3SpillLocation next()
+            {
+                return S3BlockSpiller.makeSpillLocation(spillDirectory, spillNumber++);
+            }
+        };
+
+        EndOfSpill endOfSpill = new EndOfSpill(S3BlockSpiller.makeEndOfSpillLocation(spillDirectory));
+        return new SpilledBlockIterator(s3Locations, (S3SpillLocation next) -> {
+            long spillNumber = Long.parseLong(next.getKey().substring(spillDirectory.getKey().length() + 1));
+            byte[] bytes = getObjectBytesWhenAvailable(next, spillNumber, endOfSpill, waitTimeoutMs);
+            if (bytes == null) {
+                logger.info("follow: {} was not spilled, ending.", next);
+                return null;
+            }
             BlockCrypto blockCrypto = (key != null) ? new AesGcmBlockCrypto(allocator) : new NoOpBlockCrypto(allocator);
-            return blockCrypto.decrypt(key, ByteStreams.toByteArray(fullObject.getObjectContent()));
+            return blockCrypto.decrypt(key, bytes, schema);
+        }, executor, maxInFlight);
+    }
+
+    /**
+     * Polls for a spilled block until it appears or the end of spill marker shows it never will.
+     *
+     * @return The bytes of the block, null if the writer ended the spill with fewer blocks than spillNumber + 1.
+     */
+    private byte[] getObjectBytesWhenAvailable(S3SpillLocation spillLocation, long spillNumber, EndOfSpill endOfSpill,
+            long waitTimeoutMs)
+    {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        long pollInterval = MIN_POLL_INTERVAL_MS;
+        while (true) {
+            try {
+                return getObjectBytes(spillLocation);
+            }
+            catch (AmazonS3Exception ex) {
+                if (ex.getStatusCode() != NOT_FOUND) {
+                    throw ex;
+                }
+            }
+
+            // Every block is written before the marker, so a block still missing once the marker exists never will be.
+            long blockCount = endOfSpill.getBlockCount();
+            if (blockCount >= 0) {
+                if (spillNumber < blockCount) {
+                    throw new RuntimeException("Spilled block " + spillLocation + " is missing but the spill ended with " +
+                            blockCount + " blocks.");
+                }
+                return null;
+            }
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new RuntimeException("Spilled block " + spillLocation + " did not appear within " + waitTimeoutMs +
+                        " ms and the spill has not ended.");
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(Math.min(pollInterval, remaining));
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ex);
+            }
+            pollInterval = Math.min(pollInterval * 2, MAX_POLL_INTERVAL_MS);
         }
-        catch (IOException ex) {
-            throw new RuntimeException(ex);
+    }
+
+    /**
+     * Tracks the end of spill marker of a followed spill directory, which holds the number of blocks spilled. Once the
+     * marker has been read the spill is known to have ended and it isn't read again. Until then it is checked at most
+     * once per MAX_POLL_INTERVAL_MS, shared by all blocks being fetched, rather than on every poll of every missing
+     * block.
+     */
+    private class EndOfSpill
+    {
+        private final S3SpillLocation location;
+        private final AtomicLong blockCount = new AtomicLong(-1);
+        private final AtomicLong nextCheckMs = new AtomicLong(0);
+
+        private EndOfSpill(S3SpillLocation location)
+        {
+            this.location = location;
         }
-        finally {
-            if (fullObject != null) {
-                try {
-                    fullObject.close();
-                }
-                catch (IOException ex) {
-                    logger.warn("read: Exception while closing S3 object", ex);
+
+        /**
+         * @return The number of blocks spilled, or -1 if the spill has not ended yet.
+         */
+        private long getBlockCount()
+        {
+            if (blockCount.get() >= 0) {
+                return blockCount.get();
+            }
+
+            long now = System.currentTimeMillis();
+            long nextCheck = nextCheckMs.get();
+            if (now < nextCheck || !nextCheckMs.compareAndSet(nextCheck, now + MAX_POLL_INTERVAL_MS)) {
+                return -1;
+            }
+
+            byte[] bytes;
+            try {
+                bytes = getObjectBytes(location);
+            }
+            catch (AmazonS3Exception ex) {
+                if (ex.getStatusCode() != NOT_FOUND) {
+                    throw ex;
                 }
+                return -1;
+            }
+
+            String marker = new String(bytes, StandardCharsets.UTF_8).trim();
+            try {
+                blockCount.set(Long.parseLong(marker));
+            }
+            catch (NumberFormatException ex) {
+                throw new RuntimeException("End of spill marker " + location + " does not hold a block count: " + marker, ex);
+            }
+            return blockCount.get();
+        }
+    }
+
+    /**
+     * Reads the spilled object into a byte[] sized from the object's content length, avoiding the repeated buffer
+     * growth (and copies) of reading a stream of unknown length.
+     */
+    private byte[] getObjectBytes(S3SpillLocation spillLocation)
+    {
+        logger.debug("read: Started reading block from S3");
+        try (S3Object fullObject = amazonS3.getObject(spillLocation.getBucket(), spillLocation.getKey());
+                InputStream in = fullObject.getObjectContent()) {
+            long contentLength = fullObject.getObjectMetadata() != null ? fullObject.getObjectMetadata().getContentLength() : 0;
+            byte[] bytes;
+            if (contentLength > 0 && contentLength < Integer.MAX_VALUE) {
+                bytes = new byte[(int) contentLength];
+                ByteStreams.readFully(in, bytes);
             }
+            else {
+                bytes = ByteStreams.toByteArray(in);
+            }
+            logger.debug("read: Completed reading block from S3");
+            return bytes;
+        }
+        catch (IOException ex) {
+            throw new RuntimeException(ex);
         }
     }
 }
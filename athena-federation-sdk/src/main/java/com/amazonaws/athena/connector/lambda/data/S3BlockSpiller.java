@@ -40,6 +40,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +50,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -100,6 +102,8 @@ public class S3BlockSpiller
     //pre-fetch/pipeline reads before write are completed may use this characteristic of the writes
     //to ensure consistency
     private final AtomicLong spillNumber = new AtomicLong(0);
+    //Set once the end of spill marker has been written for readers following the spill directory.
+    private final AtomicBoolean endOfSpillMarked = new AtomicBoolean(false);
     //Holder that is used to surface any exceptions encountered in our background spill threads.
     private final AtomicReference<RuntimeException> asyncException = new AtomicReference<>(null);
     //
@@ -272,6 +276,14 @@ public class S3BlockSpiller
             }
 
             lock.lock();
+            //All async spills have completed now that we hold the write lock, if any of them failed the spill is
+            //missing a block so we fail rather than mark the end of it.
+            if (asyncException.get() != null) {
+                throw asyncException.get();
+            }
+            if (spillConfig.isFollowedReads()) {
+                markEndOfSpill();
+            }
             return spillLocations;
         }
         finally {
@@ -279,6 +291,28 @@ public class S3BlockSpiller
         }
     }
 
+    /**
+     * Writes the end of spill marker once all blocks have been written, which tells readers following the spill
+     * directory (see S3BlockSpillReader#follow) that a missing block will not appear. The marker holds the number of
+     * blocks spilled. Only written if the SpillConfig enables followed reads, since it costs a synchronous write.
+     * Failing to write the marker fails the call, otherwise readers following the spill would wait for a block that
+     * never appears until they time out.
+     */
+    private void markEndOfSpill()
+    {
+        if (endOfSpillMarked.get()) {
+            return;
+        }
+        S3SpillLocation endOfSpill = makeEndOfSpillLocation((S3SpillLocation) spillConfig.getSpillLocation());
+        byte[] bytes = String.valueOf(spillNumber.get()).getBytes(StandardCharsets.UTF_8);
+        ObjectMetadata objMeta = new ObjectMetadata();
+        objMeta.setContentLength(bytes.length);
+        PutObjectRequest request = new PutObjectRequest(endOfSpill.getBucket(), endOfSpill.getKey(), new ByteArrayInputStream(bytes), objMeta);
+        setRequestHeadersFromEnv(request);
+        amazonS3.putObject(request);
+        endOfSpillMarked.set(true);
+    }
+
     /**
      * Frees any resources held by this BlockSpiller.
      *
@@ -460,8 +494,32 @@ public class S3BlockSpiller
         if (!splitSpillLocation.isDirectory()) {
             throw new RuntimeException("Split's SpillLocation must be a directory because multiple blocks may be spilled.");
         }
-        String blockKey = splitSpillLocation.getKey() + "." + spillNumber.getAndIncrement();
-        return new S3SpillLocation(splitSpillLocation.getBucket(), blockKey, false);
+        return makeSpillLocation(splitSpillLocation, spillNumber.getAndIncrement());
+    }
+
+    /**
+     * Builds the location of the Nth block spilled to the given spill directory. Blocks are numbered from 0 in the
+     * order they are spilled, which allows readers to follow a spill directory while it is still being written.
+     *
+     * @param spillDirectory The split's spill directory.
+     * @param spillNumber The number of the block within the spill directory.
+     * @return The location of the block.
+     */
+    static S3SpillLocation makeSpillLocation(S3SpillLocation spillDirectory, long spillNumber)
+    {
+        String blockKey = spillDirectory.getKey() + "." + spillNumber;
+        return new S3SpillLocation(spillDirectory.getBucket(), blockKey, false);
+    }
+
+    /**
+     * Builds the location of the marker written once all blocks of the given spill directory have been spilled.
+     *
+     * @param spillDirectory The split's spill directory.
+     * @return The location of the end of spill marker.
+     */
+    static S3SpillLocation makeEndOfSpillLocation(S3SpillLocation spillDirectory)
+    {
+        return new S3SpillLocation(spillDirectory.getBucket(), spillDirectory.getKey() + ".end", false);
     }
 
     /**
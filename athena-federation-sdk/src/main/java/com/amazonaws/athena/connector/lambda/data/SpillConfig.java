@@ -44,6 +44,8 @@ public class SpillConfig
     private final long maxInlineBlockSize;
     //The default number of threads to use for async spill operations. 0 indicates that the calling thread should be used.
     private final int numSpillThreads;
+    //If true, readers follow the spill directory while it is written and need the end of spill marker.
+    private final boolean followedReads;
 
     private SpillConfig(Builder builder)
     {
@@ -53,6 +55,7 @@ public class SpillConfig
         maxBlockBytes = builder.maxBlockBytes;
         maxInlineBlockSize = builder.maxInlineBlockSize;
         numSpillThreads = builder.numSpillThreads;
+        followedReads = builder.followedReads;
     }
 
     /**
@@ -112,6 +115,16 @@ public class SpillConfig
         return numSpillThreads;
     }
 
+    /**
+     * Gets whether readers follow the spill directory while it is written (see S3BlockSpillReader#follow), in which
+     * case the BlockSpiller marks the end of the spill once all blocks have been written.
+     * @return True if the end of the spill should be marked.
+     */
+    public boolean isFollowedReads()
+    {
+        return followedReads;
+    }
+
     public static Builder newBuilder()
     {
         return new Builder();
@@ -133,6 +146,7 @@ public class SpillConfig
         private long maxBlockBytes;
         private long maxInlineBlockSize;
         private int numSpillThreads = DEFAULT_SPILL_THREADS;
+        private boolean followedReads;
 
         private Builder() {}
 
@@ -172,6 +186,12 @@ public class SpillConfig
             return this;
         }
 
+        public Builder withFollowedReads(boolean val)
+        {
+            followedReads = val;
+            return this;
+        }
+
         public SpillConfig build()
         {
             return new SpillConfig(this);
@@ -0,0 +1,214 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Iterates over spilled Blocks, in spill order, while fetching and decrypting up to maxInFlight of the upcoming Blocks
+ * in parallel. At most maxInFlight Blocks are being fetched or waiting to be consumed at any time, which bounds the
+ * memory used by the prefetch. Each Block returned by next() belongs to the caller, who is responsible for closing it.
+ * Blocks that were prefetched but never returned are closed by close().
+ * <p>
+ * The iterator ends when the spill locations are exhausted or when a fetch returns null, which is how a reader that
+ * follows a spill directory while it is still being written signals that no further Block appeared.
+ *
+ * @see S3BlockSpillReader
+ */
+public class SpilledBlockIterator
+        implements Iterator<Block>, AutoCloseable
+{
+    private static final Logger logger = LoggerFactory.getLogger(SpilledBlockIterator.class);
+
+    private final Iterator<S3SpillLocation> locations;
+    private final Function<S3SpillLocation, Block> fetcher;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final Deque<Prefetch> inFlight = new ArrayDeque<>();
+    private Block nextBlock;
+    private boolean done = false;
+
+    /**
+     * @param locations The spill locations to read, in the order their Blocks should be returned.
+     * @param fetcher Fetches and decrypts the Block at a spill location, or returns null if there is no such Block.
+     * @param executor The executor used to fetch Blocks in parallel.
+     * @param maxInFlight The max number of Blocks to fetch ahead of the consumer.
+     */
+    public SpilledBlockIterator(Iterator<S3SpillLocation> locations, Function<S3SpillLocation, Block> fetcher, ExecutorService executor, int maxInFlight)
+    {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be >= 1 but was " + maxInFlight);
+        }
+        this.locations = requireNonNull(locations, "locations is null");
+        this.fetcher = requireNonNull(fetcher, "fetcher is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.maxInFlight = maxInFlight;
+        prefetch();
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if (nextBlock != null) {
+            return true;
+        }
+        if (done) {
+            return false;
+        }
+
+        Prefetch head = inFlight.poll();
+        if (head == null) {
+            done = true;
+            return false;
+        }
+
+        await(head.future);
+        nextBlock = head.take();
+        if (nextBlock == null) {
+            //The end of the spilled Blocks, any later fetches can't produce a Block that should be returned.
+            close();
+            return false;
+        }
+        prefetch();
+        return true;
+    }
+
+    @Override
+    public Block next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Block result = nextBlock;
+        nextBlock = null;
+        return result;
+    }
+
+    /**
+     * Stops any outstanding fetches and closes any Blocks that were fetched but not returned by next().
+     */
+    @Override
+    public void close()
+    {
+        done = true;
+        closeQuietly(nextBlock);
+        nextBlock = null;
+
+        for (Prefetch next : inFlight) {
+            //A fetch that is still running closes its own Block once it sees that it was abandoned
+            closeQuietly(next.abandon());
+            next.future.cancel(true);
+        }
+        inFlight.clear();
+    }
+
+    private void prefetch()
+    {
+        while (!done && inFlight.size() < maxInFlight && locations.hasNext()) {
+            S3SpillLocation location = locations.next();
+            Prefetch prefetch = new Prefetch();
+            prefetch.future = executor.submit(() -> {
+                Block block = fetcher.apply(location);
+                if (!prefetch.offer(block)) {
+                    closeQuietly(block);
+                }
+            });
+            inFlight.add(prefetch);
+        }
+    }
+
+    private void await(Future<?> future)
+    {
+        try {
+            future.get();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new RuntimeException(ex);
+        }
+        catch (ExecutionException ex) {
+            close();
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+    /**
+     * Hands the Block fetched by a background task over to the iterator, unless the iterator abandoned it first.
+     */
+    private static class Prefetch
+    {
+        private Future<?> future;
+        private Block block;
+        private boolean abandoned;
+
+        synchronized boolean offer(Block block)
+        {
+            if (abandoned) {
+                return false;
+            }
+            this.block = block;
+            return true;
+        }
+
+        synchronized Block take()
+        {
+            Block result = block;
+            block = null;
+            return result;
+        }
+
+        synchronized Block abandon()
+        {
+            abandoned = true;
+            return take();
+        }
+    }
+
+    private static void closeQuietly(Block block)
+    {
+        if (block == null) {
+            return;
+        }
+        try {
+            block.close();
+        }
+        catch (Exception ex) {
+            logger.warn("closeQuietly: Exception while closing prefetched block.", ex);
+        }
+    }
+}
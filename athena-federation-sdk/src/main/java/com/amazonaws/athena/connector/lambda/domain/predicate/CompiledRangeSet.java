@@ -0,0 +1,366 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * A compiled form of a SortedRangeSet over a primitive column (integers, DATEDAY, floating point and DATEMILLI). The
+ * ranges are flattened into sorted arrays of bounds so that testing a value is a binary search over primitives instead
+ * of a TreeMap lookup that allocates and compares Markers. Use {@link SortedRangeSet#compile()} to obtain an instance,
+ * SortedRangeSet and ConstraintEvaluator already use it automatically where possible.
+ * <p>
+ * Values are compared with the same semantics as {@link com.amazonaws.athena.connector.lambda.data.ArrowTypeComparator},
+ * notably unsigned types are compared as signed values and NaN is the largest floating point value.
+ */
+public final class CompiledRangeSet
+{
+    //DATEMILLI values are encoded as nanos since the epoch, which a long can only hold for these years.
+    private static final int MIN_DATE_MILLI_YEAR = 1678;
+    private static final int MAX_DATE_MILLI_YEAR = 2261;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private enum Kind
+    {
+        INTEGRAL,
+        FLOATING_POINT,
+        DATE_MILLI
+    }
+
+    private final Kind kind;
+    //The only Java type accepted for values, the same type the column's Markers hold.
+    private final Class<?> valueClass;
+    private final boolean nullAllowed;
+    private final int rangeCount;
+    //Range i covers lows[i] to highs[i], ranges are sorted and do not overlap. Only one pair of arrays is used
+    //depending on the kind of column.
+    private final long[] longLows;
+    private final long[] longHighs;
+    private final double[] doubleLows;
+    private final double[] doubleHighs;
+    private final boolean[] lowInclusive;
+    private final boolean[] highInclusive;
+
+    private CompiledRangeSet(Kind kind, Class<?> valueClass, boolean nullAllowed, int rangeCount)
+    {
+        this.kind = kind;
+        this.valueClass = valueClass;
+        this.nullAllowed = nullAllowed;
+        this.rangeCount = rangeCount;
+        boolean floatingPoint = kind == Kind.FLOATING_POINT;
+        this.longLows = floatingPoint ? null : new long[rangeCount];
+        this.longHighs = floatingPoint ? null : new long[rangeCount];
+        this.doubleLows = floatingPoint ? new double[rangeCount] : null;
+        this.doubleHighs = floatingPoint ? new double[rangeCount] : null;
+        this.lowInclusive = new boolean[rangeCount];
+        this.highInclusive = new boolean[rangeCount];
+    }
+
+    /**
+     * Attempts to compile the given SortedRangeSet.
+     *
+     * @param rangeSet The SortedRangeSet to compile.
+     * @return The compiled form, or null if the type of the SortedRangeSet or one of its bounds is not supported.
+     */
+    static CompiledRangeSet compile(SortedRangeSet rangeSet)
+    {
+        Kind kind = kindOf(rangeSet.getType());
+        if (kind == null) {
+            return null;
+        }
+
+        List<Range> ranges = rangeSet.getOrderedRanges();
+        CompiledRangeSet compiled = new CompiledRangeSet(kind, valueClassOf(rangeSet.getType()), rangeSet.isNullAllowed(),
+                ranges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            if (!compiled.setLow(i, ranges.get(i).getLow()) || !compiled.setHigh(i, ranges.get(i).getHigh())) {
+                return null;
+            }
+        }
+        return compiled;
+    }
+
+    private static Kind kindOf(ArrowType type)
+    {
+        switch (Types.getMinorTypeForArrowType(type)) {
+            case TINYINT:
+            case UINT1:
+            case SMALLINT:
+            case INT:
+            case UINT4:
+            case BIGINT:
+            case UINT8:
+            case DATEDAY:
+                return Kind.INTEGRAL;
+            case FLOAT4:
+            case FLOAT8:
+                return Kind.FLOATING_POINT;
+            case DATEMILLI:
+                return Kind.DATE_MILLI;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The Java type of the values held by Markers of the given type, see ArrowTypeComparator. Values of any other type
+     * aren't compiled, they keep being tested (and converted or rejected) the way they were before compiling.
+     */
+    private static Class<?> valueClassOf(ArrowType type)
+    {
+        switch (Types.getMinorTypeForArrowType(type)) {
+            case TINYINT:
+            case UINT1:
+                return Byte.class;
+            case SMALLINT:
+                return Short.class;
+            case INT:
+            case UINT4:
+            case DATEDAY:
+                return Integer.class;
+            case BIGINT:
+            case UINT8:
+                return Long.class;
+            case FLOAT4:
+                return Float.class;
+            case FLOAT8:
+                return Double.class;
+            default:
+                return LocalDateTime.class;
+        }
+    }
+
+    private boolean setLow(int index, Marker low)
+    {
+        if (low.isLowerUnbounded()) {
+            //Every value (including NaN) is at least as large as these sentinels.
+            setBound(index, true, Long.MIN_VALUE, Double.NEGATIVE_INFINITY);
+            lowInclusive[index] = true;
+            return true;
+        }
+        if (low.isNullValue() || !accepts(low.getValue())) {
+            return false;
+        }
+        switch (low.getBound()) {
+            case EXACTLY:
+                lowInclusive[index] = true;
+                break;
+            case ABOVE:
+                lowInclusive[index] = false;
+                break;
+            default:
+                return false;
+        }
+        setBound(index, true, toLong(low.getValue()), toDouble(low.getValue()));
+        return true;
+    }
+
+    private boolean setHigh(int index, Marker high)
+    {
+        if (high.isUpperUnbounded()) {
+            //No value compares larger than these sentinels, NaN being the largest double.
+            setBound(index, false, Long.MAX_VALUE, Double.NaN);
+            highInclusive[index] = true;
+            return true;
+        }
+        if (high.isNullValue() || !accepts(high.getValue())) {
+            return false;
+        }
+        switch (high.getBound()) {
+            case EXACTLY:
+                highInclusive[index] = true;
+                break;
+            case BELOW:
+                highInclusive[index] = false;
+                break;
+            default:
+                return false;
+        }
+        setBound(index, false, toLong(high.getValue()), toDouble(high.getValue()));
+        return true;
+    }
+
+    private void setBound(int index, boolean low, long longValue, double doubleValue)
+    {
+        if (kind == Kind.FLOATING_POINT) {
+            (low ? doubleLows : doubleHighs)[index] = doubleValue;
+        }
+        else {
+            (low ? longLows : longHighs)[index] = longValue;
+        }
+    }
+
+    private long toLong(Object value)
+    {
+        switch (kind) {
+            case INTEGRAL:
+                return ((Number) value).longValue();
+            case DATE_MILLI:
+                LocalDateTime dateTime = (LocalDateTime) value;
+                return dateTime.toEpochSecond(ZoneOffset.UTC) * NANOS_PER_SECOND + dateTime.getNano();
+            default:
+                return 0;
+        }
+    }
+
+    private double toDouble(Object value)
+    {
+        return (kind == Kind.FLOATING_POINT) ? ((Number) value).doubleValue() : 0;
+    }
+
+    /**
+     * Conveys if NULLs satisfy this constraint.
+     *
+     * @return True if NULLs satisfy this constraint, false otherwise.
+     */
+    public boolean isNullAllowed()
+    {
+        return nullAllowed;
+    }
+
+    /**
+     * @return The number of disjoint ranges in this set.
+     */
+    public int getRangeCount()
+    {
+        return rangeCount;
+    }
+
+    /**
+     * Conveys if the given value can be tested by this compiled form. Only values of the Java type the column's Markers
+     * hold are accepted (e.g. Long but not Integer for BIGINT), values of other Java types (or DATEMILLI values beyond
+     * the supported years) need to be tested via the SortedRangeSet itself.
+     *
+     * @param value The value to test, may be null.
+     * @return True if {@link #containsValue(Object)} supports the value.
+     */
+    public boolean accepts(Object value)
+    {
+        if (value == null) {
+            return true;
+        }
+        if (value.getClass() != valueClass) {
+            return false;
+        }
+        if (kind == Kind.DATE_MILLI) {
+            int year = ((LocalDateTime) value).getYear();
+            return year >= MIN_DATE_MILLI_YEAR && year <= MAX_DATE_MILLI_YEAR;
+        }
+        return true;
+    }
+
+    /**
+     * Used to test if the supplied value is contained in this set.
+     *
+     * @param value The value to test, must be supported as per {@link #accepts(Object)}.
+     * @return True if the value is contained in the set, False otherwise.
+     */
+    public boolean containsValue(Object value)
+    {
+        if (value == null) {
+            return nullAllowed;
+        }
+        if (kind == Kind.FLOATING_POINT) {
+            return containsDouble(((Number) value).doubleValue());
+        }
+        return containsLong(toLong(value));
+    }
+
+    /**
+     * Used to test if the supplied value of an integer or DATEDAY column is contained in this set.
+     *
+     * @param value The value to test.
+     * @return True if the value is contained in the set, False otherwise.
+     */
+    public boolean contains(long value)
+    {
+        if (kind != Kind.INTEGRAL) {
+            throw new IllegalStateException("Can not test a long value against a " + kind + " range set");
+        }
+        return containsLong(value);
+    }
+
+    /**
+     * Used to test if the supplied value of a floating point column is contained in this set.
+     *
+     * @param value The value to test.
+     * @return True if the value is contained in the set, False otherwise.
+     */
+    public boolean contains(double value)
+    {
+        if (kind != Kind.FLOATING_POINT) {
+            throw new IllegalStateException("Can not test a double value against a " + kind + " range set");
+        }
+        return containsDouble(value);
+    }
+
+    private boolean containsLong(long value)
+    {
+        //Find the last range whose lower bound admits the value, the equivalent of TreeMap.floorEntry.
+        int lo = 0;
+        int hi = rangeCount - 1;
+        int candidate = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long low = longLows[mid];
+            if (low < value || (low == value && lowInclusive[mid])) {
+                candidate = mid;
+                lo = mid + 1;
+            }
+            else {
+                hi = mid - 1;
+            }
+        }
+        if (candidate < 0) {
+            return false;
+        }
+        long high = longHighs[candidate];
+        return value < high || (value == high && highInclusive[candidate]);
+    }
+
+    private boolean containsDouble(double value)
+    {
+        int lo = 0;
+        int hi = rangeCount - 1;
+        int candidate = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int compare = Double.compare(doubleLows[mid], value);
+            if (compare < 0 || (compare == 0 && lowInclusive[mid])) {
+                candidate = mid;
+                lo = mid + 1;
+            }
+            else {
+                hi = mid - 1;
+            }
+        }
+        if (candidate < 0) {
+            return false;
+        }
+        int compare = Double.compare(value, doubleHighs[candidate]);
+        return compare < 0 || (compare == 0 && highInclusive[candidate]);
+    }
+}
@@ -47,7 +47,8 @@ import java.util.Optional;
  * <p>
  * For usage examples, please see the ExampleRecordHandler or connectors like athena-redis.
  * <p>
- * TODO: We can improve the filtering performance of ConstraintEvaluator by refactoring how ValueSets and Markers works.
+ * Constraints on primitive columns are evaluated via their {@link CompiledRangeSet} where possible, other values
+ * are still converted to a Marker for every call.
  * @see ValueSet for details on how Constraints are represented and individually applied.
  */
 public class ConstraintEvaluator
@@ -97,6 +98,14 @@ public class ConstraintEvaluator
         try {
             ValueSet constraint = constraints.getSummary().get(fieldName);
             if (constraint != null && typeMap.get(fieldName) != null) {
+                if (constraint instanceof SortedRangeSet && constraint.getType().equals(typeMap.get(fieldName))) {
+                    //Primitive values can be tested without materializing a Marker, the field's constraint is compiled
+                    //on first use and the compiled form kept by the SortedRangeSet.
+                    CompiledRangeSet compiled = ((SortedRangeSet) constraint).getCompiled();
+                    if (compiled != null && compiled.accepts(value)) {
+                        return compiled.containsValue(value);
+                    }
+                }
                 try (Marker marker = markerFactory.createNullable(typeMap.get(fieldName),
                         value,
                         Marker.Bound.EXACTLY)) {
@@ -36,6 +36,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.TreeMap;
 
 import static java.util.Objects.requireNonNull;
@@ -52,6 +53,9 @@ public class SortedRangeSet
     private final boolean nullAllowed;
     private final ArrowType type;
     private final NavigableMap<ValueMarker, Range> lowIndexedRanges;
+    //Lazily compiled form of this set, see compile()
+    private volatile boolean compileAttempted;
+    private CompiledRangeSet compiled;
 
     private SortedRangeSet(ArrowType type, NavigableMap<ValueMarker, Range> lowIndexedRanges, boolean nullAllowed)
     {
@@ -289,11 +293,40 @@ public class SortedRangeSet
         else if (value == null && !nullAllowed) {
             return false;
         }
+        CompiledRangeSet compiledRangeSet = getCompiled();
+        if (compiledRangeSet != null && compiledRangeSet.accepts(value)) {
+            return compiledRangeSet.containsValue(value);
+        }
         LiteralValueMarker marker = new LiteralValueMarker(value, type);
         Map.Entry<ValueMarker, Range> floorEntry = lowIndexedRanges.floorEntry(marker);
         return floorEntry != null && floorEntry.getValue().includes(marker);
     }
 
+    /**
+     * Provides a compiled form of this ValueSet which can test primitive values without allocating or comparing
+     * Markers. The compiled form is built once and shared by all callers.
+     *
+     * @return The compiled form of this ValueSet, or empty if its type or bounds are not supported.
+     * @see CompiledRangeSet
+     */
+    public Optional<CompiledRangeSet> compile()
+    {
+        return Optional.ofNullable(getCompiled());
+    }
+
+    /**
+     * @return The compiled form of this ValueSet, compiled on first use, or null if it is not supported.
+     */
+    CompiledRangeSet getCompiled()
+    {
+        if (!compileAttempted) {
+            //Racing threads may both compile, the results are equivalent
+            compiled = CompiledRangeSet.compile(this);
+            compileAttempted = true;
+        }
+        return compiled;
+    }
+
     boolean includesMarker(Marker marker)
     {
         requireNonNull(marker, "marker is null");
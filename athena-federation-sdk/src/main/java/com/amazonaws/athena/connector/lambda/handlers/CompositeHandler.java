@@ -28,7 +28,7 @@ import com.amazonaws.athena.connector.lambda.request.FederationRequest;
 import com.amazonaws.athena.connector.lambda.request.FederationResponse;
 import com.amazonaws.athena.connector.lambda.request.PingRequest;
 import com.amazonaws.athena.connector.lambda.request.PingResponse;
-import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.amazonaws.athena.connector.lambda.serde.MessageSerDe;
 import com.amazonaws.athena.connector.lambda.udf.UserDefinedFunctionRequest;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
@@ -95,12 +95,12 @@ public class CompositeHandler
             throws IOException
     {
         try (BlockAllocatorImpl allocator = new BlockAllocatorImpl()) {
-            ObjectMapper objectMapper = VersionedObjectMapperFactory.create(allocator);
-            try (FederationRequest rawReq = objectMapper.readValue(inputStream, FederationRequest.class)) {
+            MessageSerDe serDe = MessageSerDe.forRequest(inputStream);
+            try (FederationRequest rawReq = serDe.readRequest(allocator)) {
                 if (rawReq instanceof MetadataRequest) {
                     ((MetadataRequest) rawReq).setContext(context);
                 }
-                handleRequest(allocator, rawReq, outputStream, objectMapper);
+                handleRequest(allocator, rawReq, outputStream, serDe);
             }
         }
         catch (Exception ex) {
@@ -122,23 +122,29 @@ public class CompositeHandler
      */
     public final void handleRequest(BlockAllocator allocator, FederationRequest rawReq, OutputStream outputStream, ObjectMapper objectMapper)
             throws Exception
+    {
+        handleRequest(allocator, rawReq, outputStream, MessageSerDe.forJsonResponse(objectMapper));
+    }
+
+    private void handleRequest(BlockAllocator allocator, FederationRequest rawReq, OutputStream outputStream, MessageSerDe serDe)
+            throws Exception
     {
         if (rawReq instanceof PingRequest) {
-            try (PingResponse response = metadataHandler.doPing((PingRequest) rawReq)) {
+            try (PingResponse response = metadataHandler.doPing((PingRequest) rawReq, serDe.getSerDeVersion())) {
                 assertNotNull(response);
-                objectMapper.writeValue(outputStream, response);
+                serDe.writeResponse(outputStream, response);
             }
             return;
         }
 
         if (rawReq instanceof MetadataRequest) {
-            metadataHandler.doHandleRequest(allocator, objectMapper, (MetadataRequest) rawReq, outputStream);
+            metadataHandler.doHandleRequest(allocator, serDe, (MetadataRequest) rawReq, outputStream);
         }
         else if (rawReq instanceof RecordRequest) {
-            recordHandler.doHandleRequest(allocator, objectMapper, (RecordRequest) rawReq, outputStream);
+            recordHandler.doHandleRequest(allocator, serDe, (RecordRequest) rawReq, outputStream);
         }
         else if (udfhandler != null && rawReq instanceof UserDefinedFunctionRequest) {
-            udfhandler.doHandleRequest(allocator, objectMapper, (UserDefinedFunctionRequest) rawReq, outputStream);
+            udfhandler.doHandleRequest(allocator, serDe, (UserDefinedFunctionRequest) rawReq, outputStream);
         }
         else {
             throw new IllegalArgumentException("Unknown request class " + rawReq.getClass());
@@ -47,6 +47,9 @@ import com.amazonaws.services.glue.model.Table;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import org.apache.arrow.util.VisibleForTesting;
 import org.apache.arrow.vector.types.pojo.ArrowType;
@@ -62,6 +65,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -88,6 +92,11 @@ import static com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest.U
  * It is unclear at this time how many sources will have meaningful partition info in Glue but many sources (DocDB, Hbase, Redis)
  * benefited from having basic schema information in Glue. As a result we punted support for partition information to
  * a later time.
+ * <p>
+ * Glue responses, and the Schemas parsed from them, can optionally be cached by setting the
+ * {@value #METADATA_CACHE_TTL_ENV} environment variable (or calling {@link #configureMetadataCache(long, int)}). Cached
+ * tables older than the TTL are re-fetched from Glue, but their parsed Schema is reused as long as the Glue table
+ * UpdateTime has not changed.
  *
  * @note All schema names, table names, and column names must be lower case at this time. Any entities that are uppercase or
  * mixed case will not be accessible in queries and will be lower cased by Athena's engine to ensure consistency across
@@ -107,6 +116,11 @@ public abstract class GlueMetadataHandler
     //name of the environment variable that can be used to set which Glue catalog to use (e.g. setting this to
     //a different aws account id allows you to use cross-account catalogs)
     private static final String CATALOG_NAME_ENV_OVERRIDE = "glue_catalog";
+    //name of the environment variable that enables caching of Glue metadata for the given number of milliseconds
+    public static final String METADATA_CACHE_TTL_ENV = "glue_metadata_cache_ttl_ms";
+    //name of the environment variable that bounds the number of cached tables and listings
+    public static final String METADATA_CACHE_MAX_SIZE_ENV = "glue_metadata_cache_max_size";
+    private static final int DEFAULT_METADATA_CACHE_MAX_SIZE = 1_000;
     //This is to override the connection timeout on the Glue client.
     //The default is 10 seconds, which when retried is 40 seconds.
     //Lower to 250 ms, 1 second with retry.
@@ -135,6 +149,15 @@ public abstract class GlueMetadataHandler
 
     private final AWSGlue awsGlue;
 
+    private volatile long metadataCacheTtlMs;
+    private volatile Ticker ticker = Ticker.systemTicker();
+    //Tables and their parsed Schemas, keyed by catalog, database and table name
+    private volatile Cache<String, CachedTable> tableCache;
+    //Unfiltered database listings, keyed by catalog
+    private volatile Cache<String, List<Database>> databaseCache;
+    //Unfiltered, unpaginated table listings, keyed by catalog and database
+    private volatile Cache<String, List<Table>> tableListCache;
+
     /**
      * Basic constructor which is recommended when extending this class.
      *
@@ -153,6 +176,7 @@ public abstract class GlueMetadataHandler
                     .withClientConfiguration(new ClientConfiguration().withConnectionTimeout(CONNECT_TIMEOUT))
                     .build();
         }
+        configureMetadataCacheFromEnv();
     }
 
     /**
@@ -165,6 +189,7 @@ public abstract class GlueMetadataHandler
     {
         super(sourceType);
         this.awsGlue = awsGlue;
+        configureMetadataCacheFromEnv();
     }
 
     /**
@@ -188,6 +213,76 @@ public abstract class GlueMetadataHandler
     {
         super(encryptionKeyFactory, secretsManager, athena, sourceType, spillBucket, spillPrefix);
         this.awsGlue = awsGlue;
+        configureMetadataCacheFromEnv();
+    }
+
+    private void configureMetadataCacheFromEnv()
+    {
+        String ttl = System.getenv(METADATA_CACHE_TTL_ENV);
+        String maxSize = System.getenv(METADATA_CACHE_MAX_SIZE_ENV);
+        configureMetadataCache(Strings.isNullOrEmpty(ttl) ? 0 : Long.parseLong(ttl.trim()),
+                Strings.isNullOrEmpty(maxSize) ? DEFAULT_METADATA_CACHE_MAX_SIZE : Integer.parseInt(maxSize.trim()),
+                Ticker.systemTicker());
+    }
+
+    /**
+     * Enables, resizes or disables the cache of Glue metadata used by this handler. Connectors can call this from their
+     * constructor to override the {@value #METADATA_CACHE_TTL_ENV} and {@value #METADATA_CACHE_MAX_SIZE_ENV} settings.
+     * Any previously cached metadata is discarded.
+     *
+     * @param ttlMs How long cached metadata is served without consulting Glue, 0 disables caching.
+     * @param maxSize The maximum number of tables, and separately of listings, to keep.
+     */
+    protected void configureMetadataCache(long ttlMs, int maxSize)
+    {
+        configureMetadataCache(ttlMs, maxSize, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    void configureMetadataCache(long ttlMs, int maxSize, Ticker ticker)
+    {
+        if (ttlMs < 0 || maxSize < 0) {
+            throw new IllegalArgumentException("Metadata cache ttl and size must be non-negative: " + ttlMs + ", " + maxSize);
+        }
+        this.ticker = ticker;
+        this.metadataCacheTtlMs = ttlMs;
+        if (ttlMs == 0) {
+            tableCache = null;
+            databaseCache = null;
+            tableListCache = null;
+            return;
+        }
+        //Tables are not expired by the cache itself, stale entries are revalidated against their Glue UpdateTime instead
+        tableCache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        databaseCache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .ticker(ticker)
+                .build();
+        tableListCache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Discards all cached Glue metadata, for example after the connector itself has modified the Glue DataCatalog.
+     */
+    protected void invalidateMetadataCache()
+    {
+        Cache<String, CachedTable> tables = tableCache;
+        Cache<String, List<Database>> databases = databaseCache;
+        Cache<String, List<Table>> tableLists = tableListCache;
+        if (tables != null) {
+            tables.invalidateAll();
+        }
+        if (databases != null) {
+            databases.invalidateAll();
+        }
+        if (tableLists != null) {
+            tableLists.invalidateAll();
+        }
     }
 
     /**
@@ -249,26 +344,42 @@ public abstract class GlueMetadataHandler
     protected ListSchemasResponse doListSchemaNames(BlockAllocator blockAllocator, ListSchemasRequest request, DatabaseFilter filter)
             throws Exception
     {
-        GetDatabasesRequest getDatabasesRequest = new GetDatabasesRequest();
-        getDatabasesRequest.setCatalogId(getCatalog(request));
+        String catalog = getCatalog(request);
+        Cache<String, List<Database>> cache = databaseCache;
+        List<Database> databases = (cache != null) ? cache.getIfPresent(catalog) : null;
+        if (databases == null) {
+            databases = getDatabases(catalog);
+            if (cache != null) {
+                cache.put(catalog, databases);
+            }
+        }
 
         List<String> schemas = new ArrayList<>();
+        for (Database next : databases) {
+            if (filter == null || filter.filter(next)) {
+                schemas.add(next.getName());
+            }
+        }
+
+        return new ListSchemasResponse(request.getCatalogName(), schemas);
+    }
+
+    private List<Database> getDatabases(String catalog)
+    {
+        GetDatabasesRequest getDatabasesRequest = new GetDatabasesRequest();
+        getDatabasesRequest.setCatalogId(catalog);
+
+        List<Database> databases = new ArrayList<>();
         String nextToken = null;
         do {
             getDatabasesRequest.setNextToken(nextToken);
             GetDatabasesResult result = awsGlue.getDatabases(getDatabasesRequest);
-
-            for (Database next : result.getDatabaseList()) {
-                if (filter == null || filter.filter(next)) {
-                    schemas.add(next.getName());
-                }
-            }
-
+            databases.addAll(result.getDatabaseList());
             nextToken = result.getNextToken();
         }
         while (nextToken != null);
 
-        return new ListSchemasResponse(request.getCatalogName(), schemas);
+        return databases;
     }
 
     /**
@@ -299,8 +410,28 @@ public abstract class GlueMetadataHandler
     protected ListTablesResponse doListTables(BlockAllocator blockAllocator, ListTablesRequest request, TableFilter filter)
             throws Exception
     {
+        String catalog = getCatalog(request);
+        Cache<String, List<Table>> cache = tableListCache;
+        if (cache != null && request.getNextToken() == null && request.getPageSize() == UNLIMITED_PAGE_SIZE_VALUE) {
+            //Only complete listings are cached, paginated requests always go to Glue
+            String key = cacheKey(catalog, request.getSchemaName());
+            List<Table> tableList = cache.getIfPresent(key);
+            if (tableList == null) {
+                tableList = getTables(catalog, request.getSchemaName());
+                cache.put(key, tableList);
+            }
+
+            Set<TableName> tables = new HashSet<>();
+            for (Table next : tableList) {
+                if (filter == null || filter.filter(next)) {
+                    tables.add(new TableName(request.getSchemaName(), next.getName()));
+                }
+            }
+            return new ListTablesResponse(request.getCatalogName(), tables, null);
+        }
+
         GetTablesRequest getTablesRequest = new GetTablesRequest();
-        getTablesRequest.setCatalogId(getCatalog(request));
+        getTablesRequest.setCatalogId(catalog);
         getTablesRequest.setDatabaseName(request.getSchemaName());
 
         Set<TableName> tables = new HashSet<>();
@@ -330,6 +461,25 @@ public abstract class GlueMetadataHandler
         return new ListTablesResponse(request.getCatalogName(), tables, nextToken);
     }
 
+    private List<Table> getTables(String catalog, String databaseName)
+    {
+        GetTablesRequest getTablesRequest = new GetTablesRequest();
+        getTablesRequest.setCatalogId(catalog);
+        getTablesRequest.setDatabaseName(databaseName);
+
+        List<Table> tables = new ArrayList<>();
+        String nextToken = null;
+        do {
+            getTablesRequest.setNextToken(nextToken);
+            GetTablesResult result = awsGlue.getTables(getTablesRequest);
+            tables.addAll(result.getTableList());
+            nextToken = result.getNextToken();
+        }
+        while (nextToken != null);
+
+        return tables;
+    }
+
     /**
      * Attempts to retrieve a Table (columns and properties) from AWS Glue for the request schema (aka database) and table
      * name with no fitlering.
@@ -377,18 +527,47 @@ public abstract class GlueMetadataHandler
             throws Exception
     {
         TableName tableName = request.getTableName();
-        com.amazonaws.services.glue.model.GetTableRequest getTableRequest = new com.amazonaws.services.glue.model.GetTableRequest();
-        getTableRequest.setCatalogId(getCatalog(request));
-        getTableRequest.setDatabaseName(tableName.getSchemaName());
-        getTableRequest.setName(tableName.getTableName());
+        String catalog = getCatalog(request);
+        Cache<String, CachedTable> cache = tableCache;
+        String key = cacheKey(catalog, tableName.getSchemaName(), tableName.getTableName());
+        CachedTable cached = (cache != null) ? cache.getIfPresent(key) : null;
+        long now = TimeUnit.NANOSECONDS.toMillis(ticker.read());
+
+        if (cached == null || now - cached.loadTimeMs >= metadataCacheTtlMs) {
+            com.amazonaws.services.glue.model.GetTableRequest getTableRequest = new com.amazonaws.services.glue.model.GetTableRequest();
+            getTableRequest.setCatalogId(catalog);
+            getTableRequest.setDatabaseName(tableName.getSchemaName());
+            getTableRequest.setName(tableName.getTableName());
+
+            GetTableResult result = awsGlue.getTable(getTableRequest);
+            Table table = result.getTable();
+
+            if (cached != null && cached.isSameVersion(table)) {
+                //The table has not changed since we parsed it so only its age needs refreshing
+                logger.debug("doGetTable: Reusing parsed schema for unchanged table {}", tableName);
+                cached = new CachedTable(table, cached.schema, cached.partitionCols, now);
+            }
+            else {
+                cached = buildTable(table, now);
+            }
 
-        GetTableResult result = awsGlue.getTable(getTableRequest);
-        Table table = result.getTable();
+            if (cache != null) {
+                cache.put(key, cached);
+            }
+        }
 
-        if (filter != null && !filter.filter(table)) {
+        if (filter != null && !filter.filter(cached.table)) {
             throw new RuntimeException("No matching table found " + request.getTableName());
         }
 
+        return new GetTableResponse(request.getCatalogName(),
+                request.getTableName(),
+                cached.schema,
+                cached.partitionCols);
+    }
+
+    private CachedTable buildTable(Table table, long loadTimeMs)
+    {
         SchemaBuilder schemaBuilder = SchemaBuilder.newBuilder();
         if (table.getParameters() != null) {
             table.getParameters()
@@ -445,10 +624,13 @@ public abstract class GlueMetadataHandler
 
         schemaBuilder.addMetadata(GLUE_TABLE_CONTAINS_PREVIOUSLY_UNSUPPORTED_TYPE, String.valueOf(glueTableContainsPreviouslyUnsupportedType));
 
-        return new GetTableResponse(request.getCatalogName(),
-                request.getTableName(),
-                schemaBuilder.build(),
-                partitionCols);
+        return new CachedTable(table, schemaBuilder.build(), partitionCols, loadTimeMs);
+    }
+
+    private static String cacheKey(String... parts)
+    {
+        //Glue names can not contain a slash so it is safe to use as a separator
+        return String.join("/", parts);
     }
 
     /**
@@ -469,6 +651,33 @@ public abstract class GlueMetadataHandler
         }
     }
 
+    /**
+     * A Glue table along with the Schema and partition columns parsed from it.
+     */
+    private static class CachedTable
+    {
+        private final Table table;
+        private final Schema schema;
+        private final Set<String> partitionCols;
+        private final long loadTimeMs;
+
+        CachedTable(Table table, Schema schema, Set<String> partitionCols, long loadTimeMs)
+        {
+            this.table = table;
+            this.schema = schema;
+            this.partitionCols = partitionCols;
+            this.loadTimeMs = loadTimeMs;
+        }
+
+        /**
+         * Glue bumps UpdateTime on every change to a table, tables without one are always treated as changed.
+         */
+        boolean isSameVersion(Table other)
+        {
+            return table.getUpdateTime() != null && table.getUpdateTime().equals(other.getUpdateTime());
+        }
+    }
+
     public interface TableFilter
     {
         /**
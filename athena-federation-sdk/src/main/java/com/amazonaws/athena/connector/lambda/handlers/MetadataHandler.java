@@ -51,20 +51,22 @@ import com.amazonaws.athena.connector.lambda.request.FederationResponse;
 import com.amazonaws.athena.connector.lambda.request.PingRequest;
 import com.amazonaws.athena.connector.lambda.request.PingResponse;
 import com.amazonaws.athena.connector.lambda.security.CachableSecretsManager;
+import com.amazonaws.athena.connector.lambda.security.DerivedKeyFactory;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKey;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory;
 import com.amazonaws.athena.connector.lambda.security.KmsKeyFactory;
 import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
-import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.amazonaws.athena.connector.lambda.security.PooledKeyFactory;
+import com.amazonaws.athena.connector.lambda.serde.MessageSerDe;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.athena.AmazonAthenaClientBuilder;
 import com.amazonaws.services.kms.AWSKMSClientBuilder;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
@@ -78,7 +80,6 @@ import java.util.UUID;
 
 import static com.amazonaws.athena.connector.lambda.handlers.AthenaExceptionFilter.ATHENA_EXCEPTION_FILTER;
 import static com.amazonaws.athena.connector.lambda.handlers.FederationCapabilities.CAPABILITIES;
-import static com.amazonaws.athena.connector.lambda.handlers.SerDeVersion.SERDE_VERSION;
 
 /**
  * This class defines the functionality required by any valid source of federated metadata for Athena. It is recommended
@@ -109,10 +110,22 @@ public abstract class MetadataHandler
     protected static final String SPILL_PREFIX_ENV = "spill_prefix";
     protected static final String KMS_KEY_ID_ENV = "kms_key_id";
     protected static final String DISABLE_SPILL_ENCRYPTION = "disable_spill_encryption";
+    //The max number of spill keys derived locally from a single KMS data key, 1 disables key derivation.
+    protected static final String KMS_KEYS_PER_DATA_KEY_ENV = "kms_keys_per_data_key";
+    //The number of KMS data keys to generate ahead of time in the background, 0 (the default) disables the pool.
+    protected static final String KMS_DATA_KEY_POOL_SIZE_ENV = "kms_data_key_pool_size";
+    //Deriving spill keys is opt-in, by default every spill key is its own KMS data key.
+    private static final int DEFAULT_KMS_KEYS_PER_DATA_KEY = 1;
+    //The max age of a KMS data key that spill keys are still derived from, a data key is never used across queries.
+    private static final long MAX_KMS_DATA_KEY_AGE_MS = 60_000;
+    //The max number of KMS data keys generated concurrently to fill the pool.
+    private static final int KMS_DATA_KEY_POOL_PARALLELISM = 4;
+    //The id of the query whose splits are being generated on this thread, spill keys are made for that query.
+    private static final ThreadLocal<String> SPLITS_QUERY_ID = new ThreadLocal<>();
 
     private final CachableSecretsManager secretsManager;
     private final AmazonAthena athena;
-    private final ThrottlingInvoker athenaInvoker = ThrottlingInvoker.newDefaultBuilder(ATHENA_EXCEPTION_FILTER).build();
+    private final ThrottlingInvoker athenaInvoker = ThrottlingInvoker.newDefaultBuilder(ATHENA_EXCEPTION_FILTER, "athena").build();
     private final EncryptionKeyFactory encryptionKeyFactory;
     private final String spillBucket;
     private final String spillPrefix;
@@ -131,7 +144,7 @@ public abstract class MetadataHandler
         if (System.getenv(DISABLE_SPILL_ENCRYPTION) == null ||
                 !DISABLE_ENCRYPTION.equalsIgnoreCase(System.getenv(DISABLE_SPILL_ENCRYPTION))) {
             encryptionKeyFactory = (System.getenv(KMS_KEY_ID_ENV) != null) ?
-                    new KmsKeyFactory(AWSKMSClientBuilder.standard().build(), System.getenv(KMS_KEY_ID_ENV)) :
+                    makeKmsKeyFactory(System.getenv(KMS_KEY_ID_ENV)) :
                     new LocalKeyFactory();
         }
         else {
@@ -152,6 +165,21 @@ public abstract class MetadataHandler
             String sourceType,
             String spillBucket,
             String spillPrefix)
+    {
+        this(encryptionKeyFactory, secretsManager, athena, AmazonS3ClientBuilder.standard().build(), sourceType, spillBucket, spillPrefix);
+    }
+
+    /**
+     * @param amazonS3 The S3 client used to check that the spill bucket is owned by the account.
+     * @param sourceType Used to aid in logging diagnostic info when raising a support case.
+     */
+    public MetadataHandler(EncryptionKeyFactory encryptionKeyFactory,
+            AWSSecretsManager secretsManager,
+            AmazonAthena athena,
+            AmazonS3 amazonS3,
+            String sourceType,
+            String spillBucket,
+            String spillPrefix)
     {
         this.encryptionKeyFactory = encryptionKeyFactory;
         this.secretsManager = new CachableSecretsManager(secretsManager);
@@ -159,7 +187,36 @@ public abstract class MetadataHandler
         this.sourceType = sourceType;
         this.spillBucket = spillBucket;
         this.spillPrefix = spillPrefix;
-        this.verifier = new SpillLocationVerifier(AmazonS3ClientBuilder.standard().build());
+        this.verifier = new SpillLocationVerifier(amazonS3);
+    }
+
+    /**
+     * Builds the KMS backed EncryptionKeyFactory, layering in the (optional) pool of pre-generated data keys and the
+     * local derivation of spill keys from each data key as configured via the environment.
+     *
+     * @param kmsKeyId The KMS key to generate data keys with.
+     * @return The EncryptionKeyFactory to use for spill keys.
+     */
+    private static EncryptionKeyFactory makeKmsKeyFactory(String kmsKeyId)
+    {
+        EncryptionKeyFactory keyFactory = new KmsKeyFactory(AWSKMSClientBuilder.standard().build(), kmsKeyId);
+
+        int poolSize = getIntEnv(KMS_DATA_KEY_POOL_SIZE_ENV, 0);
+        if (poolSize > 0) {
+            keyFactory = new PooledKeyFactory(keyFactory, poolSize, Math.min(poolSize, KMS_DATA_KEY_POOL_PARALLELISM));
+        }
+
+        int keysPerDataKey = getIntEnv(KMS_KEYS_PER_DATA_KEY_ENV, DEFAULT_KMS_KEYS_PER_DATA_KEY);
+        if (keysPerDataKey > 1) {
+            keyFactory = new DerivedKeyFactory(keyFactory, keysPerDataKey, MAX_KMS_DATA_KEY_AGE_MS);
+        }
+        return keyFactory;
+    }
+
+    private static int getIntEnv(String name, int defaultValue)
+    {
+        String value = System.getenv(name);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : Integer.parseInt(value.trim());
     }
 
     /**
@@ -184,7 +241,18 @@ public abstract class MetadataHandler
 
     protected EncryptionKey makeEncryptionKey()
     {
-        return (encryptionKeyFactory != null) ? encryptionKeyFactory.create() : null;
+        return (encryptionKeyFactory != null) ? encryptionKeyFactory.create(SPLITS_QUERY_ID.get()) : null;
+    }
+
+    /**
+     * Used to make a QueryStatusChecker for work, such as a long running statement in doGetSplits, that should stop
+     * once the query has terminated. Be sure to close the checker once that work is done.
+     * @param queryId The id of the query to check the status of.
+     * @return A QueryStatusChecker for the query.
+     */
+    protected QueryStatusChecker makeQueryStatusChecker(String queryId)
+    {
+        return new QueryStatusChecker(athena, athenaInvoker, queryId);
     }
 
     /**
@@ -207,12 +275,12 @@ public abstract class MetadataHandler
             throws IOException
     {
         try (BlockAllocator allocator = new BlockAllocatorImpl()) {
-            ObjectMapper objectMapper = VersionedObjectMapperFactory.create(allocator);
-            try (FederationRequest rawReq = objectMapper.readValue(inputStream, FederationRequest.class)) {
+            MessageSerDe serDe = MessageSerDe.forRequest(inputStream);
+            try (FederationRequest rawReq = serDe.readRequest(allocator)) {
                 if (rawReq instanceof PingRequest) {
-                    try (PingResponse response = doPing((PingRequest) rawReq)) {
+                    try (PingResponse response = doPing((PingRequest) rawReq, serDe.getSerDeVersion())) {
                         assertNotNull(response);
-                        objectMapper.writeValue(outputStream, response);
+                        serDe.writeResponse(outputStream, response);
                     }
                     return;
                 }
@@ -221,7 +289,7 @@ public abstract class MetadataHandler
                     throw new RuntimeException("Expected a MetadataRequest but found " + rawReq.getClass());
                 }
                 ((MetadataRequest) rawReq).setContext(context);
-                doHandleRequest(allocator, objectMapper, (MetadataRequest) rawReq, outputStream);
+                doHandleRequest(allocator, serDe, (MetadataRequest) rawReq, outputStream);
             }
             catch (Exception ex) {
                 logger.warn("handleRequest: Completed with an exception.", ex);
@@ -231,7 +299,7 @@ public abstract class MetadataHandler
     }
 
     protected final void doHandleRequest(BlockAllocator allocator,
-            ObjectMapper objectMapper,
+            MessageSerDe serDe,
             MetadataRequest req,
             OutputStream outputStream)
             throws Exception
@@ -243,14 +311,14 @@ public abstract class MetadataHandler
                 try (ListSchemasResponse response = doListSchemaNames(allocator, (ListSchemasRequest) req)) {
                     logger.info("doHandleRequest: response[{}]", response);
                     assertNotNull(response);
-                    objectMapper.writeValue(outputStream, response);
+                    serDe.writeResponse(outputStream, response);
                 }
                 return;
             case LIST_TABLES:
                 try (ListTablesResponse response = doListTables(allocator, (ListTablesRequest) req)) {
                     logger.info("doHandleRequest: response[{}]", response);
                     assertNotNull(response);
-                    objectMapper.writeValue(outputStream, response);
+                    serDe.writeResponse(outputStream, response);
                 }
                 return;
             case GET_TABLE:
@@ -258,22 +326,26 @@ public abstract class MetadataHandler
                     logger.info("doHandleRequest: response[{}]", response);
                     assertNotNull(response);
                     assertTypes(response);
-                    objectMapper.writeValue(outputStream, response);
+                    serDe.writeResponse(outputStream, response);
                 }
                 return;
             case GET_TABLE_LAYOUT:
                 try (GetTableLayoutResponse response = doGetTableLayout(allocator, (GetTableLayoutRequest) req)) {
                     logger.info("doHandleRequest: response[{}]", response);
                     assertNotNull(response);
-                    objectMapper.writeValue(outputStream, response);
+                    serDe.writeResponse(outputStream, response);
                 }
                 return;
             case GET_SPLITS:
                 verifier.checkBucketAuthZ(spillBucket);
+                SPLITS_QUERY_ID.set(req.getQueryId());
                 try (GetSplitsResponse response = doGetSplits(allocator, (GetSplitsRequest) req)) {
                     logger.info("doHandleRequest: response[{}]", response);
                     assertNotNull(response);
-                    objectMapper.writeValue(outputStream, response);
+                    serDe.writeResponse(outputStream, response);
+                }
+                finally {
+                    SPLITS_QUERY_ID.remove();
                 }
                 return;
             default:
@@ -364,7 +436,7 @@ public abstract class MetadataHandler
         try (ConstraintEvaluator constraintEvaluator = new ConstraintEvaluator(allocator,
                 constraintSchema.build(),
                 request.getConstraints());
-                QueryStatusChecker queryStatusChecker = new QueryStatusChecker(athena, athenaInvoker, request.getQueryId())
+                QueryStatusChecker queryStatusChecker = makeQueryStatusChecker(request.getQueryId())
         ) {
             Block partitions = allocator.createBlock(partitionSchemaBuilder.build());
             partitions.constrain(constraintEvaluator);
@@ -439,7 +511,20 @@ public abstract class MetadataHandler
      */
     public PingResponse doPing(PingRequest request)
     {
-        PingResponse response = new PingResponse(request.getCatalogName(), request.getQueryId(), sourceType, CAPABILITIES, SERDE_VERSION);
+        return doPing(request, SerDeVersion.SERDE_VERSION);
+    }
+
+    /**
+     * Used to warm up your function as well as to discovery its capabilities (e.g. SDK capabilities)
+     *
+     * @param request The PingRequest.
+     * @param serDeVersion The SerDe version to advertise, which is the version the PingRequest was sent in.
+     * @return A PingResponse.
+     * @note We do not recommend modifying this function, instead you should implement onPing(...)
+     */
+    public PingResponse doPing(PingRequest request, int serDeVersion)
+    {
+        PingResponse response = new PingResponse(request.getCatalogName(), request.getQueryId(), sourceType, CAPABILITIES, serDeVersion);
         try {
             onPing(request);
         }
@@ -39,7 +39,7 @@ import com.amazonaws.athena.connector.lambda.request.FederationResponse;
 import com.amazonaws.athena.connector.lambda.request.PingRequest;
 import com.amazonaws.athena.connector.lambda.request.PingResponse;
 import com.amazonaws.athena.connector.lambda.security.CachableSecretsManager;
-import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.amazonaws.athena.connector.lambda.serde.MessageSerDe;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.athena.AmazonAthenaClientBuilder;
 import com.amazonaws.services.lambda.runtime.Context;
@@ -48,7 +48,6 @@ import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,7 +57,6 @@ import java.io.OutputStream;
 
 import static com.amazonaws.athena.connector.lambda.handlers.AthenaExceptionFilter.ATHENA_EXCEPTION_FILTER;
 import static com.amazonaws.athena.connector.lambda.handlers.FederationCapabilities.CAPABILITIES;
-import static com.amazonaws.athena.connector.lambda.handlers.SerDeVersion.SERDE_VERSION;
 
 /**
  * More specifically, this class is responsible for providing Athena with actual rows level data from our simulated
@@ -74,7 +72,7 @@ public abstract class RecordHandler
     private final String sourceType;
     private final CachableSecretsManager secretsManager;
     private final AmazonAthena athena;
-    private final ThrottlingInvoker athenaInvoker = ThrottlingInvoker.newDefaultBuilder(ATHENA_EXCEPTION_FILTER).build();
+    private final ThrottlingInvoker athenaInvoker = ThrottlingInvoker.newDefaultBuilder(ATHENA_EXCEPTION_FILTER, "athena").build();
 
     /**
      * @param sourceType Used to aid in logging diagnostic info when raising a support case.
@@ -122,12 +120,12 @@ public abstract class RecordHandler
             throws IOException
     {
         try (BlockAllocator allocator = new BlockAllocatorImpl()) {
-            ObjectMapper objectMapper = VersionedObjectMapperFactory.create(allocator);
-            try (FederationRequest rawReq = objectMapper.readValue(inputStream, FederationRequest.class)) {
+            MessageSerDe serDe = MessageSerDe.forRequest(inputStream);
+            try (FederationRequest rawReq = serDe.readRequest(allocator)) {
                 if (rawReq instanceof PingRequest) {
-                    try (PingResponse response = doPing((PingRequest) rawReq)) {
+                    try (PingResponse response = doPing((PingRequest) rawReq, serDe.getSerDeVersion())) {
                         assertNotNull(response);
-                        objectMapper.writeValue(outputStream, response);
+                        serDe.writeResponse(outputStream, response);
                     }
                     return;
                 }
@@ -136,7 +134,7 @@ public abstract class RecordHandler
                     throw new RuntimeException("Expected a RecordRequest but found " + rawReq.getClass());
                 }
 
-                doHandleRequest(allocator, objectMapper, (RecordRequest) rawReq, outputStream);
+                doHandleRequest(allocator, serDe, (RecordRequest) rawReq, outputStream);
             }
             catch (Exception ex) {
                 logger.warn("handleRequest: Completed with an exception.", ex);
@@ -146,7 +144,7 @@ public abstract class RecordHandler
     }
 
     protected final void doHandleRequest(BlockAllocator allocator,
-            ObjectMapper objectMapper,
+            MessageSerDe serDe,
             RecordRequest req,
             OutputStream outputStream)
             throws Exception
@@ -158,7 +156,7 @@ public abstract class RecordHandler
                 try (RecordResponse response = doReadRecords(allocator, (ReadRecordsRequest) req)) {
                     logger.info("doHandleRequest: response[{}]", response);
                     assertNotNull(response);
-                    objectMapper.writeValue(outputStream, response);
+                    serDe.writeResponse(outputStream, response);
                 }
                 return;
             default:
@@ -239,9 +237,9 @@ public abstract class RecordHandler
                 .build();
     }
 
-    private PingResponse doPing(PingRequest request)
+    private PingResponse doPing(PingRequest request, int serDeVersion)
     {
-        PingResponse response = new PingResponse(request.getCatalogName(), request.getQueryId(), sourceType, CAPABILITIES, SERDE_VERSION);
+        PingResponse response = new PingResponse(request.getCatalogName(), request.getQueryId(), sourceType, CAPABILITIES, serDeVersion);
         try {
             onPing(request);
         }
@@ -50,15 +50,15 @@ import com.amazonaws.athena.connector.lambda.request.FederationRequest;
 import com.amazonaws.athena.connector.lambda.request.FederationResponse;
 import com.amazonaws.athena.connector.lambda.request.PingRequest;
 import com.amazonaws.athena.connector.lambda.request.PingResponse;
-import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.amazonaws.athena.connector.lambda.serde.MessageSerDe;
 import com.amazonaws.athena.connector.lambda.udf.UserDefinedFunctionRequest;
 import com.amazonaws.athena.connector.lambda.udf.UserDefinedFunctionResponse;
 import com.amazonaws.athena.connector.lambda.udf.UserDefinedFunctionType;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import com.google.common.primitives.Primitives;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.complex.reader.FieldReader;
 import org.apache.arrow.vector.holders.NullableBigIntHolder;
@@ -78,22 +78,35 @@ import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static com.amazonaws.athena.connector.lambda.handlers.FederationCapabilities.CAPABILITIES;
-import static com.amazonaws.athena.connector.lambda.handlers.SerDeVersion.SERDE_VERSION;
 import static com.google.common.base.Preconditions.checkState;
 
 /**
  * Athena UDF users are expected to extend this class to create UDFs.
+ * <p>
+ * A UDF is normally implemented as a scalar java method which is invoked once per row with the row's values converted
+ * to java Objects. Performance sensitive UDFs can opt-in to batch execution by also (or instead) implementing an
+ * overload with the same name which takes the Apache Arrow vector of each argument followed by the output vector and
+ * returns void, for example:
+ * <pre>
+ * public String compress(String input) {...}
+ * public void compress(VarCharVector input, VarCharVector output) {...}
+ * </pre>
+ * When present, the batch overload is called once for all the rows in the request and is expected to set a value (or
+ * null) in the output vector for every row of the input vectors.
  */
 public abstract class UserDefinedFunctionHandler
         implements RequestStreamHandler
@@ -101,6 +114,8 @@ public abstract class UserDefinedFunctionHandler
     private static final Logger logger = LoggerFactory.getLogger(UserDefinedFunctionHandler.class);
 
     private static final int RETURN_COLUMN_COUNT = 1;
+    //The batch overloads resolved so far, so each is only resolved to a MethodHandle once rather than on every request.
+    private final Map<Method, MethodHandle> batchHandles = new ConcurrentHashMap<>();
     //Used to tag log lines generated by this connector for diagnostic purposes when interacting with Athena.
     private final String sourceType;
 
@@ -113,22 +128,24 @@ public abstract class UserDefinedFunctionHandler
     public final void handleRequest(InputStream inputStream, OutputStream outputStream, Context context)
     {
         try (BlockAllocator allocator = new BlockAllocatorImpl()) {
-            ObjectMapper objectMapper = VersionedObjectMapperFactory.create(allocator);
-            try (FederationRequest rawRequest = objectMapper.readValue(inputStream, FederationRequest.class)) {
-                if (rawRequest instanceof PingRequest) {
-                    try (PingResponse response = doPing((PingRequest) rawRequest)) {
-                        assertNotNull(response);
-                        objectMapper.writeValue(outputStream, response);
+            try {
+                MessageSerDe serDe = MessageSerDe.forRequest(inputStream);
+                try (FederationRequest rawRequest = serDe.readRequest(allocator)) {
+                    if (rawRequest instanceof PingRequest) {
+                        try (PingResponse response = doPing((PingRequest) rawRequest, serDe.getSerDeVersion())) {
+                            assertNotNull(response);
+                            serDe.writeResponse(outputStream, response);
+                        }
+                        return;
                     }
-                    return;
-                }
 
-                if (!(rawRequest instanceof UserDefinedFunctionRequest)) {
-                    throw new RuntimeException("Expected a UserDefinedFunctionRequest but found "
-                            + rawRequest.getClass());
-                }
+                    if (!(rawRequest instanceof UserDefinedFunctionRequest)) {
+                        throw new RuntimeException("Expected a UserDefinedFunctionRequest but found "
+                                + rawRequest.getClass());
+                    }
 
-                doHandleRequest(allocator, objectMapper, (UserDefinedFunctionRequest) rawRequest, outputStream);
+                    doHandleRequest(allocator, serDe, (UserDefinedFunctionRequest) rawRequest, outputStream);
+                }
             }
             catch (Exception ex) {
                 throw (ex instanceof RuntimeException) ? (RuntimeException) ex : new RuntimeException(ex);
@@ -137,7 +154,7 @@ public abstract class UserDefinedFunctionHandler
     }
 
     protected final void doHandleRequest(BlockAllocator allocator,
-            ObjectMapper objectMapper,
+            MessageSerDe serDe,
             UserDefinedFunctionRequest req,
             OutputStream outputStream)
             throws Exception
@@ -146,7 +163,7 @@ public abstract class UserDefinedFunctionHandler
         try (UserDefinedFunctionResponse response = processFunction(allocator, req)) {
             logger.info("doHandleRequest: response[{}]", response);
             assertNotNull(response);
-            objectMapper.writeValue(outputStream, response);
+            serDe.writeResponse(outputStream, response);
         }
     }
 
@@ -166,21 +183,74 @@ public abstract class UserDefinedFunctionHandler
     private UserDefinedFunctionResponse processScalarFunction(BlockAllocator allocator, UserDefinedFunctionRequest req)
             throws Exception
     {
-        Method udfMethod = extractScalarFunctionMethod(req);
         Block inputRecords = req.getInputRecords();
         Schema outputSchema = req.getOutputSchema();
 
+        Method batchMethod = extractBatchFunctionMethod(req.getMethodName(), inputRecords, outputSchema);
+        if (batchMethod != null) {
+            Block batchOutputRecords = allocator.createBlock(outputSchema);
+            try {
+                Class outputVectorType = batchMethod.getParameterTypes()[inputRecords.getFieldVectors().size()];
+                if (outputVectorType.isInstance(batchOutputRecords.getFieldVectors().get(0))) {
+                    processBatch(batchMethod, inputRecords, batchOutputRecords);
+                    return new UserDefinedFunctionResponse(batchOutputRecords, batchMethod.getName());
+                }
+            }
+            catch (Throwable t) {
+                closeBlock(batchOutputRecords);
+                throw t;
+            }
+            closeBlock(batchOutputRecords);
+        }
+
+        Method udfMethod = extractScalarFunctionMethod(req);
         Block outputRecords = processRows(allocator, udfMethod, inputRecords, outputSchema);
         return new UserDefinedFunctionResponse(outputRecords, udfMethod.getName());
     }
 
+    /**
+     * Processes a group of rows using the batch overload of the UDF. The batch method is handed the input vectors, in
+     * argument order, followed by the output vector and is responsible for writing the value of every row.
+     *
+     * @param batchMethod the extracted java method with the batch signature of the User-Defined-Function.
+     * @param inputRecords input data in Arrow format
+     * @param outputRecords the Block that the batch method should write its results into.
+     */
+    protected void processBatch(Method batchMethod, Block inputRecords, Block outputRecords)
+            throws Exception
+    {
+        int rowCount = inputRecords.getRowCount();
+        List<FieldVector> inputVectors = inputRecords.getFieldVectors();
+        Object[] arguments = new Object[inputVectors.size() + RETURN_COLUMN_COUNT];
+        for (int col = 0; col < inputVectors.size(); ++col) {
+            arguments[col] = inputVectors.get(col);
+        }
+        arguments[inputVectors.size()] = outputRecords.getFieldVectors().get(0);
+
+        MethodHandle batchHandle = batchHandles.computeIfAbsent(batchMethod,
+                (Method next) -> makeMethodHandle(next, void.class));
+        try {
+            batchHandle.invokeExact(arguments);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+
+        //Make the row count (and the value count of the output vector) reflect every row written by the batch method.
+        outputRecords.setRowCount(rowCount);
+    }
+
     /**
      * Processes a group by rows. This method takes in a block of data (containing multiple rows), process them and
      * returns multiple rows of the output column in a block.
      * <p>
-     * UDF methods are invoked row-by-row in a for loop. Arrow values are converted to Java Objects and then passed into
-     * the UDF java method. This is not very efficient because we might potentially be doing a lot of data copying.
-     * Advanced users could choose to override this method and directly deal with Arrow data to achieve better
+     * UDF methods are invoked row-by-row in a for loop using a MethodHandle which is resolved once per request. Arrow
+     * values are converted to Java Objects and then passed into the UDF java method. This is not very efficient because
+     * we might potentially be doing a lot of data copying. Advanced users could choose to implement the batch overload
+     * of their UDF (see class docs) or override this method and directly deal with Arrow data to achieve better
      * performance.
      *
      * @param allocator arrow memory allocator
@@ -214,18 +284,23 @@ public abstract class UserDefinedFunctionHandler
             }
         }
         catch (Throwable t) {
-            try {
-                outputRecords.close();
-            }
-            catch (Exception e) {
-                logger.error("Error closing output block", e);
-            }
+            closeBlock(outputRecords);
             throw t;
         }
 
         return outputRecords;
     }
 
+    private void closeBlock(Block block)
+    {
+        try {
+            block.close();
+        }
+        catch (Exception e) {
+            logger.error("Error closing output block", e);
+        }
+    }
+
     /**
      * Use reflection to find tha java method that maches the UDF function defined in Athena SQL.
      *
@@ -263,6 +338,44 @@ public abstract class UserDefinedFunctionHandler
         return udfMethod;
     }
 
+    /**
+     * Use reflection to find the batch overload, if any, of the UDF function defined in Athena SQL. The batch overload
+     * accepts the Apache Arrow vector of each argument followed by the output vector and returns void. The type of the
+     * output vector is checked once its Block has been allocated.
+     *
+     * @param methodName the name of the UDF.
+     * @param inputRecords input data in Arrow format
+     * @param outputSchema output data schema in Arrow format
+     * @return java method matching the batch signature of the UDF or null if the UDF only has a scalar implementation.
+     */
+    private Method extractBatchFunctionMethod(String methodName, Block inputRecords, Schema outputSchema)
+    {
+        List<FieldVector> inputVectors = inputRecords.getFieldVectors();
+        if (outputSchema.getFields().size() != RETURN_COLUMN_COUNT) {
+            return null;
+        }
+
+        for (Method next : this.getClass().getMethods()) {
+            Class[] parameterTypes = next.getParameterTypes();
+            if (!next.getName().equals(methodName) || !void.class.equals(next.getReturnType()) ||
+                    parameterTypes.length != inputVectors.size() + RETURN_COLUMN_COUNT ||
+                    !FieldVector.class.isAssignableFrom(parameterTypes[inputVectors.size()])) {
+                continue;
+            }
+
+            boolean matches = true;
+            for (int i = 0; i < inputVectors.size() && matches; ++i) {
+                matches = parameterTypes[i].equals(inputVectors.get(i).getClass());
+            }
+            if (matches) {
+                logger.info(String.format("Found batch UDF method %s with vector types %s",
+                        methodName, Arrays.toString(parameterTypes)));
+                return next;
+            }
+        }
+        return null;
+    }
+
     private Class[] extractJavaTypes(Schema schema)
     {
         Class[] types = new Class[schema.getFields().size()];
@@ -276,9 +389,9 @@ public abstract class UserDefinedFunctionHandler
         return types;
     }
 
-    private final PingResponse doPing(PingRequest request)
+    private final PingResponse doPing(PingRequest request, int serDeVersion)
     {
-        PingResponse response = new PingResponse(request.getCatalogName(), request.getQueryId(), sourceType, CAPABILITIES, SERDE_VERSION);
+        PingResponse response = new PingResponse(request.getCatalogName(), request.getQueryId(), sourceType, CAPABILITIES, serDeVersion);
         try {
             onPing(request);
         }
@@ -302,35 +415,60 @@ public abstract class UserDefinedFunctionHandler
 
     private GeneratedRowWriter createOutputRowWriter(Field outputField, List<ArrowValueProjector> valueProjectors, Method udfMethod)
     {
+        MethodHandle udfHandle = makeMethodHandle(udfMethod, Object.class);
         GeneratedRowWriter.RowWriterBuilder builder = GeneratedRowWriter.newBuilder();
-        Extractor extractor = makeExtractor(outputField, valueProjectors, udfMethod);
+        Extractor extractor = makeExtractor(outputField, valueProjectors, udfMethod, udfHandle);
         if (extractor != null) {
             builder.withExtractor(outputField.getName(), extractor);
         }
         else {
-            builder.withFieldWriterFactory(outputField.getName(), makeFactory(outputField, valueProjectors, udfMethod));
+            builder.withFieldWriterFactory(outputField.getName(), makeFactory(outputField, valueProjectors, udfMethod, udfHandle));
         }
         return builder.build();
     }
 
+    /**
+     * Resolves the UDF method to a MethodHandle, bound to this handler, which accepts its arguments as an Object[] and
+     * returns the (boxed) result. Unlike Method.invoke(...) the access checks happen once here instead of on every row
+     * and the JIT is able to inline the call into the per-row loop.
+     *
+     * @param udfMethod the extracted java method matching the User-Defined-Function defined in Athena.
+     * @param returnType Object.class for scalar UDFs, void.class for batch overloads.
+     * @return MethodHandle with type (Object[])returnType
+     */
+    private MethodHandle makeMethodHandle(Method udfMethod, Class<?> returnType)
+    {
+        try {
+            return MethodHandles.lookup().unreflect(udfMethod)
+                    .bindTo(this)
+                    .asSpreader(Object[].class, udfMethod.getParameterCount())
+                    .asType(MethodType.methodType(returnType, Object[].class));
+        }
+        catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Creates an Extractor for the given outputField.
      * @param outputField  outputField
      * @param valueProjectors projectors that we use to read input data.
      * @param udfMethod
+     * @param udfHandle
      * @return
      */
-    private Extractor makeExtractor(Field outputField, List<ArrowValueProjector> valueProjectors, Method udfMethod)
+    private Extractor makeExtractor(Field outputField, List<ArrowValueProjector> valueProjectors, Method udfMethod, MethodHandle udfHandle)
     {
         Types.MinorType fieldType = Types.getMinorTypeForArrowType(outputField.getType());
 
         Object[] arguments = new Object[valueProjectors.size()];
+        Class<?>[] parameterTypes = udfMethod.getParameterTypes();
 
         switch (fieldType) {
             case INT:
                 return (IntExtractor) (Object inputRowNum, NullableIntHolder dst) ->
                 {
-                    Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                    Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
 
                     if (result == null) {
                         dst.isSet = 0;
@@ -343,7 +481,7 @@ public abstract class UserDefinedFunctionHandler
             case DATEMILLI:
                 return (DateMilliExtractor) (Object inputRowNum, NullableDateMilliHolder dst) ->
                 {
-                    Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                    Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
 
                     if (result == null) {
                         dst.isSet = 0;
@@ -356,7 +494,7 @@ public abstract class UserDefinedFunctionHandler
             case DATEDAY:
                 return (DateDayExtractor) (Object inputRowNum, NullableDateDayHolder dst) ->
                 {
-                    Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                    Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
 
                     if (result == null) {
                         dst.isSet = 0;
@@ -369,7 +507,7 @@ public abstract class UserDefinedFunctionHandler
             case TINYINT:
                 return (TinyIntExtractor) (Object inputRowNum, NullableTinyIntHolder dst) ->
                 {
-                    Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                    Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
 
                     if (result == null) {
                         dst.isSet = 0;
@@ -382,7 +520,7 @@ public abstract class UserDefinedFunctionHandler
             case SMALLINT:
                 return (SmallIntExtractor) (Object inputRowNum, NullableSmallIntHolder dst) ->
                 {
-                    Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                    Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
 
                     if (result == null) {
                         dst.isSet = 0;
@@ -395,7 +533,7 @@ public abstract class UserDefinedFunctionHandler
             case FLOAT4:
                 return (Float4Extractor) (Object inputRowNum, NullableFloat4Holder dst) ->
                 {
-                    Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                    Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
 
                     if (result == null) {
                         dst.isSet = 0;
@@ -408,7 +546,7 @@ public abstract class UserDefinedFunctionHandler
             case FLOAT8:
                 return (Float8Extractor) (Object inputRowNum, NullableFloat8Holder dst) ->
                 {
-                    Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                    Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
 
                     if (result == null) {
                         dst.isSet = 0;
@@ -421,7 +559,7 @@ public abstract class UserDefinedFunctionHandler
             case DECIMAL:
                 return (DecimalExtractor) (Object inputRowNum, NullableDecimalHolder dst) ->
                 {
-                    Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                    Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
 
                     if (result == null) {
                         dst.isSet = 0;
@@ -434,7 +572,7 @@ public abstract class UserDefinedFunctionHandler
             case BIT:
                 return (BitExtractor) (Object inputRowNum, NullableBitHolder dst) ->
                 {
-                    Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                    Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
 
                     if (result == null) {
                         dst.isSet = 0;
@@ -447,7 +585,7 @@ public abstract class UserDefinedFunctionHandler
             case BIGINT:
                 return (BigIntExtractor) (Object inputRowNum, NullableBigIntHolder dst) ->
                 {
-                    Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                    Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
 
                     if (result == null) {
                         dst.isSet = 0;
@@ -460,7 +598,7 @@ public abstract class UserDefinedFunctionHandler
             case VARCHAR:
                 return (VarCharExtractor) (Object inputRowNum, NullableVarCharHolder dst) ->
                 {
-                    Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                    Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
 
                     if (result == null) {
                         dst.isSet = 0;
@@ -473,7 +611,7 @@ public abstract class UserDefinedFunctionHandler
             case VARBINARY:
                 return (VarBinaryExtractor) (Object inputRowNum, NullableVarBinaryHolder dst) ->
                 {
-                    Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                    Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
 
                     if (result == null) {
                         dst.isSet = 0;
@@ -488,9 +626,10 @@ public abstract class UserDefinedFunctionHandler
         }
     }
 
-    private FieldWriterFactory makeFactory(Field field, List<ArrowValueProjector> valueProjectors, Method udfMethod)
+    private FieldWriterFactory makeFactory(Field field, List<ArrowValueProjector> valueProjectors, Method udfMethod, MethodHandle udfHandle)
     {
         Object[] arguments = new Object[valueProjectors.size()];
+        Class<?>[] parameterTypes = udfMethod.getParameterTypes();
 
         Types.MinorType fieldType = Types.getMinorTypeForArrowType(field.getType());
         switch (fieldType) {
@@ -498,7 +637,7 @@ public abstract class UserDefinedFunctionHandler
             case STRUCT:
                 return (FieldVector vector, Extractor extractor, ConstraintProjector ignored) ->
                         (Object inputRowNum, int outputRowNum) -> {
-                            Object result = invokeMethod(udfMethod, arguments, (int) inputRowNum, valueProjectors);
+                            Object result = invokeMethod(udfMethod, udfHandle, parameterTypes, arguments, (int) inputRowNum, valueProjectors);
                             BlockUtils.setComplexValue(vector, outputRowNum, FieldResolver.DEFAULT, result);
                             return true;    // push-down does not apply in UDFs
                         };
@@ -509,6 +648,8 @@ public abstract class UserDefinedFunctionHandler
     }
 
     private Object invokeMethod(Method udfMethod,
+                                MethodHandle udfHandle,
+                                Class<?>[] parameterTypes,
                                 Object[] arguments,
                                 int inputRowNum,
                                 List<ArrowValueProjector> valueProjectors)
@@ -516,25 +657,43 @@ public abstract class UserDefinedFunctionHandler
         for (int col = 0; col < valueProjectors.size(); ++col) {
             arguments[col] = valueProjectors.get(col).project(inputRowNum);
         }
+        checkArgumentTypes(udfMethod, parameterTypes, arguments);
 
+        //The arguments have been checked, so anything thrown here comes from the UDF itself.
         try {
-            return udfMethod.invoke(this, arguments);
+            return (Object) udfHandle.invokeExact(arguments);
         }
-        catch (IllegalAccessException e) {
-            throw new RuntimeException(e);
+        catch (Throwable t) {
+            throw new RuntimeException(t);
         }
-        catch (InvocationTargetException e) {
-            if (Objects.isNull(e)) {
-                throw new RuntimeException(e);
+    }
+
+    /**
+     * Checks the arguments against the parameters of the UDF before it is invoked, so that a mismatch is reported as
+     * such rather than as a ClassCastException, which could equally have come from the body of the UDF.
+     */
+    @VisibleForTesting
+    static void checkArgumentTypes(Method udfMethod, Class<?>[] parameterTypes, Object[] arguments)
+    {
+        for (int i = 0; i < parameterTypes.length; ++i) {
+            Object arg = arguments[i];
+            String error = null;
+            if (arg == null) {
+                if (parameterTypes[i].isPrimitive()) {
+                    error = "null passed to primitive parameter " + i + " of type " + parameterTypes[i].getName();
+                }
+            }
+            else if (!Primitives.wrap(parameterTypes[i]).isInstance(arg)) {
+                error = "argument type mismatch for parameter " + i;
+            }
+
+            if (error != null) {
+                String msg = String.format("%s. Expected function types %s, got types %s",
+                        error,
+                        Arrays.stream(udfMethod.getParameterTypes()).map(clazz -> clazz.getName()).collect(Collectors.toList()),
+                        Arrays.stream(arguments).map(next -> next == null ? "null" : next.getClass().getName()).collect(Collectors.toList()));
+                throw new IllegalArgumentException(msg);
             }
-            throw new RuntimeException(e.getCause());
-        }
-        catch (IllegalArgumentException e) {
-            String msg = String.format("%s. Expected function types %s, got types %s",
-                    e.getMessage(),
-                    Arrays.stream(udfMethod.getParameterTypes()).map(clazz -> clazz.getName()).collect(Collectors.toList()),
-                    Arrays.stream(arguments).map(arg -> arg.getClass().getName()).collect(Collectors.toList()));
-            throw new RuntimeException(msg, e);
         }
     }
 }
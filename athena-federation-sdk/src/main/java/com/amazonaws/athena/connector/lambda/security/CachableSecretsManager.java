@@ -23,13 +23,22 @@ package com.amazonaws.athena.connector.lambda.security;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
 import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+import com.google.common.collect.ImmutableList;
 import org.apache.arrow.util.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,25 +47,74 @@ import java.util.regex.Pattern;
  * cache in front of SecretsManager to avoid bottlenecking on SecretsManager. This class offers such a cache. This class
  * also has utilities for idetifying and replacing secrets in scripts. For example: MyString${WithSecret} would have
  * ${WithSecret} replaced by the corresponding value of the secret in AWS Secrets Manager with that name.
+ * <p>
+ * The cache is thread safe. Concurrent requests for a secret that isn't cached result in a single call to
+ * SecretsManager (single-flight). Secrets that are close to expiring are refreshed in the background while callers
+ * continue to be served the cached value (refresh-ahead), so callers only block on SecretsManager the first time a
+ * secret is used or if it wasn't used for a whole TTL. The TTL and size of the cache can be configured via the
+ * secrets_cache_ttl_ms and secrets_cache_max_size environment variables.
  */
 public class CachableSecretsManager
 {
     private static final Logger logger = LoggerFactory.getLogger(CachableSecretsManager.class);
 
+    private static final String CACHE_TTL_MS_ENV = "secrets_cache_ttl_ms";
+    private static final String CACHE_MAX_SIZE_ENV = "secrets_cache_max_size";
+
     private static final long MAX_CACHE_AGE_MS = 60_000;
     protected static final int MAX_CACHE_SIZE = 10;
+    //Secrets older than this fraction of the TTL are refreshed in the background on their next use.
+    private static final double REFRESH_AHEAD_FACTOR = 0.75D;
+    //Bounds the memo of parsed strings, these are typically a handful of connection strings.
+    private static final int MAX_PARSED_STRINGS = 100;
 
     private static final String SECRET_PATTERN = "(\\$\\{[a-zA-Z0-9-_\\-]+\\})";
     private static final String SECRET_NAME_PATTERN = "\\$\\{([a-zA-Z0-9-_\\-]+)\\}";
     private static final Pattern PATTERN = Pattern.compile(SECRET_PATTERN);
     private static final Pattern NAME_PATTERN = Pattern.compile(SECRET_NAME_PATTERN);
 
-    private final LinkedHashMap<String, CacheEntry> cache = new LinkedHashMap<>();
+    private static final ExecutorService REFRESH_EXECUTOR = Executors.newSingleThreadExecutor((Runnable runnable) -> {
+        Thread thread = new Thread(runnable, "CachableSecretsManager-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //Orders entries created in the same millisecond for eviction.
+    private static final AtomicLong SEQUENCE = new AtomicLong(0);
+
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CacheEntry>> loads = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Map<String, List<SecretReference>> parsedStrings = new ConcurrentHashMap<>();
     private final AWSSecretsManager secretsManager;
+    private final long maxCacheAgeMs;
+    private final long refreshAfterMs;
+    private final int maxCacheSize;
 
     public CachableSecretsManager(AWSSecretsManager secretsManager)
     {
+        this(secretsManager,
+                (System.getenv(CACHE_TTL_MS_ENV) != null) ? Long.parseLong(System.getenv(CACHE_TTL_MS_ENV)) : MAX_CACHE_AGE_MS,
+                (System.getenv(CACHE_MAX_SIZE_ENV) != null) ? Integer.parseInt(System.getenv(CACHE_MAX_SIZE_ENV)) : MAX_CACHE_SIZE);
+    }
+
+    /**
+     * @param secretsManager The SecretsManager client to use.
+     * @param maxCacheAgeMs The max age of a cached secret before callers must wait for it to be fetched again.
+     * @param maxCacheSize The max number of secrets to cache.
+     */
+    public CachableSecretsManager(AWSSecretsManager secretsManager, long maxCacheAgeMs, int maxCacheSize)
+    {
+        if (maxCacheAgeMs < 0) {
+            throw new IllegalArgumentException("maxCacheAgeMs was " + maxCacheAgeMs + " but must be >= 0");
+        }
+        if (maxCacheSize < 1) {
+            throw new IllegalArgumentException("maxCacheSize was " + maxCacheSize + " but must be >= 1");
+        }
         this.secretsManager = secretsManager;
+        this.maxCacheAgeMs = maxCacheAgeMs;
+        this.refreshAfterMs = (long) (maxCacheAgeMs * REFRESH_AHEAD_FACTOR);
+        this.maxCacheSize = maxCacheSize;
     }
 
     /**
@@ -74,13 +132,9 @@ public class CachableSecretsManager
             return rawString;
         }
 
-        Matcher m = PATTERN.matcher(rawString);
         String result = rawString;
-        while (m.find()) {
-            String nextSecret = m.group(1);
-            Matcher m1 = NAME_PATTERN.matcher(nextSecret);
-            m1.find();
-            result = result.replace(nextSecret, getSecret(m1.group(1)));
+        for (SecretReference next : parse(rawString)) {
+            result = result.replace(next.token, getSecret(next.secretName));
         }
         return result;
     }
@@ -95,38 +149,115 @@ public class CachableSecretsManager
     {
         CacheEntry cacheEntry = cache.get(secretName);
 
-        if (cacheEntry == null || cacheEntry.getAge() > MAX_CACHE_AGE_MS) {
+        if (cacheEntry == null || cacheEntry.getAge() > maxCacheAgeMs) {
+            return load(secretName).getValue();
+        }
+
+        if (cacheEntry.getAge() > refreshAfterMs && refreshing.add(secretName)) {
+            //Serve the cached value while it's refreshed in the background.
+            REFRESH_EXECUTOR.execute(() -> refresh(secretName));
+        }
+        return cacheEntry.getValue();
+    }
+
+    /**
+     * Fetches the secret from SecretsManager unless another caller is already doing so, in which case we wait for and
+     * share their result.
+     */
+    private CacheEntry load(String secretName)
+    {
+        CompletableFuture<CacheEntry> created = new CompletableFuture<>();
+        CompletableFuture<CacheEntry> inFlight = loads.putIfAbsent(secretName, created);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            }
+            catch (CompletionException ex) {
+                throw (ex.getCause() instanceof RuntimeException) ? (RuntimeException) ex.getCause() : ex;
+            }
+        }
+
+        try {
             logger.info("getSecret: Resolving secret[{}].", secretName);
             GetSecretValueResult secretValueResult = secretsManager.getSecretValue(new GetSecretValueRequest()
                     .withSecretId(secretName));
-            cacheEntry = new CacheEntry(secretName, secretValueResult.getSecretString());
-            evictCache(cache.size() >= MAX_CACHE_SIZE);
+            CacheEntry cacheEntry = new CacheEntry(secretName, secretValueResult.getSecretString());
             cache.put(secretName, cacheEntry);
+            evictCache();
+            created.complete(cacheEntry);
+            return cacheEntry;
+        }
+        catch (RuntimeException ex) {
+            created.completeExceptionally(ex);
+            throw ex;
+        }
+        finally {
+            loads.remove(secretName, created);
         }
-
-        return cacheEntry.getValue();
     }
 
-    private void evictCache(boolean force)
+    private void refresh(String secretName)
     {
-        Iterator<Map.Entry<String, CacheEntry>> itr = cache.entrySet().iterator();
-        int removed = 0;
-        while (itr.hasNext()) {
-            CacheEntry entry = itr.next().getValue();
-            if (entry.getAge() > MAX_CACHE_AGE_MS) {
-                itr.remove();
-                removed++;
+        try {
+            CacheEntry cacheEntry = cache.get(secretName);
+            if (cacheEntry == null || cacheEntry.getAge() > refreshAfterMs) {
+                load(secretName);
             }
         }
+        catch (RuntimeException ex) {
+            //The cached value continues to be served until it expires.
+            logger.warn("refresh: Failed to refresh secret[{}].", secretName, ex);
+        }
+        finally {
+            refreshing.remove(secretName);
+        }
+    }
+
+    private void evictCache()
+    {
+        if (cache.size() <= maxCacheSize) {
+            return;
+        }
 
-        if (removed == 0 && force) {
+        cache.values().removeIf((CacheEntry entry) -> entry.getAge() > maxCacheAgeMs);
+        while (cache.size() > maxCacheSize) {
             //Remove the oldest since we found no expired entries
-            itr = cache.entrySet().iterator();
-            if (itr.hasNext()) {
-                itr.next();
-                itr.remove();
+            Optional<CacheEntry> oldest = cache.values().stream()
+                    .min(Comparator.comparingLong((CacheEntry entry) -> entry.createTime)
+                            .thenComparingLong((CacheEntry entry) -> entry.sequence));
+            if (!oldest.isPresent()) {
+                return;
             }
+            cache.remove(oldest.get().name, oldest.get());
+        }
+    }
+
+    /**
+     * Finds the secret references in the supplied string, memoizing the result since the same (connection) strings are
+     * typically resolved over and over.
+     */
+    private List<SecretReference> parse(String rawString)
+    {
+        List<SecretReference> references = parsedStrings.get(rawString);
+        if (references != null) {
+            return references;
+        }
+
+        ImmutableList.Builder<SecretReference> builder = ImmutableList.builder();
+        Matcher m = PATTERN.matcher(rawString);
+        while (m.find()) {
+            String nextSecret = m.group(1);
+            Matcher m1 = NAME_PATTERN.matcher(nextSecret);
+            m1.find();
+            builder.add(new SecretReference(nextSecret, m1.group(1)));
+        }
+        references = builder.build();
+
+        if (parsedStrings.size() >= MAX_PARSED_STRINGS) {
+            parsedStrings.clear();
         }
+        parsedStrings.put(rawString, references);
+        return references;
     }
 
     @VisibleForTesting
@@ -135,17 +266,28 @@ public class CachableSecretsManager
         cache.put(name, new CacheEntry(name, value, createTime));
     }
 
-    private class CacheEntry
+    private static class SecretReference
+    {
+        private final String token;
+        private final String secretName;
+
+        private SecretReference(String token, String secretName)
+        {
+            this.token = token;
+            this.secretName = secretName;
+        }
+    }
+
+    private static class CacheEntry
     {
         private final String name;
         private final String value;
         private final long createTime;
+        private final long sequence = SEQUENCE.incrementAndGet();
 
         public CacheEntry(String name, String value)
         {
-            this.value = value;
-            this.name = name;
-            this.createTime = System.currentTimeMillis();
+            this(name, value, System.currentTimeMillis());
         }
 
         public CacheEntry(String name, String value, long createTime)
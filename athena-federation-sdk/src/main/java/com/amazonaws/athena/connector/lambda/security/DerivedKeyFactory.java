@@ -0,0 +1,203 @@
+package com.amazonaws.athena.connector.lambda.security;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An EncryptionKeyFactory which derives keys locally, using HKDF (RFC 5869) with HMAC-SHA256, from a root key
+ * obtained from another EncryptionKeyFactory (typically a KmsKeyFactory). Each derived key and nonce is expanded from
+ * the root key with a unique counter so no two keys produced from the same root key are the same.
+ * <p>
+ * This allows something like doGetSplits, which needs a unique key for each of potentially 1000s of splits, to make a
+ * single call to KMS rather than one (or more) per split. A root key is only ever used for the keys of a single query,
+ * keys requested without a query id are not derived at all but obtained directly from the root key factory. A new root
+ * key is also fetched once the current root key has been used to derive maxKeysPerRootKey keys or is older than
+ * maxRootKeyAgeMs, whichever comes first.
+ *
+ * @see com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory
+ */
+public class DerivedKeyFactory
+        implements EncryptionKeyFactory
+{
+    private static final Logger logger = LoggerFactory.getLogger(DerivedKeyFactory.class);
+
+    private static final String HMAC_ALGO = "HmacSHA256";
+    private static final byte[] INFO_PREFIX = "athena-federation-spill-key".getBytes(StandardCharsets.UTF_8);
+
+    private final EncryptionKeyFactory rootKeyFactory;
+    private final long maxKeysPerRootKey;
+    private final long maxRootKeyAgeMs;
+
+    private final AtomicLong keysCreated = new AtomicLong(0);
+    private final AtomicLong rootKeysCreated = new AtomicLong(0);
+
+    private byte[] pseudoRandomKey;
+    private String rootKeyQueryId;
+    private long rootKeyCreationTime;
+    private long rootKeyUses;
+
+    /**
+     * @param rootKeyFactory The factory used to obtain the root keys that keys are derived from.
+     * @param maxKeysPerRootKey The max number of keys to derive from a single root key.
+     * @param maxRootKeyAgeMs The max age of a root key before a new one is obtained, regardless of how many keys were
+     * derived from it.
+     */
+    public DerivedKeyFactory(EncryptionKeyFactory rootKeyFactory, long maxKeysPerRootKey, long maxRootKeyAgeMs)
+    {
+        if (maxKeysPerRootKey < 1) {
+            throw new IllegalArgumentException("maxKeysPerRootKey must be >= 1 but was " + maxKeysPerRootKey);
+        }
+        this.rootKeyFactory = rootKeyFactory;
+        this.maxKeysPerRootKey = maxKeysPerRootKey;
+        this.maxRootKeyAgeMs = maxRootKeyAgeMs;
+    }
+
+    /**
+     * Keys which aren't for a known query are not derived, so that no root key is shared across queries.
+     *
+     * @return A key that satisfies the specification defined in BlockCrypto
+     */
+    @Override
+    public EncryptionKey create()
+    {
+        return rootKeyFactory.create();
+    }
+
+    /**
+     * @param queryId The id of the query the key is for, the key is derived from a root key used only for this query.
+     * @return A key that satisfies the specification defined in BlockCrypto
+     */
+    @Override
+    public EncryptionKey create(String queryId)
+    {
+        if (queryId == null) {
+            return create();
+        }
+
+        byte[] prk;
+        long counter;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (pseudoRandomKey == null || !queryId.equals(rootKeyQueryId) || rootKeyUses >= maxKeysPerRootKey ||
+                    now - rootKeyCreationTime > maxRootKeyAgeMs) {
+                rotateRootKey(queryId, now);
+            }
+            prk = pseudoRandomKey;
+            counter = rootKeyUses++;
+        }
+
+        byte[] info = ByteBuffer.allocate(INFO_PREFIX.length + Long.BYTES).put(INFO_PREFIX).putLong(counter).array();
+        byte[] okm = expand(prk, info, AesGcmBlockCrypto.KEY_BYTES + AesGcmBlockCrypto.NONCE_BYTES);
+        keysCreated.incrementAndGet();
+        return new EncryptionKey(Arrays.copyOfRange(okm, 0, AesGcmBlockCrypto.KEY_BYTES),
+                Arrays.copyOfRange(okm, AesGcmBlockCrypto.KEY_BYTES, okm.length));
+    }
+
+    /**
+     * @return The number of keys this factory has created.
+     */
+    public long getKeysCreated()
+    {
+        return keysCreated.get();
+    }
+
+    /**
+     * @return The number of root keys this factory has obtained from the root key factory.
+     */
+    public long getRootKeysCreated()
+    {
+        return rootKeysCreated.get();
+    }
+
+    /**
+     * @return The number of root key factory calls (e.g. calls to KMS) which were avoided by deriving keys locally.
+     */
+    public long getRootKeyCallsSaved()
+    {
+        return keysCreated.get() - rootKeysCreated.get();
+    }
+
+    private void rotateRootKey(String queryId, long now)
+    {
+        if (pseudoRandomKey != null) {
+            logger.info("rotateRootKey: derived {} keys from the previous root key, {} root key calls saved in total.",
+                    rootKeyUses, getRootKeyCallsSaved());
+        }
+
+        EncryptionKey rootKey = rootKeyFactory.create();
+        //The root key's nonce is random so we use it as the HKDF salt.
+        pseudoRandomKey = hmac(rootKey.getNonce(), rootKey.getKey());
+        rootKeyQueryId = queryId;
+        rootKeyCreationTime = now;
+        rootKeyUses = 0;
+        rootKeysCreated.incrementAndGet();
+    }
+
+    /**
+     * The HKDF-Expand step from RFC 5869.
+     */
+    private static byte[] expand(byte[] prk, byte[] info, int length)
+    {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGO);
+            mac.init(new SecretKeySpec(prk, HMAC_ALGO));
+            byte[] result = new byte[length];
+            byte[] block = new byte[0];
+            int offset = 0;
+            for (byte i = 1; offset < length; i++) {
+                mac.update(block);
+                mac.update(info);
+                mac.update(i);
+                block = mac.doFinal();
+                int toCopy = Math.min(block.length, length - offset);
+                System.arraycopy(block, 0, result, offset, toCopy);
+                offset += toCopy;
+            }
+            return result;
+        }
+        catch (GeneralSecurityException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, byte[] data)
+    {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGO);
+            mac.init(new SecretKeySpec(key, HMAC_ALGO));
+            return mac.doFinal(data);
+        }
+        catch (GeneralSecurityException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
@@ -29,4 +29,14 @@ public interface EncryptionKeyFactory
      * @return A key that satisfies the specification defined in BlockCrypto
      */
     EncryptionKey create();
+
+    /**
+     * @param queryId The id of the query the key is for, or null if it isn't for a known query. Factories which share
+     * state between the keys they create (e.g. DerivedKeyFactory) use this to limit that sharing to a single query.
+     * @return A key that satisfies the specification defined in BlockCrypto
+     */
+    default EncryptionKey create(String queryId)
+    {
+        return create();
+    }
 }
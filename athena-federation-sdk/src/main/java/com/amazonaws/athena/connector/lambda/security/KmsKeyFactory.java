@@ -27,6 +27,8 @@ import com.amazonaws.services.kms.model.GenerateDataKeyResult;
 import com.amazonaws.services.kms.model.GenerateRandomRequest;
 import com.amazonaws.services.kms.model.GenerateRandomResult;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * An EncryptionKeyFactory that is backed by AWS KMS.
  *
@@ -37,6 +39,7 @@ public class KmsKeyFactory
 {
     private final AWSKMS kmsClient;
     private final String masterKeyId;
+    private final AtomicLong kmsCalls = new AtomicLong(0);
 
     public KmsKeyFactory(AWSKMS kmsClient, String masterKeyId)
     {
@@ -58,7 +61,16 @@ public class KmsKeyFactory
         GenerateRandomRequest randomRequest = new GenerateRandomRequest()
                 .withNumberOfBytes(AesGcmBlockCrypto.NONCE_BYTES);
         GenerateRandomResult randomResult = kmsClient.generateRandom(randomRequest);
+        kmsCalls.addAndGet(2);
 
         return new EncryptionKey(dataKeyResult.getPlaintext().array(), randomResult.getPlaintext().array());
     }
+
+    /**
+     * @return The number of calls made to KMS by this factory.
+     */
+    public long getKmsCalls()
+    {
+        return kmsCalls.get();
+    }
 }
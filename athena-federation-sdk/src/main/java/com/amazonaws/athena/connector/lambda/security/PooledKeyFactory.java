@@ -0,0 +1,177 @@
+package com.amazonaws.athena.connector.lambda.security;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An EncryptionKeyFactory which keeps a bounded pool of keys, generated ahead of time and in parallel by another
+ * EncryptionKeyFactory (typically a KmsKeyFactory), so that callers don't wait on a remote call for every key. Every
+ * key handed out is replaced asynchronously. If the pool is empty the key is generated on the calling thread instead.
+ * <p>
+ * If generating a pooled key fails the pool isn't refilled again until an (exponentially growing) backoff has passed,
+ * so a failing factory (e.g. KMS throttling us) isn't retried in the background on every call to create(). In the
+ * meantime callers generate their own keys and so see the underlying failure directly.
+ *
+ * @see com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory
+ */
+public class PooledKeyFactory
+        implements EncryptionKeyFactory
+{
+    private static final Logger logger = LoggerFactory.getLogger(PooledKeyFactory.class);
+
+    private static final long INITIAL_REFILL_BACKOFF_MS = 1_000;
+    private static final long MAX_REFILL_BACKOFF_MS = 60_000;
+
+    private final EncryptionKeyFactory keyFactory;
+    private final int poolSize;
+    private final BlockingQueue<EncryptionKey> pool;
+    private final Executor executor;
+    //The number of keys in the pool plus the number of keys being generated to refill it.
+    private final AtomicInteger reserved = new AtomicInteger(0);
+    //The number of pooled keys in a row that failed to generate, and the time before which we don't refill again.
+    private final AtomicInteger refillFailures = new AtomicInteger(0);
+    private volatile long refillBackoffUntil = 0;
+
+    private final AtomicLong poolHits = new AtomicLong(0);
+    private final AtomicLong poolMisses = new AtomicLong(0);
+
+    /**
+     * @param keyFactory The factory used to generate the pooled keys.
+     * @param poolSize The max number of keys to keep in the pool.
+     * @param parallelism The max number of keys to generate concurrently.
+     */
+    public PooledKeyFactory(EncryptionKeyFactory keyFactory, int poolSize, int parallelism)
+    {
+        this(keyFactory, poolSize, Executors.newFixedThreadPool(parallelism, (Runnable runnable) -> {
+            Thread thread = new Thread(runnable, "pooled-key-factory");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * @param keyFactory The factory used to generate the pooled keys.
+     * @param poolSize The max number of keys to keep in the pool.
+     * @param executor The executor used to generate keys asynchronously.
+     */
+    public PooledKeyFactory(EncryptionKeyFactory keyFactory, int poolSize, Executor executor)
+    {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("poolSize must be >= 1 but was " + poolSize);
+        }
+        this.keyFactory = keyFactory;
+        this.poolSize = poolSize;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+        this.executor = executor;
+        refill();
+    }
+
+    /**
+     * @return A key that satisfies the specification defined in BlockCrypto
+     */
+    @Override
+    public EncryptionKey create()
+    {
+        EncryptionKey key = pool.poll();
+        if (key != null) {
+            reserved.decrementAndGet();
+            poolHits.incrementAndGet();
+        }
+        refill();
+
+        if (key == null) {
+            poolMisses.incrementAndGet();
+            key = keyFactory.create();
+        }
+        return key;
+    }
+
+    /**
+     * @return The number of keys that were served from the pool.
+     */
+    public long getPoolHits()
+    {
+        return poolHits.get();
+    }
+
+    /**
+     * @return The number of keys that had to be generated on the calling thread because the pool was empty.
+     */
+    public long getPoolMisses()
+    {
+        return poolMisses.get();
+    }
+
+    /**
+     * @return The number of pooled keys in a row that failed to generate, 0 once a pooled key is generated again.
+     */
+    public int getRefillFailures()
+    {
+        return refillFailures.get();
+    }
+
+    private void refill()
+    {
+        while (System.currentTimeMillis() >= refillBackoffUntil) {
+            int current = reserved.get();
+            if (current >= poolSize) {
+                return;
+            }
+            if (reserved.compareAndSet(current, current + 1)) {
+                executor.execute(this::generateKey);
+            }
+        }
+    }
+
+    private void generateKey()
+    {
+        try {
+            EncryptionKey key = keyFactory.create();
+            refillFailures.set(0);
+            if (!pool.offer(key)) {
+                reserved.decrementAndGet();
+            }
+        }
+        catch (RuntimeException ex) {
+            //Back off before refilling again, in the meantime create() generates its keys on the calling thread.
+            int failures = refillFailures.incrementAndGet();
+            long backoffMs = Math.min(MAX_REFILL_BACKOFF_MS, INITIAL_REFILL_BACKOFF_MS << Math.min(failures - 1, 16));
+            refillBackoffUntil = System.currentTimeMillis() + backoffMs;
+            reserved.decrementAndGet();
+            if (failures == 1) {
+                logger.warn("generateKey: Failed to generate pooled key, backing off for {} ms.", backoffMs, ex);
+            }
+            else {
+                logger.debug("generateKey: Failed to generate pooled key {} times in a row, backing off for {} ms.",
+                        failures, backoffMs, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2020 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.lambda.serde;
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.handlers.SerDeVersion;
+import com.amazonaws.athena.connector.lambda.request.FederationRequest;
+import com.amazonaws.athena.connector.lambda.request.FederationResponse;
+import com.amazonaws.athena.connector.lambda.serde.v4.FramedSerDeV4;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the request of an invocation and writes its response in the SerDe version chosen by the caller.
+ * <p>
+ * Callers which support SerDe version 4 send their requests as framed messages (see {@link FramedSerDeV4}), starting
+ * with the PingRequest, and get framed responses back. A framed PingRequest is answered with a PingResponse which
+ * advertises version 4, so that is how the version is negotiated. Every other request is read as JSON and answered
+ * with JSON in {@link SerDeVersion#SERDE_VERSION}, which leaves callers that don't know about version 4 unaffected.
+ */
+public class MessageSerDe
+{
+    private final InputStream inputStream;
+    private final ObjectMapper objectMapper;
+
+    private MessageSerDe(InputStream inputStream, ObjectMapper objectMapper)
+    {
+        this.inputStream = inputStream;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Detects the SerDe version of the request in the InputStream, without consuming any of it.
+     *
+     * @param inputStream The InputStream of the invocation.
+     * @return A MessageSerDe which reads the request and writes the response in the request's SerDe version.
+     * @throws IOException If an error occurs while reading.
+     */
+    public static MessageSerDe forRequest(InputStream inputStream)
+            throws IOException
+    {
+        InputStream in = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+        return new MessageSerDe(in, FramedSerDeV4.isFramed(in) ? null : VersionedObjectMapperFactory.getCached());
+    }
+
+    /**
+     * Used when the request has already been read, responses are written as JSON using the given ObjectMapper.
+     *
+     * @param objectMapper The ObjectMapper to write responses with.
+     * @return A MessageSerDe which can only write responses.
+     */
+    public static MessageSerDe forJsonResponse(ObjectMapper objectMapper)
+    {
+        return new MessageSerDe(null, requireNonNull(objectMapper, "objectMapper is null"));
+    }
+
+    /**
+     * @return The SerDe version of the invocation, which handlers advertise in their PingResponse.
+     */
+    public int getSerDeVersion()
+    {
+        return isFramed() ? FramedSerDeV4.SERDE_VERSION : SerDeVersion.SERDE_VERSION;
+    }
+
+    /**
+     * Reads the request, any Blocks it contains are allocated using the given BlockAllocator.
+     *
+     * @param allocator The BlockAllocator of the invocation.
+     * @return The request.
+     * @throws IOException If an error occurs while reading.
+     */
+    public FederationRequest readRequest(BlockAllocator allocator)
+            throws IOException
+    {
+        if (inputStream == null) {
+            throw new IllegalStateException("The request has already been read.");
+        }
+
+        if (isFramed()) {
+            return FramedSerDeV4.read(FederationRequest.class, inputStream, allocator);
+        }
+        return VersionedObjectMapperFactory.readerFor(FederationRequest.class, allocator).readValue(inputStream);
+    }
+
+    /**
+     * Writes the response in the SerDe version of the request.
+     *
+     * @param outputStream The OutputStream of the invocation.
+     * @param response The response to write.
+     * @throws IOException If an error occurs while writing.
+     */
+    public void writeResponse(OutputStream outputStream, FederationResponse response)
+            throws IOException
+    {
+        if (isFramed()) {
+            FramedSerDeV4.write(response, outputStream);
+        }
+        else {
+            objectMapper.writeValue(outputStream, response);
+        }
+    }
+
+    private boolean isFramed()
+    {
+        return objectMapper == null;
+    }
+}
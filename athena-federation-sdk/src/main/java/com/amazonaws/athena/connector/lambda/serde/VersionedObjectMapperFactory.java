@@ -23,13 +23,31 @@ import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.handlers.SerDeVersion;
 import com.amazonaws.athena.connector.lambda.serde.v2.ObjectMapperFactoryV2;
 import com.amazonaws.athena.connector.lambda.serde.v3.ObjectMapperFactoryV3;
+import com.amazonaws.athena.connector.lambda.serde.v4.BlockSerDeV4;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Vends {@link ObjectMapper} instances that correspond to SerDe versions.
+ * <p>
+ * Building an ObjectMapper, and the graph of serializers and deserializers registered with it, is relatively expensive
+ * compared to the work done by a small (e.g. metadata) request. Handlers should therefore use the ObjectMappers cached
+ * by {@link #getCached()}, which are built once per container, and supply the request's BlockAllocator to each read via
+ * {@link #readerFor(Class, BlockAllocator)}.
  */
 public class VersionedObjectMapperFactory
 {
+    /**
+     * The deserialization attribute through which a cached ObjectMapper is given the BlockAllocator to use for any
+     * Blocks it reads.
+     */
+    public static final String ALLOCATOR_ATTRIBUTE = "com.amazonaws.athena.connector.lambda.data.BlockAllocator";
+
+    private static final Map<Integer, ObjectMapper> CACHED_MAPPERS = new ConcurrentHashMap<>();
+
     private VersionedObjectMapperFactory(){}
 
     /**
@@ -59,8 +77,66 @@ public class VersionedObjectMapperFactory
                 return ObjectMapperFactoryV2.create(allocator);
             case 3:
                 return ObjectMapperFactoryV3.create(allocator);
+            case 4:
+                return createV4(allocator);
             default:
                 throw new IllegalArgumentException("No serde version " + version);
         }
     }
+
+    /**
+     * Gets the cached {@link ObjectMapper} for the current SDK SerDe version.
+     *
+     * @return An ObjectMapper which reads Blocks using the BlockAllocator set via the ALLOCATOR_ATTRIBUTE.
+     */
+    public static ObjectMapper getCached()
+    {
+        return getCached(SerDeVersion.SERDE_VERSION);
+    }
+
+    /**
+     * Gets the cached {@link ObjectMapper} for the provided SerDe version, creating it on first use. Since the
+     * ObjectMapper is shared it has no BlockAllocator of its own, reads which may produce Blocks must supply one using
+     * the ALLOCATOR_ATTRIBUTE (see {@link #readerFor(Class, BlockAllocator)}). Writes need no BlockAllocator.
+     *
+     * @param version
+     * @return An ObjectMapper which reads Blocks using the BlockAllocator set via the ALLOCATOR_ATTRIBUTE.
+     */
+    public static ObjectMapper getCached(int version)
+    {
+        return CACHED_MAPPERS.computeIfAbsent(version, (Integer next) -> {
+            switch (next) {
+                case 2:
+                    return ObjectMapperFactoryV2.create(null);
+                case 3:
+                    return ObjectMapperFactoryV3.create(null);
+                case 4:
+                    return createV4(null);
+                default:
+                    throw new IllegalArgumentException("No cachable serde version " + next);
+            }
+        });
+    }
+
+    /**
+     * Version 4 only changes how Blocks are serialized, the JSON header of a framed message is otherwise written by the
+     * V3 ObjectMapper (see {@link com.amazonaws.athena.connector.lambda.serde.v4.FramedSerDeV4}).
+     */
+    private static ObjectMapper createV4(BlockAllocator allocator)
+    {
+        return ObjectMapperFactoryV3.create(allocator, BlockSerDeV4.Serializer::new, BlockSerDeV4.Deserializer::new);
+    }
+
+    /**
+     * Creates an {@link ObjectReader}, backed by the cached ObjectMapper for the current SDK SerDe version, which
+     * reads values of the given type and allocates any Blocks it reads using the provided BlockAllocator.
+     *
+     * @param type
+     * @param allocator
+     * @return
+     */
+    public static ObjectReader readerFor(Class<?> type, BlockAllocator allocator)
+    {
+        return getCached().readerFor(type).withAttribute(ALLOCATOR_ATTRIBUTE, allocator);
+    }
 }
@@ -24,6 +24,7 @@ import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocatorRegistry;
 import com.amazonaws.athena.connector.lambda.serde.BaseDeserializer;
 import com.amazonaws.athena.connector.lambda.serde.BaseSerializer;
+import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
 import com.amazonaws.athena.connector.lambda.serde.VersionedSerDe;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
@@ -126,16 +127,16 @@ public class BlockSerDeV3
             Schema schema = schemaDeserializer.deserialize(jparser, ctxt);
 
             byte[] batchBytes = getNextBinaryField(jparser, BATCH_FIELD_NAME);
-            Block block = getOrCreateAllocator(allocatorId).createBlock(schema);
+            Block block = getOrCreateAllocator(allocatorId, ctxt).createBlock(schema);
             if (batchBytes.length > 0) {
-                ArrowRecordBatch batch = deserializeBatch(allocatorId, batchBytes);
+                ArrowRecordBatch batch = deserializeBatch(allocatorId, ctxt, batchBytes);
                 block.loadRecordBatch(batch);
             }
 
             return block;
         }
 
-        private BlockAllocator getOrCreateAllocator(String allocatorId)
+        private BlockAllocator getOrCreateAllocator(String allocatorId, DeserializationContext ctxt)
         {
             if (allocator != null) {
                 return allocator;
@@ -143,15 +144,19 @@ public class BlockSerDeV3
             else if (allocatorRegistry != null) {
                 return allocatorRegistry.getOrCreateAllocator(allocatorId);
             }
-            else {
-                throw new IllegalStateException("allocator and allocatorRegistry are both null");
+
+            //Shared (cached) ObjectMappers are given the allocator to use as an attribute of each read.
+            Object requestAllocator = ctxt.getAttribute(VersionedObjectMapperFactory.ALLOCATOR_ATTRIBUTE);
+            if (requestAllocator instanceof BlockAllocator) {
+                return (BlockAllocator) requestAllocator;
             }
+            throw new IllegalStateException("allocator and allocatorRegistry are both null and no allocator attribute was set");
         }
 
-        private ArrowRecordBatch deserializeBatch(String allocatorId, byte[] batchBytes)
+        private ArrowRecordBatch deserializeBatch(String allocatorId, DeserializationContext ctxt, byte[] batchBytes)
                 throws IOException
         {
-            return deserializeRecordBatch(getOrCreateAllocator(allocatorId), batchBytes);
+            return deserializeRecordBatch(getOrCreateAllocator(allocatorId, ctxt), batchBytes);
         }
 
         private ArrowRecordBatch deserializeRecordBatch(BlockAllocator allocator, byte[] in)
@@ -89,17 +89,26 @@ public class ObjectMapperFactoryV3
     private static final JsonFactory JSON_FACTORY = new JsonFactory();
     private static final String LAMDA_EXCEPTION_CLASS_NAME = LambdaFunctionException.class.getName();
 
-    private static final SerializerFactory SERIALIZER_FACTORY;
+    // Serializers can be static since they don't need a BlockAllocator
+    private static final SerializerFactory SERIALIZER_FACTORY = createSerializerFactory(BlockSerDeV3.Serializer::new);
 
-    static {
-        // Serializers can be static since they don't need a BlockAllocator
-        ImmutableList<JsonSerializer<?>> sers = ImmutableList.of(createRequestSerializer(), createResponseSerializer());
-        SimpleSerializers serializers = new SimpleSerializers(sers);
-        SerializerFactoryConfig config = new SerializerFactoryConfig().withAdditionalSerializers(serializers);
-        SERIALIZER_FACTORY = new StrictSerializerFactory(config);
+    private ObjectMapperFactoryV3(){}
+
+    /**
+     * Creates the Block serializer to use, given the Schema serializer.
+     */
+    public interface BlockSerializerFactory
+    {
+        VersionedSerDe.Serializer<Block> create(VersionedSerDe.Serializer<Schema> schemaSerializer);
     }
 
-    private ObjectMapperFactoryV3(){}
+    /**
+     * Creates the Block deserializer to use, given the BlockAllocator (if any) and the Schema deserializer.
+     */
+    public interface BlockDeserializerFactory
+    {
+        VersionedSerDe.Deserializer<Block> create(BlockAllocator allocator, VersionedSerDe.Deserializer<Schema> schemaDeserializer);
+    }
 
     /**
      * Custom SerializerFactory that *only* uses the custom serializers that we inject into the {@link ObjectMapper}.
@@ -175,14 +184,14 @@ public class ObjectMapperFactoryV3
      */
     private static class StrictObjectMapper extends ObjectMapper
     {
-        private StrictObjectMapper(BlockAllocator allocator)
+        private StrictObjectMapper(BlockAllocator allocator, SerializerFactory serializerFactory, BlockDeserializerFactory blockDeserializer)
         {
             super(JSON_FACTORY);
-            _serializerFactory = SERIALIZER_FACTORY;
+            _serializerFactory = serializerFactory;
 
             ImmutableMap<Class<?>, JsonDeserializer<?>> desers = ImmutableMap.of(
-                    FederationRequest.class, createRequestDeserializer(allocator),
-                    FederationResponse.class, createResponseDeserializer(allocator),
+                    FederationRequest.class, createRequestDeserializer(allocator, blockDeserializer),
+                    FederationResponse.class, createResponseDeserializer(allocator, blockDeserializer),
                     LambdaFunctionException.class, new LambdaFunctionExceptionSerDe.Deserializer());
             SimpleDeserializers deserializers = new SimpleDeserializers(desers);
             DeserializerFactoryConfig dConfig = new DeserializerFactoryConfig().withAdditionalDeserializers(deserializers);
@@ -194,15 +203,37 @@ public class ObjectMapperFactoryV3
 
     public static ObjectMapper create(BlockAllocator allocator)
     {
-        return new StrictObjectMapper(allocator);
+        return new StrictObjectMapper(allocator, SERIALIZER_FACTORY, BlockSerDeV3.Deserializer::new);
+    }
+
+    /**
+     * Creates an ObjectMapper which is identical to the V3 ObjectMapper except for how Blocks are serialized, which
+     * lets later SerDe versions change the encoding of Blocks without forking the rest of the V3 SerDe.
+     *
+     * @param allocator The BlockAllocator to read Blocks with, null to use the ALLOCATOR_ATTRIBUTE of each read.
+     * @param blockSerializer Creates the serializer for Blocks.
+     * @param blockDeserializer Creates the deserializer for Blocks.
+     * @return The ObjectMapper.
+     */
+    public static ObjectMapper create(BlockAllocator allocator, BlockSerializerFactory blockSerializer, BlockDeserializerFactory blockDeserializer)
+    {
+        return new StrictObjectMapper(allocator, createSerializerFactory(blockSerializer), blockDeserializer);
+    }
+
+    private static SerializerFactory createSerializerFactory(BlockSerializerFactory blockSerializer)
+    {
+        ImmutableList<JsonSerializer<?>> sers = ImmutableList.of(createRequestSerializer(blockSerializer), createResponseSerializer(blockSerializer));
+        SimpleSerializers serializers = new SimpleSerializers(sers);
+        SerializerFactoryConfig config = new SerializerFactoryConfig().withAdditionalSerializers(serializers);
+        return new StrictSerializerFactory(config);
     }
 
-    private static FederationRequestSerDe.Serializer createRequestSerializer()
+    private static FederationRequestSerDe.Serializer createRequestSerializer(BlockSerializerFactory blockSerializer)
     {
         FederatedIdentitySerDe.Serializer identity = new FederatedIdentitySerDe.Serializer();
         TableNameSerDe.Serializer tableName = new TableNameSerDe.Serializer();
         VersionedSerDe.Serializer<Schema> schema = new SchemaSerDeV3.Serializer();
-        VersionedSerDe.Serializer<Block> block = new BlockSerDeV3.Serializer(schema);
+        VersionedSerDe.Serializer<Block> block = blockSerializer.create(schema);
         ArrowTypeSerDe.Serializer arrowType = new ArrowTypeSerDe.Serializer();
         MarkerSerDe.Serializer marker = new MarkerSerDe.Serializer(block);
         RangeSerDe.Serializer range = new RangeSerDe.Serializer(marker);
@@ -234,12 +265,12 @@ public class ObjectMapperFactoryV3
                 userDefinedFunction);
     }
 
-    private static FederationRequestSerDe.Deserializer createRequestDeserializer(BlockAllocator allocator)
+    private static FederationRequestSerDe.Deserializer createRequestDeserializer(BlockAllocator allocator, BlockDeserializerFactory blockDeserializer)
     {
         FederatedIdentitySerDe.Deserializer identity = new FederatedIdentitySerDe.Deserializer();
         TableNameSerDe.Deserializer tableName = new TableNameSerDe.Deserializer();
         VersionedSerDe.Deserializer<Schema> schema = new SchemaSerDeV3.Deserializer();
-        VersionedSerDe.Deserializer<Block> block = new BlockSerDeV3.Deserializer(allocator, schema);
+        VersionedSerDe.Deserializer<Block> block = blockDeserializer.create(allocator, schema);
         ArrowTypeSerDe.Deserializer arrowType = new ArrowTypeSerDe.Deserializer();
         MarkerSerDe.Deserializer marker = new MarkerSerDe.Deserializer(block);
         RangeSerDe.Deserializer range = new RangeSerDe.Deserializer(marker);
@@ -273,11 +304,11 @@ public class ObjectMapperFactoryV3
                 userDefinedFunction);
     }
 
-    private static FederationResponseSerDe.Serializer createResponseSerializer()
+    private static FederationResponseSerDe.Serializer createResponseSerializer(BlockSerializerFactory blockSerializer)
     {
         TableNameSerDe.Serializer tableName = new TableNameSerDe.Serializer();
         VersionedSerDe.Serializer<Schema> schema = new SchemaSerDeV3.Serializer();
-        VersionedSerDe.Serializer<Block> block = new BlockSerDeV3.Serializer(schema);
+        VersionedSerDe.Serializer<Block> block = blockSerializer.create(schema);
         S3SpillLocationSerDe.Serializer s3SpillLocation = new S3SpillLocationSerDe.Serializer();
         SpillLocationSerDe.Serializer spillLocation = new SpillLocationSerDe.Serializer(s3SpillLocation);
         EncryptionKeySerDe.Serializer encryptionKey = new EncryptionKeySerDe.Serializer();
@@ -305,11 +336,11 @@ public class ObjectMapperFactoryV3
                 userDefinedFunction);
     }
 
-    private static FederationResponseSerDe.Deserializer createResponseDeserializer(BlockAllocator allocator)
+    private static FederationResponseSerDe.Deserializer createResponseDeserializer(BlockAllocator allocator, BlockDeserializerFactory blockDeserializer)
     {
         TableNameSerDe.Deserializer tableName = new TableNameSerDe.Deserializer();
         VersionedSerDe.Deserializer<Schema> schema = new SchemaSerDeV3.Deserializer();
-        VersionedSerDe.Deserializer<Block> block = new BlockSerDeV3.Deserializer(allocator, schema);
+        VersionedSerDe.Deserializer<Block> block = blockDeserializer.create(allocator, schema);
         S3SpillLocationSerDe.Deserializer s3SpillLocation = new S3SpillLocationSerDe.Deserializer();
         SpillLocationSerDe.Deserializer spillLocation = new SpillLocationSerDe.Deserializer(s3SpillLocation);
         EncryptionKeySerDe.Deserializer encryptionKey = new EncryptionKeySerDe.Deserializer();
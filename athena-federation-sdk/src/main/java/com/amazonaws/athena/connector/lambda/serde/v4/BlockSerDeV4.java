@@ -0,0 +1,151 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2020 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.lambda.serde.v4;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.serde.BaseDeserializer;
+import com.amazonaws.athena.connector.lambda.serde.BaseSerializer;
+import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.amazonaws.athena.connector.lambda.serde.VersionedSerDe;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.IOException;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Serializes only the allocator id and Schema of a Block into the JSON header of a framed (V4) message. In place of
+ * the record batch the header carries the index of the batch within the binary section which follows the header, the
+ * batches themselves are written and read by {@link FramedSerDeV4}.
+ */
+public class BlockSerDeV4
+{
+    /**
+     * The serialization (or deserialization) attribute which holds the List of Blocks whose record batches make up
+     * the binary section of the framed message being written (or read).
+     */
+    public static final String FRAMED_BLOCKS_ATTRIBUTE = "com.amazonaws.athena.connector.lambda.serde.v4.FramedBlocks";
+
+    private static final String ALLOCATOR_ID_FIELD_NAME = "aId";
+    private static final String SCHEMA_FIELD_NAME = "schema";
+    private static final String BATCH_INDEX_FIELD_NAME = "batch";
+    private static final int NO_BATCH = -1;
+
+    private BlockSerDeV4() {}
+
+    public static final class Serializer extends BaseSerializer<Block> implements VersionedSerDe.Serializer<Block>
+    {
+        private final VersionedSerDe.Serializer<Schema> schemaSerializer;
+
+        public Serializer(VersionedSerDe.Serializer<Schema> schemaSerializer)
+        {
+            super(Block.class);
+            this.schemaSerializer = requireNonNull(schemaSerializer, "schemaSerializer is null");
+        }
+
+        @Override
+        public void doSerialize(Block block, JsonGenerator jgen, SerializerProvider provider)
+                throws IOException
+        {
+            jgen.writeStringField(ALLOCATOR_ID_FIELD_NAME, block.getAllocatorId());
+
+            jgen.writeFieldName(SCHEMA_FIELD_NAME);
+            schemaSerializer.serialize(block.getSchema(), jgen, provider);
+
+            if (block.getRowCount() > 0) {
+                List<Block> framedBlocks = getFramedBlocks(provider.getAttribute(FRAMED_BLOCKS_ATTRIBUTE));
+                jgen.writeNumberField(BATCH_INDEX_FIELD_NAME, framedBlocks.size());
+                framedBlocks.add(block);
+            }
+            else {
+                jgen.writeNumberField(BATCH_INDEX_FIELD_NAME, NO_BATCH);
+            }
+        }
+    }
+
+    public static final class Deserializer extends BaseDeserializer<Block> implements VersionedSerDe.Deserializer<Block>
+    {
+        private final BlockAllocator allocator;
+        private final VersionedSerDe.Deserializer<Schema> schemaDeserializer;
+
+        public Deserializer(BlockAllocator allocator, VersionedSerDe.Deserializer<Schema> schemaDeserializer)
+        {
+            super(Block.class);
+            this.schemaDeserializer = requireNonNull(schemaDeserializer, "schemaDeserializer is null");
+            this.allocator = allocator;
+        }
+
+        @Override
+        public Block doDeserialize(JsonParser jparser, DeserializationContext ctxt)
+                throws IOException
+        {
+            //The allocator id is retained in the header for parity with V3 but blocks are always read into the
+            //request's allocator.
+            getNextStringField(jparser, ALLOCATOR_ID_FIELD_NAME);
+
+            assertFieldName(jparser, SCHEMA_FIELD_NAME);
+            Schema schema = schemaDeserializer.deserialize(jparser, ctxt);
+
+            int batchIndex = getNextIntField(jparser, BATCH_INDEX_FIELD_NAME);
+            List<Block> framedBlocks = null;
+            if (batchIndex != NO_BATCH) {
+                framedBlocks = getFramedBlocks(ctxt.getAttribute(FRAMED_BLOCKS_ATTRIBUTE));
+                if (batchIndex != framedBlocks.size()) {
+                    throw new IllegalStateException("Expected batch " + framedBlocks.size() + " but found " + batchIndex);
+                }
+            }
+
+            Block block = getAllocator(ctxt).createBlock(schema);
+            if (framedBlocks != null) {
+                framedBlocks.add(block);
+            }
+
+            return block;
+        }
+
+        private BlockAllocator getAllocator(DeserializationContext ctxt)
+        {
+            if (allocator != null) {
+                return allocator;
+            }
+
+            Object requestAllocator = ctxt.getAttribute(VersionedObjectMapperFactory.ALLOCATOR_ATTRIBUTE);
+            if (requestAllocator instanceof BlockAllocator) {
+                return (BlockAllocator) requestAllocator;
+            }
+            throw new IllegalStateException("allocator is null and no allocator attribute was set");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Block> getFramedBlocks(Object attribute)
+    {
+        if (!(attribute instanceof List)) {
+            throw new IllegalStateException("V4 Blocks can only be serialized as part of a framed message, see FramedSerDeV4");
+        }
+        return (List<Block>) attribute;
+    }
+}
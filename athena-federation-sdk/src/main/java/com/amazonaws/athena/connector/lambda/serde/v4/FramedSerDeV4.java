@@ -0,0 +1,203 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2020 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.lambda.serde.v4;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.ipc.ReadChannel;
+import org.apache.arrow.vector.ipc.WriteChannel;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads and writes SerDe version 4 messages. Rather than embedding each Block's record batch in the JSON as a base64
+ * string, a V4 message is framed as:
+ * <p>
+ * <pre>
+ *  int32 magic | int32 header length | JSON header | Arrow IPC record batch 0 | ... | Arrow IPC record batch N
+ * </pre>
+ * <p>
+ * The JSON header is the usual request/response with each Block reduced to its Schema and the index of its batch. The
+ * record batches are streamed straight from the Block's vectors to the OutputStream when writing and straight from the
+ * InputStream into buffers owned by the request's BlockAllocator when reading, so neither side makes an intermediate
+ * on-heap copy (or base64 encoding) of the data.
+ * <p>
+ * Callers opt in by sending their PingRequest as a framed message, which handlers answer with a framed PingResponse
+ * advertising version 4. From then on each request is answered in the version it was sent in, see
+ * {@link com.amazonaws.athena.connector.lambda.serde.MessageSerDe}.
+ */
+public class FramedSerDeV4
+{
+    public static final int SERDE_VERSION = 4;
+
+    //"AFS4"
+    private static final int MAGIC = 0x41465334;
+
+    private FramedSerDeV4() {}
+
+    /**
+     * Writes the given request or response to the OutputStream as a framed message. The OutputStream is flushed but
+     * not closed.
+     *
+     * @param value The FederationRequest or FederationResponse to write.
+     * @param out The OutputStream to write to.
+     * @throws IOException If an error occurs while writing.
+     */
+    public static void write(Object value, OutputStream out)
+            throws IOException
+    {
+        List<Block> framedBlocks = new ArrayList<>();
+        byte[] header = getObjectMapper().writer()
+                .withAttribute(BlockSerDeV4.FRAMED_BLOCKS_ATTRIBUTE, framedBlocks)
+                .writeValueAsBytes(value);
+
+        DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(header.length);
+        dataOut.write(header);
+        dataOut.flush();
+
+        WriteChannel channel = new WriteChannel(Channels.newChannel(out));
+        for (Block next : framedBlocks) {
+            try (ArrowRecordBatch batch = next.getRecordBatch()) {
+                MessageSerializer.serialize(channel, batch);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Checks whether the InputStream holds a framed message without consuming any of it.
+     *
+     * @param in The InputStream to check, which must support mark/reset.
+     * @return True if the InputStream starts with the magic number of a framed message.
+     * @throws IOException If an error occurs while reading.
+     */
+    public static boolean isFramed(InputStream in)
+            throws IOException
+    {
+        in.mark(Integer.BYTES);
+        try {
+            int magic = 0;
+            for (int i = 0; i < Integer.BYTES; i++) {
+                int next = in.read();
+                if (next < 0) {
+                    return false;
+                }
+                magic = (magic << Byte.SIZE) | next;
+            }
+            return magic == MAGIC;
+        }
+        finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * Reads a framed message from the InputStream. The InputStream is not closed.
+     *
+     * @param type The type of the request or response to read.
+     * @param in The InputStream to read from.
+     * @param allocator The BlockAllocator to read any Blocks into.
+     * @return The request or response that was read.
+     * @throws IOException If an error occurs while reading or the message is not a framed message.
+     */
+    public static <T> T read(Class<T> type, InputStream in, BlockAllocator allocator)
+            throws IOException
+    {
+        DataInputStream dataIn = new DataInputStream(in);
+        int magic = dataIn.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("Not a framed SerDe version " + SERDE_VERSION + " message, found magic " + magic);
+        }
+        byte[] header = new byte[dataIn.readInt()];
+        dataIn.readFully(header);
+
+        List<Block> framedBlocks = new ArrayList<>();
+        try {
+            T value = getObjectMapper().readerFor(type)
+                    .withAttribute(VersionedObjectMapperFactory.ALLOCATOR_ATTRIBUTE, allocator)
+                    .withAttribute(BlockSerDeV4.FRAMED_BLOCKS_ATTRIBUTE, framedBlocks)
+                    .readValue(header);
+
+            ReadChannel channel = new ReadChannel(Channels.newChannel(in));
+            for (int i = 0; i < framedBlocks.size(); i++) {
+                framedBlocks.get(i).loadRecordBatch(readRecordBatch(channel, allocator, i, framedBlocks.size()));
+            }
+            return value;
+        }
+        catch (IOException | RuntimeException ex) {
+            for (Block next : framedBlocks) {
+                try {
+                    next.close();
+                }
+                catch (Exception closeEx) {
+                    ex.addSuppressed(closeEx);
+                }
+            }
+            throw ex;
+        }
+    }
+
+    private static ArrowRecordBatch readRecordBatch(ReadChannel channel, BlockAllocator allocator, int blockNum, int numBlocks)
+            throws IOException
+    {
+        AtomicReference<ArrowRecordBatch> batch = new AtomicReference<>();
+        try {
+            return allocator.registerBatch((BufferAllocator root) -> {
+                batch.set(MessageSerializer.deserializeRecordBatch(channel, root));
+                if (batch.get() == null) {
+                    throw new EOFException("End of stream");
+                }
+                return batch.get();
+            });
+        }
+        catch (RuntimeException ex) {
+            if (batch.get() != null) {
+                batch.get().close();
+            }
+            //registerBatch wraps the checked exceptions of the reader.
+            if (ex.getCause() instanceof IOException) {
+                throw new IOException("Truncated framed message, unable to read the record batch of block "
+                        + (blockNum + 1) + " of " + numBlocks + ": " + ex.getCause().getMessage(), ex.getCause());
+            }
+            throw ex;
+        }
+    }
+
+    private static ObjectMapper getObjectMapper()
+    {
+        return VersionedObjectMapperFactory.getCached(SERDE_VERSION);
+    }
+}
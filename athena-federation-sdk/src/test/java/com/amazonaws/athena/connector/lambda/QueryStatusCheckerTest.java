@@ -116,4 +116,61 @@ public class QueryStatusCheckerTest
             verify(athena, times(2)).getQueryExecution(any());
         }
     }
+
+    @Test
+    public void testSharedPolling()
+            throws InterruptedException
+    {
+        String queryId = "query4";
+        GetQueryExecutionRequest request = new GetQueryExecutionRequest().withQueryExecutionId(queryId);
+        GetQueryExecutionResult running = new GetQueryExecutionResult().withQueryExecution(new QueryExecution().withStatus(new QueryExecutionStatus().withState("RUNNING")));
+        GetQueryExecutionResult cancelled = new GetQueryExecutionResult().withQueryExecution(new QueryExecution().withStatus(new QueryExecutionStatus().withState("CANCELLED")));
+        when(athena.getQueryExecution(request)).thenReturn(running).thenReturn(cancelled);
+        try (QueryStatusChecker checker1 = new QueryStatusChecker(athena, athenaInvoker, queryId);
+                QueryStatusChecker checker2 = new QueryStatusChecker(athena, athenaInvoker, queryId)) {
+            assertTrue(checker1.isQueryRunning());
+            assertTrue(checker2.isQueryRunning());
+            Thread.sleep(3000);
+            // both checkers see the cancellation from a single poll schedule
+            assertFalse(checker1.isQueryRunning());
+            assertFalse(checker2.isQueryRunning());
+            verify(athena, times(2)).getQueryExecution(any());
+        }
+    }
+
+    @Test
+    public void testSlowPollDoesNotDelayOtherQueries()
+            throws InterruptedException
+    {
+        String slowQueryId = "query6";
+        String fastQueryId = "query7";
+        GetQueryExecutionResult running = new GetQueryExecutionResult().withQueryExecution(new QueryExecution().withStatus(new QueryExecutionStatus().withState("RUNNING")));
+        GetQueryExecutionResult failed = new GetQueryExecutionResult().withQueryExecution(new QueryExecution().withStatus(new QueryExecutionStatus().withState("FAILED")));
+        when(athena.getQueryExecution(new GetQueryExecutionRequest().withQueryExecutionId(slowQueryId))).thenAnswer((invocation) -> {
+            Thread.sleep(5000);
+            return running;
+        });
+        when(athena.getQueryExecution(new GetQueryExecutionRequest().withQueryExecutionId(fastQueryId))).thenReturn(failed);
+        try (QueryStatusChecker slowChecker = new QueryStatusChecker(athena, athenaInvoker, slowQueryId);
+                QueryStatusChecker fastChecker = new QueryStatusChecker(athena, athenaInvoker, fastQueryId)) {
+            assertTrue(slowChecker.isQueryRunning());
+            assertTrue(fastChecker.isQueryRunning());
+            Thread.sleep(2000);
+            // the fast query's poll isn't stuck behind the slow query's call to Athena
+            assertTrue(slowChecker.isQueryRunning());
+            assertFalse(fastChecker.isQueryRunning());
+        }
+    }
+
+    @Test
+    public void testCloseStopsPolling()
+            throws InterruptedException
+    {
+        String queryId = "query5";
+        try (QueryStatusChecker queryStatusChecker = new QueryStatusChecker(athena, athenaInvoker, queryId)) {
+            assertTrue(queryStatusChecker.isQueryRunning());
+        }
+        Thread.sleep(1500);
+        verify(athena, times(0)).getQueryExecution(any());
+    }
 }
@@ -0,0 +1,96 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2020 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.lambda;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SharedRateLimiterTest
+{
+    private static final long INITIAL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(0);
+
+    @Test
+    public void slowDownDelaysTheNextCall()
+    {
+        SharedRateLimiter limiter = new SharedRateLimiter("slowDownDelaysTheNextCall", 0, clock::get);
+        assertEquals(0, limiter.reserve());
+
+        assertEquals(INITIAL_INTERVAL_NANOS, limiter.slowDown(0.5, INITIAL_INTERVAL_NANOS, MAX_INTERVAL_NANOS));
+        assertTrue(limiter.isSlowed());
+        assertEquals(INITIAL_INTERVAL_NANOS, limiter.reserve());
+
+        //Later callers queue up behind the reserved slots.
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(15), limiter.reserve());
+    }
+
+    @Test
+    public void penaltyOutlivesTheTimeSpentHandlingIt()
+    {
+        SharedRateLimiter limiter = new SharedRateLimiter("penaltyOutlivesTheTimeSpentHandlingIt", 0, clock::get);
+        limiter.slowDown(0.5, INITIAL_INTERVAL_NANOS, MAX_INTERVAL_NANOS);
+
+        //Time spent after the throttle (e.g. logging it) counts towards the first wait...
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(30));
+        assertEquals(0, limiter.reserve());
+        //...but calls remain spaced by the interval until successful calls speed them up.
+        assertEquals(INITIAL_INTERVAL_NANOS, limiter.reserve());
+        assertEquals(2 * INITIAL_INTERVAL_NANOS, limiter.reserve());
+
+        limiter.speedUp(INITIAL_INTERVAL_NANOS);
+        assertFalse(limiter.isSlowed());
+        assertEquals(0, limiter.getIntervalNanos());
+    }
+
+    @Test
+    public void slowDownIsBounded()
+    {
+        SharedRateLimiter limiter = new SharedRateLimiter("slowDownIsBounded", 1_000, clock::get);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), limiter.getIntervalNanos());
+
+        for (int i = 0; i < 20; i++) {
+            limiter.slowDown(0.5, INITIAL_INTERVAL_NANOS, MAX_INTERVAL_NANOS);
+        }
+        assertEquals(MAX_INTERVAL_NANOS, limiter.getIntervalNanos());
+
+        limiter.speedUp(MAX_INTERVAL_NANOS);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), limiter.getIntervalNanos());
+    }
+
+    @Test
+    public void forResource()
+    {
+        SharedRateLimiter table1 = SharedRateLimiter.forResource("dynamodb:table1", 100);
+        assertSame(table1, SharedRateLimiter.forResource("dynamodb:table1", 10));
+        assertNotSame(table1, SharedRateLimiter.forResource("dynamodb:table2", 100));
+        assertEquals(100D, table1.getRate(), 0.1D);
+    }
+}
@@ -21,9 +21,16 @@ package com.amazonaws.athena.connector.lambda;
 
 import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
 import com.amazonaws.athena.connector.lambda.exceptions.FederationThrottleException;
+import com.google.common.collect.ImmutableMap;
 import org.junit.Test;
 
 import java.sql.Time;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -119,4 +126,126 @@ public class ThrottlingInvokerTest
         when(spiller.spilled()).thenReturn(false);
         invoker.invoke(() -> {throw new RuntimeException();}, 2_000);
     }
+
+    @Test
+    public void invokeWithSharedRateLimit()
+            throws TimeoutException
+    {
+        //The limiter's clock only moves when the test moves it, so the waits don't depend on how long the calls take.
+        AtomicLong clock = new AtomicLong(0);
+        ThrottlingInvoker.Builder builder = ThrottlingInvoker.newBuilder()
+                .withDecrease(0.5)
+                .withIncrease(10)
+                .withInitialDelayMs(20)
+                .withMaxDelayMs(200)
+                .withFilter((Exception ex) -> ex instanceof FederationThrottleException)
+                .withRateLimiter(new SharedRateLimiter("invokeWithSharedRateLimit", 1_000, clock::get));
+        ThrottlingInvoker invoker1 = builder.build();
+        ThrottlingInvoker invoker2 = builder.build();
+
+        //1000 TPS is a 1ms interval between calls even without congestion.
+        assertEquals(1_000D, invoker1.getCurrentRate(), 0.1D);
+
+        final AtomicLong count = new AtomicLong(0);
+        invoker1.invoke(() -> {
+            if (count.incrementAndGet() < 2) {
+                throw new FederationThrottleException();
+            }
+            return 1;
+        }, 10_000);
+        assertEquals(1, invoker1.getThrottleEvents());
+        //The retry waited out the full initial delay.
+        assertEquals(20, invoker1.getSleepTimeMs());
+
+        //The congestion seen by invoker1 slowed down invoker2 as well, the successful call then sped both up.
+        assertEquals(0, invoker2.getThrottleEvents());
+        assertEquals(invoker1.getDelay(), invoker2.getDelay());
+        assertEquals(10, invoker2.getDelay());
+        assertEquals(ThrottlingInvoker.State.AVOIDANCE, invoker1.getState());
+
+        //invoker1's retry reserved the slot at 20ms, so invoker2's call is free at 40ms.
+        clock.set(TimeUnit.MILLISECONDS.toNanos(40));
+        invoker2.invoke(() -> 1, 10_000);
+        assertEquals(0, invoker2.getSleepTimeMs());
+        assertEquals(1, invoker1.getDelay());
+        assertEquals(1_000D, invoker2.getCurrentRate(), 0.1D);
+    }
+
+    @Test
+    public void maxTpsPerResource()
+    {
+        //Without either variable there is no shared rate limit.
+        assertNull(ThrottlingInvoker.getMaxTps("dynamodb:mytable", ImmutableMap.of()));
+
+        //The global limit applies to every resource without its own.
+        Map<String, String> env = ImmutableMap.of("throttle_max_tps", "100",
+                "throttle_max_tps_dynamodb_mytable", "25");
+        assertEquals(25D, ThrottlingInvoker.getMaxTps("dynamodb:mytable", env), 0.0D);
+        assertEquals(100D, ThrottlingInvoker.getMaxTps("dynamodb:othertable", env), 0.0D);
+        assertEquals(100D, ThrottlingInvoker.getMaxTps("athena", env), 0.0D);
+
+        try {
+            ThrottlingInvoker.getMaxTps("athena", ImmutableMap.of("throttle_max_tps_athena", "fast"));
+            fail("Expected the invalid limit to be rejected");
+        }
+        catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("throttle_max_tps_athena"));
+        }
+    }
+
+    @Test
+    public void invokeAsyncWithThrottle()
+            throws Exception
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ThrottlingInvoker invoker = ThrottlingInvoker.newBuilder()
+                    .withDecrease(0.5)
+                    .withIncrease(10)
+                    .withInitialDelayMs(10)
+                    .withMaxDelayMs(200)
+                    .withFilter((Exception ex) -> ex instanceof FederationThrottleException)
+                    .build();
+
+            final AtomicLong count = new AtomicLong(0);
+            CompletableFuture<Long> result = invoker.invokeAsync(() -> {
+                if (count.incrementAndGet() < 4) {
+                    throw new FederationThrottleException();
+                }
+                return count.get();
+            }, 10_000, executor);
+
+            assertEquals(Long.valueOf(4), result.get());
+            assertEquals(3, invoker.getThrottleEvents());
+            assertEquals(ThrottlingInvoker.State.AVOIDANCE, invoker.getState());
+            //10ms + 20ms + 40ms of waiting for the retries.
+            assertEquals(70, invoker.getSleepTimeMs());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void invokeAsyncWithOtherError()
+            throws InterruptedException
+    {
+        ThrottlingInvoker invoker = ThrottlingInvoker.newBuilder()
+                .withDecrease(0.5)
+                .withIncrease(10)
+                .withInitialDelayMs(10)
+                .withMaxDelayMs(200)
+                .withFilter((Exception ex) -> ex instanceof FederationThrottleException)
+                .build();
+
+        CompletableFuture<Integer> result = invoker.invokeAsync(() -> {throw new IllegalStateException();}, 10_000, Runnable::run);
+        try {
+            result.get();
+            fail("Expected the call to fail");
+        }
+        catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(0, invoker.getThrottleEvents());
+    }
 }
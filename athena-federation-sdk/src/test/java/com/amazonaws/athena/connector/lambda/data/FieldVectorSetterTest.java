@@ -0,0 +1,129 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FieldVectorSetterTest
+{
+    private BlockAllocatorImpl allocator;
+
+    @Before
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+    }
+
+    @After
+    public void after()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void settersAreResolvedOncePerClass()
+    {
+        FieldVectorSetter.ValueSetter setter = FieldVectorSetter.getSetter(Types.MinorType.INT, Long.class);
+        assertSame(setter, FieldVectorSetter.getSetter(Types.MinorType.INT, Long.class));
+        assertNotSame(setter, FieldVectorSetter.getSetter(Types.MinorType.INT, Integer.class));
+    }
+
+    @Test
+    public void setValueWithMixedClasses()
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addIntField("col1")
+                .addStringField("col2")
+                .addBitField("col3")
+                .build();
+
+        try (Block block = allocator.createBlock(schema)) {
+            FieldVectorSetter ints = new FieldVectorSetter(block.getFieldVector("col1"));
+            ints.setValue(0, 1);
+            ints.setValue(1, 2L);
+            ints.setValue(2, null);
+            ints.setValue(3, 4);
+
+            block.setValue("col2", 0, "a");
+            block.setValue("col2", 1, new StringBuilder("b"));
+            block.setValue("col3", 0, true);
+            block.setValue("col3", 1, 0);
+            block.setRowCount(4);
+
+            assertEquals(1, block.getFieldReader("col1").readObject());
+            block.getFieldReader("col1").setPosition(1);
+            assertEquals(2, block.getFieldReader("col1").readObject());
+            block.getFieldReader("col1").setPosition(2);
+            assertNull(block.getFieldReader("col1").readObject());
+            block.getFieldReader("col1").setPosition(3);
+            assertEquals(4, block.getFieldReader("col1").readObject());
+            block.getFieldReader("col2").setPosition(1);
+            assertEquals("b", block.getFieldReader("col2").readText().toString());
+            assertTrue(block.getFieldReader("col3").readBoolean());
+            block.getFieldReader("col3").setPosition(1);
+            assertFalse(block.getFieldReader("col3").readBoolean());
+        }
+        catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @Test
+    public void jodaDateTimeIsConverted()
+            throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addField("col1", new ArrowType.Timestamp(TimeUnit.MILLISECOND, "UTC"))
+                .build();
+        org.joda.time.LocalDateTime value = new org.joda.time.LocalDateTime(2021, 5, 1, 10, 15, 30, 0,
+                org.joda.time.chrono.ISOChronology.getInstanceUTC());
+
+        try (Block block = allocator.createBlock(schema)) {
+            BlockUtils.setValue(block.getFieldVector("col1"), 0, value);
+            block.setRowCount(1);
+            assertEquals(value.toDateTime(org.joda.time.DateTimeZone.UTC).getMillis(),
+                    ((TimeStampMilliTZVector) block.getFieldVector("col1")).get(0));
+        }
+    }
+
+    @Test
+    public void failuresNameTheField()
+            throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder().addBigIntField("col1").build();
+        try (Block block = allocator.createBlock(schema)) {
+            block.setValue("col1", 0, "not a long");
+            fail("Expected a failure");
+        }
+        catch (RuntimeException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("Unable to set value for field col1"));
+        }
+    }
+}
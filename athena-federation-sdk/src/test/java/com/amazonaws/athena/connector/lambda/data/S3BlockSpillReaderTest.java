@@ -0,0 +1,239 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
+import com.amazonaws.athena.connector.lambda.security.NoOpBlockCrypto;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class S3BlockSpillReaderTest
+{
+    private static final String BUCKET = "bucket";
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final S3SpillLocation spillDirectory = S3SpillLocation.newBuilder()
+            .withBucket(BUCKET)
+            .withPrefix("spill")
+            .withQueryId("queryId")
+            .withSplitId("splitId")
+            .withIsDirectory(true)
+            .build();
+
+    private BlockAllocatorImpl allocator;
+    private ExecutorService executor;
+    private Schema schema;
+    private S3BlockSpillReader spillReader;
+    private AmazonS3 mockS3;
+
+    @Before
+    public void setUp()
+    {
+        allocator = new BlockAllocatorImpl();
+        executor = Executors.newFixedThreadPool(3);
+        schema = SchemaBuilder.newBuilder().addIntField("blockNum").build();
+
+        mockS3 = mock(AmazonS3.class);
+        when(mockS3.getObject(anyString(), anyString())).thenAnswer((invocation) -> {
+            byte[] bytes = objects.get((String) invocation.getArguments()[1]);
+            if (bytes == null) {
+                AmazonS3Exception ex = new AmazonS3Exception("Not Found");
+                ex.setStatusCode(404);
+                throw ex;
+            }
+            S3Object object = new S3Object();
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(bytes.length);
+            object.setObjectMetadata(metadata);
+            object.setObjectContent(new ByteArrayInputStream(bytes));
+            return object;
+        });
+        spillReader = new S3BlockSpillReader(mockS3, allocator);
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        allocator.close();
+    }
+
+    @Test
+    public void readInParallel()
+            throws Exception
+    {
+        List<SpillLocation> locations = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            locations.add(spill(i));
+        }
+
+        try (SpilledBlockIterator blocks = spillReader.read(locations, null, schema, executor, 2)) {
+            assertBlocks(blocks, 5);
+        }
+        assertEquals(0, allocator.getUsage());
+    }
+
+    @Test
+    public void followWhileWriting()
+            throws Exception
+    {
+        spill(0);
+        spill(1);
+        executor.submit(() -> {
+            TimeUnit.MILLISECONDS.sleep(100);
+            spill(2);
+            markEndOfSpill(3);
+            return null;
+        });
+
+        try (SpilledBlockIterator blocks = spillReader.follow(spillDirectory, null, schema, executor, 2, 5_000)) {
+            assertBlocks(blocks, 3);
+        }
+    }
+
+    @Test
+    public void followChecksEndOfSpillSparingly()
+            throws Exception
+    {
+        spill(0);
+        executor.submit(() -> {
+            TimeUnit.MILLISECONDS.sleep(300);
+            spill(1);
+            markEndOfSpill(2);
+            return null;
+        });
+
+        try (SpilledBlockIterator blocks = spillReader.follow(spillDirectory, null, schema, executor, 2, 5_000)) {
+            assertBlocks(blocks, 2);
+        }
+        //Once when block 1 is first missing and once more after the end of spill was marked, rather than every poll.
+        verify(mockS3, atMost(2)).getObject(anyString(), eq(S3BlockSpiller.makeEndOfSpillLocation(spillDirectory).getKey()));
+    }
+
+    @Test
+    public void followFailsWhenSpillDoesNotEnd()
+            throws Exception
+    {
+        spill(0);
+
+        try (SpilledBlockIterator blocks = spillReader.follow(spillDirectory, null, schema, executor, 1, 100)) {
+            blocks.next().close();
+            blocks.hasNext();
+            fail("Expected the read to time out");
+        }
+        catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().contains("did not appear within 100 ms"));
+        }
+    }
+
+    @Test
+    public void followFailsWhenSpillEndsWithMissingBlock()
+            throws Exception
+    {
+        spill(0);
+        markEndOfSpill(2);
+
+        try (SpilledBlockIterator blocks = spillReader.follow(spillDirectory, null, schema, executor, 1, 5_000)) {
+            blocks.next().close();
+            blocks.hasNext();
+            fail("Expected the read to fail on the missing block");
+        }
+        catch (RuntimeException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("is missing but the spill ended with 2 blocks"));
+        }
+    }
+
+    @Test
+    public void closeReleasesPrefetchedBlocks()
+            throws Exception
+    {
+        List<SpillLocation> locations = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            locations.add(spill(i));
+        }
+
+        try (SpilledBlockIterator blocks = spillReader.read(locations, null, schema, executor, 3)) {
+            blocks.next().close();
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        assertEquals(0, allocator.getUsage());
+    }
+
+    private void markEndOfSpill(int blockCount)
+    {
+        objects.put(S3BlockSpiller.makeEndOfSpillLocation(spillDirectory).getKey(),
+                String.valueOf(blockCount).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void assertBlocks(SpilledBlockIterator blocks, int expectedBlocks)
+    {
+        for (int i = 0; i < expectedBlocks; i++) {
+            try (Block block = blocks.next()) {
+                assertEquals(Integer.valueOf(i), block.getFieldReader("blockNum").readInteger());
+            }
+            catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+        assertFalse(blocks.hasNext());
+    }
+
+    private S3SpillLocation spill(int blockNum)
+            throws Exception
+    {
+        S3SpillLocation location = S3BlockSpiller.makeSpillLocation(spillDirectory, blockNum);
+        try (Block block = allocator.createBlock(schema)) {
+            BlockUtils.setValue(block.getFieldVector("blockNum"), 0, blockNum);
+            block.setRowCount(1);
+            objects.put(location.getKey(), new NoOpBlockCrypto(allocator).encrypt(null, block));
+        }
+        return location;
+    }
+}
@@ -26,6 +26,7 @@ import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory;
 import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.s3.model.S3Object;
@@ -48,12 +49,14 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -196,6 +199,100 @@ public class S3BlockSpillerTest
         logger.info("spillTest: exit");
     }
 
+    @Test
+    public void getSpillLocationsDoesNotMarkEndOfSpillByDefault()
+    {
+        blockWriter.getSpillLocations();
+        verify(mockS3, never()).putObject(anyObject());
+    }
+
+    @Test
+    public void getSpillLocationsMarksEndOfSpillForFollowedReads()
+            throws IOException
+    {
+        ArgumentCaptor<PutObjectRequest> argument = ArgumentCaptor.forClass(PutObjectRequest.class);
+        when(mockS3.putObject(anyObject())).thenReturn(mock(PutObjectResult.class));
+
+        try (S3BlockSpiller followedWriter = new S3BlockSpiller(mockS3, followedSpillConfig(), allocator,
+                expected.getSchema(), ConstraintEvaluator.emptyEvaluator())) {
+            followedWriter.write(expected);
+            followedWriter.getSpillLocations();
+            followedWriter.getSpillLocations();
+        }
+
+        verify(mockS3, times(2)).putObject(argument.capture());
+        PutObjectRequest marker = argument.getValue();
+        assertEquals(bucket, marker.getBucketName());
+        assertEquals(prefix + "/" + requestId + "/" + splitId + ".end", marker.getKey());
+        assertEquals("1", new String(ByteStreams.toByteArray(marker.getInputStream()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void getSpillLocationsFailsWhenEndOfSpillCannotBeMarked()
+    {
+        when(mockS3.putObject(anyObject()))
+                .thenThrow(new AmazonS3Exception("Service Unavailable"))
+                .thenReturn(mock(PutObjectResult.class));
+
+        try (S3BlockSpiller followedWriter = new S3BlockSpiller(mockS3, followedSpillConfig(), allocator,
+                expected.getSchema(), ConstraintEvaluator.emptyEvaluator())) {
+            try {
+                followedWriter.getSpillLocations();
+                fail("Expected marking the end of the spill to fail");
+            }
+            catch (AmazonS3Exception ex) {
+                assertEquals("Service Unavailable", ex.getErrorMessage());
+            }
+
+            //The marker wasn't written so the next call retries it.
+            followedWriter.getSpillLocations();
+        }
+        verify(mockS3, times(2)).putObject(anyObject());
+    }
+
+    @Test
+    public void getSpillLocationsDoesNotMarkEndOfSpillAfterFailedSpill()
+    {
+        when(mockS3.putObject(anyObject())).thenThrow(new AmazonS3Exception("Service Unavailable"));
+
+        //The final block is spilled asynchronously, so its failure is only seen once getSpillLocations waits for it.
+        SpillConfig asyncConfig = SpillConfig.newBuilder()
+                .withEncryptionKey(spillConfig.getEncryptionKey())
+                .withRequestId(requestId)
+                .withSpillLocation(spillConfig.getSpillLocation())
+                .withFollowedReads(true)
+                .withNumSpillThreads(1)
+                .withMaxBlockBytes(1_000_000)
+                .withMaxInlineBlockBytes(0)
+                .build();
+        try (S3BlockSpiller followedWriter = new S3BlockSpiller(mockS3, asyncConfig, allocator,
+                expected.getSchema(), ConstraintEvaluator.emptyEvaluator())) {
+            followedWriter.writeRows((Block block, int rowNum) -> {
+                BlockUtils.setValue(block.getFieldVector("col1"), rowNum, 100);
+                return 1;
+            });
+            try {
+                followedWriter.getSpillLocations();
+                fail("Expected the failed spill to fail getSpillLocations");
+            }
+            catch (AmazonS3Exception ex) {
+                assertEquals("Service Unavailable", ex.getErrorMessage());
+            }
+        }
+        //Only the failed block was written, not the end of spill marker.
+        verify(mockS3, times(1)).putObject(anyObject());
+    }
+
+    private SpillConfig followedSpillConfig()
+    {
+        return SpillConfig.newBuilder()
+                .withEncryptionKey(spillConfig.getEncryptionKey())
+                .withRequestId(requestId)
+                .withSpillLocation(spillConfig.getSpillLocation())
+                .withFollowedReads(true)
+                .build();
+    }
+
     private class ByteHolder
     {
         private byte[] bytes;
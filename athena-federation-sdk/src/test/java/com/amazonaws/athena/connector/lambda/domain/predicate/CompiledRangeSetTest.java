@@ -0,0 +1,212 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.arrow.vector.types.Types.MinorType.BIGINT;
+import static org.apache.arrow.vector.types.Types.MinorType.DATEMILLI;
+import static org.apache.arrow.vector.types.Types.MinorType.FLOAT8;
+import static org.apache.arrow.vector.types.Types.MinorType.INT;
+import static org.apache.arrow.vector.types.Types.MinorType.VARCHAR;
+import static org.junit.Assert.*;
+
+public class CompiledRangeSetTest
+{
+    private BlockAllocatorImpl allocator;
+
+    @Before
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void bigIntMatchesMarkerEvaluation()
+            throws Exception
+    {
+        ArrowType type = BIGINT.getType();
+        SortedRangeSet rangeSet = SortedRangeSet.of(false,
+                Range.lessThan(allocator, type, -100L),
+                Range.range(allocator, type, 0L, false, 10L, true),
+                Range.range(allocator, type, 20L, true, 30L, false),
+                Range.equal(allocator, type, 50L),
+                Range.greaterThan(allocator, type, 1000L));
+
+        CompiledRangeSet compiled = rangeSet.compile().get();
+        assertEquals(5, compiled.getRangeCount());
+        for (long value : new long[] {Long.MIN_VALUE, -101, -100, -99, -1, 0, 1, 9, 10, 11, 19, 20, 21, 29, 30, 31,
+                49, 50, 51, 999, 1000, 1001, Long.MAX_VALUE}) {
+            assertEquals("value " + value, includes(rangeSet, type, value), compiled.contains(value));
+            assertEquals("value " + value, includes(rangeSet, type, value), rangeSet.containsValue((Object) value));
+        }
+        assertFalse(compiled.containsValue(null));
+    }
+
+    @Test
+    public void intInListMatchesMarkerEvaluation()
+            throws Exception
+    {
+        ArrowType type = INT.getType();
+        SortedRangeSet rangeSet = SortedRangeSet.of(allocator, type, true, 7, Arrays.asList(3, 11, -5, 100));
+
+        CompiledRangeSet compiled = rangeSet.compile().get();
+        for (int value = -10; value <= 110; value++) {
+            assertEquals("value " + value, includes(rangeSet, type, value), compiled.containsValue(value));
+        }
+        assertTrue(compiled.containsValue(null));
+        assertTrue(compiled.contains(11L));
+    }
+
+    @Test
+    public void doubleMatchesMarkerEvaluation()
+            throws Exception
+    {
+        ArrowType type = FLOAT8.getType();
+        SortedRangeSet rangeSet = SortedRangeSet.of(false,
+                Range.range(allocator, type, -1.5D, true, 0.0D, false),
+                Range.greaterThanOrEqual(allocator, type, 10.25D));
+
+        CompiledRangeSet compiled = rangeSet.compile().get();
+        for (double value : new double[] {Double.NEGATIVE_INFINITY, -2D, -1.5D, -0.0D, 0.0D, 5D, 10.25D,
+                Double.POSITIVE_INFINITY, Double.NaN}) {
+            assertEquals("value " + value, includes(rangeSet, type, value), compiled.contains(value));
+        }
+    }
+
+    @Test
+    public void dateMilliMatchesMarkerEvaluation()
+            throws Exception
+    {
+        ArrowType type = DATEMILLI.getType();
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2020, 2, 1, 0, 0);
+        SortedRangeSet rangeSet = SortedRangeSet.of(false, Range.range(allocator, type, start, true, end, false));
+
+        CompiledRangeSet compiled = rangeSet.compile().get();
+        for (LocalDateTime value : Arrays.asList(start.minusNanos(1), start, start.plusDays(3), end.minusNanos(1), end)) {
+            assertEquals("value " + value, includes(rangeSet, type, value), compiled.containsValue(value));
+        }
+
+        //Values beyond the years a long can hold as nanos are left to the SortedRangeSet itself
+        LocalDateTime farFuture = LocalDateTime.of(3000, 1, 1, 0, 0);
+        assertFalse(compiled.accepts(farFuture));
+        assertFalse(rangeSet.containsValue(farFuture));
+    }
+
+    @Test
+    public void unsupportedTypesAreNotCompiled()
+            throws Exception
+    {
+        SortedRangeSet rangeSet = SortedRangeSet.of(allocator, VARCHAR.getType(), "a", "b");
+        assertFalse(rangeSet.compile().isPresent());
+        assertTrue(rangeSet.containsValue("a"));
+
+        //Values of an unexpected Java type fall back to the Marker based evaluation
+        SortedRangeSet bigInts = SortedRangeSet.of(allocator, BIGINT.getType(), 1L);
+        assertFalse(bigInts.compile().get().accepts("1"));
+    }
+
+    @Test
+    public void otherIntegralTypesAreNotCompiled()
+            throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addField("col1", BIGINT.getType())
+                .addField("col2", INT.getType())
+                .build();
+        SortedRangeSet bigInts = SortedRangeSet.of(false, Range.range(allocator, BIGINT.getType(), 1L, true, 5L, false));
+        SortedRangeSet ints = SortedRangeSet.of(false, Range.range(allocator, INT.getType(), 1, true, 5, false));
+
+        //Only the Java type of the column's Markers is compared in compiled form
+        assertTrue(bigInts.compile().get().accepts(1L));
+        assertFalse(bigInts.compile().get().accepts(1));
+        assertTrue(ints.compile().get().accepts(1));
+        assertFalse(ints.compile().get().accepts(1L));
+
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("col1", bigInts);
+        summary.put("col2", ints);
+        try (ConstraintEvaluator evaluator = new ConstraintEvaluator(allocator, schema, new Constraints(summary))) {
+            //An Integer can't be written to a BIGINT Marker, as before compiling
+            try {
+                evaluator.apply("col1", 1);
+                fail("Expected an Integer to be rejected for a BIGINT column");
+            }
+            catch (RuntimeException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().contains("Unable to set value for field"));
+            }
+            //A Long is converted when written to an INT Marker, as before compiling
+            assertTrue(evaluator.apply("col2", 1L));
+            assertFalse(evaluator.apply("col2", 5L));
+        }
+    }
+
+    @Test
+    public void constraintEvaluatorUsesCompiledForm()
+            throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addField("col1", BIGINT.getType())
+                .addField("col2", FLOAT8.getType())
+                .build();
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("col1", SortedRangeSet.of(false, Range.range(allocator, BIGINT.getType(), 1L, true, 5L, false)));
+        summary.put("col2", SortedRangeSet.of(true, Range.greaterThan(allocator, FLOAT8.getType(), 0D)));
+
+        try (ConstraintEvaluator evaluator = new ConstraintEvaluator(allocator, schema, new Constraints(summary))) {
+            assertTrue(evaluator.apply("col1", 1L));
+            assertFalse(evaluator.apply("col1", 5L));
+            assertFalse(evaluator.apply("col1", null));
+            assertTrue(evaluator.apply("col2", 0.1D));
+            assertFalse(evaluator.apply("col2", 0D));
+            assertTrue(evaluator.apply("col2", null));
+            assertTrue(evaluator.makeConstraintProjector("col1").get().apply(3L));
+        }
+    }
+
+    private boolean includes(SortedRangeSet rangeSet, ArrowType type, Object value)
+            throws Exception
+    {
+        try (Marker marker = Marker.exactly(allocator, type, value)) {
+            return rangeSet.includesMarker(marker);
+        }
+    }
+}
@@ -42,10 +42,13 @@ import com.amazonaws.athena.connector.lambda.metadata.ListTablesResponse;
 import com.amazonaws.athena.connector.lambda.metadata.MetadataRequestType;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.request.FederationResponse;
 import com.amazonaws.athena.connector.lambda.request.PingRequest;
 import com.amazonaws.athena.connector.lambda.request.PingResponse;
 import com.amazonaws.athena.connector.lambda.security.IdentityUtil;
 import com.amazonaws.athena.connector.lambda.serde.ObjectMapperFactory;
+import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.amazonaws.athena.connector.lambda.serde.v4.FramedSerDeV4;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
@@ -59,12 +62,16 @@ import org.mockito.internal.util.reflection.Whitebox;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.UUID;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -120,8 +127,8 @@ public class CompositeHandlerTest
         when(mockMetadataHandler.doGetSplits(any(BlockAllocatorImpl.class), any(GetSplitsRequest.class)))
                 .thenReturn(new GetSplitsResponse("catalog", Split.newBuilder(null, null).build()));
 
-        when(mockMetadataHandler.doPing(any(PingRequest.class)))
-                .thenReturn(new PingResponse("catalog", "queryId", "type", 23, 2));
+        when(mockMetadataHandler.doPing(any(PingRequest.class), anyInt()))
+                .thenAnswer(invocation -> new PingResponse("catalog", "queryId", "type", 23, (int) invocation.getArguments()[1]));
 
         when(mockRecordHandler.doReadRecords(any(BlockAllocatorImpl.class), any(ReadRecordsRequest.class)))
                 .thenReturn(new ReadRecordsResponse("catalog",
@@ -223,6 +230,37 @@ public class CompositeHandlerTest
         when(req.getCatalogName()).thenReturn("catalog");
         when(req.getQueryId()).thenReturn("queryId");
         compositeHandler.handleRequest(allocator, req, new ByteArrayOutputStream(), objectMapper);
-        verify(mockMetadataHandler, times(1)).doPing(any(PingRequest.class));
+        verify(mockMetadataHandler, times(1)).doPing(any(PingRequest.class), eq(SerDeVersion.SERDE_VERSION));
+    }
+
+    @Test
+    public void doPingJson()
+            throws Exception
+    {
+        ObjectMapper versionedObjectMapper = VersionedObjectMapperFactory.create(allocator);
+        PingRequest req = new PingRequest(IdentityUtil.fakeIdentity(), "catalog", "queryId");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compositeHandler.handleRequest(new ByteArrayInputStream(versionedObjectMapper.writeValueAsBytes(req)), out, null);
+
+        verify(mockMetadataHandler, times(1)).doPing(any(PingRequest.class), eq(SerDeVersion.SERDE_VERSION));
+        try (PingResponse response = (PingResponse) versionedObjectMapper.readValue(out.toByteArray(), FederationResponse.class)) {
+            assertEquals(SerDeVersion.SERDE_VERSION, response.getSerDeVersion());
+        }
+    }
+
+    @Test
+    public void doPingFramed()
+            throws Exception
+    {
+        ByteArrayOutputStream in = new ByteArrayOutputStream();
+        FramedSerDeV4.write(new PingRequest(IdentityUtil.fakeIdentity(), "catalog", "queryId"), in);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compositeHandler.handleRequest(new ByteArrayInputStream(in.toByteArray()), out, null);
+
+        verify(mockMetadataHandler, times(1)).doPing(any(PingRequest.class), eq(FramedSerDeV4.SERDE_VERSION));
+        try (PingResponse response = (PingResponse) FramedSerDeV4.read(FederationResponse.class,
+                new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            assertEquals(FramedSerDeV4.SERDE_VERSION, response.getSerDeVersion());
+        }
     }
 }
\ No newline at end of file
@@ -52,6 +52,7 @@ import com.amazonaws.services.glue.model.StorageDescriptor;
 import com.amazonaws.services.glue.model.Table;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.Schema;
@@ -71,9 +72,12 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static com.amazonaws.athena.connector.lambda.handlers.GlueMetadataHandler.COLUMN_NAME_MAPPING_PROPERTY;
@@ -87,6 +91,8 @@ import static com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest.U
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -477,4 +483,93 @@ public class GlueMetadataHandlerTest
         catalog = handler.getCatalog(req);
         assertEquals(IdentityUtil.fakeIdentity().getAccount(), catalog);
     }
+
+    @Test
+    public void doGetTableWithMetadataCache()
+            throws Exception
+    {
+        AtomicLong nanos = new AtomicLong();
+        handler.configureMetadataCache(1_000, 10, new Ticker()
+        {
+            @Override
+            public long read()
+            {
+                return nanos.get();
+            }
+        });
+
+        List<Column> columns = new ArrayList<>();
+        columns.add(new Column().withName("col1").withType("int"));
+        Table glueTable = new Table()
+                .withName(table)
+                .withUpdateTime(new Date(1))
+                .withParameters(new HashMap<>())
+                .withStorageDescriptor(new StorageDescriptor().withColumns(columns));
+        List<Table> current = new ArrayList<>();
+        current.add(glueTable);
+
+        when(mockGlue.getTable(any(com.amazonaws.services.glue.model.GetTableRequest.class)))
+                .thenAnswer((InvocationOnMock invocationOnMock) -> new GetTableResult().withTable(current.get(0)));
+
+        GlueMetadataHandler spyHandler = spy(handler);
+        GetTableRequest req = new GetTableRequest(IdentityUtil.fakeIdentity(), queryId, catalog, new TableName(schema, table));
+        Schema first = spyHandler.doGetTable(allocator, req).getSchema();
+
+        //Served from the cache until the ttl expires
+        assertSame(first, spyHandler.doGetTable(allocator, req).getSchema());
+        verify(mockGlue, times(1)).getTable(any(com.amazonaws.services.glue.model.GetTableRequest.class));
+
+        //Once expired the table is re-fetched but an unchanged version keeps the parsed schema
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_000));
+        assertSame(first, spyHandler.doGetTable(allocator, req).getSchema());
+        verify(mockGlue, times(2)).getTable(any(com.amazonaws.services.glue.model.GetTableRequest.class));
+        verify(spyHandler, times(1)).convertField("col1", "int");
+
+        //A new version is parsed again
+        columns.add(new Column().withName("col2").withType("bigint"));
+        current.set(0, glueTable.clone().withUpdateTime(new Date(2)).withStorageDescriptor(new StorageDescriptor().withColumns(columns)));
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_000));
+        Schema second = spyHandler.doGetTable(allocator, req).getSchema();
+        assertEquals(2, second.getFields().size());
+        assertNotNull(second.findField("col2"));
+        verify(spyHandler, times(2)).convertField("col1", "int");
+    }
+
+    @Test
+    public void doListWithMetadataCache()
+            throws Exception
+    {
+        handler.configureMetadataCache(60_000, 10);
+
+        when(mockGlue.getDatabases(any(GetDatabasesRequest.class)))
+                .thenReturn(new GetDatabasesResult().withDatabaseList(new Database().withName("db1"), new Database().withName("db2")));
+
+        ListSchemasRequest schemasReq = new ListSchemasRequest(IdentityUtil.fakeIdentity(), queryId, catalog);
+        handler.doListSchemaNames(allocator, schemasReq);
+        ListSchemasResponse schemasRes = handler.doListSchemaNames(allocator, schemasReq, database -> database.getName().equals("db2"));
+        assertEquals(ImmutableList.of("db2"), new ArrayList<>(schemasRes.getSchemas()));
+        verify(mockGlue, times(1)).getDatabases(any(GetDatabasesRequest.class));
+
+        ListTablesRequest tablesReq = new ListTablesRequest(IdentityUtil.fakeIdentity(),
+                queryId, catalog, schema, null, UNLIMITED_PAGE_SIZE_VALUE);
+        assertEquals(fullListResponse, handler.doListTables(allocator, tablesReq));
+        int calls = getTablesCalls();
+        assertEquals(fullListResponse, handler.doListTables(allocator, tablesReq));
+        assertEquals(calls, getTablesCalls());
+
+        //Paginated requests are never cached
+        handler.doListTables(allocator, new ListTablesRequest(IdentityUtil.fakeIdentity(), queryId, catalog, schema, null, 3));
+        assertEquals(calls + 1, getTablesCalls());
+
+        handler.invalidateMetadataCache();
+        handler.doListSchemaNames(allocator, schemasReq);
+        verify(mockGlue, times(2)).getDatabases(any(GetDatabasesRequest.class));
+    }
+
+    private int getTablesCalls()
+    {
+        return (int) mockingDetails(mockGlue).getInvocations().stream()
+                .filter(next -> next.getMethod().getName().equals("getTables"))
+                .count();
+    }
 }
@@ -55,6 +55,7 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -108,6 +109,101 @@ public class UserDefinedFunctionHandlerTest
         }
     }
 
+    @Test
+    public void testInvocationWithBatchMethod()
+            throws Exception
+    {
+        int rowCount = 20;
+        UserDefinedFunctionRequest udfRequest = createUDFRequest(rowCount, Integer.class, "test_batch_udf", true, Integer.class, Integer.class);
+        IntVector firstArg = (IntVector) udfRequest.getInputRecords().getFieldVectors().get(0);
+        firstArg.setNull(5);
+
+        UserDefinedFunctionResponse udfResponse = handler.processFunction(allocator, udfRequest);
+        Block responseBlock = udfResponse.getRecords();
+
+        assertEquals("test_batch_udf", udfResponse.getMethodName());
+        assertEquals(1, responseBlock.getFieldReaders().size());
+        assertEquals(rowCount, responseBlock.getRowCount());
+        assertEquals(1, handler.batchInvocations);
+
+        FieldReader fieldReader = responseBlock.getFieldReaders().get(0);
+
+        for (int pos = 0; pos < rowCount; ++pos) {
+            fieldReader.setPosition(pos);
+            if (pos == 5) {
+                assertFalse(fieldReader.isSet());
+                continue;
+            }
+            int val = (int) UnitTestBlockUtils.getValue(fieldReader, pos);
+            assertEquals((pos + 100) * (pos + 100), val);
+        }
+    }
+
+    @Test
+    public void testInvocationWithUdfException()
+    {
+        int rowCount = 20;
+        UserDefinedFunctionRequest udfRequest = createUDFRequest(rowCount, Integer.class, "test_failing_udf", true, Integer.class);
+
+        try {
+            handler.processFunction(allocator, udfRequest);
+            fail("Expected function to fail due to UDF exception, but succeeded.");
+        }
+        catch (Exception e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testInvocationWithClassCastInUdf()
+    {
+        int rowCount = 20;
+        UserDefinedFunctionRequest udfRequest = createUDFRequest(rowCount, Integer.class, "test_class_cast_udf", true, Integer.class);
+
+        try {
+            handler.processFunction(allocator, udfRequest);
+            fail("Expected function to fail due to UDF exception, but succeeded.");
+        }
+        catch (Exception e) {
+            //A ClassCastException thrown by the UDF itself is not an argument type mismatch.
+            assertTrue(e.getCause() instanceof ClassCastException);
+            assertFalse(e.getMessage().contains("Expected function types"));
+        }
+    }
+
+    @Test
+    public void testArgumentTypeMismatch()
+            throws Exception
+    {
+        Method udfMethod = TestUserDefinedFunctionHandler.class.getMethod("test_scalar_udf", Integer.class, Integer.class);
+        try {
+            UserDefinedFunctionHandler.checkArgumentTypes(udfMethod, udfMethod.getParameterTypes(), new Object[] {1, "2"});
+            fail("Expected the argument type mismatch to be rejected.");
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("argument type mismatch for parameter 1"));
+            assertTrue(e.getMessage(), e.getMessage().contains("got types [java.lang.Integer, java.lang.String]"));
+        }
+
+        //Nulls are valid for boxed parameters.
+        UserDefinedFunctionHandler.checkArgumentTypes(udfMethod, udfMethod.getParameterTypes(), new Object[] {1, null});
+    }
+
+    @Test
+    public void testNullToPrimitiveArgument()
+            throws Exception
+    {
+        Method udfMethod = TestUserDefinedFunctionHandler.class.getMethod("test_primitive_udf", int.class);
+        UserDefinedFunctionHandler.checkArgumentTypes(udfMethod, udfMethod.getParameterTypes(), new Object[] {1});
+        try {
+            UserDefinedFunctionHandler.checkArgumentTypes(udfMethod, udfMethod.getParameterTypes(), new Object[] {null});
+            fail("Expected the null argument to be rejected.");
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("null passed to primitive parameter 0 of type int"));
+        }
+    }
+
     @Test
     public void testInvocationWithListType()
             throws Exception
@@ -354,6 +450,8 @@ public class UserDefinedFunctionHandlerTest
     private static class TestUserDefinedFunctionHandler
             extends UserDefinedFunctionHandler
     {
+        private int batchInvocations = 0;
+
         public TestUserDefinedFunctionHandler()
         {
             super("test_type");
@@ -364,6 +462,35 @@ public class UserDefinedFunctionHandlerTest
             return col1 + col2;
         }
 
+        public Integer test_failing_udf(Integer col1)
+        {
+            throw new IllegalStateException("failed on " + col1);
+        }
+
+        public Integer test_class_cast_udf(Integer col1)
+        {
+            Object value = "not an integer " + col1;
+            return (Integer) value;
+        }
+
+        public Integer test_primitive_udf(int col1)
+        {
+            return col1;
+        }
+
+        public void test_batch_udf(IntVector col1, IntVector col2, IntVector output)
+        {
+            batchInvocations++;
+            for (int i = 0; i < col1.getValueCount(); i++) {
+                if (col1.isNull(i) || col2.isNull(i)) {
+                    output.setNull(i);
+                }
+                else {
+                    output.setSafe(i, col1.get(i) * col2.get(i));
+                }
+            }
+        }
+
         public Boolean test_scalar_function_with_null_value(Integer col1)
         {
             if (col1 == null) {
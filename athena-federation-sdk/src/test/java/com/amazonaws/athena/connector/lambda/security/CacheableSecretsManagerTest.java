@@ -28,6 +28,15 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
@@ -131,4 +140,60 @@ public class CacheableSecretsManagerTest
         }
         catch (RuntimeException ex) {}
     }
+
+    @Test
+    public void refreshAheadTest()
+            throws InterruptedException
+    {
+        CachableSecretsManager refreshingSecretsManager = new CachableSecretsManager(mockSecretsManager, 10_000, 10);
+        CountDownLatch refreshed = new CountDownLatch(1);
+        when(mockSecretsManager.getSecretValue(any(GetSecretValueRequest.class)))
+                .thenAnswer((InvocationOnMock invocation) -> {
+                    refreshed.countDown();
+                    return new GetSecretValueResult().withSecretString("value2");
+                });
+
+        //Close to, but not past, its expiration so the cached value is served while it is refreshed.
+        refreshingSecretsManager.addCacheEntry("test", "value", System.currentTimeMillis() - 9_000);
+        assertEquals("value", refreshingSecretsManager.getSecret("test"));
+
+        assertTrue(refreshed.await(10, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!"value2".equals(refreshingSecretsManager.getSecret("test")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("value2", refreshingSecretsManager.getSecret("test"));
+        verify(mockSecretsManager, times(1)).getSecretValue(any(GetSecretValueRequest.class));
+    }
+
+    @Test
+    public void singleFlightTest()
+            throws Exception
+    {
+        AtomicInteger calls = new AtomicInteger(0);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockSecretsManager.getSecretValue(any(GetSecretValueRequest.class)))
+                .thenAnswer((InvocationOnMock invocation) -> {
+                    calls.incrementAndGet();
+                    release.await(10, TimeUnit.SECONDS);
+                    return new GetSecretValueResult().withSecretString("value");
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> cachableSecretsManager.getSecret("test")));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> next : results) {
+                assertEquals("value", next.get());
+            }
+            assertEquals(1, calls.get());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
 }
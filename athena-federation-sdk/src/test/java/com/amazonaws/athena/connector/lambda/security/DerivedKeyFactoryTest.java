@@ -0,0 +1,146 @@
+package com.amazonaws.athena.connector.lambda.security;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DerivedKeyFactoryTest
+{
+    private static final String QUERY_ID = "query-1";
+
+    private final AtomicInteger rootKeyCalls = new AtomicInteger(0);
+    private final EncryptionKeyFactory rootKeyFactory = () -> {
+        rootKeyCalls.incrementAndGet();
+        return new LocalKeyFactory().create();
+    };
+    private BlockAllocatorImpl allocator;
+
+    @Before
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void derivedKeysAreUnique()
+    {
+        DerivedKeyFactory keyFactory = new DerivedKeyFactory(rootKeyFactory, 100, Long.MAX_VALUE);
+
+        Set<EncryptionKey> keys = new HashSet<>();
+        for (int i = 0; i < 250; i++) {
+            EncryptionKey key = keyFactory.create(QUERY_ID);
+            assertEquals(AesGcmBlockCrypto.KEY_BYTES, key.getKey().length);
+            assertEquals(AesGcmBlockCrypto.NONCE_BYTES, key.getNonce().length);
+            keys.add(key);
+        }
+
+        assertEquals(250, keys.size());
+        assertEquals(3, rootKeyCalls.get());
+        assertEquals(250, keyFactory.getKeysCreated());
+        assertEquals(3, keyFactory.getRootKeysCreated());
+        assertEquals(247, keyFactory.getRootKeyCallsSaved());
+    }
+
+    @Test
+    public void rootKeyExpires()
+            throws InterruptedException
+    {
+        DerivedKeyFactory keyFactory = new DerivedKeyFactory(rootKeyFactory, 100, 1);
+        keyFactory.create(QUERY_ID);
+        Thread.sleep(10);
+        keyFactory.create(QUERY_ID);
+        assertEquals(2, rootKeyCalls.get());
+    }
+
+    @Test
+    public void rootKeyIsScopedToQuery()
+    {
+        DerivedKeyFactory keyFactory = new DerivedKeyFactory(rootKeyFactory, 100, Long.MAX_VALUE);
+
+        Set<EncryptionKey> keys = new HashSet<>();
+        keys.add(keyFactory.create(QUERY_ID));
+        keys.add(keyFactory.create(QUERY_ID));
+        keys.add(keyFactory.create("query-2"));
+        keys.add(keyFactory.create(QUERY_ID));
+
+        assertEquals(4, keys.size());
+        assertEquals(3, rootKeyCalls.get());
+    }
+
+    @Test
+    public void keysWithoutQueryAreNotDerived()
+    {
+        DerivedKeyFactory keyFactory = new DerivedKeyFactory(rootKeyFactory, 100, Long.MAX_VALUE);
+        keyFactory.create();
+        keyFactory.create(null);
+
+        assertEquals(2, rootKeyCalls.get());
+        assertEquals(0, keyFactory.getKeysCreated());
+    }
+
+    @Test
+    public void derivedKeysEncrypt()
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addField("col1", new ArrowType.Int(32, true))
+                .addField("col2", new ArrowType.Utf8())
+                .build();
+
+        Block expected = allocator.createBlock(schema);
+        BlockUtils.setValue(expected.getFieldVector("col1"), 0, 100);
+        BlockUtils.setValue(expected.getFieldVector("col2"), 0, "VarChar");
+        expected.setRowCount(1);
+
+        DerivedKeyFactory keyFactory = new DerivedKeyFactory(rootKeyFactory, 100, Long.MAX_VALUE);
+        AesGcmBlockCrypto crypto = new AesGcmBlockCrypto(allocator);
+        EncryptionKey key = keyFactory.create(QUERY_ID);
+
+        byte[] cypher = crypto.encrypt(key, expected);
+        Block actual = crypto.decrypt(key, cypher, schema);
+        assertEquals(expected, actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidKeysPerRootKey()
+    {
+        new DerivedKeyFactory(rootKeyFactory, 0, Long.MAX_VALUE);
+    }
+}
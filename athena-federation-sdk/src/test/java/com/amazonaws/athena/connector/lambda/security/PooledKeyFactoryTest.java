@@ -0,0 +1,131 @@
+package com.amazonaws.athena.connector.lambda.security;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PooledKeyFactoryTest
+{
+    private final AtomicInteger keyCalls = new AtomicInteger(0);
+    private final EncryptionKeyFactory keyFactory = () -> {
+        keyCalls.incrementAndGet();
+        return new LocalKeyFactory().create();
+    };
+
+    @Test
+    public void poolIsRefilled()
+    {
+        //Refill synchronously so that the pool contents are deterministic.
+        PooledKeyFactory pooledKeyFactory = new PooledKeyFactory(keyFactory, 5, Runnable::run);
+        assertEquals(5, keyCalls.get());
+
+        Set<EncryptionKey> keys = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            keys.add(pooledKeyFactory.create());
+        }
+        assertEquals(5, keys.size());
+        assertEquals(5, pooledKeyFactory.getPoolHits());
+        assertEquals(0, pooledKeyFactory.getPoolMisses());
+
+        //Every key handed out is replaced but the pool never holds more than 5 keys.
+        assertEquals(10, keyCalls.get());
+    }
+
+    @Test
+    public void poolIsRefilledAsynchronously()
+            throws InterruptedException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            PooledKeyFactory pooledKeyFactory = new PooledKeyFactory(keyFactory, 5, executor);
+            waitForKeyCalls(5);
+
+            for (int i = 0; i < 5; i++) {
+                assertNotNull(pooledKeyFactory.create());
+            }
+            assertEquals(5, pooledKeyFactory.getPoolHits() + pooledKeyFactory.getPoolMisses());
+
+            //Every key taken from the pool is replaced.
+            waitForKeyCalls(5 + (int) pooledKeyFactory.getPoolHits() + (int) pooledKeyFactory.getPoolMisses());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void emptyPoolFallsBackToCaller()
+    {
+        //An executor which never runs anything leaves the pool empty.
+        PooledKeyFactory pooledKeyFactory = new PooledKeyFactory(keyFactory, 5, (Runnable runnable) -> {});
+
+        assertNotNull(pooledKeyFactory.create());
+        assertEquals(0, pooledKeyFactory.getPoolHits());
+        assertEquals(1, pooledKeyFactory.getPoolMisses());
+        assertEquals(1, keyCalls.get());
+    }
+
+    @Test
+    public void failedRefillBacksOff()
+    {
+        AtomicInteger failingCalls = new AtomicInteger(0);
+        EncryptionKeyFactory failingKeyFactory = () -> {
+            failingCalls.incrementAndGet();
+            throw new IllegalStateException("Throttled");
+        };
+
+        PooledKeyFactory pooledKeyFactory = new PooledKeyFactory(failingKeyFactory, 5, Runnable::run);
+        assertEquals(1, failingCalls.get());
+        assertEquals(1, pooledKeyFactory.getRefillFailures());
+
+        //While backing off the pool isn't refilled, each caller generates its own key and sees the failure.
+        for (int i = 0; i < 3; i++) {
+            try {
+                pooledKeyFactory.create();
+                fail("Expected the key factory failure.");
+            }
+            catch (IllegalStateException ex) {
+                assertEquals("Throttled", ex.getMessage());
+            }
+        }
+        assertEquals(4, failingCalls.get());
+        assertEquals(3, pooledKeyFactory.getPoolMisses());
+    }
+
+    private void waitForKeyCalls(int expected)
+            throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (keyCalls.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, keyCalls.get());
+    }
+}
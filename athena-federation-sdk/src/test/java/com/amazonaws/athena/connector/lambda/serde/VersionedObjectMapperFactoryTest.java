@@ -0,0 +1,128 @@
+package com.amazonaws.athena.connector.lambda.serde;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.handlers.SerDeVersion;
+import com.amazonaws.athena.connector.lambda.request.FederationRequest;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import com.amazonaws.athena.connector.lambda.udf.UserDefinedFunctionRequest;
+import com.amazonaws.athena.connector.lambda.udf.UserDefinedFunctionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class VersionedObjectMapperFactoryTest
+{
+    private BlockAllocatorImpl allocator;
+
+    @Before
+    public void setUp()
+    {
+        allocator = new BlockAllocatorImpl();
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void getCached()
+    {
+        assertSame(VersionedObjectMapperFactory.getCached(), VersionedObjectMapperFactory.getCached());
+        assertSame(VersionedObjectMapperFactory.getCached(), VersionedObjectMapperFactory.getCached(SerDeVersion.SERDE_VERSION));
+        assertSame(VersionedObjectMapperFactory.getCached(3), VersionedObjectMapperFactory.getCached(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getCachedUnsupportedVersion()
+    {
+        VersionedObjectMapperFactory.getCached(1);
+    }
+
+    @Test
+    public void readerForUsesRequestAllocator()
+            throws Exception
+    {
+        UserDefinedFunctionRequest expected = makeRequest(allocator);
+        byte[] serialized = VersionedObjectMapperFactory.getCached().writeValueAsBytes(expected);
+
+        try (BlockAllocatorImpl requestAllocator = new BlockAllocatorImpl()) {
+            UserDefinedFunctionRequest actual = VersionedObjectMapperFactory.readerFor(FederationRequest.class, requestAllocator)
+                    .readValue(serialized);
+            assertEquals(expected, actual);
+            assertTrue(requestAllocator.getUsage() > 0);
+            actual.close();
+        }
+        expected.close();
+    }
+
+    @Test
+    public void cachedMapperRequiresAllocator()
+            throws Exception
+    {
+        ObjectMapper mapper = VersionedObjectMapperFactory.getCached();
+        UserDefinedFunctionRequest expected = makeRequest(allocator);
+        byte[] serialized = mapper.writeValueAsBytes(expected);
+        expected.close();
+
+        try {
+            mapper.readValue(serialized, FederationRequest.class);
+            fail("Expected the read to fail without an allocator attribute");
+        }
+        catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().contains("allocator"));
+        }
+    }
+
+    private UserDefinedFunctionRequest makeRequest(BlockAllocatorImpl allocator)
+    {
+        Schema inputSchema = SchemaBuilder.newBuilder()
+                .addField("factor1", Types.MinorType.INT.getType())
+                .build();
+        Schema outputSchema = SchemaBuilder.newBuilder()
+                .addField("product", Types.MinorType.INT.getType())
+                .build();
+
+        Block inputRecords = allocator.createBlock(inputSchema);
+        ((IntVector) inputRecords.getFieldVector("factor1")).setSafe(0, 2);
+        inputRecords.setRowCount(1);
+
+        FederatedIdentity identity = new FederatedIdentity("arn", "account", Collections.emptyMap(), Collections.emptyList());
+        return new UserDefinedFunctionRequest(identity, inputRecords, outputSchema, "test-method",
+                UserDefinedFunctionType.SCALAR);
+    }
+}
@@ -0,0 +1,181 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2020 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.lambda.serde.v4;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.request.FederationResponse;
+import com.amazonaws.athena.connector.lambda.request.PingResponse;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FramedSerDeV4Test
+{
+    private BlockAllocator allocator;
+    private Schema schema;
+
+    @Before
+    public void setUp()
+    {
+        allocator = new BlockAllocatorImpl();
+        schema = SchemaBuilder.newBuilder()
+                .addStringField("col1")
+                .addBigIntField("col2")
+                .build();
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void readRecordsResponse()
+            throws IOException
+    {
+        Block records = allocator.createBlock(schema);
+        for (int i = 0; i < 100; i++) {
+            BlockUtils.setValue(records.getFieldVector("col1"), i, "value_" + i);
+            BlockUtils.setValue(records.getFieldVector("col2"), i, (long) i);
+        }
+        records.setRowCount(100);
+        ReadRecordsResponse expected = new ReadRecordsResponse("catalog", records);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FramedSerDeV4.write(expected, out);
+
+        try (BlockAllocator readAllocator = new BlockAllocatorImpl()) {
+            ReadRecordsResponse actual = (ReadRecordsResponse) FramedSerDeV4.read(FederationResponse.class,
+                    new ByteArrayInputStream(out.toByteArray()), readAllocator);
+            assertEquals(expected, actual);
+            assertEquals(100, actual.getRecords().getRowCount());
+        }
+    }
+
+    @Test
+    public void emptyBlock()
+            throws IOException
+    {
+        ReadRecordsResponse expected = new ReadRecordsResponse("catalog", allocator.createBlock(schema));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FramedSerDeV4.write(expected, out);
+
+        FederationResponse actual = FramedSerDeV4.read(FederationResponse.class,
+                new ByteArrayInputStream(out.toByteArray()), allocator);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void noBlocks()
+            throws IOException
+    {
+        PingResponse expected = new PingResponse("catalog", "queryId", "source", 23, FramedSerDeV4.SERDE_VERSION);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FramedSerDeV4.write(expected, out);
+
+        assertEquals(expected, FramedSerDeV4.read(FederationResponse.class, new ByteArrayInputStream(out.toByteArray()), allocator));
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedMessage()
+            throws IOException
+    {
+        Block records = allocator.createBlock(schema);
+        BlockUtils.setValue(records.getFieldVector("col1"), 0, "value");
+        BlockUtils.setValue(records.getFieldVector("col2"), 0, 1L);
+        records.setRowCount(1);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FramedSerDeV4.write(new ReadRecordsResponse("catalog", records), out);
+        byte[] truncated = new byte[out.size() - 8];
+        System.arraycopy(out.toByteArray(), 0, truncated, 0, truncated.length);
+
+        try (BlockAllocator readAllocator = new BlockAllocatorImpl()) {
+            FramedSerDeV4.read(FederationResponse.class, new ByteArrayInputStream(truncated), readAllocator);
+        }
+    }
+
+    @Test
+    public void missingRecordBatch()
+            throws IOException
+    {
+        Block records = allocator.createBlock(schema);
+        BlockUtils.setValue(records.getFieldVector("col1"), 0, "value");
+        BlockUtils.setValue(records.getFieldVector("col2"), 0, 1L);
+        records.setRowCount(1);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FramedSerDeV4.write(new ReadRecordsResponse("catalog", records), out);
+
+        //Keep the magic, the header length and the header, drop the record batch that follows them.
+        byte[] written = out.toByteArray();
+        int headerLength = ByteBuffer.wrap(written, 4, 4).getInt();
+        byte[] truncated = new byte[8 + headerLength];
+        System.arraycopy(written, 0, truncated, 0, truncated.length);
+
+        try (BlockAllocator readAllocator = new BlockAllocatorImpl()) {
+            FramedSerDeV4.read(FederationResponse.class, new ByteArrayInputStream(truncated), readAllocator);
+            fail("Expected an IOException");
+        }
+        catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("block 1 of 1"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void notFramed()
+            throws IOException
+    {
+        FramedSerDeV4.read(FederationResponse.class, new ByteArrayInputStream("{\"@type\":\"PingResponse\"}".getBytes()), allocator);
+    }
+
+    @Test
+    public void isFramed()
+            throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FramedSerDeV4.write(new PingResponse("catalog", "queryId", "source", 23, FramedSerDeV4.SERDE_VERSION), out);
+        ByteArrayInputStream framed = new ByteArrayInputStream(out.toByteArray());
+
+        assertTrue(FramedSerDeV4.isFramed(framed));
+        assertEquals(out.size(), framed.available());
+        assertFalse(FramedSerDeV4.isFramed(new ByteArrayInputStream("{\"@type\":\"PingResponse\"}".getBytes())));
+        assertFalse(FramedSerDeV4.isFramed(new ByteArrayInputStream(new byte[2])));
+    }
+}
@@ -68,7 +68,7 @@ public class BigQueryRecordHandler
         extends RecordHandler
 {
     private static final Logger logger = LoggerFactory.getLogger(BigQueryRecordHandler.class);
-    ThrottlingInvoker invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER).build();
+    ThrottlingInvoker invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, "bigquery").build();
     /**
      * The {@link BigQuery} client to interact with the BigQuery Service.
      */
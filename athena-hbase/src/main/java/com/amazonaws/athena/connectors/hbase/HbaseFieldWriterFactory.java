@@ -0,0 +1,303 @@
+/*-
+ * #%L
+ * athena-hbase
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.hbase;
+
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.writers.GeneratedRowWriter;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.Extractor;
+import com.amazonaws.athena.connector.lambda.data.writers.fieldwriters.FieldWriter;
+import com.amazonaws.athena.connector.lambda.data.writers.fieldwriters.FieldWriterFactory;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintProjector;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Produces FieldWriters which copy a single HBase column (or column family) from a Result into its Apache Arrow vector.
+ * <p>
+ * A factory is built once per field for the lifetime of a split so that the family and qualifier bytes, the decoder
+ * for the column's type, and the storage format (String vs native) are resolved once rather than for every cell. The
+ * FieldWriters it creates read values straight out of the Cell's backing array via Result.getColumnLatestCell(...),
+ * avoiding the intermediate byte[] copy made by Result.getValue(...) and, for VARCHAR/VARBINARY, the String/Object
+ * round trip through BlockUtils.setValue(...).
+ */
+public class HbaseFieldWriterFactory
+        implements FieldWriterFactory
+{
+    private final Field field;
+    private final boolean isNative;
+    private final byte[] family;
+    private final byte[] qualifier;
+
+    /**
+     * @param isNative True if the values are stored as native byte arrays in HBase.
+     * @param field The Apache Arrow field that this factory produces FieldWriters for.
+     */
+    public HbaseFieldWriterFactory(boolean isNative, Field field)
+    {
+        this.field = field;
+        this.isNative = isNative;
+        if (isRowField(field) || Types.getMinorTypeForArrowType(field.getType()) == Types.MinorType.STRUCT) {
+            this.family = field.getName().getBytes(UTF_8);
+            this.qualifier = null;
+        }
+        else {
+            //We expect the column name format to be <FAMILY>:<QUALIFIER>
+            String[] columnParts = HbaseSchemaUtils.extractColumnParts(field.getName());
+            if (columnParts.length != 2) {
+                throw new RuntimeException("Column name " + field.getName() + " does not meet family:column hbase convention.");
+            }
+            this.family = columnParts[0].getBytes(UTF_8);
+            this.qualifier = columnParts[1].getBytes(UTF_8);
+        }
+    }
+
+    /**
+     * Builds a GeneratedRowWriter which uses an HbaseFieldWriterFactory for every field in the projection.
+     *
+     * @param isNative True if the values are stored as native byte arrays in HBase.
+     * @param projection The columns requested by the query.
+     * @param constraints The constraints to apply to the values as they are written.
+     * @return A GeneratedRowWriter that accepts HBase Results as its context.
+     */
+    public static GeneratedRowWriter makeRowWriter(boolean isNative, Schema projection, Constraints constraints)
+    {
+        GeneratedRowWriter.RowWriterBuilder builder = GeneratedRowWriter.newBuilder(constraints);
+        for (Field next : projection.getFields()) {
+            builder.withFieldWriterFactory(next.getName(), new HbaseFieldWriterFactory(isNative, next));
+        }
+        return builder.build();
+    }
+
+    /**
+     * @see FieldWriterFactory
+     */
+    @Override
+    public FieldWriter create(FieldVector vector, Extractor extractor, ConstraintProjector constraint)
+    {
+        FieldWriter writer = makeWriter(vector, constraint);
+        return (Object context, int rowNum) -> {
+            try {
+                return writer.write(context, rowNum);
+            }
+            catch (RuntimeException ex) {
+                throw new RuntimeException("Exception while processing field " + field.getName() + " type " +
+                        vector.getMinorType(), ex);
+            }
+        };
+    }
+
+    private FieldWriter makeWriter(FieldVector vector, ConstraintProjector constraint)
+    {
+        //Is this field the special 'row' field that can be used to group column families that may
+        //have been spread across different region servers if they are needed in the same query.
+        if (isRowField(field)) {
+            return makeRowFieldWriter(vector, constraint);
+        }
+
+        switch (vector.getMinorType()) {
+            case STRUCT:
+                //Column is actually a Column Family stored as a STRUCT.
+                HbaseFieldResolver resolver = new HbaseFieldResolver(isNative, family);
+                return (Object context, int rowNum) -> {
+                    BlockUtils.setComplexValue(vector, rowNum, resolver, context);
+                    return true;
+                };
+            case VARCHAR:
+                return makeVarCharWriter((VarCharVector) vector, constraint);
+            case VARBINARY:
+                return makeVarBinaryWriter((VarBinaryVector) vector, constraint);
+            case BIGINT:
+                return makeBigIntWriter((BigIntVector) vector, constraint);
+            case INT:
+                return makeIntWriter((IntVector) vector, constraint);
+            case FLOAT8:
+                return makeFloat8Writer((Float8Vector) vector, constraint);
+            case FLOAT4:
+                return makeFloat4Writer((Float4Vector) vector, constraint);
+            case BIT:
+                return makeBitWriter((BitVector) vector, constraint);
+            default:
+                return (Object context, int rowNum) -> {
+                    byte[] rawValue = ((Result) context).getValue(family, qualifier);
+                    Object value = HbaseSchemaUtils.coerceType(isNative, field.getType(), rawValue);
+                    BlockUtils.setValue(vector, rowNum, value);
+                    return constraint == null || constraint.apply(value);
+                };
+        }
+    }
+
+    private FieldWriter makeRowFieldWriter(FieldVector vector, ConstraintProjector constraint)
+    {
+        if (!(vector instanceof VarCharVector)) {
+            return (Object context, int rowNum) -> {
+                String value = Bytes.toString(((Result) context).getRow());
+                BlockUtils.setValue(vector, rowNum, value);
+                return constraint == null || constraint.apply(value);
+            };
+        }
+
+        VarCharVector varCharVector = (VarCharVector) vector;
+        return (Object context, int rowNum) -> {
+            byte[] row = ((Result) context).getRow();
+            if (row == null) {
+                varCharVector.setNull(rowNum);
+                return constraint == null || constraint.apply(null);
+            }
+            varCharVector.setSafe(rowNum, row);
+            return constraint == null || constraint.apply(Bytes.toString(row));
+        };
+    }
+
+    private FieldWriter makeVarCharWriter(VarCharVector vector, ConstraintProjector constraint)
+    {
+        return (Object context, int rowNum) -> {
+            Cell cell = ((Result) context).getColumnLatestCell(family, qualifier);
+            if (cell == null) {
+                vector.setNull(rowNum);
+                return constraint == null || constraint.apply(null);
+            }
+            vector.setSafe(rowNum, cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            return constraint == null ||
+                    constraint.apply(Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
+        };
+    }
+
+    private FieldWriter makeVarBinaryWriter(VarBinaryVector vector, ConstraintProjector constraint)
+    {
+        return (Object context, int rowNum) -> {
+            Cell cell = ((Result) context).getColumnLatestCell(family, qualifier);
+            if (cell == null) {
+                vector.setNull(rowNum);
+                return constraint == null || constraint.apply(null);
+            }
+            vector.setSafe(rowNum, cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            return constraint == null || constraint.apply(CellUtil.cloneValue(cell));
+        };
+    }
+
+    private FieldWriter makeBigIntWriter(BigIntVector vector, ConstraintProjector constraint)
+    {
+        return (Object context, int rowNum) -> {
+            Cell cell = ((Result) context).getColumnLatestCell(family, qualifier);
+            if (cell == null) {
+                vector.setNull(rowNum);
+                return constraint == null || constraint.apply(null);
+            }
+            long value = isNative(cell, Bytes.SIZEOF_LONG) ? Bytes.toLong(cell.getValueArray(), cell.getValueOffset()) :
+                    Long.parseLong(Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
+            vector.setSafe(rowNum, value);
+            return constraint == null || constraint.apply(value);
+        };
+    }
+
+    private FieldWriter makeIntWriter(IntVector vector, ConstraintProjector constraint)
+    {
+        return (Object context, int rowNum) -> {
+            Cell cell = ((Result) context).getColumnLatestCell(family, qualifier);
+            if (cell == null) {
+                vector.setNull(rowNum);
+                return constraint == null || constraint.apply(null);
+            }
+            int value = isNative(cell, Bytes.SIZEOF_INT) ? Bytes.toInt(cell.getValueArray(), cell.getValueOffset()) :
+                    Integer.parseInt(Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
+            vector.setSafe(rowNum, value);
+            return constraint == null || constraint.apply(value);
+        };
+    }
+
+    private FieldWriter makeFloat8Writer(Float8Vector vector, ConstraintProjector constraint)
+    {
+        return (Object context, int rowNum) -> {
+            Cell cell = ((Result) context).getColumnLatestCell(family, qualifier);
+            if (cell == null) {
+                vector.setNull(rowNum);
+                return constraint == null || constraint.apply(null);
+            }
+            double value = isNative(cell, Bytes.SIZEOF_DOUBLE) ? Bytes.toDouble(cell.getValueArray(), cell.getValueOffset()) :
+                    Double.parseDouble(Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
+            vector.setSafe(rowNum, value);
+            return constraint == null || constraint.apply(value);
+        };
+    }
+
+    private FieldWriter makeFloat4Writer(Float4Vector vector, ConstraintProjector constraint)
+    {
+        return (Object context, int rowNum) -> {
+            Cell cell = ((Result) context).getColumnLatestCell(family, qualifier);
+            if (cell == null) {
+                vector.setNull(rowNum);
+                return constraint == null || constraint.apply(null);
+            }
+            float value = isNative(cell, Bytes.SIZEOF_FLOAT) ? Bytes.toFloat(cell.getValueArray(), cell.getValueOffset()) :
+                    Float.parseFloat(Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
+            vector.setSafe(rowNum, value);
+            return constraint == null || constraint.apply(value);
+        };
+    }
+
+    private FieldWriter makeBitWriter(BitVector vector, ConstraintProjector constraint)
+    {
+        return (Object context, int rowNum) -> {
+            Cell cell = ((Result) context).getColumnLatestCell(family, qualifier);
+            if (cell == null) {
+                vector.setNull(rowNum);
+                return constraint == null || constraint.apply(null);
+            }
+            boolean value = isNative(cell, Bytes.SIZEOF_BOOLEAN) ? cell.getValueArray()[cell.getValueOffset()] != 0 :
+                    Boolean.parseBoolean(Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
+            vector.setSafe(rowNum, value ? 1 : 0);
+            return constraint == null || constraint.apply(value);
+        };
+    }
+
+    /**
+     * Native values are decoded in place from the leading bytes of the cell, as HbaseSchemaUtils.coerceType(...) does. A
+     * cell too short to hold the type fails, rather than being decoded from the bytes that follow it in the backing array.
+     */
+    private boolean isNative(Cell cell, int nativeLength)
+    {
+        if (isNative && cell.getValueLength() < nativeLength) {
+            throw new IllegalArgumentException("Native cell of " + cell.getValueLength() + " bytes is too short for " +
+                    field.getType() + " which needs " + nativeLength + " bytes.");
+        }
+        return isNative;
+    }
+
+    private static boolean isRowField(Field field)
+    {
+        return HbaseSchemaUtils.ROW_COLUMN_NAME.equals(field.getName());
+    }
+}
@@ -0,0 +1,320 @@
+/*-
+ * #%L
+ * athena-hbase
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.hbase;
+
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.EquatableValueSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Marker;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.filter.BinaryComparator;
+import org.apache.hadoop.hbase.filter.ByteArrayComparable;
+import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.LongComparator;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collection of helpful utilities that translate Athena Federation SDK constraints and projections into HBase Filters.
+ * <p>
+ * The Filters produced here are allowed to return more rows than the constraints they were derived from (e.g. when a
+ * range can not be safely expressed in HBase's byte ordering) but never fewer, since every value is still run through
+ * the ConstraintEvaluator when it is written to the response Block.
+ */
+public class HbaseFilterUtils
+{
+    //The maximum number of discrete values (IN-list entries or ranges) we will translate into HBase Filters for a single
+    //column. Beyond this the Filter itself becomes expensive for the RegionServer to evaluate and we skip the pushdown.
+    protected static final int MAX_PUSHDOWN_VALUES = 1_000;
+
+    private HbaseFilterUtils() {}
+
+    /**
+     * Attempts to push down the constraints and projection of a query into HBase Filters.
+     *
+     * @param isNative True if the values are stored in HBase using native byte[] vs being serialized as Strings.
+     * @param constraints The constraints that we can attempt to push into HBase as part of the scan.
+     * @param projection The columns requested by the query.
+     * @return A filter if we found a predicate or projection we can push down, null otherwise.
+     * @throws IOException If HBase rejects the generated row ranges.
+     * @note Range comparisons are only pushed down for types whose HBase byte ordering matches their natural ordering,
+     * VARCHAR and VARBINARY for both storage types and BIGINT for native storage (via LongComparator). Other types only
+     * have equality and IN-list constraints pushed down. Constraints on the special 'row' column are pushed down as a
+     * MultiRowRangeFilter which allows the RegionServer to seek directly to the matching row keys.
+     */
+    public static Filter pushdownPredicate(boolean isNative, Constraints constraints, Schema projection)
+            throws IOException
+    {
+        List<Filter> filters = new ArrayList<>();
+        boolean hasColumnFilter = false;
+        for (Map.Entry<String, ValueSet> next : constraints.getSummary().entrySet()) {
+            if (HbaseSchemaUtils.ROW_COLUMN_NAME.equals(next.getKey())) {
+                Filter rowFilter = makeRowFilter(next.getValue());
+                if (rowFilter != null) {
+                    filters.add(rowFilter);
+                }
+            }
+            else {
+                Filter columnFilter = makeColumnFilter(isNative, next.getKey(), next.getValue());
+                if (columnFilter != null) {
+                    filters.add(columnFilter);
+                    hasColumnFilter = true;
+                }
+            }
+        }
+
+        if (!hasColumnFilter && isRowOnlyProjection(projection)) {
+            //We only need the row key so ask HBase to send back just the first cell of each row and strip its value.
+            filters.add(new FirstKeyOnlyFilter());
+            filters.add(new KeyOnlyFilter());
+        }
+
+        if (filters.isEmpty()) {
+            return null;
+        }
+
+        return filters.size() == 1 ? filters.get(0) : new FilterList(FilterList.Operator.MUST_PASS_ALL, filters);
+    }
+
+    /**
+     * Translates the constraint on the special 'row' column into a MultiRowRangeFilter.
+     *
+     * @param valueSet The constraint on the row key.
+     * @return A MultiRowRangeFilter covering the constraint, or null if it could not be translated.
+     * @throws IOException If HBase rejects the generated row ranges.
+     */
+    protected static Filter makeRowFilter(ValueSet valueSet)
+            throws IOException
+    {
+        if (valueSet.isAll() || valueSet.isNone()) {
+            return null;
+        }
+
+        List<RowRange> rowRanges = new ArrayList<>();
+        if (valueSet instanceof SortedRangeSet) {
+            SortedRangeSet rangeSet = (SortedRangeSet) valueSet;
+            if (rangeSet.getRangeCount() > MAX_PUSHDOWN_VALUES) {
+                return null;
+            }
+
+            for (Range range : rangeSet.getOrderedRanges()) {
+                if (range.isSingleValue()) {
+                    byte[] value = HbaseSchemaUtils.toBytes(false, range.getSingleValue());
+                    rowRanges.add(new RowRange(value, true, value, true));
+                }
+                else if (isLexicographic(range.getType())) {
+                    Marker low = range.getLow();
+                    Marker high = range.getHigh();
+                    rowRanges.add(new RowRange(
+                            low.isLowerUnbounded() ? HConstants.EMPTY_START_ROW : HbaseSchemaUtils.toBytes(false, low.getValue()),
+                            low.isLowerUnbounded() || low.getBound() == Marker.Bound.EXACTLY,
+                            high.isUpperUnbounded() ? HConstants.EMPTY_END_ROW : HbaseSchemaUtils.toBytes(false, high.getValue()),
+                            !high.isUpperUnbounded() && high.getBound() == Marker.Bound.EXACTLY));
+                }
+                else {
+                    return null;
+                }
+            }
+        }
+        else if (valueSet instanceof EquatableValueSet) {
+            EquatableValueSet equatableValueSet = (EquatableValueSet) valueSet;
+            int numValues = equatableValueSet.getValues().getRowCount();
+            if (!equatableValueSet.isWhiteList() || numValues > MAX_PUSHDOWN_VALUES) {
+                return null;
+            }
+
+            for (int i = 0; i < numValues; i++) {
+                byte[] value = HbaseSchemaUtils.toBytes(false, equatableValueSet.getValue(i));
+                rowRanges.add(new RowRange(value, true, value, true));
+            }
+        }
+
+        return rowRanges.isEmpty() ? null : new MultiRowRangeFilter(rowRanges);
+    }
+
+    /**
+     * Translates the constraint on a family:qualifier column into SingleColumnValueFilters.
+     *
+     * @param isNative True if the values are stored in HBase using native byte[] vs being serialized as Strings.
+     * @param columnName The column name in "family:qualifier" format.
+     * @param valueSet The constraint on the column.
+     * @return A Filter covering the constraint, or null if it could not be translated.
+     */
+    protected static Filter makeColumnFilter(boolean isNative, String columnName, ValueSet valueSet)
+    {
+        String[] colParts = HbaseSchemaUtils.extractColumnParts(columnName);
+        if (colParts.length != 2 || valueSet.isAll() || valueSet.isNone() || !isSupportedType(valueSet.getType())) {
+            return null;
+        }
+
+        byte[] family = colParts[0].getBytes();
+        byte[] qualifier = colParts[1].getBytes();
+        //Rows which lack the column are NULL for that column, we can only skip them if NULL isn't part of the constraint.
+        boolean filterIfMissing = !valueSet.isNullAllowed();
+
+        List<Filter> disjuncts = new ArrayList<>();
+        if (valueSet instanceof SortedRangeSet) {
+            SortedRangeSet rangeSet = (SortedRangeSet) valueSet;
+            if (rangeSet.getRangeCount() > MAX_PUSHDOWN_VALUES) {
+                return null;
+            }
+
+            for (Range range : rangeSet.getOrderedRanges()) {
+                Filter rangeFilter = makeRangeFilter(isNative, family, qualifier, range, filterIfMissing);
+                if (rangeFilter == null) {
+                    return null;
+                }
+                disjuncts.add(rangeFilter);
+            }
+        }
+        else if (valueSet instanceof EquatableValueSet) {
+            EquatableValueSet equatableValueSet = (EquatableValueSet) valueSet;
+            int numValues = equatableValueSet.getValues().getRowCount();
+            if (!equatableValueSet.isWhiteList() || numValues > MAX_PUSHDOWN_VALUES) {
+                return null;
+            }
+
+            for (int i = 0; i < numValues; i++) {
+                byte[] value = HbaseSchemaUtils.toBytes(isNative, equatableValueSet.getValue(i));
+                disjuncts.add(makeColumnValueFilter(family, qualifier, CompareOp.EQUAL, new BinaryComparator(value), filterIfMissing));
+            }
+        }
+
+        if (disjuncts.isEmpty()) {
+            return null;
+        }
+
+        return disjuncts.size() == 1 ? disjuncts.get(0) : new FilterList(FilterList.Operator.MUST_PASS_ONE, disjuncts);
+    }
+
+    /**
+     * Translates a single Range on a column into one or two SingleColumnValueFilters.
+     *
+     * @return A Filter covering the Range, or null if the Range can not be safely expressed using HBase comparators.
+     */
+    private static Filter makeRangeFilter(boolean isNative, byte[] family, byte[] qualifier, Range range, boolean filterIfMissing)
+    {
+        if (range.isSingleValue()) {
+            byte[] value = HbaseSchemaUtils.toBytes(isNative, range.getSingleValue());
+            return makeColumnValueFilter(family, qualifier, CompareOp.EQUAL, new BinaryComparator(value), filterIfMissing);
+        }
+
+        if (range.isAll() || !isOrderable(isNative, range.getType())) {
+            return null;
+        }
+
+        List<Filter> bounds = new ArrayList<>();
+        Marker low = range.getLow();
+        if (!low.isLowerUnbounded()) {
+            CompareOp op = low.getBound() == Marker.Bound.EXACTLY ? CompareOp.GREATER_OR_EQUAL : CompareOp.GREATER;
+            bounds.add(makeColumnValueFilter(family, qualifier, op, makeComparator(isNative, range.getType(), low.getValue()), filterIfMissing));
+        }
+
+        Marker high = range.getHigh();
+        if (!high.isUpperUnbounded()) {
+            CompareOp op = high.getBound() == Marker.Bound.EXACTLY ? CompareOp.LESS_OR_EQUAL : CompareOp.LESS;
+            bounds.add(makeColumnValueFilter(family, qualifier, op, makeComparator(isNative, range.getType(), high.getValue()), filterIfMissing));
+        }
+
+        return bounds.size() == 1 ? bounds.get(0) : new FilterList(FilterList.Operator.MUST_PASS_ALL, bounds);
+    }
+
+    private static SingleColumnValueFilter makeColumnValueFilter(byte[] family, byte[] qualifier, CompareOp op,
+            ByteArrayComparable comparator, boolean filterIfMissing)
+    {
+        SingleColumnValueFilter filter = new SingleColumnValueFilter(family, qualifier, op, comparator);
+        filter.setFilterIfMissing(filterIfMissing);
+        return filter;
+    }
+
+    /**
+     * Produces a comparator whose ordering matches the natural ordering of the supplied type as stored in HBase.
+     */
+    private static ByteArrayComparable makeComparator(boolean isNative, ArrowType type, Object value)
+    {
+        if (isNative && Types.getMinorTypeForArrowType(type) == Types.MinorType.BIGINT) {
+            return new LongComparator(((Number) value).longValue());
+        }
+        return new BinaryComparator(HbaseSchemaUtils.toBytes(isNative, value));
+    }
+
+    /**
+     * Conveys if range comparisons on the given type can be evaluated by HBase without changing their outcome.
+     * <p>
+     * HBase compares values as unsigned bytes, which only matches the natural ordering of strings and binary values.
+     * Numbers serialized as Strings (e.g. "10" < "9") and signed or floating point native values are not safe with a
+     * BinaryComparator. BIGINT native values are handled via HBase's LongComparator.
+     */
+    private static boolean isOrderable(boolean isNative, ArrowType type)
+    {
+        return isLexicographic(type) || (isNative && Types.getMinorTypeForArrowType(type) == Types.MinorType.BIGINT);
+    }
+
+    private static boolean isLexicographic(ArrowType type)
+    {
+        Types.MinorType minorType = Types.getMinorTypeForArrowType(type);
+        return minorType == Types.MinorType.VARCHAR || minorType == Types.MinorType.VARBINARY;
+    }
+
+    /**
+     * Conveys if values of the given type can be converted to HBase bytes by HbaseSchemaUtils.toBytes(...)
+     */
+    private static boolean isSupportedType(ArrowType type)
+    {
+        switch (Types.getMinorTypeForArrowType(type)) {
+            case VARCHAR:
+            case VARBINARY:
+            case INT:
+            case BIGINT:
+            case FLOAT4:
+            case FLOAT8:
+            case BIT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isRowOnlyProjection(Schema projection)
+    {
+        for (Field next : projection.getFields()) {
+            if (!HbaseSchemaUtils.ROW_COLUMN_NAME.equals(next.getName())) {
+                return false;
+            }
+        }
+        return !projection.getFields().isEmpty();
+    }
+}
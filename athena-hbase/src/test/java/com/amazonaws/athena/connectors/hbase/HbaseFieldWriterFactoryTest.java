@@ -0,0 +1,210 @@
+/*-
+ * #%L
+ * athena-hbase
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.hbase;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.data.writers.GeneratedRowWriter;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HbaseFieldWriterFactoryTest
+{
+    private static final byte[] ROW = "row1".getBytes();
+    private static final byte[] FAMILY = "family1".getBytes();
+
+    private BlockAllocator allocator;
+    private Schema schema;
+
+    @Before
+    public void setUp()
+    {
+        allocator = new BlockAllocatorImpl();
+        schema = SchemaBuilder.newBuilder()
+                .addStringField(HbaseSchemaUtils.ROW_COLUMN_NAME)
+                .addStringField("family1:str")
+                .addBigIntField("family1:bigint")
+                .addIntField("family1:int")
+                .addFloat8Field("family1:float8")
+                .addFloat4Field("family1:float4")
+                .addBitField("family1:bit")
+                .addField("family1:binary", Types.MinorType.VARBINARY.getType())
+                .addStringField("family1:missing")
+                .build();
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void writeStringStorage()
+            throws Exception
+    {
+        Result result = makeResult(
+                cell("str", Bytes.toBytes("value")),
+                cell("bigint", Bytes.toBytes("-12")),
+                cell("int", Bytes.toBytes("7")),
+                cell("float8", Bytes.toBytes("1.5")),
+                cell("float4", Bytes.toBytes("2.5")),
+                cell("bit", Bytes.toBytes("true")),
+                cell("binary", new byte[] {1, 2, 3}));
+
+        GeneratedRowWriter rowWriter = HbaseFieldWriterFactory.makeRowWriter(false, schema, new Constraints(new HashMap<>()));
+        try (Block block = allocator.createBlock(schema)) {
+            assertTrue(rowWriter.writeRow(block, 0, result));
+            block.setRowCount(1);
+            assertValues(block);
+        }
+    }
+
+    @Test
+    public void writeNativeStorage()
+            throws Exception
+    {
+        Result result = makeResult(
+                cell("str", Bytes.toBytes("value")),
+                cell("bigint", Bytes.toBytes(-12L)),
+                cell("int", Bytes.toBytes(7)),
+                cell("float8", Bytes.toBytes(1.5D)),
+                cell("float4", Bytes.toBytes(2.5F)),
+                cell("bit", new byte[] {1}),
+                cell("binary", new byte[] {1, 2, 3}));
+
+        GeneratedRowWriter rowWriter = HbaseFieldWriterFactory.makeRowWriter(true, schema, new Constraints(new HashMap<>()));
+        try (Block block = allocator.createBlock(schema)) {
+            assertTrue(rowWriter.writeRow(block, 0, result));
+            block.setRowCount(1);
+            assertValues(block);
+        }
+    }
+
+    @Test
+    public void writeNativeStorageWithLongCells()
+            throws Exception
+    {
+        //As with HbaseSchemaUtils.coerceType, native values are decoded from the leading bytes of a longer cell.
+        byte[] trailing = new byte[] {9, 9};
+        Result result = makeResult(
+                cell("str", Bytes.toBytes("value")),
+                cell("bigint", Bytes.add(Bytes.toBytes(-12L), trailing)),
+                cell("int", Bytes.add(Bytes.toBytes(7), trailing)),
+                cell("float8", Bytes.add(Bytes.toBytes(1.5D), trailing)),
+                cell("float4", Bytes.add(Bytes.toBytes(2.5F), trailing)),
+                cell("bit", new byte[] {1, 9, 9}),
+                cell("binary", new byte[] {1, 2, 3}));
+
+        GeneratedRowWriter rowWriter = HbaseFieldWriterFactory.makeRowWriter(true, schema, new Constraints(new HashMap<>()));
+        try (Block block = allocator.createBlock(schema)) {
+            assertTrue(rowWriter.writeRow(block, 0, result));
+            block.setRowCount(1);
+            assertValues(block);
+        }
+    }
+
+    @Test
+    public void writeNativeStorageWithShortCell()
+            throws Exception
+    {
+        //A cell too short for its native type fails instead of being decoded from the bytes that follow it.
+        Result result = makeResult(cell("bigint", Bytes.toBytes("-12")));
+
+        GeneratedRowWriter rowWriter = HbaseFieldWriterFactory.makeRowWriter(true, schema, new Constraints(new HashMap<>()));
+        try (Block block = allocator.createBlock(schema)) {
+            rowWriter.writeRow(block, 0, result);
+            fail("Expected the short native cell to be rejected.");
+        }
+        catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().contains("family1:bigint"));
+            assertTrue(ex.getCause().getMessage().contains("too short"));
+        }
+    }
+
+    @Test
+    public void writeWithConstraints()
+            throws Exception
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("family1:bigint", SortedRangeSet.of(false,
+                Range.greaterThan(allocator, Types.MinorType.BIGINT.getType(), 0L)));
+        Constraints constraints = new Constraints(summary);
+
+        GeneratedRowWriter rowWriter = HbaseFieldWriterFactory.makeRowWriter(true, schema, constraints);
+        try (Block block = allocator.createBlock(schema)) {
+            assertFalse(rowWriter.writeRow(block, 0, makeResult(cell("bigint", Bytes.toBytes(-12L)))));
+            assertTrue(rowWriter.writeRow(block, 0, makeResult(cell("bigint", Bytes.toBytes(12L)))));
+            //A missing column is NULL which isn't allowed by the constraint.
+            assertFalse(rowWriter.writeRow(block, 0, makeResult(cell("str", Bytes.toBytes("value")))));
+        }
+    }
+
+    private void assertValues(Block block)
+    {
+        assertEquals("row1", block.getFieldReader(HbaseSchemaUtils.ROW_COLUMN_NAME).readText().toString());
+        assertEquals("value", block.getFieldReader("family1:str").readText().toString());
+        assertEquals(Long.valueOf(-12L), block.getFieldReader("family1:bigint").readLong());
+        assertEquals(Integer.valueOf(7), block.getFieldReader("family1:int").readInteger());
+        assertEquals(Double.valueOf(1.5D), block.getFieldReader("family1:float8").readDouble());
+        assertEquals(Float.valueOf(2.5F), block.getFieldReader("family1:float4").readFloat());
+        assertTrue(block.getFieldReader("family1:bit").readBoolean());
+        assertArrayEquals(new byte[] {1, 2, 3}, block.getFieldReader("family1:binary").readByteArray());
+        assertNull(block.getFieldReader("family1:missing").readText());
+    }
+
+    private static Cell cell(String qualifier, byte[] value)
+    {
+        return new KeyValue(ROW, FAMILY, qualifier.getBytes(), value);
+    }
+
+    private static Result makeResult(Cell... cells)
+    {
+        List<Cell> sorted = new ArrayList<>(Arrays.asList(cells));
+        sorted.sort(KeyValue.COMPARATOR);
+        return Result.create(sorted);
+    }
+}
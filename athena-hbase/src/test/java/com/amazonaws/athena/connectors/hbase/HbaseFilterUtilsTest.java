@@ -0,0 +1,255 @@
+/*-
+ * #%L
+ * athena-hbase
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.hbase;
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.EquatableValueSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.google.common.collect.ImmutableList;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.hadoop.hbase.filter.CompareFilter;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.LongComparator;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HbaseFilterUtilsTest
+{
+    private static final ArrowType BIGINT = Types.MinorType.BIGINT.getType();
+    private static final ArrowType VARCHAR = Types.MinorType.VARCHAR.getType();
+    private static final ArrowType FLOAT8 = Types.MinorType.FLOAT8.getType();
+
+    private BlockAllocator allocator;
+    private Schema projection;
+
+    @Before
+    public void setUp()
+    {
+        allocator = new BlockAllocatorImpl();
+        projection = SchemaBuilder.newBuilder()
+                .addStringField(HbaseSchemaUtils.ROW_COLUMN_NAME)
+                .addBigIntField("family1:col1")
+                .addStringField("family1:col2")
+                .addFloat8Field("family1:col3")
+                .build();
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void noConstraints()
+            throws IOException
+    {
+        assertNull(HbaseFilterUtils.pushdownPredicate(false, new Constraints(new HashMap<>()), projection));
+    }
+
+    @Test
+    public void singleValue()
+            throws IOException
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("family1:col1", SortedRangeSet.of(false, Range.equal(allocator, BIGINT, 10L)));
+
+        Filter filter = HbaseFilterUtils.pushdownPredicate(false, new Constraints(summary), projection);
+        assertTrue(filter instanceof SingleColumnValueFilter);
+        SingleColumnValueFilter columnFilter = (SingleColumnValueFilter) filter;
+        assertEquals(CompareFilter.CompareOp.EQUAL, columnFilter.getOperator());
+        assertEquals("10", new String(columnFilter.getComparator().getValue()));
+        assertTrue(columnFilter.getFilterIfMissing());
+    }
+
+    @Test
+    public void nativeBigIntRange()
+            throws IOException
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("family1:col1", SortedRangeSet.of(true, Range.range(allocator, BIGINT, -5L, true, 20L, false)));
+
+        Filter filter = HbaseFilterUtils.pushdownPredicate(true, new Constraints(summary), projection);
+        assertTrue(filter instanceof FilterList);
+        FilterList bounds = (FilterList) filter;
+        assertEquals(FilterList.Operator.MUST_PASS_ALL, bounds.getOperator());
+        assertEquals(2, bounds.getFilters().size());
+
+        SingleColumnValueFilter low = (SingleColumnValueFilter) bounds.getFilters().get(0);
+        assertEquals(CompareFilter.CompareOp.GREATER_OR_EQUAL, low.getOperator());
+        assertTrue(low.getComparator() instanceof LongComparator);
+        assertFalse(low.getFilterIfMissing());
+
+        SingleColumnValueFilter high = (SingleColumnValueFilter) bounds.getFilters().get(1);
+        assertEquals(CompareFilter.CompareOp.LESS, high.getOperator());
+        assertTrue(high.getComparator() instanceof LongComparator);
+    }
+
+    @Test
+    public void stringRange()
+            throws IOException
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("family1:col2", SortedRangeSet.copyOf(VARCHAR,
+                ImmutableList.of(Range.lessThan(allocator, VARCHAR, "b"), Range.greaterThan(allocator, VARCHAR, "x")), false));
+
+        Filter filter = HbaseFilterUtils.pushdownPredicate(false, new Constraints(summary), projection);
+        assertTrue(filter instanceof FilterList);
+        FilterList ranges = (FilterList) filter;
+        assertEquals(FilterList.Operator.MUST_PASS_ONE, ranges.getOperator());
+        assertEquals(2, ranges.getFilters().size());
+        assertEquals(CompareFilter.CompareOp.LESS, ((SingleColumnValueFilter) ranges.getFilters().get(0)).getOperator());
+        assertEquals(CompareFilter.CompareOp.GREATER, ((SingleColumnValueFilter) ranges.getFilters().get(1)).getOperator());
+    }
+
+    @Test
+    public void unorderedRangeNotPushed()
+            throws IOException
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        //Numbers serialized as Strings don't sort numerically so this must not be pushed down.
+        summary.put("family1:col1", SortedRangeSet.of(false, Range.greaterThan(allocator, BIGINT, 10L)));
+        summary.put("family1:col3", SortedRangeSet.of(false, Range.greaterThan(allocator, FLOAT8, 1.5D)));
+
+        assertNull(HbaseFilterUtils.pushdownPredicate(false, new Constraints(summary), projection));
+        //Native doubles don't sort as unsigned bytes either.
+        summary.remove("family1:col1");
+        assertNull(HbaseFilterUtils.pushdownPredicate(true, new Constraints(summary), projection));
+    }
+
+    @Test
+    public void inList()
+            throws IOException
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("family1:col2", EquatableValueSet.newBuilder(allocator, VARCHAR, true, false)
+                .add("a").add("b").add("c").build());
+
+        Filter filter = HbaseFilterUtils.pushdownPredicate(false, new Constraints(summary), projection);
+        assertTrue(filter instanceof FilterList);
+        FilterList values = (FilterList) filter;
+        assertEquals(FilterList.Operator.MUST_PASS_ONE, values.getOperator());
+        assertEquals(3, values.getFilters().size());
+        for (Filter next : values.getFilters()) {
+            assertEquals(CompareFilter.CompareOp.EQUAL, ((SingleColumnValueFilter) next).getOperator());
+        }
+    }
+
+    @Test
+    public void notInListNotPushed()
+            throws IOException
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("family1:col2", EquatableValueSet.newBuilder(allocator, VARCHAR, false, false)
+                .add("a").build());
+
+        assertNull(HbaseFilterUtils.pushdownPredicate(false, new Constraints(summary), projection));
+    }
+
+    @Test
+    public void rowKeyRanges()
+            throws IOException
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put(HbaseSchemaUtils.ROW_COLUMN_NAME, SortedRangeSet.copyOf(VARCHAR,
+                ImmutableList.of(Range.equal(allocator, VARCHAR, "a1"),
+                        Range.range(allocator, VARCHAR, "c", true, "d", false),
+                        Range.greaterThan(allocator, VARCHAR, "x")), false));
+
+        Filter filter = HbaseFilterUtils.pushdownPredicate(false, new Constraints(summary), projection);
+        assertTrue(filter instanceof MultiRowRangeFilter);
+        MultiRowRangeFilter rowFilter = (MultiRowRangeFilter) filter;
+        assertEquals(3, rowFilter.getRowRanges().size());
+
+        assertTrue(rowFilter.getRowRanges().get(0).contains("a1".getBytes()));
+        assertFalse(rowFilter.getRowRanges().get(0).contains("a2".getBytes()));
+        assertTrue(rowFilter.getRowRanges().get(1).contains("c".getBytes()));
+        assertTrue(rowFilter.getRowRanges().get(1).contains("cz".getBytes()));
+        assertFalse(rowFilter.getRowRanges().get(1).contains("d".getBytes()));
+        assertFalse(rowFilter.getRowRanges().get(2).contains("x".getBytes()));
+        assertTrue(rowFilter.getRowRanges().get(2).contains("zzz".getBytes()));
+    }
+
+    @Test
+    public void rowKeyInList()
+            throws IOException
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put(HbaseSchemaUtils.ROW_COLUMN_NAME, EquatableValueSet.newBuilder(allocator, VARCHAR, true, false)
+                .add("k1").add("k2").build());
+
+        Filter filter = HbaseFilterUtils.pushdownPredicate(true, new Constraints(summary), projection);
+        assertTrue(filter instanceof MultiRowRangeFilter);
+        MultiRowRangeFilter rowFilter = (MultiRowRangeFilter) filter;
+        assertEquals(2, rowFilter.getRowRanges().size());
+        assertTrue(rowFilter.getRowRanges().get(0).contains("k1".getBytes()));
+        assertTrue(rowFilter.getRowRanges().get(1).contains("k2".getBytes()));
+    }
+
+    @Test
+    public void combinedConstraints()
+            throws IOException
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put(HbaseSchemaUtils.ROW_COLUMN_NAME, SortedRangeSet.of(false, Range.greaterThan(allocator, VARCHAR, "k")));
+        summary.put("family1:col1", SortedRangeSet.of(false, Range.equal(allocator, BIGINT, 1L)));
+
+        Filter filter = HbaseFilterUtils.pushdownPredicate(false, new Constraints(summary), projection);
+        assertTrue(filter instanceof FilterList);
+        assertEquals(FilterList.Operator.MUST_PASS_ALL, ((FilterList) filter).getOperator());
+        assertEquals(2, ((FilterList) filter).getFilters().size());
+    }
+
+    @Test
+    public void rowOnlyProjection()
+            throws IOException
+    {
+        Schema rowOnly = SchemaBuilder.newBuilder().addStringField(HbaseSchemaUtils.ROW_COLUMN_NAME).build();
+
+        Filter filter = HbaseFilterUtils.pushdownPredicate(false, new Constraints(new HashMap<>()), rowOnly);
+        assertTrue(filter instanceof FilterList);
+        FilterList projectionFilters = (FilterList) filter;
+        assertEquals(2, projectionFilters.getFilters().size());
+        assertTrue(projectionFilters.getFilters().get(0) instanceof FirstKeyOnlyFilter);
+        assertTrue(projectionFilters.getFilters().get(1) instanceof KeyOnlyFilter);
+    }
+}
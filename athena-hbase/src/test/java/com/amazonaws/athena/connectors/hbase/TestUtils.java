@@ -152,6 +152,18 @@ public class TestUtils
                         return valueMap.get(key).getBytes();
                     }
                 });
+        when(mockResult.getColumnLatestCell(any(byte[].class), any(byte[].class)))
+                .thenAnswer((InvocationOnMock invocation) -> {
+                    byte[] family = invocation.getArgumentAt(0, byte[].class);
+                    byte[] column = invocation.getArgumentAt(1, byte[].class);
+                    String key = new String(family) + ":" + new String(column);
+                    if (!valueMap.containsKey(key)) {
+                        return null;
+                    }
+                    else {
+                        return new KeyValue("row".getBytes(), family, column, valueMap.get(key).getBytes());
+                    }
+                });
         return mockResult;
     }
 
@@ -42,7 +42,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-import static com.amazonaws.athena.connectors.hortonworks.HiveConstants.FETCH_SIZE;
 import static com.amazonaws.athena.connectors.hortonworks.HiveConstants.HIVE_DEFAULT_PORT;
 import static com.amazonaws.athena.connectors.hortonworks.HiveConstants.HIVE_DRIVER_CLASS;
 import static com.amazonaws.athena.connectors.hortonworks.HiveConstants.HIVE_NAME;
@@ -75,7 +74,6 @@ public class HiveRecordHandler extends JdbcRecordHandler
     public PreparedStatement buildSplitSql(Connection jdbcConnection, String catalogName, TableName tableName, Schema schema, Constraints constraints, Split split) throws SQLException
     {
         PreparedStatement preparedStatement = jdbcSplitQueryBuilder.buildSql(jdbcConnection, null, tableName.getSchemaName(), tableName.getTableName(), schema, constraints, split);
-        preparedStatement.setFetchSize(FETCH_SIZE);
         return preparedStatement;
     }
 }
@@ -0,0 +1,233 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.manager;
+
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Decides how the rows of a split are fetched from the database. The fetch size is sized so that a round trip carries
+ * about fetch_target_bytes (environment variable, 1 MB by default) of rows, estimated from the width of the requested
+ * schema, between 100 and 10000 rows. The fetch_size environment variable replaces the estimate with a fixed value,
+ * except for {@link Dialect#ROW_STREAMING} drivers, which would buffer the whole result for any fetch size but theirs.
+ *
+ * Drivers only stream results when the connection and statement are set up the way they expect, see {@link Dialect}.
+ * Without that most of them silently load the whole result into memory.
+ */
+public class FetchSizePolicy
+{
+    public static final String FETCH_SIZE_ENV = "fetch_size";
+    public static final String FETCH_TARGET_BYTES_ENV = "fetch_target_bytes";
+
+    static final long DEFAULT_TARGET_BYTES = 1024 * 1024;
+    static final int MIN_FETCH_SIZE = 100;
+    static final int MAX_FETCH_SIZE = 10_000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FetchSizePolicy.class);
+    private static final int VARIABLE_WIDTH_BYTES = 64;
+    private static final int NESTED_WIDTH_BYTES = 256;
+    private static final int COLUMN_OVERHEAD_BYTES = 8;
+
+    /**
+     * How a driver streams results.
+     */
+    public enum Dialect
+    {
+        /**
+         * Rows are fetched fetch size at a time with auto-commit off.
+         */
+        DEFAULT(false, false, false),
+        /**
+         * Rows are fetched through a server side cursor, which needs auto-commit off and a forward-only result set,
+         * e.g. PostgreSQL and Redshift. The connection is marked read-only, which these drivers fold into the
+         * transaction they open.
+         */
+        CURSOR(false, true, true),
+        /**
+         * Rows are streamed one at a time, signalled by a fetch size of Integer.MIN_VALUE on a forward-only read-only
+         * result set, e.g. MySQL.
+         */
+        ROW_STREAMING(true, false, true);
+
+        private final boolean rowStreaming;
+        private final boolean readOnlyConnection;
+        private final boolean forwardOnly;
+
+        Dialect(final boolean rowStreaming, final boolean readOnlyConnection, final boolean forwardOnly)
+        {
+            this.rowStreaming = rowStreaming;
+            this.readOnlyConnection = readOnlyConnection;
+            this.forwardOnly = forwardOnly;
+        }
+    }
+
+    private final Dialect dialect;
+    private final long targetBytes;
+    private final int fixedFetchSize;
+
+    /**
+     * @param dialect how the driver streams results.
+     */
+    public FetchSizePolicy(final Dialect dialect)
+    {
+        this(dialect, longFromEnv(FETCH_TARGET_BYTES_ENV, DEFAULT_TARGET_BYTES), (int) longFromEnv(FETCH_SIZE_ENV, 0));
+    }
+
+    /**
+     * @param dialect how the driver streams results.
+     * @param targetBytes wanted number of bytes per round trip.
+     * @param fixedFetchSize fetch size used regardless of the schema, 0 to size it from the schema. Ignored for
+     * {@link Dialect#ROW_STREAMING}.
+     */
+    public FetchSizePolicy(final Dialect dialect, final long targetBytes, final int fixedFetchSize)
+    {
+        Validate.isTrue(targetBytes > 0, "targetBytes must be positive");
+        Validate.isTrue(fixedFetchSize >= 0, "fixedFetchSize must not be negative");
+        this.dialect = Validate.notNull(dialect, "dialect must not be null");
+        this.targetBytes = targetBytes;
+        if (dialect.rowStreaming && fixedFetchSize > 0) {
+            LOGGER.warn("Ignoring {} {}, the driver only streams rows with a fetch size of Integer.MIN_VALUE", FETCH_SIZE_ENV, fixedFetchSize);
+            this.fixedFetchSize = 0;
+        }
+        else {
+            this.fixedFetchSize = fixedFetchSize;
+        }
+    }
+
+    private static long longFromEnv(final String name, final long defaultValue)
+    {
+        String value = System.getenv().get(name);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        long parsed;
+        try {
+            parsed = Long.parseLong(value.trim());
+        }
+        catch (NumberFormatException ex) {
+            parsed = -1;
+        }
+        if (parsed <= 0 || parsed > Integer.MAX_VALUE) {
+            LOGGER.warn("Ignoring invalid {} value {}", name, value);
+            return defaultValue;
+        }
+        return parsed;
+    }
+
+    /**
+     * Sets up the connection before the split's statement is prepared.
+     *
+     * @param connection JDBC connection.
+     * @throws SQLException JDBC database exception.
+     */
+    public void prepareConnection(final Connection connection)
+            throws SQLException
+    {
+        connection.setAutoCommit(false); // For consistency. This is needed to be false to enable streaming for some database types.
+        if (dialect.readOnlyConnection) {
+            connection.setReadOnly(true);
+        }
+    }
+
+    /**
+     * Sets the fetch size of the split's statement before it is executed.
+     *
+     * @param statement prepared statement of the split.
+     * @param schema schema of the rows read.
+     * @throws SQLException JDBC database exception.
+     */
+    public void prepareStatement(final PreparedStatement statement, final Schema schema)
+            throws SQLException
+    {
+        if (dialect.forwardOnly && (statement.getResultSetType() != ResultSet.TYPE_FORWARD_ONLY
+                || statement.getResultSetConcurrency() != ResultSet.CONCUR_READ_ONLY)) {
+            LOGGER.warn("Statement isn't forward-only and read-only, the driver may not stream its results");
+        }
+        int fetchSize = getFetchSize(schema);
+        LOGGER.debug("Fetch size {} for {} columns", fetchSize, schema.getFields().size());
+        statement.setFetchSize(fetchSize);
+    }
+
+    /**
+     * @param schema schema of the rows read.
+     * @return fetch size for the rows of the schema.
+     */
+    public int getFetchSize(final Schema schema)
+    {
+        if (dialect.rowStreaming) {
+            return Integer.MIN_VALUE;
+        }
+        if (fixedFetchSize > 0) {
+            return fixedFetchSize;
+        }
+        long fetchSize = targetBytes / estimateRowBytes(schema);
+        return (int) Math.max(MIN_FETCH_SIZE, Math.min(MAX_FETCH_SIZE, fetchSize));
+    }
+
+    /**
+     * Estimates the size of a row from the types of its columns. Variable width values are taken to be a few dozen
+     * bytes, which is enough to tell narrow rows from wide ones.
+     */
+    static long estimateRowBytes(final Schema schema)
+    {
+        long bytes = 0;
+        for (Field field : schema.getFields()) {
+            bytes += COLUMN_OVERHEAD_BYTES + estimateValueBytes(Types.getMinorTypeForArrowType(field.getType()));
+        }
+        return Math.max(bytes, 1);
+    }
+
+    private static int estimateValueBytes(final Types.MinorType minorType)
+    {
+        switch (minorType) {
+            case BIT:
+            case TINYINT:
+                return 1;
+            case SMALLINT:
+                return 2;
+            case INT:
+            case FLOAT4:
+            case DATEDAY:
+                return 4;
+            case BIGINT:
+            case FLOAT8:
+            case DATEMILLI:
+                return 8;
+            case DECIMAL:
+                return 16;
+            case LIST:
+            case STRUCT:
+            case MAP:
+                return NESTED_WIDTH_BYTES;
+            default:
+                return VARIABLE_WIDTH_BYTES;
+        }
+    }
+}
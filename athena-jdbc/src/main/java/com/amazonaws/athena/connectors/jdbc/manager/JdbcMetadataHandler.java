@@ -40,8 +40,12 @@ import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcCredentialProvider;
 import com.amazonaws.athena.connectors.jdbc.connection.RdsSecretsCredentialProvider;
+import com.amazonaws.athena.connectors.jdbc.splits.HashBucket;
+import com.amazonaws.athena.connectors.jdbc.splits.KeysetRange;
+import com.amazonaws.athena.connectors.jdbc.splits.KeysetRangeSampler;
 import com.amazonaws.athena.connectors.jdbc.splits.Splitter;
 import com.amazonaws.athena.connectors.jdbc.splits.SplitterFactory;
+import com.amazonaws.athena.connectors.jdbc.splits.SubPartitionSplitter;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.annotations.VisibleForTesting;
@@ -61,10 +65,13 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -79,6 +86,8 @@ public abstract class JdbcMetadataHandler
     private final JdbcConnectionFactory jdbcConnectionFactory;
     private final DatabaseConnectionConfig databaseConnectionConfig;
     private final SplitterFactory splitterFactory = new SplitterFactory();
+    private final KeysetRangeSampler keysetRangeSampler = new KeysetRangeSampler();
+    private final SubPartitionSplitter subPartitionSplitter = new SubPartitionSplitter();
 
     /**
      * Used only by Multiplexing handler. All calls will be delegated to respective database handler.
@@ -328,6 +337,134 @@ public abstract class JdbcMetadataHandler
         return splitClauses;
     }
 
+    /**
+     * Finds the leading primary key column of a table, a natural key for keyset splits.
+     *
+     * @param jdbcConnection JDBC connection.
+     * @param tableName table to inspect.
+     * @return first primary key column by key sequence, empty if the table has no primary key.
+     * @throws SQLException JDBC database exception.
+     */
+    protected Optional<String> getPrimaryKeyColumn(final Connection jdbcConnection, final TableName tableName)
+            throws SQLException
+    {
+        String keyColumn = null;
+        int keySequence = Integer.MAX_VALUE;
+        try (ResultSet resultSet = jdbcConnection.getMetaData().getPrimaryKeys(jdbcConnection.getCatalog(), tableName.getSchemaName(), tableName.getTableName())) {
+            while (resultSet != null && resultSet.next()) {
+                if (resultSet.getInt("KEY_SEQ") < keySequence) {
+                    keySequence = resultSet.getInt("KEY_SEQ");
+                    keyColumn = resultSet.getString("COLUMN_NAME");
+                }
+            }
+        }
+        return Optional.ofNullable(keyColumn);
+    }
+
+    /**
+     * Cuts a table into contiguous ranges of an orderable key column. The boundaries are sampled once here, so
+     * reading a split costs a range scan instead of skipping every preceding row as LIMIT/OFFSET pagination does.
+     *
+     * @param jdbcConnection JDBC connection.
+     * @param queryBuilder dialect query builder providing the boundary query.
+     * @param tableName table to split.
+     * @param keyColumn orderable key column.
+     * @param numRanges wanted number of ranges.
+     * @return ranges to be written as partition values, empty if the table can't be split on this key.
+     */
+    protected List<KeysetRange> getKeysetRanges(final Connection jdbcConnection, final JdbcSplitQueryBuilder queryBuilder,
+            final TableName tableName, final String keyColumn, final int numRanges)
+    {
+        String boundaryQuery = queryBuilder.buildKeysetBoundaryQuery(null, tableName.getSchemaName(), tableName.getTableName(), keyColumn, numRanges);
+        LOGGER.info("Sampling keyset boundaries: {}", boundaryQuery);
+        try {
+            return keysetRangeSampler.sample(jdbcConnection, boundaryQuery, keyColumn, numRanges);
+        }
+        catch (SQLException ex) {
+            LOGGER.warn("Unable to sample keyset boundaries on {}.", keyColumn, ex);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Finds the key column oversized partitions are cut on, see {@link #getSubPartitions}. Defaults to the leading
+     * primary key column, dialects with a better distributed key should override it.
+     *
+     * @param jdbcConnection JDBC connection.
+     * @param tableName table to inspect.
+     * @return key column, empty if the table has none.
+     * @throws SQLException JDBC database exception.
+     */
+    protected Optional<String> getSubPartitionKeyColumn(final Connection jdbcConnection, final TableName tableName)
+            throws SQLException
+    {
+        return getPrimaryKeyColumn(jdbcConnection, tableName);
+    }
+
+    /**
+     * Cuts a partition holding more rows than a single split should read into several sub-partitions, each written to
+     * its split as {@link SubPartitionSplitter#SUB_PARTITION_PROPERTY} and applied by {@link JdbcSplitQueryBuilder}.
+     * A whole unpartitioned table is cut into equal width key ranges when its key can be interpolated, anything else
+     * into hash buckets of the key.
+     *
+     * @param jdbcConnection JDBC connection.
+     * @param queryBuilder dialect query builder providing the min/max query and the hash bucket expression.
+     * @param tableName table to split.
+     * @param estimatedRows row count estimate of the partition, negative when unknown.
+     * @param wholeTable true if the partition is the whole table.
+     * @return encoded sub-partitions, empty if the partition should be read by a single split.
+     */
+    protected List<String> getSubPartitions(final Connection jdbcConnection, final JdbcSplitQueryBuilder queryBuilder, final TableName tableName,
+            final long estimatedRows, final boolean wholeTable)
+    {
+        int count = subPartitionSplitter.getSubPartitionCount(estimatedRows);
+        if (count < 2) {
+            return Collections.emptyList();
+        }
+        try {
+            Optional<String> keyColumn = getSubPartitionKeyColumn(jdbcConnection, tableName);
+            if (!keyColumn.isPresent()) {
+                LOGGER.info("{} has no key column, {} estimated rows are read by a single split", tableName, estimatedRows);
+                return Collections.emptyList();
+            }
+            if (wholeTable) {
+                String minMaxQuery = queryBuilder.buildMinMaxQuery(null, tableName.getSchemaName(), tableName.getTableName(), keyColumn.get());
+                List<String> ranges = encode(subPartitionSplitter.getKeyRanges(jdbcConnection, minMaxQuery, keyColumn.get(), count), KeysetRange::encode);
+                if (!ranges.isEmpty()) {
+                    return ranges;
+                }
+            }
+            int columnType = getColumnType(jdbcConnection, tableName, keyColumn.get());
+            if (!queryBuilder.buildHashBucketExpression(keyColumn.get(), columnType, count).isPresent()) {
+                LOGGER.info("Key column {} of {} can't be hash bucketed", keyColumn.get(), tableName);
+                return Collections.emptyList();
+            }
+            return encode(subPartitionSplitter.getHashBuckets(keyColumn.get(), columnType, count), HashBucket::encode);
+        }
+        catch (SQLException ex) {
+            LOGGER.warn("Unable to split {} further, reading it with a single split.", tableName, ex);
+            return Collections.emptyList();
+        }
+    }
+
+    private static <T> List<String> encode(final List<T> subPartitions, final Function<T, String> encoder)
+    {
+        return subPartitions.stream().map(encoder).collect(Collectors.toList());
+    }
+
+    private int getColumnType(final Connection jdbcConnection, final TableName tableName, final String columnName)
+            throws SQLException
+    {
+        try (ResultSet resultSet = getColumns(jdbcConnection.getCatalog(), tableName, jdbcConnection.getMetaData())) {
+            while (resultSet != null && resultSet.next()) {
+                if (columnName.equals(resultSet.getString("COLUMN_NAME"))) {
+                    return resultSet.getInt("DATA_TYPE");
+                }
+            }
+        }
+        return Types.OTHER;
+    }
+
     /**
      * Converts an ARRAY column's TYPE_NAME (provided by the jdbc metadata) to an ArrowType.
      * @param typeName The column's TYPE_NAME (e.g. _int4, _text, _float8, etc...)
@@ -96,6 +96,7 @@ public abstract class JdbcRecordHandler
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcRecordHandler.class);
     private final JdbcConnectionFactory jdbcConnectionFactory;
     private final DatabaseConnectionConfig databaseConnectionConfig;
+    private final FetchSizePolicy fetchSizePolicy;
 
     /**
      * Used only by Multiplexing handler. All invocations will be delegated to respective database handler.
@@ -105,14 +106,25 @@ public abstract class JdbcRecordHandler
         super(sourceType);
         this.jdbcConnectionFactory = null;
         this.databaseConnectionConfig = null;
+        this.fetchSizePolicy = null;
     }
 
     protected JdbcRecordHandler(final AmazonS3 amazonS3, final AWSSecretsManager secretsManager, AmazonAthena athena, final DatabaseConnectionConfig databaseConnectionConfig,
             final JdbcConnectionFactory jdbcConnectionFactory)
+    {
+        this(amazonS3, secretsManager, athena, databaseConnectionConfig, jdbcConnectionFactory, new FetchSizePolicy(FetchSizePolicy.Dialect.DEFAULT));
+    }
+
+    /**
+     * @param fetchSizePolicy decides the fetch size and streaming setup of split reads, see {@link FetchSizePolicy.Dialect}.
+     */
+    protected JdbcRecordHandler(final AmazonS3 amazonS3, final AWSSecretsManager secretsManager, AmazonAthena athena, final DatabaseConnectionConfig databaseConnectionConfig,
+            final JdbcConnectionFactory jdbcConnectionFactory, final FetchSizePolicy fetchSizePolicy)
     {
         super(amazonS3, secretsManager, athena, databaseConnectionConfig.getEngine());
         this.jdbcConnectionFactory = Validate.notNull(jdbcConnectionFactory, "jdbcConnectionFactory must not be null");
         this.databaseConnectionConfig = Validate.notNull(databaseConnectionConfig, "databaseConnectionConfig must not be null");
+        this.fetchSizePolicy = Validate.notNull(fetchSizePolicy, "fetchSizePolicy must not be null");
     }
 
     protected JdbcConnectionFactory getJdbcConnectionFactory()
@@ -120,6 +132,11 @@ public abstract class JdbcRecordHandler
         return jdbcConnectionFactory;
     }
 
+    protected FetchSizePolicy getFetchSizePolicy()
+    {
+        return fetchSizePolicy;
+    }
+
     protected JdbcCredentialProvider getCredentialProvider()
     {
         final String secretName = this.databaseConnectionConfig.getSecret();
@@ -136,10 +153,11 @@ public abstract class JdbcRecordHandler
         LOGGER.info("{}: Catalog: {}, table {}, splits {}", readRecordsRequest.getQueryId(), readRecordsRequest.getCatalogName(), readRecordsRequest.getTableName(),
                 readRecordsRequest.getSplit().getProperties());
         try (Connection connection = this.jdbcConnectionFactory.getConnection(getCredentialProvider())) {
-            connection.setAutoCommit(false); // For consistency. This is needed to be false to enable streaming for some database types.
-            try (PreparedStatement preparedStatement = buildSplitSql(connection, readRecordsRequest.getCatalogName(), readRecordsRequest.getTableName(),
+            this.fetchSizePolicy.prepareConnection(connection);
+            PreparedStatement splitStatement = buildSplitSql(connection, readRecordsRequest.getCatalogName(), readRecordsRequest.getTableName(),
                     readRecordsRequest.getSchema(), readRecordsRequest.getConstraints(), readRecordsRequest.getSplit());
-                    ResultSet resultSet = preparedStatement.executeQuery()) {
+            try (PreparedStatement preparedStatement = splitStatement;
+                    ResultSet resultSet = executeQuery(preparedStatement, readRecordsRequest.getSchema())) {
                 Map<String, String> partitionValues = readRecordsRequest.getSplit().getProperties();
 
                 GeneratedRowWriter.RowWriterBuilder rowWriterBuilder = GeneratedRowWriter.newBuilder(readRecordsRequest.getConstraints());
@@ -165,12 +183,26 @@ public abstract class JdbcRecordHandler
 
                 connection.commit();
             }
+            finally {
+                //Runs once the statement is closed.
+                releaseSplitSql(connection, splitStatement);
+            }
         }
         catch (SQLException sqlException) {
             throw new RuntimeException(sqlException.getErrorCode() + ": " + sqlException.getMessage(), sqlException);
         }
     }
 
+    /**
+     * Applies the {@link FetchSizePolicy} to the split's statement and executes it.
+     */
+    protected ResultSet executeQuery(final PreparedStatement preparedStatement, final Schema schema)
+            throws SQLException
+    {
+        this.fetchSizePolicy.prepareStatement(preparedStatement, schema);
+        return preparedStatement.executeQuery();
+    }
+
     /**
      * Create a field extractor for complex List type.
      * @param field Field's metadata information.
@@ -307,4 +339,16 @@ public abstract class JdbcRecordHandler
      */
     public abstract PreparedStatement buildSplitSql(Connection jdbcConnection, String catalogName, TableName tableName, Schema schema, Constraints constraints, Split split)
             throws SQLException;
+
+    /**
+     * Releases anything prepared along with the split's statement, e.g. temporary tables holding large IN-lists (see
+     * {@link JdbcSplitQueryBuilder#releaseSql(Connection, PreparedStatement)}). Called once the statement returned by
+     * {@link #buildSplitSql} has been closed, whether or not reading the split succeeded. Does nothing by default.
+     *
+     * @param jdbcConnection jdbc connection the statement was prepared on. See {@link Connection}
+     * @param preparedStatement statement returned by buildSplitSql.
+     */
+    protected void releaseSplitSql(Connection jdbcConnection, PreparedStatement preparedStatement)
+    {
+    }
 }
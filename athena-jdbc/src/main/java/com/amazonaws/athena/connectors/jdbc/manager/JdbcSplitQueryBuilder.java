@@ -24,8 +24,11 @@ import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
 import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connectors.jdbc.splits.HashBucket;
+import com.amazonaws.athena.connectors.jdbc.splits.KeysetRange;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 import com.google.common.collect.Iterables;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.arrow.vector.types.Types;
@@ -41,13 +44,18 @@ import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -59,9 +67,14 @@ public abstract class JdbcSplitQueryBuilder
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcSplitQueryBuilder.class);
 
     private static final int MILLIS_SHIFT = 12;
+    private static final int DEFAULT_MAX_EXPANDED_IN_LIST_SIZE = 256;
+    private static final int TEMP_TABLE_INSERT_BATCH_SIZE = 1000;
+    private static final DateTimeFormatter IN_LIST_TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
 
     private final String quoteCharacters;
     private final String emptyString = "";
+    //The IN-lists prepared for each statement returned by buildSql, until released by releaseSql.
+    private final Map<PreparedStatement, List<InList>> preparedInListsByStatement = Collections.synchronizedMap(new IdentityHashMap<>());
 
     /**
      * @param quoteCharacters database quote character for enclosing identifiers.
@@ -81,7 +94,8 @@ public abstract class JdbcSplitQueryBuilder
      * @param tableSchema table schema (column and type information).
      * @param constraints constraints passed by Athena to push down.
      * @param split table split.
-     * @return prepated statement with SQL. See {@link PreparedStatement}.
+     * @return prepated statement with SQL. See {@link PreparedStatement}. Once it has been closed the caller must pass
+     * it to {@link #releaseSql(Connection, PreparedStatement)}.
      * @throws SQLException JDBC database exception.
      */
     @SuppressFBWarnings("SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING")
@@ -94,6 +108,84 @@ public abstract class JdbcSplitQueryBuilder
             final Constraints constraints,
             final Split split)
             throws SQLException
+    {
+        List<TypeAndValue> accumulator = new ArrayList<>();
+        String sql = buildSqlText(catalog, schema, table, tableSchema, constraints, split, accumulator, true);
+        List<InList> inLists = accumulator.stream()
+                .filter(typeAndValue -> typeAndValue.getValue() instanceof InList)
+                .map(typeAndValue -> (InList) typeAndValue.getValue())
+                .collect(Collectors.toList());
+        List<InList> preparedInLists = new ArrayList<>();
+        InList current = null;
+        try {
+            for (InList inList : inLists) {
+                current = inList;
+                if (prepareInList(jdbcConnection, inList)) {
+                    preparedInLists.add(inList);
+                }
+            }
+        }
+        catch (SQLException ex) {
+            LOGGER.warn("Could not prepare IN-list {}, expanding IN-lists instead: {}", current.getTempTableName(), ex.getMessage());
+            preparedInLists.add(current);
+            releaseInLists(jdbcConnection, preparedInLists);
+            preparedInLists.clear();
+            accumulator.clear();
+            sql = buildSqlText(catalog, schema, table, tableSchema, constraints, split, accumulator, false);
+        }
+
+        PreparedStatement statement;
+        try {
+            statement = jdbcConnection.prepareStatement(sql);
+        }
+        catch (SQLException | RuntimeException ex) {
+            releaseInLists(jdbcConnection, preparedInLists);
+            throw ex;
+        }
+        try {
+            bind(jdbcConnection, statement, accumulator, split);
+        }
+        catch (SQLException | RuntimeException ex) {
+            try {
+                statement.close();
+            }
+            finally {
+                releaseInLists(jdbcConnection, preparedInLists);
+            }
+            throw ex;
+        }
+        if (!preparedInLists.isEmpty()) {
+            preparedInListsByStatement.put(statement, preparedInLists);
+        }
+        return statement;
+    }
+
+    /**
+     * Releases what was prepared for a statement returned by {@link #buildSql}, e.g. drops the temporary tables its
+     * IN-lists were read from (see {@link #releaseInList(Connection, InList)}). Must be called once the statement has
+     * been closed, typically from the finally block of the caller of buildSql. Does nothing for statements without
+     * prepared IN-lists.
+     *
+     * @param jdbcConnection JDBC connection the statement was prepared on.
+     * @param statement statement returned by buildSql.
+     */
+    public void releaseSql(final Connection jdbcConnection, final PreparedStatement statement)
+    {
+        List<InList> inLists = preparedInListsByStatement.remove(statement);
+        if (inLists != null) {
+            releaseInLists(jdbcConnection, inLists);
+        }
+    }
+
+    private String buildSqlText(
+            final String catalog,
+            final String schema,
+            final String table,
+            final Schema tableSchema,
+            final Constraints constraints,
+            final Split split,
+            final List<TypeAndValue> accumulator,
+            final boolean inListPredicates)
     {
         StringBuilder sql = new StringBuilder();
 
@@ -110,76 +202,220 @@ public abstract class JdbcSplitQueryBuilder
         }
         sql.append(getFromClauseWithSplit(catalog, schema, table, split));
 
-        List<TypeAndValue> accumulator = new ArrayList<>();
-
-        List<String> clauses = toConjuncts(tableSchema.getFields(), constraints, accumulator, split.getProperties());
+        // Without a source table long IN-lists are expanded rather than offered to buildInListPredicate.
+        String sourceTable = inListPredicates ? qualifiedTableName(catalog, schema, table) : null;
+        List<String> clauses = toConjuncts(tableSchema.getFields(), constraints, accumulator, split.getProperties(), sourceTable);
         clauses.addAll(getPartitionWhereClauses(split));
+        Optional<KeysetRange> keysetRange = getKeysetRange(split);
+        keysetRange.ifPresent(range -> clauses.add(range.toClause(quote(range.getColumnName()))));
+        Optional<HashBucket> hashBucket = getHashBucket(split);
+        if (hashBucket.isPresent()) {
+            HashBucket bucket = hashBucket.get();
+            String bucketExpression = buildHashBucketExpression(bucket.getColumnName(), bucket.getColumnType(), bucket.getBucketCount())
+                    .orElseThrow(() -> new UnsupportedOperationException("Hash bucket splits are not supported by " + getClass().getSimpleName()));
+            clauses.add(bucket.toClause(bucketExpression, quote(bucket.getColumnName())));
+        }
         if (!clauses.isEmpty()) {
             sql.append(" WHERE ")
                     .append(Joiner.on(" AND ").join(clauses));
         }
         sql.append(appendLimitOffset(split)); // limits and offset support
         LOGGER.debug("Generated SQL : {}", sql.toString());
-        PreparedStatement statement = jdbcConnection.prepareStatement(sql.toString());
+        return sql.toString();
+    }
 
+    private void bind(final Connection jdbcConnection, final PreparedStatement statement, final List<TypeAndValue> accumulator, final Split split)
+            throws SQLException
+    {
         // TODO all types, converts Arrow values to JDBC.
-        for (int i = 0; i < accumulator.size(); i++) {
-            TypeAndValue typeAndValue = accumulator.get(i);
+        int parameterIndex = 1;
+        for (TypeAndValue typeAndValue : accumulator) {
+            if (typeAndValue.getValue() instanceof InList) {
+                parameterIndex += bindInList(jdbcConnection, statement, parameterIndex, (InList) typeAndValue.getValue());
+                continue;
+            }
 
             Types.MinorType minorTypeForArrowType = Types.getMinorTypeForArrowType(typeAndValue.getType());
 
             switch (minorTypeForArrowType) {
                 case BIGINT:
-                    statement.setLong(i + 1, (long) typeAndValue.getValue());
+                    statement.setLong(parameterIndex, (long) typeAndValue.getValue());
                     break;
                 case INT:
-                    statement.setInt(i + 1, ((Number) typeAndValue.getValue()).intValue());
+                    statement.setInt(parameterIndex, ((Number) typeAndValue.getValue()).intValue());
                     break;
                 case SMALLINT:
-                    statement.setShort(i + 1, ((Number) typeAndValue.getValue()).shortValue());
+                    statement.setShort(parameterIndex, ((Number) typeAndValue.getValue()).shortValue());
                     break;
                 case TINYINT:
-                    statement.setByte(i + 1, ((Number) typeAndValue.getValue()).byteValue());
+                    statement.setByte(parameterIndex, ((Number) typeAndValue.getValue()).byteValue());
                     break;
                 case FLOAT8:
-                    statement.setDouble(i + 1, (double) typeAndValue.getValue());
+                    statement.setDouble(parameterIndex, (double) typeAndValue.getValue());
                     break;
                 case FLOAT4:
-                    statement.setFloat(i + 1, (float) typeAndValue.getValue());
+                    statement.setFloat(parameterIndex, (float) typeAndValue.getValue());
                     break;
                 case BIT:
-                    statement.setBoolean(i + 1, (boolean) typeAndValue.getValue());
+                    statement.setBoolean(parameterIndex, (boolean) typeAndValue.getValue());
                     break;
                 case DATEDAY:
-                    statement.setDate(i + 1,
+                    statement.setDate(parameterIndex,
                             new Date(TimeUnit.DAYS.toMillis(((Number) typeAndValue.getValue()).longValue())));
                     break;
                 case DATEMILLI:
                     LocalDateTime timestamp = ((LocalDateTime) typeAndValue.getValue());
-                    statement.setTimestamp(i + 1, new Timestamp(timestamp.toInstant(ZoneOffset.UTC).toEpochMilli()));
+                    statement.setTimestamp(parameterIndex, new Timestamp(timestamp.toInstant(ZoneOffset.UTC).toEpochMilli()));
                     break;
                 case VARCHAR:
-                    statement.setString(i + 1, String.valueOf(typeAndValue.getValue()));
+                    statement.setString(parameterIndex, String.valueOf(typeAndValue.getValue()));
                     break;
                 case VARBINARY:
-                    statement.setBytes(i + 1, (byte[]) typeAndValue.getValue());
+                    statement.setBytes(parameterIndex, (byte[]) typeAndValue.getValue());
                     break;
                 case DECIMAL:
-                    statement.setBigDecimal(i + 1, (BigDecimal) typeAndValue.getValue());
+                    statement.setBigDecimal(parameterIndex, (BigDecimal) typeAndValue.getValue());
                     break;
                 default:
                     throw new UnsupportedOperationException(String.format("Can't handle type: %s, %s", typeAndValue.getType(), minorTypeForArrowType));
             }
+            parameterIndex++;
+        }
+        Optional<KeysetRange> keysetRange = getKeysetRange(split);
+        if (keysetRange.isPresent()) {
+            parameterIndex = keysetRange.get().bind(statement, parameterIndex);
+        }
+        Optional<HashBucket> hashBucket = getHashBucket(split);
+        if (hashBucket.isPresent()) {
+            hashBucket.get().bind(statement, parameterIndex);
         }
+    }
 
-        return statement;
+    private void releaseInLists(final Connection jdbcConnection, final List<InList> inLists)
+    {
+        for (InList inList : inLists) {
+            try {
+                releaseInList(jdbcConnection, inList);
+            }
+            catch (SQLException ex) {
+                LOGGER.warn("Could not release IN-list {}: {}", inList.getTempTableName(), ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Builds the query used to find split boundaries for keyset splits. It must return non-null values of the key
+     * column in ascending order, either one lower bound per range or a sorted sample of the key. The default computes
+     * exact boundaries with NTILE, dialects with cheaper sampling should override it.
+     *
+     * @param catalog Athena provided catalog name.
+     * @param schema table schema name.
+     * @param table table name.
+     * @param keyColumn orderable key column, typically the leading primary or clustering key column.
+     * @param numRanges wanted number of ranges.
+     * @return boundary query, see {@link com.amazonaws.athena.connectors.jdbc.splits.KeysetRangeSampler}.
+     */
+    public String buildKeysetBoundaryQuery(final String catalog, final String schema, final String table, final String keyColumn, final int numRanges)
+    {
+        String key = quote(keyColumn);
+        return String.format("SELECT MIN(%s) FROM (SELECT %s, NTILE(%d) OVER (ORDER BY %s) AS keyset_bucket FROM %s WHERE %s IS NOT NULL) keyset_buckets " +
+                        "GROUP BY keyset_bucket ORDER BY 1",
+                key, key, numRanges, key, qualifiedTableName(catalog, schema, table), key);
+    }
+
+    /**
+     * Whether the connector cuts tables into keyset ranges instead of its default split strategy, see
+     * {@link com.amazonaws.athena.connectors.jdbc.splits.KeysetRange}.
+     *
+     * @return true if getPartitions of the connector should emit keyset ranges.
+     */
+    public boolean supportsKeysetSplits()
+    {
+        return false;
+    }
+
+    /**
+     * Builds the query returning the lowest and highest non-null key of a table in a single row, used to cut an
+     * oversized table into equal width key ranges without scanning it, see
+     * {@link com.amazonaws.athena.connectors.jdbc.splits.SubPartitionSplitter}.
+     *
+     * @param catalog Athena provided catalog name.
+     * @param schema table schema name.
+     * @param table table name.
+     * @param keyColumn orderable key column.
+     * @return min/max query.
+     */
+    public String buildMinMaxQuery(final String catalog, final String schema, final String table, final String keyColumn)
+    {
+        String key = quote(keyColumn);
+        return String.format("SELECT MIN(%s), MAX(%s) FROM %s", key, key, qualifiedTableName(catalog, schema, table));
+    }
+
+    /**
+     * Builds the expression mapping a key to its hash bucket, a number from 0 to bucketCount - 1, see
+     * {@link HashBucket}. The default takes the remainder of integer keys, dialects with a hash function should
+     * override it so any key type can be bucketed.
+     *
+     * @param columnName key column name, not quoted.
+     * @param columnType JDBC type of the key column, see {@link java.sql.Types}.
+     * @param bucketCount number of buckets.
+     * @return bucket expression, empty if the key can't be bucketed.
+     */
+    public Optional<String> buildHashBucketExpression(final String columnName, final int columnType, final int bucketCount)
+    {
+        switch (columnType) {
+            case java.sql.Types.TINYINT:
+            case java.sql.Types.SMALLINT:
+            case java.sql.Types.INTEGER:
+            case java.sql.Types.BIGINT:
+                return Optional.of(String.format("ABS(MOD(%s, %d))", quote(columnName), bucketCount));
+            default:
+                return Optional.empty();
+        }
+    }
+
+    /**
+     * @param split table split.
+     * @return the keyset range carried by one of the split properties, if any.
+     */
+    protected Optional<KeysetRange> getKeysetRange(final Split split)
+    {
+        return split.getProperties().values().stream()
+                .filter(KeysetRange::isKeysetRange)
+                .findFirst()
+                .map(KeysetRange::decode);
+    }
+
+    /**
+     * @param split table split.
+     * @return the hash bucket carried by one of the split properties, if any.
+     */
+    protected Optional<HashBucket> getHashBucket(final Split split)
+    {
+        return split.getProperties().values().stream()
+                .filter(HashBucket::isHashBucket)
+                .findFirst()
+                .map(HashBucket::decode);
+    }
+
+    protected String qualifiedTableName(final String catalog, final String schema, final String table)
+    {
+        StringBuilder tableName = new StringBuilder();
+        if (!Strings.isNullOrEmpty(catalog)) {
+            tableName.append(quote(catalog)).append('.');
+        }
+        if (!Strings.isNullOrEmpty(schema)) {
+            tableName.append(quote(schema)).append('.');
+        }
+        return tableName.append(quote(table)).toString();
     }
 
     protected abstract String getFromClauseWithSplit(final String catalog, final String schema, final String table, final Split split);
 
     protected abstract List<String> getPartitionWhereClauses(final Split split);
 
-    private List<String> toConjuncts(List<Field> columns, Constraints constraints, List<TypeAndValue> accumulator, Map<String, String> partitionSplit)
+    private List<String> toConjuncts(List<Field> columns, Constraints constraints, List<TypeAndValue> accumulator, Map<String, String> partitionSplit,
+            String sourceTable)
     {
         List<String> conjuncts = new ArrayList<>();
         for (Field column : columns) {
@@ -190,14 +426,14 @@ public abstract class JdbcSplitQueryBuilder
             if (constraints.getSummary() != null && !constraints.getSummary().isEmpty()) {
                 ValueSet valueSet = constraints.getSummary().get(column.getName());
                 if (valueSet != null) {
-                    conjuncts.add(toPredicate(column.getName(), valueSet, type, accumulator));
+                    conjuncts.add(toPredicate(column.getName(), valueSet, type, accumulator, sourceTable));
                 }
             }
         }
         return conjuncts;
     }
 
-    private String toPredicate(String columnName, ValueSet valueSet, ArrowType type, List<TypeAndValue> accumulator)
+    private String toPredicate(String columnName, ValueSet valueSet, ArrowType type, List<TypeAndValue> accumulator, String sourceTable)
     {
         List<String> disjuncts = new ArrayList<>();
         List<Object> singleValues = new ArrayList<>();
@@ -263,11 +499,22 @@ public abstract class JdbcSplitQueryBuilder
                 disjuncts.add(toPredicate(columnName, "=", Iterables.getOnlyElement(singleValues), type, accumulator));
             }
             else if (singleValues.size() > 1) {
-                for (Object value : singleValues) {
-                    accumulator.add(new TypeAndValue(type, value));
+                InList inList = new InList(type, quote(columnName), singleValues, sourceTable,
+                        (int) accumulator.stream().filter(typeAndValue -> typeAndValue.getValue() instanceof InList).count());
+                Optional<String> inListPredicate = sourceTable != null && singleValues.size() > getMaxExpandedInListSize()
+                        ? buildInListPredicate(inList)
+                        : Optional.empty();
+                if (inListPredicate.isPresent()) {
+                    accumulator.add(new TypeAndValue(type, inList));
+                    disjuncts.add(inListPredicate.get());
+                }
+                else {
+                    for (Object value : singleValues) {
+                        accumulator.add(new TypeAndValue(type, value));
+                    }
+                    String values = Joiner.on(",").join(Collections.nCopies(singleValues.size(), "?"));
+                    disjuncts.add(quote(columnName) + " IN (" + values + ")");
                 }
-                String values = Joiner.on(",").join(Collections.nCopies(singleValues.size(), "?"));
-                disjuncts.add(quote(columnName) + " IN (" + values + ")");
             }
         }
 
@@ -281,12 +528,212 @@ public abstract class JdbcSplitQueryBuilder
         return quote(columnName) + " " + operator + " ?";
     }
 
+    /**
+     * IN-lists up to this size are expanded into one placeholder per value, longer ones are offered to
+     * {@link #buildInListPredicate(InList)}.
+     *
+     * @return maximum number of values bound as individual placeholders.
+     */
+    protected int getMaxExpandedInListSize()
+    {
+        return DEFAULT_MAX_EXPANDED_IN_LIST_SIZE;
+    }
+
+    /**
+     * Builds a predicate matching a long IN-list without one placeholder per value, e.g. by binding the values as a
+     * single array. Long expanded lists run into driver parameter limits and make the database parse and plan a
+     * different statement for every list.
+     *
+     * @param inList column and values of the IN-list.
+     * @return predicate with the placeholders bound by {@link #bindInList}, or empty to expand the list.
+     */
+    protected Optional<String> buildInListPredicate(final InList inList)
+    {
+        return Optional.empty();
+    }
+
+    /**
+     * Runs before the statement is prepared, e.g. to create and fill a temporary table the predicate reads from. If
+     * it fails, every IN-list of the statement is expanded into one placeholder per value instead.
+     *
+     * @param jdbcConnection JDBC connection the statement will be prepared on.
+     * @param inList IN-list for which {@link #buildInListPredicate(InList)} returned a predicate.
+     * @return true if {@link #releaseInList(Connection, InList)} must run once the statement is closed and released
+     * via {@link #releaseSql(Connection, PreparedStatement)}.
+     * @throws SQLException JDBC database exception.
+     */
+    protected boolean prepareInList(final Connection jdbcConnection, final InList inList)
+            throws SQLException
+    {
+        return false;
+    }
+
+    /**
+     * Runs once the statement the IN-list was prepared for has been closed, e.g. to drop the temporary table filled by
+     * {@link #prepareInList(Connection, InList)}. Also runs if preparing the IN-list failed part way.
+     *
+     * @param jdbcConnection JDBC connection the statement was prepared on.
+     * @param inList IN-list for which {@link #prepareInList(Connection, InList)} returned true or failed.
+     * @throws SQLException JDBC database exception.
+     */
+    protected void releaseInList(final Connection jdbcConnection, final InList inList)
+            throws SQLException
+    {
+    }
+
+    /**
+     * Binds the placeholders of the predicate returned by {@link #buildInListPredicate(InList)}.
+     *
+     * @param jdbcConnection JDBC connection.
+     * @param statement statement to bind.
+     * @param parameterIndex index of the first placeholder of the predicate.
+     * @param inList IN-list to bind.
+     * @return number of placeholders bound.
+     * @throws SQLException JDBC database exception.
+     */
+    protected int bindInList(final Connection jdbcConnection, final PreparedStatement statement, final int parameterIndex, final InList inList)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException("IN-list binding is not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * Fills a session temporary table with the values of an IN-list, for dialects that can neither bind arrays nor
+     * collections. The table copies the column definition, so comparisons keep the column's type and collation.
+     *
+     * @param jdbcConnection JDBC connection the statement will be prepared on.
+     * @param inList IN-list to store.
+     * @param createTemplate statement creating an empty temporary table, with placeholders for the table name, the
+     * column and the source table, e.g. "CREATE TEMPORARY TABLE %s AS SELECT %s AS v FROM %s WHERE 1 = 0".
+     * @param dropTemplate statement dropping the table if it exists, with a placeholder for the table name.
+     * @throws SQLException JDBC database exception.
+     */
+    @SuppressFBWarnings("SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING")
+    protected void fillInListTempTable(final Connection jdbcConnection, final InList inList, final String createTemplate, final String dropTemplate)
+            throws SQLException
+    {
+        String tempTable = inList.getTempTableName();
+        try (Statement statement = jdbcConnection.createStatement()) {
+            statement.execute(String.format(dropTemplate, tempTable));
+            statement.execute(String.format(createTemplate, tempTable, inList.getQuotedColumnName(), inList.getSourceTable()));
+        }
+        try (PreparedStatement insert = jdbcConnection.prepareStatement(String.format("INSERT INTO %s (v) VALUES (?)", tempTable))) {
+            int batched = 0;
+            for (Object value : inList.getValues()) {
+                insert.setObject(1, toJdbcValue(inList.getType(), value));
+                insert.addBatch();
+                if (++batched % TEMP_TABLE_INSERT_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            if (batched % TEMP_TABLE_INSERT_BATCH_SIZE != 0) {
+                insert.executeBatch();
+            }
+        }
+        LOGGER.debug("Stored {} IN-list values in {}", inList.getValues().size(), tempTable);
+    }
+
+    /**
+     * Converts a constraint value to the object the scalar binding in {@link #buildSql} would bind.
+     *
+     * @param type Arrow type of the column.
+     * @param value constraint value.
+     * @return JDBC value.
+     */
+    protected static Object toJdbcValue(final ArrowType type, final Object value)
+    {
+        switch (Types.getMinorTypeForArrowType(type)) {
+            case DATEDAY:
+                return new Date(TimeUnit.DAYS.toMillis(((Number) value).longValue()));
+            case DATEMILLI:
+                return new Timestamp(((LocalDateTime) value).toInstant(ZoneOffset.UTC).toEpochMilli());
+            case VARCHAR:
+                return String.valueOf(value);
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Converts a constraint value to the text form databases accept when casting strings, e.g. for array literals
+     * or JSON documents.
+     *
+     * @param type Arrow type of the column.
+     * @param value constraint value.
+     * @return value as text.
+     */
+    protected static String toInListText(final ArrowType type, final Object value)
+    {
+        switch (Types.getMinorTypeForArrowType(type)) {
+            case DATEDAY:
+                return LocalDate.ofEpochDay(((Number) value).longValue()).toString();
+            case DATEMILLI:
+                return ((LocalDateTime) value).format(IN_LIST_TIMESTAMP_FORMAT);
+            case DECIMAL:
+                return ((BigDecimal) value).toPlainString();
+            default:
+                return String.valueOf(value);
+        }
+    }
+
     protected String quote(String name)
     {
         name = name.replace(quoteCharacters, quoteCharacters + quoteCharacters);
         return quoteCharacters + name + quoteCharacters;
     }
 
+    /**
+     * Values of a long IN-list on one column, bound through a dialect specific strategy.
+     */
+    protected static final class InList
+    {
+        private final ArrowType type;
+        private final String quotedColumnName;
+        private final List<Object> values;
+        private final String sourceTable;
+        private final int id;
+
+        InList(ArrowType type, String quotedColumnName, List<Object> values, String sourceTable, int id)
+        {
+            this.type = type;
+            this.quotedColumnName = quotedColumnName;
+            this.values = Collections.unmodifiableList(values);
+            this.sourceTable = sourceTable;
+            this.id = id;
+        }
+
+        public ArrowType getType()
+        {
+            return type;
+        }
+
+        public String getQuotedColumnName()
+        {
+            return quotedColumnName;
+        }
+
+        public List<Object> getValues()
+        {
+            return values;
+        }
+
+        /**
+         * @return quoted name of the queried table.
+         */
+        public String getSourceTable()
+        {
+            return sourceTable;
+        }
+
+        /**
+         * @return name of the temporary table holding this list, unique within a statement.
+         */
+        public String getTempTableName()
+        {
+            return "athena_in_list_" + id;
+        }
+    }
+
     private static class TypeAndValue
     {
         private final ArrowType type;
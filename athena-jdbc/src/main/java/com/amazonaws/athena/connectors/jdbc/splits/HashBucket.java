@@ -0,0 +1,187 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import org.apache.commons.lang3.Validate;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One of N hash buckets of a key column used as a split. The dialect provides the expression mapping a key to its bucket
+ * number, see {@link com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder#buildHashBucketExpression},
+ * rows with a null key belong to bucket 0 whatever the expression returns for them. Unlike a {@link KeysetRange} the key doesn't need to be orderable and the
+ * buckets stay balanced inside any partition.
+ *
+ * Buckets travel between doGetSplits and the record handler as split property values, see {@link #encode()}.
+ */
+public class HashBucket
+{
+    private static final String PREFIX = "hashbucket:";
+    private static final String COLUMN = "column";
+    private static final String TYPE = "type";
+    private static final String BUCKET = "bucket";
+    private static final String BUCKETS = "buckets";
+
+    private final String columnName;
+    private final int columnType;
+    private final int bucket;
+    private final int bucketCount;
+
+    /**
+     * @param columnName database key column name.
+     * @param columnType JDBC type of the key column, see {@link java.sql.Types}.
+     * @param bucket bucket number, from 0 to bucketCount - 1.
+     * @param bucketCount number of buckets.
+     */
+    public HashBucket(final String columnName, final int columnType, final int bucket, final int bucketCount)
+    {
+        this.columnName = Validate.notBlank(columnName, "columnName must not be blank");
+        Validate.isTrue(bucketCount > 1, "bucketCount must be greater than 1");
+        Validate.isTrue(bucket >= 0 && bucket < bucketCount, "bucket must be between 0 and bucketCount - 1");
+        this.columnType = columnType;
+        this.bucket = bucket;
+        this.bucketCount = bucketCount;
+    }
+
+    /**
+     * @param value partition or split property value.
+     * @return true if the value was produced by {@link #encode()}.
+     */
+    public static boolean isHashBucket(final String value)
+    {
+        return value != null && value.startsWith(PREFIX);
+    }
+
+    /**
+     * @return the bucket as a single string that fits into a split property.
+     */
+    public String encode()
+    {
+        return PREFIX + COLUMN + '=' + URLEncoder.encode(columnName, StandardCharsets.UTF_8) +
+                '&' + TYPE + '=' + columnType +
+                '&' + BUCKET + '=' + bucket +
+                '&' + BUCKETS + '=' + bucketCount;
+    }
+
+    /**
+     * @param value value produced by {@link #encode()}.
+     * @return the decoded bucket.
+     */
+    public static HashBucket decode(final String value)
+    {
+        Validate.isTrue(isHashBucket(value), "not a hash bucket: " + value);
+        Map<String, String> parts = new HashMap<>();
+        for (String part : value.substring(PREFIX.length()).split("&")) {
+            int separator = part.indexOf('=');
+            Validate.isTrue(separator > 0, "malformed hash bucket: " + value);
+            parts.put(part.substring(0, separator), URLDecoder.decode(part.substring(separator + 1), StandardCharsets.UTF_8));
+        }
+        Validate.isTrue(parts.keySet().containsAll(Arrays.asList(COLUMN, TYPE, BUCKET, BUCKETS)), "malformed hash bucket: " + value);
+        return new HashBucket(parts.get(COLUMN), Integer.parseInt(parts.get(TYPE)), Integer.parseInt(parts.get(BUCKET)),
+                Integer.parseInt(parts.get(BUCKETS)));
+    }
+
+    /**
+     * @param bucketExpression dialect expression returning the bucket number of the key.
+     * @param quotedColumnName key column name quoted for the target database.
+     * @return SQL predicate with one parameter, bind it with {@link #bind(PreparedStatement, int)}.
+     */
+    public String toClause(final String bucketExpression, final String quotedColumnName)
+    {
+        if (bucket == 0) {
+            return String.format("(%s IS NULL OR %s = ?)", quotedColumnName, bucketExpression);
+        }
+        return String.format("(%s IS NOT NULL AND %s = ?)", quotedColumnName, bucketExpression);
+    }
+
+    /**
+     * @param statement statement to bind.
+     * @param parameterIndex index of the bucket parameter.
+     * @return index of the parameter following the bucket.
+     * @throws SQLException JDBC database exception.
+     */
+    public int bind(final PreparedStatement statement, final int parameterIndex)
+            throws SQLException
+    {
+        statement.setInt(parameterIndex, bucket);
+        return parameterIndex + 1;
+    }
+
+    public String getColumnName()
+    {
+        return columnName;
+    }
+
+    public int getColumnType()
+    {
+        return columnType;
+    }
+
+    public int getBucket()
+    {
+        return bucket;
+    }
+
+    public int getBucketCount()
+    {
+        return bucketCount;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HashBucket that = (HashBucket) o;
+        return columnType == that.columnType &&
+                bucket == that.bucket &&
+                bucketCount == that.bucketCount &&
+                Objects.equals(columnName, that.columnName);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(columnName, columnType, bucket, bucketCount);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "HashBucket{" +
+                "columnName='" + columnName + '\'' +
+                ", columnType=" + columnType +
+                ", bucket=" + bucket +
+                ", bucketCount=" + bucketCount +
+                '}';
+    }
+}
@@ -0,0 +1,264 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import org.apache.commons.lang3.Validate;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Half open range `[lower, upper)` of an orderable key column used as a split. A missing lower bound means the range
+ * starts at the lowest key and also takes the rows where the key is null, a missing upper bound means it runs to the
+ * highest key. Unlike LIMIT/OFFSET pagination every range only reads its own rows.
+ *
+ * Ranges travel between getPartitions and the record handler as partition values, see {@link #encode()}.
+ */
+public class KeysetRange
+{
+    private static final String PREFIX = "keyset:";
+    private static final String COLUMN = "column";
+    private static final String TYPE = "type";
+    private static final String LOWER = "lower";
+    private static final String UPPER = "upper";
+
+    private final String columnName;
+    private final int columnType;
+    private final String lower;
+    private final String upper;
+
+    /**
+     * @param columnName database key column name.
+     * @param columnType one of {@link Types#BIGINT}, {@link Types#DECIMAL}, {@link Types#VARCHAR}, {@link Types#DATE} or
+     * {@link Types#TIMESTAMP}, see {@link #normalizeType(int)}.
+     * @param lower inclusive lower bound in its string form, null when unbounded.
+     * @param upper exclusive upper bound in its string form, null when unbounded.
+     */
+    public KeysetRange(final String columnName, final int columnType, final String lower, final String upper)
+    {
+        this.columnName = Validate.notBlank(columnName, "columnName must not be blank");
+        Validate.isTrue(normalizeType(columnType) == columnType, "unsupported key column type " + columnType);
+        Validate.isTrue(lower != null || upper != null, "at least one bound is required");
+        this.columnType = columnType;
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    /**
+     * Maps a JDBC column type to the type the range binds its bounds with.
+     *
+     * @param jdbcType JDBC column type, see {@link Types}.
+     * @return the bound type, {@link Types#OTHER} when the column can't be used as a keyset key.
+     */
+    public static int normalizeType(final int jdbcType)
+    {
+        switch (jdbcType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return Types.BIGINT;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return Types.DECIMAL;
+            case Types.CHAR:
+            case Types.NCHAR:
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+                return Types.VARCHAR;
+            case Types.DATE:
+                return Types.DATE;
+            case Types.TIMESTAMP:
+                return Types.TIMESTAMP;
+            default:
+                return Types.OTHER;
+        }
+    }
+
+    /**
+     * @param partitionValue partition or split property value.
+     * @return true if the value was produced by {@link #encode()}.
+     */
+    public static boolean isKeysetRange(final String partitionValue)
+    {
+        return partitionValue != null && partitionValue.startsWith(PREFIX);
+    }
+
+    /**
+     * @return the range as a single string that fits into a VARCHAR partition column.
+     */
+    public String encode()
+    {
+        StringBuilder encoded = new StringBuilder(PREFIX)
+                .append(COLUMN).append('=').append(urlEncode(columnName))
+                .append('&').append(TYPE).append('=').append(columnType);
+        if (lower != null) {
+            encoded.append('&').append(LOWER).append('=').append(urlEncode(lower));
+        }
+        if (upper != null) {
+            encoded.append('&').append(UPPER).append('=').append(urlEncode(upper));
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * @param partitionValue value produced by {@link #encode()}.
+     * @return the decoded range.
+     */
+    public static KeysetRange decode(final String partitionValue)
+    {
+        Validate.isTrue(isKeysetRange(partitionValue), "not a keyset range: " + partitionValue);
+        Map<String, String> parts = new HashMap<>();
+        for (String part : partitionValue.substring(PREFIX.length()).split("&")) {
+            int separator = part.indexOf('=');
+            Validate.isTrue(separator > 0, "malformed keyset range: " + partitionValue);
+            parts.put(part.substring(0, separator), URLDecoder.decode(part.substring(separator + 1), StandardCharsets.UTF_8));
+        }
+        Validate.isTrue(parts.containsKey(COLUMN) && parts.containsKey(TYPE), "malformed keyset range: " + partitionValue);
+        return new KeysetRange(parts.get(COLUMN), Integer.parseInt(parts.get(TYPE)), parts.get(LOWER), parts.get(UPPER));
+    }
+
+    /**
+     * @param quotedColumnName key column name quoted for the target database.
+     * @return SQL predicate with one parameter per bound, bind them with {@link #bind(PreparedStatement, int)}.
+     */
+    public String toClause(final String quotedColumnName)
+    {
+        if (lower == null) {
+            return String.format("(%s < ? OR %s IS NULL)", quotedColumnName, quotedColumnName);
+        }
+        if (upper == null) {
+            return String.format("(%s >= ?)", quotedColumnName);
+        }
+        return String.format("(%s >= ? AND %s < ?)", quotedColumnName, quotedColumnName);
+    }
+
+    /**
+     * Binds the bounds of the clause returned by {@link #toClause(String)}.
+     *
+     * @param statement statement to bind.
+     * @param parameterIndex index of the first bound parameter.
+     * @return index of the parameter following the bounds.
+     * @throws SQLException JDBC database exception.
+     */
+    public int bind(final PreparedStatement statement, final int parameterIndex)
+            throws SQLException
+    {
+        int index = parameterIndex;
+        if (lower != null) {
+            bindValue(statement, index++, lower);
+        }
+        if (upper != null) {
+            bindValue(statement, index++, upper);
+        }
+        return index;
+    }
+
+    private void bindValue(final PreparedStatement statement, final int index, final String value)
+            throws SQLException
+    {
+        switch (columnType) {
+            case Types.BIGINT:
+                statement.setLong(index, Long.parseLong(value));
+                break;
+            case Types.DECIMAL:
+                statement.setBigDecimal(index, new BigDecimal(value));
+                break;
+            case Types.DATE:
+                statement.setDate(index, Date.valueOf(LocalDate.parse(value)));
+                break;
+            case Types.TIMESTAMP:
+                statement.setTimestamp(index, Timestamp.valueOf(LocalDateTime.parse(value)));
+                break;
+            default:
+                statement.setString(index, value);
+        }
+    }
+
+    private static String urlEncode(final String value)
+    {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    public String getColumnName()
+    {
+        return columnName;
+    }
+
+    public int getColumnType()
+    {
+        return columnType;
+    }
+
+    public String getLower()
+    {
+        return lower;
+    }
+
+    public String getUpper()
+    {
+        return upper;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        KeysetRange that = (KeysetRange) o;
+        return columnType == that.columnType &&
+                Objects.equals(columnName, that.columnName) &&
+                Objects.equals(lower, that.lower) &&
+                Objects.equals(upper, that.upper);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(columnName, columnType, lower, upper);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "KeysetRange{" +
+                "columnName='" + columnName + '\'' +
+                ", columnType=" + columnType +
+                ", lower='" + lower + '\'' +
+                ", upper='" + upper + '\'' +
+                '}';
+    }
+}
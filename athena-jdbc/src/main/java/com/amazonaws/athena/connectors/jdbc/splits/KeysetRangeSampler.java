@@ -0,0 +1,129 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Turns the ordered key values returned by a boundary query into contiguous {@link KeysetRange}s. The boundary query
+ * may return exact quantiles (one row per range) or a sorted sample of the key; boundaries are picked at evenly spaced
+ * positions of whatever it returns.
+ */
+public class KeysetRangeSampler
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeysetRangeSampler.class);
+
+    /**
+     * @param connection JDBC connection.
+     * @param boundaryQuery query returning non-null values of the key column in ascending order, see
+     * {@link com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder#buildKeysetBoundaryQuery}.
+     * @param columnName key column name.
+     * @param numRanges wanted number of ranges.
+     * @return ranges covering the whole key domain including nulls, empty if the key type is not supported or fewer
+     * than two ranges could be formed.
+     * @throws SQLException JDBC database exception.
+     */
+    public List<KeysetRange> sample(final Connection connection, final String boundaryQuery, final String columnName, final int numRanges)
+            throws SQLException
+    {
+        Validate.notBlank(boundaryQuery, "boundaryQuery must not be blank");
+        if (numRanges < 2) {
+            return Collections.emptyList();
+        }
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(boundaryQuery)) {
+            int columnType = KeysetRange.normalizeType(resultSet.getMetaData().getColumnType(1));
+            if (columnType == Types.OTHER) {
+                LOGGER.info("Key column {} has an unsupported type for keyset splits", columnName);
+                return Collections.emptyList();
+            }
+            List<String> values = new ArrayList<>();
+            while (resultSet.next()) {
+                String value = readValue(resultSet, 1, columnType);
+                if (value != null) {
+                    values.add(value);
+                }
+            }
+            return toRanges(columnName, columnType, values, numRanges);
+        }
+    }
+
+    static List<KeysetRange> toRanges(final String columnName, final int columnType, final List<String> values, final int numRanges)
+    {
+        List<String> boundaries = new ArrayList<>();
+        for (int i = 1; i < numRanges; i++) {
+            int position = (int) ((long) i * values.size() / numRanges);
+            if (position == 0 || position >= values.size()) {
+                continue;
+            }
+            String boundary = values.get(position);
+            if (boundaries.isEmpty() || !boundaries.get(boundaries.size() - 1).equals(boundary)) {
+                boundaries.add(boundary);
+            }
+        }
+        if (boundaries.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<KeysetRange> ranges = new ArrayList<>(boundaries.size() + 1);
+        String lower = null;
+        for (String boundary : boundaries) {
+            ranges.add(new KeysetRange(columnName, columnType, lower, boundary));
+            lower = boundary;
+        }
+        ranges.add(new KeysetRange(columnName, columnType, lower, null));
+        return ranges;
+    }
+
+    static String readValue(final ResultSet resultSet, final int columnIndex, final int columnType)
+            throws SQLException
+    {
+        switch (columnType) {
+            case Types.BIGINT:
+                long longValue = resultSet.getLong(columnIndex);
+                return resultSet.wasNull() ? null : String.valueOf(longValue);
+            case Types.DECIMAL:
+                BigDecimal decimal = resultSet.getBigDecimal(columnIndex);
+                return decimal == null ? null : decimal.toPlainString();
+            case Types.DATE:
+                Date date = resultSet.getDate(columnIndex);
+                return date == null ? null : date.toLocalDate().toString();
+            case Types.TIMESTAMP:
+                Timestamp timestamp = resultSet.getTimestamp(columnIndex);
+                return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+            default:
+                return resultSet.getString(columnIndex);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Marker;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.commons.lang3.Validate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Values a single database partition can hold, taken from the partition definition in the database catalog: either a
+ * range of its partitioning column or the list of values it was declared with. Used by getPartitions to drop the
+ * partitions the query's {@link Constraints} can't match before they become splits.
+ *
+ * Bounds are kept as text, numbers in their plain form and dates or timestamps in ISO form ('2020-01-31' or
+ * '2020-01-31 10:00:00'), and are only compared for numeric, DATEDAY and DATEMILLI columns. Anything that can't be
+ * compared, including string columns whose ordering depends on the database collation, is kept.
+ */
+public class PartitionBound
+{
+    private final String columnName;
+    private final String lower;
+    private final boolean lowerInclusive;
+    private final String upper;
+    private final boolean upperInclusive;
+    private final List<String> values;
+
+    private PartitionBound(final String columnName, final String lower, final boolean lowerInclusive, final String upper,
+            final boolean upperInclusive, final List<String> values)
+    {
+        this.columnName = Validate.notBlank(columnName, "columnName must not be blank");
+        this.lower = lower;
+        this.lowerInclusive = lowerInclusive;
+        this.upper = upper;
+        this.upperInclusive = upperInclusive;
+        this.values = values;
+    }
+
+    /**
+     * @param columnName database partitioning column name.
+     * @param lower lower bound, null when unbounded.
+     * @param lowerInclusive true if the partition holds the lower bound.
+     * @param upper upper bound, null when unbounded.
+     * @param upperInclusive true if the partition holds the upper bound.
+     * @return range partition bound.
+     */
+    public static PartitionBound range(final String columnName, final String lower, final boolean lowerInclusive,
+            final String upper, final boolean upperInclusive)
+    {
+        return new PartitionBound(columnName, lower, lowerInclusive, upper, upperInclusive, null);
+    }
+
+    /**
+     * @param columnName database partitioning column name.
+     * @param values non-null values the partition was declared with.
+     * @return list partition bound.
+     */
+    public static PartitionBound list(final String columnName, final List<String> values)
+    {
+        Validate.notNull(values, "values must not be null");
+        return new PartitionBound(columnName, null, false, null, false, Collections.unmodifiableList(new ArrayList<>(values)));
+    }
+
+    /**
+     * @param constraints query constraints.
+     * @return true if the constraints restrict any column, only then is it worth reading partition bounds.
+     */
+    public static boolean canPrune(final Constraints constraints)
+    {
+        return constraints != null && constraints.getSummary() != null && !constraints.getSummary().isEmpty();
+    }
+
+    /**
+     * @param constraints query constraints.
+     * @return false only if no row of the partition can satisfy the constraints on its partitioning column.
+     */
+    public boolean mayMatch(final Constraints constraints)
+    {
+        ValueSet valueSet = findValueSet(constraints);
+        if (!(valueSet instanceof SortedRangeSet) || valueSet.isNullAllowed()) {
+            return true;
+        }
+        ArrowType type = valueSet.getType();
+        if (!isComparable(type)) {
+            return true;
+        }
+        try {
+            for (Range range : ((SortedRangeSet) valueSet).getOrderedRanges()) {
+                if (values == null) {
+                    if (overlaps(type, range, lower, lowerInclusive, upper, upperInclusive)) {
+                        return true;
+                    }
+                }
+                else {
+                    for (String value : values) {
+                        if (overlaps(type, range, value, true, value, true)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        catch (NumberFormatException | DateTimeParseException | ClassCastException ex) {
+            return true;
+        }
+        return false;
+    }
+
+    private ValueSet findValueSet(final Constraints constraints)
+    {
+        if (!canPrune(constraints)) {
+            return null;
+        }
+        Map<String, ValueSet> summary = constraints.getSummary();
+        ValueSet valueSet = summary.get(columnName);
+        if (valueSet != null) {
+            return valueSet;
+        }
+        for (Map.Entry<String, ValueSet> entry : summary.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(columnName)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isComparable(final ArrowType type)
+    {
+        switch (Types.getMinorTypeForArrowType(type)) {
+            case TINYINT:
+            case SMALLINT:
+            case INT:
+            case BIGINT:
+            case FLOAT4:
+            case FLOAT8:
+            case DECIMAL:
+            case DATEDAY:
+            case DATEMILLI:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean overlaps(final ArrowType type, final Range range, final String partitionLow, final boolean partitionLowInclusive,
+            final String partitionHigh, final boolean partitionHighInclusive)
+    {
+        Marker high = range.getHigh();
+        if (partitionLow != null && !high.isUpperUnbounded()) {
+            int compare = toComparable(type, high.getValue()).compareTo(parse(type, partitionLow));
+            if (compare < 0 || (compare == 0 && (high.getBound() == Marker.Bound.BELOW || !partitionLowInclusive))) {
+                return false;
+            }
+        }
+        Marker low = range.getLow();
+        if (partitionHigh != null && !low.isLowerUnbounded()) {
+            int compare = toComparable(type, low.getValue()).compareTo(parse(type, partitionHigh));
+            if (compare > 0 || (compare == 0 && (low.getBound() == Marker.Bound.ABOVE || !partitionHighInclusive))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> toComparable(final ArrowType type, final Object value)
+    {
+        switch (Types.getMinorTypeForArrowType(type)) {
+            case DATEDAY:
+                return (Comparable) LocalDate.ofEpochDay(((Number) value).longValue()).atStartOfDay();
+            case DATEMILLI:
+                return (Comparable) value;
+            default:
+                return (Comparable) (value instanceof BigDecimal ? value : new BigDecimal(String.valueOf(value)));
+        }
+    }
+
+    private static Object parse(final ArrowType type, final String text)
+    {
+        switch (Types.getMinorTypeForArrowType(type)) {
+            case DATEDAY:
+            case DATEMILLI:
+                String trimmed = text.trim();
+                if (trimmed.length() <= 10) {
+                    return LocalDate.parse(trimmed).atStartOfDay();
+                }
+                return LocalDateTime.parse(trimmed.replace(' ', 'T'));
+            default:
+                return new BigDecimal(text.trim());
+        }
+    }
+
+    /**
+     * Splits the text of a catalog literal list such as "1, 2" or "'a', TO_DATE('2020-01-01', 'YYYY-MM-DD')" on the
+     * commas that are neither quoted nor nested in parentheses.
+     *
+     * @param text literal list.
+     * @return trimmed literals.
+     */
+    public static List<String> splitLiterals(final String text)
+    {
+        List<String> literals = new ArrayList<>();
+        int depth = 0;
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            else if (!quoted && c == '(') {
+                depth++;
+            }
+            else if (!quoted && c == ')') {
+                depth--;
+            }
+            else if (!quoted && depth == 0 && c == ',') {
+                literals.add(text.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        literals.add(text.substring(start).trim());
+        return literals;
+    }
+
+    /**
+     * @param literal SQL literal.
+     * @return the literal without its single quotes, unchanged if it isn't quoted.
+     */
+    public static String unquote(final String literal)
+    {
+        if (literal.length() >= 2 && literal.startsWith("'") && literal.endsWith("'")) {
+            return literal.substring(1, literal.length() - 1).replace("''", "'");
+        }
+        return literal;
+    }
+
+    public String getColumnName()
+    {
+        return columnName;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PartitionBound that = (PartitionBound) o;
+        return lowerInclusive == that.lowerInclusive &&
+                upperInclusive == that.upperInclusive &&
+                Objects.equals(columnName, that.columnName) &&
+                Objects.equals(lower, that.lower) &&
+                Objects.equals(upper, that.upper) &&
+                Objects.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(columnName, lower, lowerInclusive, upper, upperInclusive, values);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PartitionBound{" +
+                "columnName='" + columnName + '\'' +
+                ", lower='" + lower + '\'' +
+                ", lowerInclusive=" + lowerInclusive +
+                ", upper='" + upper + '\'' +
+                ", upperInclusive=" + upperInclusive +
+                ", values=" + values +
+                '}';
+    }
+}
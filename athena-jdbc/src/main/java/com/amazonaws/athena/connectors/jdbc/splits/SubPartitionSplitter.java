@@ -0,0 +1,229 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fans a database partition, or a whole unpartitioned table, that holds too many rows for a single split out across
+ * several splits. Whole tables are cut into equal width {@link KeysetRange}s between the lowest and highest key, which
+ * only costs a MIN/MAX lookup. Partitions, whose keys may cover a small slice of the key domain, and keys that can't be
+ * interpolated are cut into {@link HashBucket}s instead.
+ *
+ * The number of splits follows the row count estimate of the partition, one split per rowspersplit rows (environment
+ * variable, 5 million rows by default) and at most 64 splits per partition.
+ */
+public class SubPartitionSplitter
+{
+    /**
+     * Split property carrying the encoded key range or hash bucket of a sub-partition.
+     */
+    public static final String SUB_PARTITION_PROPERTY = "sub_partition";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubPartitionSplitter.class);
+    private static final String ROWS_PER_SPLIT_ENV = "rowspersplit";
+    private static final long DEFAULT_ROWS_PER_SPLIT = 5_000_000L;
+    private static final int DEFAULT_MAX_SUB_PARTITIONS = 64;
+
+    private final long rowsPerSplit;
+    private final int maxSubPartitions;
+
+    public SubPartitionSplitter()
+    {
+        this(rowsPerSplitFromEnv(), DEFAULT_MAX_SUB_PARTITIONS);
+    }
+
+    /**
+     * @param rowsPerSplit wanted number of rows per split.
+     * @param maxSubPartitions maximum number of splits a single partition is cut into.
+     */
+    public SubPartitionSplitter(final long rowsPerSplit, final int maxSubPartitions)
+    {
+        Validate.isTrue(rowsPerSplit > 0, "rowsPerSplit must be positive");
+        Validate.isTrue(maxSubPartitions > 0, "maxSubPartitions must be positive");
+        this.rowsPerSplit = rowsPerSplit;
+        this.maxSubPartitions = maxSubPartitions;
+    }
+
+    private static long rowsPerSplitFromEnv()
+    {
+        String rowsPerSplit = System.getenv().get(ROWS_PER_SPLIT_ENV);
+        if (StringUtils.isBlank(rowsPerSplit)) {
+            return DEFAULT_ROWS_PER_SPLIT;
+        }
+        try {
+            return Long.parseLong(rowsPerSplit.trim());
+        }
+        catch (NumberFormatException ex) {
+            LOGGER.warn("Ignoring invalid {} value {}", ROWS_PER_SPLIT_ENV, rowsPerSplit);
+            return DEFAULT_ROWS_PER_SPLIT;
+        }
+    }
+
+    /**
+     * @param estimatedRows row count estimate of the partition, negative when unknown.
+     * @return number of splits the partition should be cut into, 1 if it fits into a single split.
+     */
+    public int getSubPartitionCount(final long estimatedRows)
+    {
+        if (estimatedRows <= rowsPerSplit) {
+            return 1;
+        }
+        long count = estimatedRows / rowsPerSplit + (estimatedRows % rowsPerSplit == 0 ? 0 : 1);
+        return (int) Math.min(count, maxSubPartitions);
+    }
+
+    /**
+     * Cuts the key domain into equal width ranges between the lowest and highest key.
+     *
+     * @param connection JDBC connection.
+     * @param minMaxQuery query returning the lowest and highest non-null key in a single row, see
+     * {@link com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder#buildMinMaxQuery}.
+     * @param columnName key column name.
+     * @param count wanted number of ranges.
+     * @return ranges covering the whole key domain including nulls, empty if the key can't be interpolated or the
+     * domain is too narrow for two ranges.
+     * @throws SQLException JDBC database exception.
+     */
+    public List<KeysetRange> getKeyRanges(final Connection connection, final String minMaxQuery, final String columnName, final int count)
+            throws SQLException
+    {
+        Validate.notBlank(minMaxQuery, "minMaxQuery must not be blank");
+        if (count < 2) {
+            return Collections.emptyList();
+        }
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(minMaxQuery)) {
+            int columnType = KeysetRange.normalizeType(resultSet.getMetaData().getColumnType(1));
+            if (!resultSet.next()) {
+                return Collections.emptyList();
+            }
+            String min = KeysetRangeSampler.readValue(resultSet, 1, columnType);
+            String max = KeysetRangeSampler.readValue(resultSet, 2, columnType);
+            return toKeyRanges(columnName, columnType, min, max, count);
+        }
+    }
+
+    static List<KeysetRange> toKeyRanges(final String columnName, final int columnType, final String min, final String max, final int count)
+    {
+        if (min == null || max == null || !isInterpolable(columnType)) {
+            return Collections.emptyList();
+        }
+        BigDecimal low = toNumber(columnType, min);
+        BigDecimal high = toNumber(columnType, max);
+        int scale = columnType == Types.DECIMAL ? Math.max(low.scale(), high.scale()) : 0;
+        BigDecimal width = high.subtract(low);
+
+        List<String> boundaries = new ArrayList<>();
+        BigDecimal previous = low;
+        for (int i = 1; i < count; i++) {
+            BigDecimal boundary = low.add(width.multiply(BigDecimal.valueOf(i)).divide(BigDecimal.valueOf(count), scale, RoundingMode.FLOOR));
+            if (boundary.compareTo(previous) > 0 && boundary.compareTo(high) <= 0) {
+                boundaries.add(fromNumber(columnType, boundary));
+                previous = boundary;
+            }
+        }
+        if (boundaries.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<KeysetRange> ranges = new ArrayList<>(boundaries.size() + 1);
+        String lower = null;
+        for (String boundary : boundaries) {
+            ranges.add(new KeysetRange(columnName, columnType, lower, boundary));
+            lower = boundary;
+        }
+        ranges.add(new KeysetRange(columnName, columnType, lower, null));
+        return ranges;
+    }
+
+    /**
+     * @param columnName key column name.
+     * @param columnType JDBC type of the key column.
+     * @param count number of buckets.
+     * @return all buckets of the key, empty if fewer than two are wanted.
+     */
+    public List<HashBucket> getHashBuckets(final String columnName, final int columnType, final int count)
+    {
+        if (count < 2) {
+            return Collections.emptyList();
+        }
+        List<HashBucket> buckets = new ArrayList<>(count);
+        for (int bucket = 0; bucket < count; bucket++) {
+            buckets.add(new HashBucket(columnName, columnType, bucket, count));
+        }
+        return buckets;
+    }
+
+    private static boolean isInterpolable(final int columnType)
+    {
+        switch (columnType) {
+            case Types.BIGINT:
+            case Types.DECIMAL:
+            case Types.DATE:
+            case Types.TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static BigDecimal toNumber(final int columnType, final String value)
+    {
+        switch (columnType) {
+            case Types.DATE:
+                return BigDecimal.valueOf(LocalDate.parse(value).toEpochDay());
+            case Types.TIMESTAMP:
+                return BigDecimal.valueOf(LocalDateTime.parse(value).toInstant(ZoneOffset.UTC).toEpochMilli());
+            default:
+                return new BigDecimal(value);
+        }
+    }
+
+    private static String fromNumber(final int columnType, final BigDecimal value)
+    {
+        switch (columnType) {
+            case Types.DATE:
+                return LocalDate.ofEpochDay(value.longValueExact()).toString();
+            case Types.TIMESTAMP:
+                return LocalDateTime.ofEpochSecond(Math.floorDiv(value.longValueExact(), 1000L),
+                        (int) Math.floorMod(value.longValueExact(), 1000L) * 1_000_000, ZoneOffset.UTC).toString();
+            default:
+                return value.toPlainString();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.manager;
+
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class FetchSizePolicyTest
+{
+    private static final Schema NARROW_SCHEMA = SchemaBuilder.newBuilder()
+            .addIntField("id")
+            .addBitField("flag")
+            .build();
+
+    @Test
+    public void getFetchSizeFromSchema()
+    {
+        FetchSizePolicy fetchSizePolicy = new FetchSizePolicy(FetchSizePolicy.Dialect.DEFAULT, 64_000, 0);
+
+        // 12 bytes for the int and 9 for the bit.
+        Assert.assertEquals(21, FetchSizePolicy.estimateRowBytes(NARROW_SCHEMA));
+        Assert.assertEquals(64_000 / 21, fetchSizePolicy.getFetchSize(NARROW_SCHEMA));
+
+        SchemaBuilder wideSchemaBuilder = SchemaBuilder.newBuilder();
+        for (int i = 0; i < 100; i++) {
+            wideSchemaBuilder.addStringField("col" + i);
+        }
+        Schema wideSchema = wideSchemaBuilder.build();
+        Assert.assertEquals(100 * 72, FetchSizePolicy.estimateRowBytes(wideSchema));
+        Assert.assertTrue(fetchSizePolicy.getFetchSize(NARROW_SCHEMA) > fetchSizePolicy.getFetchSize(wideSchema));
+    }
+
+    @Test
+    public void getFetchSizeClamped()
+    {
+        Schema wideSchema = SchemaBuilder.newBuilder().addStringField("name").build();
+        Assert.assertEquals(FetchSizePolicy.MIN_FETCH_SIZE,
+                new FetchSizePolicy(FetchSizePolicy.Dialect.DEFAULT, 1_000, 0).getFetchSize(wideSchema));
+        Assert.assertEquals(FetchSizePolicy.MAX_FETCH_SIZE,
+                new FetchSizePolicy(FetchSizePolicy.Dialect.DEFAULT, FetchSizePolicy.DEFAULT_TARGET_BYTES * 1_000, 0).getFetchSize(NARROW_SCHEMA));
+        Assert.assertEquals(FetchSizePolicy.MIN_FETCH_SIZE,
+                new FetchSizePolicy(FetchSizePolicy.Dialect.DEFAULT, 50, 0).getFetchSize(SchemaBuilder.newBuilder().build()));
+    }
+
+    @Test
+    public void getFetchSizeFixed()
+    {
+        Assert.assertEquals(250, new FetchSizePolicy(FetchSizePolicy.Dialect.DEFAULT, FetchSizePolicy.DEFAULT_TARGET_BYTES, 250).getFetchSize(NARROW_SCHEMA));
+        Assert.assertEquals(250, new FetchSizePolicy(FetchSizePolicy.Dialect.CURSOR, FetchSizePolicy.DEFAULT_TARGET_BYTES, 250).getFetchSize(NARROW_SCHEMA));
+    }
+
+    @Test
+    public void getFetchSizeFixedIgnoredForRowStreaming()
+            throws SQLException
+    {
+        FetchSizePolicy fetchSizePolicy = new FetchSizePolicy(FetchSizePolicy.Dialect.ROW_STREAMING, FetchSizePolicy.DEFAULT_TARGET_BYTES, 250);
+        Assert.assertEquals(Integer.MIN_VALUE, fetchSizePolicy.getFetchSize(NARROW_SCHEMA));
+
+        PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(preparedStatement.getResultSetType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+        Mockito.when(preparedStatement.getResultSetConcurrency()).thenReturn(ResultSet.CONCUR_READ_ONLY);
+        fetchSizePolicy.prepareStatement(preparedStatement, NARROW_SCHEMA);
+        Mockito.verify(preparedStatement).setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Test
+    public void getFetchSizeRowStreaming()
+    {
+        Assert.assertEquals(Integer.MIN_VALUE,
+                new FetchSizePolicy(FetchSizePolicy.Dialect.ROW_STREAMING, FetchSizePolicy.DEFAULT_TARGET_BYTES, 0).getFetchSize(NARROW_SCHEMA));
+    }
+
+    @Test
+    public void prepareConnection()
+            throws SQLException
+    {
+        Connection connection = Mockito.mock(Connection.class);
+        new FetchSizePolicy(FetchSizePolicy.Dialect.DEFAULT, FetchSizePolicy.DEFAULT_TARGET_BYTES, 0).prepareConnection(connection);
+        Mockito.verify(connection).setAutoCommit(false);
+        Mockito.verify(connection, Mockito.never()).setReadOnly(Mockito.anyBoolean());
+
+        Connection cursorConnection = Mockito.mock(Connection.class);
+        new FetchSizePolicy(FetchSizePolicy.Dialect.CURSOR, FetchSizePolicy.DEFAULT_TARGET_BYTES, 0).prepareConnection(cursorConnection);
+        Mockito.verify(cursorConnection).setAutoCommit(false);
+        Mockito.verify(cursorConnection).setReadOnly(true);
+    }
+
+    @Test
+    public void prepareStatement()
+            throws SQLException
+    {
+        PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(preparedStatement.getResultSetType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+        Mockito.when(preparedStatement.getResultSetConcurrency()).thenReturn(ResultSet.CONCUR_READ_ONLY);
+
+        new FetchSizePolicy(FetchSizePolicy.Dialect.CURSOR, 64_000, 0).prepareStatement(preparedStatement, NARROW_SCHEMA);
+
+        Mockito.verify(preparedStatement).setFetchSize(64_000 / 21);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidTargetBytes()
+    {
+        new FetchSizePolicy(FetchSizePolicy.Dialect.DEFAULT, 0, 0);
+    }
+}
@@ -77,6 +77,7 @@ public class JdbcRecordHandlerTest
     private QueryStatusChecker queryStatusChecker;
     private FederatedIdentity federatedIdentity;
     private PreparedStatement preparedStatement;
+    private PreparedStatement releasedStatement;
 
     @Before
     public void setup()
@@ -102,6 +103,18 @@ public class JdbcRecordHandlerTest
             {
                 return jdbcConnection.prepareStatement("someSql");
             }
+
+            @Override
+            protected void releaseSplitSql(Connection jdbcConnection, PreparedStatement preparedStatement)
+            {
+                try {
+                    Mockito.verify(preparedStatement).close();
+                }
+                catch (SQLException ex) {
+                    throw new RuntimeException(ex);
+                }
+                releasedStatement = preparedStatement;
+            }
         };
         this.federatedIdentity = Mockito.mock(FederatedIdentity.class);
     }
@@ -151,6 +164,9 @@ public class JdbcRecordHandlerTest
         });
 
         this.jdbcRecordHandler.readWithConstraint(s3Spiller, readRecordsRequest, queryStatusChecker);
+
+        //The split's statement is released once it has been closed.
+        Assert.assertSame(this.preparedStatement, this.releasedStatement);
     }
     @Test
     public void makeExtractor()
@@ -0,0 +1,73 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+public class HashBucketTest
+{
+    @Test
+    public void encodeDecode()
+    {
+        HashBucket bucket = new HashBucket("order id&=", Types.VARCHAR, 3, 8);
+        String encoded = bucket.encode();
+        Assert.assertTrue(HashBucket.isHashBucket(encoded));
+        Assert.assertFalse(KeysetRange.isKeysetRange(encoded));
+        Assert.assertEquals(bucket, HashBucket.decode(encoded));
+
+        Assert.assertFalse(HashBucket.isHashBucket(new KeysetRange("id", Types.BIGINT, null, "1").encode()));
+        Assert.assertFalse(HashBucket.isHashBucket(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBucketOutOfRange()
+    {
+        new HashBucket("id", Types.BIGINT, 4, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSingleBucket()
+    {
+        new HashBucket("id", Types.BIGINT, 0, 1);
+    }
+
+    @Test
+    public void toClause()
+    {
+        Assert.assertEquals("(\"id\" IS NULL OR ABS(MOD(\"id\", 4)) = ?)", new HashBucket("id", Types.BIGINT, 0, 4).toClause("ABS(MOD(\"id\", 4))", "\"id\""));
+        Assert.assertEquals("(\"id\" IS NOT NULL AND ABS(MOD(\"id\", 4)) = ?)", new HashBucket("id", Types.BIGINT, 2, 4).toClause("ABS(MOD(\"id\", 4))", "\"id\""));
+    }
+
+    @Test
+    public void bind()
+            throws SQLException
+    {
+        PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+
+        Assert.assertEquals(4, new HashBucket("id", Types.BIGINT, 2, 4).bind(statement, 3));
+        Mockito.verify(statement).setInt(3, 2);
+    }
+}
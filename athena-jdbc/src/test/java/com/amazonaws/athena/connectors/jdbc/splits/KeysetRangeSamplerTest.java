@@ -0,0 +1,89 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import com.amazonaws.athena.connectors.jdbc.TestBase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class KeysetRangeSamplerTest
+        extends TestBase
+{
+    private static final String BOUNDARY_QUERY = "SELECT name FROM t ORDER BY name";
+
+    @Test
+    public void sample()
+            throws SQLException
+    {
+        Connection connection = Mockito.mock(Connection.class, Mockito.RETURNS_DEEP_STUBS);
+        ResultSet resultSet = mockResultSet(new String[] {"name"}, new int[] {Types.NVARCHAR},
+                new Object[][] {{"a"}, {"b"}, {"c"}, {"d"}, {"e"}, {"f"}}, new AtomicInteger(-1));
+        Mockito.when(resultSet.getString(1)).thenReturn("a", "b", "c", "d", "e", "f");
+        Mockito.when(connection.createStatement().executeQuery(BOUNDARY_QUERY)).thenReturn(resultSet);
+
+        List<KeysetRange> ranges = new KeysetRangeSampler().sample(connection, BOUNDARY_QUERY, "name", 3);
+
+        Assert.assertEquals(Arrays.asList(
+                new KeysetRange("name", Types.VARCHAR, null, "c"),
+                new KeysetRange("name", Types.VARCHAR, "c", "e"),
+                new KeysetRange("name", Types.VARCHAR, "e", null)), ranges);
+    }
+
+    @Test
+    public void sampleUnsupportedType()
+            throws SQLException
+    {
+        Connection connection = Mockito.mock(Connection.class, Mockito.RETURNS_DEEP_STUBS);
+        ResultSet resultSet = mockResultSet(new String[] {"score"}, new int[] {Types.DOUBLE},
+                new Object[][] {{1.0d}, {2.0d}}, new AtomicInteger(-1));
+        Mockito.when(connection.createStatement().executeQuery(BOUNDARY_QUERY)).thenReturn(resultSet);
+
+        Assert.assertEquals(Collections.emptyList(), new KeysetRangeSampler().sample(connection, BOUNDARY_QUERY, "score", 2));
+    }
+
+    @Test
+    public void toRangesSkipsDuplicateBoundaries()
+    {
+        List<String> values = Arrays.asList("1", "1", "1", "1", "1", "1", "7", "9");
+
+        Assert.assertEquals(Arrays.asList(
+                new KeysetRange("id", Types.BIGINT, null, "1"),
+                new KeysetRange("id", Types.BIGINT, "1", "7"),
+                new KeysetRange("id", Types.BIGINT, "7", null)),
+                KeysetRangeSampler.toRanges("id", Types.BIGINT, values, 4));
+    }
+
+    @Test
+    public void toRangesNeedsTwoRanges()
+    {
+        Assert.assertEquals(Collections.emptyList(), KeysetRangeSampler.toRanges("id", Types.BIGINT, Collections.singletonList("1"), 4));
+        Assert.assertEquals(Collections.emptyList(), KeysetRangeSampler.toRanges("id", Types.BIGINT, Collections.emptyList(), 4));
+    }
+}
@@ -0,0 +1,96 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class KeysetRangeTest
+{
+    @Test
+    public void encodeDecode()
+    {
+        KeysetRange range = new KeysetRange("order id", Types.VARCHAR, "a&b=c", "keyset:-%");
+        String encoded = range.encode();
+        Assert.assertTrue(KeysetRange.isKeysetRange(encoded));
+        Assert.assertEquals(range, KeysetRange.decode(encoded));
+
+        KeysetRange first = new KeysetRange("id", Types.BIGINT, null, "100");
+        Assert.assertEquals(first, KeysetRange.decode(first.encode()));
+        KeysetRange last = new KeysetRange("id", Types.BIGINT, "100", null);
+        Assert.assertEquals(last, KeysetRange.decode(last.encode()));
+
+        Assert.assertFalse(KeysetRange.isKeysetRange("partition-limit-10-offset-0"));
+        Assert.assertFalse(KeysetRange.isKeysetRange(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnboundedRange()
+    {
+        new KeysetRange("id", Types.BIGINT, null, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnsupportedType()
+    {
+        new KeysetRange("id", Types.DOUBLE, "1", null);
+    }
+
+    @Test
+    public void toClause()
+    {
+        Assert.assertEquals("(\"id\" < ? OR \"id\" IS NULL)", new KeysetRange("id", Types.BIGINT, null, "10").toClause("\"id\""));
+        Assert.assertEquals("(\"id\" >= ? AND \"id\" < ?)", new KeysetRange("id", Types.BIGINT, "10", "20").toClause("\"id\""));
+        Assert.assertEquals("(\"id\" >= ?)", new KeysetRange("id", Types.BIGINT, "20", null).toClause("\"id\""));
+    }
+
+    @Test
+    public void bind()
+            throws SQLException
+    {
+        PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+
+        Assert.assertEquals(5, new KeysetRange("id", Types.BIGINT, "10", "20").bind(statement, 3));
+        Mockito.verify(statement).setLong(3, 10L);
+        Mockito.verify(statement).setLong(4, 20L);
+
+        Assert.assertEquals(2, new KeysetRange("amount", Types.DECIMAL, null, "12.50").bind(statement, 1));
+        Mockito.verify(statement).setBigDecimal(1, new BigDecimal("12.50"));
+
+        Assert.assertEquals(2, new KeysetRange("day", Types.DATE, "2020-02-29", null).bind(statement, 1));
+        Mockito.verify(statement).setDate(1, Date.valueOf(LocalDate.of(2020, 2, 29)));
+
+        Assert.assertEquals(2, new KeysetRange("ts", Types.TIMESTAMP, "2020-02-29T10:15:30.123", null).bind(statement, 1));
+        Mockito.verify(statement).setTimestamp(1, Timestamp.valueOf(LocalDateTime.of(2020, 2, 29, 10, 15, 30, 123_000_000)));
+
+        Assert.assertEquals(2, new KeysetRange("name", Types.VARCHAR, "m", null).bind(statement, 1));
+        Mockito.verify(statement).setString(1, "m");
+    }
+}
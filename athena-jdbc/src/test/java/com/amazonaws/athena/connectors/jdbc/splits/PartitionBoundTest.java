@@ -0,0 +1,137 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PartitionBoundTest
+{
+    private static final ArrowType BIGINT = Types.MinorType.BIGINT.getType();
+    private static final ArrowType DATEDAY = Types.MinorType.DATEDAY.getType();
+
+    private BlockAllocator allocator;
+
+    @Before
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void rangeBound()
+    {
+        PartitionBound bound = PartitionBound.range("ID", "100", true, "200", false);
+
+        Assert.assertTrue(bound.mayMatch(constraints("id", Range.equal(allocator, BIGINT, 100L))));
+        Assert.assertTrue(bound.mayMatch(constraints("id", Range.greaterThan(allocator, BIGINT, 199L))));
+        Assert.assertTrue(bound.mayMatch(constraints("id", Range.lessThanOrEqual(allocator, BIGINT, 100L))));
+        Assert.assertFalse(bound.mayMatch(constraints("id", Range.greaterThanOrEqual(allocator, BIGINT, 200L))));
+        Assert.assertFalse(bound.mayMatch(constraints("id", Range.lessThan(allocator, BIGINT, 100L))));
+        Assert.assertFalse(bound.mayMatch(constraints("id", Range.equal(allocator, BIGINT, 50L), Range.equal(allocator, BIGINT, 250L))));
+    }
+
+    @Test
+    public void unboundedRange()
+    {
+        PartitionBound first = PartitionBound.range("id", null, false, "100", false);
+        Assert.assertTrue(first.mayMatch(constraints("id", Range.equal(allocator, BIGINT, -5L))));
+        Assert.assertFalse(first.mayMatch(constraints("id", Range.equal(allocator, BIGINT, 100L))));
+
+        PartitionBound last = PartitionBound.range("id", "100", false, null, false);
+        Assert.assertFalse(last.mayMatch(constraints("id", Range.equal(allocator, BIGINT, 100L))));
+        Assert.assertTrue(last.mayMatch(constraints("id", Range.equal(allocator, BIGINT, 101L))));
+    }
+
+    @Test
+    public void dateRange()
+    {
+        PartitionBound bound = PartitionBound.range("day", "2020-01-01 00:00:00", true, "2020-01-02", false);
+        int day = (int) LocalDate.of(2020, 1, 1).toEpochDay();
+
+        Assert.assertTrue(bound.mayMatch(constraints("day", Range.equal(allocator, DATEDAY, day))));
+        Assert.assertFalse(bound.mayMatch(constraints("day", Range.equal(allocator, DATEDAY, day + 1))));
+        Assert.assertFalse(bound.mayMatch(constraints("day", Range.lessThan(allocator, DATEDAY, day))));
+    }
+
+    @Test
+    public void listBound()
+    {
+        PartitionBound bound = PartitionBound.list("region", Arrays.asList("1", "2"));
+
+        Assert.assertTrue(bound.mayMatch(constraints("region", Range.equal(allocator, BIGINT, 2L))));
+        Assert.assertTrue(bound.mayMatch(constraints("region", Range.range(allocator, BIGINT, 0L, true, 1L, true))));
+        Assert.assertFalse(bound.mayMatch(constraints("region", Range.equal(allocator, BIGINT, 3L))));
+        Assert.assertFalse(PartitionBound.list("region", Collections.emptyList())
+                .mayMatch(constraints("region", Range.equal(allocator, BIGINT, 3L))));
+    }
+
+    @Test
+    public void keepsWhatCantBeCompared()
+    {
+        PartitionBound bound = PartitionBound.range("id", "100", true, "200", false);
+
+        Assert.assertTrue(bound.mayMatch(new Constraints(Collections.emptyMap())));
+        Assert.assertTrue(bound.mayMatch(constraints("other", Range.equal(allocator, BIGINT, 1L))));
+        ValueSet withNulls = SortedRangeSet.of(true, Range.equal(allocator, BIGINT, 1L));
+        Assert.assertTrue(bound.mayMatch(new Constraints(ImmutableMap.of("id", withNulls))));
+        ValueSet varchar = SortedRangeSet.of(false, Range.equal(allocator, Types.MinorType.VARCHAR.getType(), "z"));
+        Assert.assertTrue(bound.mayMatch(new Constraints(ImmutableMap.of("id", varchar))));
+        Assert.assertTrue(PartitionBound.range("id", "TO_NUMBER(x)", true, null, false)
+                .mayMatch(constraints("id", Range.equal(allocator, BIGINT, 1L))));
+    }
+
+    @Test
+    public void splitLiterals()
+    {
+        Assert.assertEquals(ImmutableList.of("1", "2"), PartitionBound.splitLiterals("1,2"));
+        Assert.assertEquals(ImmutableList.of("'a,b'", "TO_DATE(' 2020-01-01', 'SYYYY-MM-DD')", "NULL"),
+                PartitionBound.splitLiterals("'a,b', TO_DATE(' 2020-01-01', 'SYYYY-MM-DD'), NULL"));
+        Assert.assertEquals("it's", PartitionBound.unquote("'it''s'"));
+        Assert.assertEquals("100", PartitionBound.unquote("100"));
+    }
+
+    private Constraints constraints(String column, Range first, Range... rest)
+    {
+        return new Constraints(ImmutableMap.of(column, SortedRangeSet.of(false, first, rest)));
+    }
+}
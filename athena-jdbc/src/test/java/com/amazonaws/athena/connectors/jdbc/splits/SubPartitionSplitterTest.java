@@ -0,0 +1,111 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import com.amazonaws.athena.connectors.jdbc.TestBase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SubPartitionSplitterTest
+        extends TestBase
+{
+    private static final String MIN_MAX_QUERY = "SELECT MIN(id), MAX(id) FROM t";
+
+    private final SubPartitionSplitter splitter = new SubPartitionSplitter(1000, 8);
+
+    @Test
+    public void getSubPartitionCount()
+    {
+        Assert.assertEquals(1, splitter.getSubPartitionCount(-1));
+        Assert.assertEquals(1, splitter.getSubPartitionCount(1000));
+        Assert.assertEquals(2, splitter.getSubPartitionCount(1001));
+        Assert.assertEquals(5, splitter.getSubPartitionCount(4500));
+        Assert.assertEquals(8, splitter.getSubPartitionCount(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void getKeyRanges()
+            throws SQLException
+    {
+        Connection connection = Mockito.mock(Connection.class, Mockito.RETURNS_DEEP_STUBS);
+        ResultSet resultSet = mockResultSet(new String[] {"min", "max"}, new int[] {Types.INTEGER, Types.INTEGER},
+                new Object[][] {{0, 100}}, new AtomicInteger(-1));
+        Mockito.when(resultSet.getLong(1)).thenReturn(0L);
+        Mockito.when(resultSet.getLong(2)).thenReturn(100L);
+        Mockito.when(connection.createStatement().executeQuery(MIN_MAX_QUERY)).thenReturn(resultSet);
+
+        List<KeysetRange> ranges = splitter.getKeyRanges(connection, MIN_MAX_QUERY, "id", 4);
+
+        Assert.assertEquals(Arrays.asList(
+                new KeysetRange("id", Types.BIGINT, null, "25"),
+                new KeysetRange("id", Types.BIGINT, "25", "50"),
+                new KeysetRange("id", Types.BIGINT, "50", "75"),
+                new KeysetRange("id", Types.BIGINT, "75", null)), ranges);
+    }
+
+    @Test
+    public void toKeyRangesInterpolatesDatesAndTimestamps()
+    {
+        Assert.assertEquals(Arrays.asList(
+                new KeysetRange("day", Types.DATE, null, "2020-01-16"),
+                new KeysetRange("day", Types.DATE, "2020-01-16", null)),
+                SubPartitionSplitter.toKeyRanges("day", Types.DATE, "2020-01-01", "2020-01-31", 2));
+        Assert.assertEquals(Arrays.asList(
+                new KeysetRange("ts", Types.TIMESTAMP, null, "2020-01-01T12:00"),
+                new KeysetRange("ts", Types.TIMESTAMP, "2020-01-01T12:00", null)),
+                SubPartitionSplitter.toKeyRanges("ts", Types.TIMESTAMP, "2020-01-01T00:00", "2020-01-02T00:00", 2));
+        Assert.assertEquals(Arrays.asList(
+                new KeysetRange("amount", Types.DECIMAL, null, "0.50"),
+                new KeysetRange("amount", Types.DECIMAL, "0.50", null)),
+                SubPartitionSplitter.toKeyRanges("amount", Types.DECIMAL, "0.00", "1.00", 2));
+    }
+
+    @Test
+    public void toKeyRangesNeedsAWideEnoughDomain()
+    {
+        Assert.assertEquals(Arrays.asList(
+                new KeysetRange("id", Types.BIGINT, null, "1"),
+                new KeysetRange("id", Types.BIGINT, "1", null)),
+                SubPartitionSplitter.toKeyRanges("id", Types.BIGINT, "0", "2", 8));
+        Assert.assertEquals(Collections.emptyList(), SubPartitionSplitter.toKeyRanges("id", Types.BIGINT, "5", "5", 8));
+        Assert.assertEquals(Collections.emptyList(), SubPartitionSplitter.toKeyRanges("id", Types.BIGINT, null, null, 8));
+        Assert.assertEquals(Collections.emptyList(), SubPartitionSplitter.toKeyRanges("name", Types.VARCHAR, "a", "z", 8));
+    }
+
+    @Test
+    public void getHashBuckets()
+    {
+        Assert.assertEquals(Arrays.asList(
+                new HashBucket("name", Types.VARCHAR, 0, 3),
+                new HashBucket("name", Types.VARCHAR, 1, 3),
+                new HashBucket("name", Types.VARCHAR, 2, 3)), splitter.getHashBuckets("name", Types.VARCHAR, 3));
+        Assert.assertEquals(Collections.emptyList(), splitter.getHashBuckets("name", Types.VARCHAR, 1));
+    }
+}
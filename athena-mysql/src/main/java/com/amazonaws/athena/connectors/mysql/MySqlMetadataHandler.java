@@ -25,7 +25,8 @@ import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockWriter;
 import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
-import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
 import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
@@ -36,6 +37,8 @@ import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcMetadataHandler;
 import com.amazonaws.athena.connectors.jdbc.manager.PreparedStatementBuilder;
+import com.amazonaws.athena.connectors.jdbc.splits.PartitionBound;
+import com.amazonaws.athena.connectors.jdbc.splits.SubPartitionSplitter;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.annotations.VisibleForTesting;
@@ -50,11 +53,16 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static com.amazonaws.athena.connectors.mysql.MySqlConstants.MYSQL_DEFAULT_PORT;
 import static com.amazonaws.athena.connectors.mysql.MySqlConstants.MYSQL_DRIVER_CLASS;
@@ -73,8 +81,15 @@ public class MySqlMetadataHandler
     static final String BLOCK_PARTITION_COLUMN_NAME = "partition_name";
     static final String ALL_PARTITIONS = "*";
     static final String PARTITION_COLUMN_NAME = "partition_name";
+    static final String GET_PARTITION_BOUNDS_QUERY = "SELECT partition_name, partition_method, partition_expression, partition_description " +
+            "FROM INFORMATION_SCHEMA.PARTITIONS WHERE TABLE_NAME = ? AND TABLE_SCHEMA = ? AND partition_name IS NOT NULL " +
+            "ORDER BY partition_ordinal_position, subpartition_ordinal_position";
+    static final String GET_PARTITION_ROW_COUNTS_QUERY = "SELECT COALESCE(partition_name, '" + ALL_PARTITIONS + "') AS partition_name, SUM(table_rows) AS table_rows " +
+            "FROM INFORMATION_SCHEMA.PARTITIONS WHERE TABLE_NAME = ? AND TABLE_SCHEMA = ? GROUP BY 1";
+    private static final Pattern SINGLE_COLUMN_EXPRESSION = Pattern.compile("^\\s*`?([^`,()\\s]+)`?\\s*$");
     private static final Logger LOGGER = LoggerFactory.getLogger(MySqlMetadataHandler.class);
     private static final int MAX_SPLITS_PER_REQUEST = 1000_000;
+    private final MySqlQueryStringBuilder queryBuilder = new MySqlQueryStringBuilder(MySqlRecordHandler.MYSQL_QUOTE_CHARACTER);
 
     /**
      * Instantiates handler to be used by Lambda function directly.
@@ -123,6 +138,7 @@ public class MySqlMetadataHandler
             final String escape = connection.getMetaData().getSearchStringEscape();
 
             List<String> parameters = Arrays.asList(getTableLayoutRequest.getTableName().getTableName(), getTableLayoutRequest.getTableName().getSchemaName());
+            Constraints constraints = getTableLayoutRequest.getConstraints();
             try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(GET_PARTITIONS_QUERY).withParameters(parameters).build();
                  ResultSet resultSet = preparedStatement.executeQuery()) {
                 // Return a single partition if no partitions defined
@@ -135,11 +151,17 @@ public class MySqlMetadataHandler
                     });
                 }
                 else {
+                    Map<String, PartitionBound> partitionBounds = PartitionBound.canPrune(constraints)
+                            ? getPartitionBounds(connection, parameters) : Collections.emptyMap();
                     do {
                         final String partitionName = resultSet.getString(PARTITION_COLUMN_NAME);
+                        PartitionBound partitionBound = partitionBounds.get(partitionName);
+                        if (partitionBound != null && !partitionBound.mayMatch(constraints)) {
+                            LOGGER.debug("Pruning partition {}", partitionName);
+                            continue;
+                        }
 
-                        // 1. Returns all partitions of table, we are not supporting constraints push down to filter partitions.
-                        // 2. This API is not paginated, we could use order by and limit clause with offsets here.
+                        // This API is not paginated, we could use order by and limit clause with offsets here.
                         blockWriter.writeRows((Block block, int rowNum) -> {
                             block.setValue(BLOCK_PARTITION_COLUMN_NAME, rowNum, partitionName);
                             LOGGER.info("Adding partition {}", partitionName);
@@ -156,6 +178,10 @@ public class MySqlMetadataHandler
         }
     }
 
+    /**
+     * Creates a split per partition. Partitions, or unpartitioned tables, whose INFORMATION_SCHEMA row estimate is
+     * larger than a single split should read are cut further into key ranges or MOD buckets of the primary key.
+     */
     @Override
     public GetSplitsResponse doGetSplits(
             final BlockAllocator blockAllocator, final GetSplitsRequest getSplitsRequest)
@@ -165,27 +191,125 @@ public class MySqlMetadataHandler
         Set<Split> splits = new HashSet<>();
         Block partitions = getSplitsRequest.getPartitions();
 
-        // TODO consider splitting further depending on #rows or data size. Could use Hash key for splitting if no partitions.
-        for (int curPartition = partitionContd; curPartition < partitions.getRowCount(); curPartition++) {
-            FieldReader locationReader = partitions.getFieldReader(BLOCK_PARTITION_COLUMN_NAME);
-            locationReader.setPosition(curPartition);
+        try (Connection connection = getJdbcConnectionFactory().getConnection(getCredentialProvider())) {
+            Map<String, Long> rowCounts = getPartitionRowCounts(connection, getSplitsRequest.getTableName());
+            for (int curPartition = partitionContd; curPartition < partitions.getRowCount(); curPartition++) {
+                FieldReader locationReader = partitions.getFieldReader(BLOCK_PARTITION_COLUMN_NAME);
+                locationReader.setPosition(curPartition);
+                String partitionName = String.valueOf(locationReader.readText());
 
-            SpillLocation spillLocation = makeSpillLocation(getSplitsRequest);
+                LOGGER.info("{}: Input partition is {}", getSplitsRequest.getQueryId(), partitionName);
 
-            LOGGER.info("{}: Input partition is {}", getSplitsRequest.getQueryId(), locationReader.readText());
+                List<String> subPartitions = rowCounts.containsKey(partitionName)
+                        ? getSubPartitions(connection, queryBuilder, getSplitsRequest.getTableName(), rowCounts.get(partitionName), ALL_PARTITIONS.equals(partitionName))
+                        : Collections.emptyList();
+                if (subPartitions.isEmpty()) {
+                    splits.add(Split.newBuilder(makeSpillLocation(getSplitsRequest), makeEncryptionKey())
+                            .add(BLOCK_PARTITION_COLUMN_NAME, partitionName)
+                            .build());
+                }
+                for (String subPartition : subPartitions) {
+                    splits.add(Split.newBuilder(makeSpillLocation(getSplitsRequest), makeEncryptionKey())
+                            .add(BLOCK_PARTITION_COLUMN_NAME, partitionName)
+                            .add(SubPartitionSplitter.SUB_PARTITION_PROPERTY, subPartition)
+                            .build());
+                }
 
-            Split.Builder splitBuilder = Split.newBuilder(spillLocation, makeEncryptionKey())
-                    .add(BLOCK_PARTITION_COLUMN_NAME, String.valueOf(locationReader.readText()));
+                if (splits.size() >= MAX_SPLITS_PER_REQUEST) {
+                    //We exceeded the number of split we want to return in a single request, return and provide a continuation token.
+                    return new GetSplitsResponse(getSplitsRequest.getCatalogName(), splits, encodeContinuationToken(curPartition + 1));
+                }
+            }
+        }
+        catch (SQLException sqlException) {
+            throw new RuntimeException(sqlException.getErrorCode() + ": " + sqlException.getMessage(), sqlException);
+        }
 
-            splits.add(splitBuilder.build());
+        return new GetSplitsResponse(getSplitsRequest.getCatalogName(), splits, null);
+    }
 
-            if (splits.size() >= MAX_SPLITS_PER_REQUEST) {
-                //We exceeded the number of split we want to return in a single request, return and provide a continuation token.
-                return new GetSplitsResponse(getSplitsRequest.getCatalogName(), splits, encodeContinuationToken(curPartition + 1));
+    /**
+     * Reads the row estimates INFORMATION_SCHEMA keeps per partition, the whole table's under {@link #ALL_PARTITIONS}.
+     * InnoDB estimates may be off by a factor of two, which is good enough to decide how far to cut a partition.
+     *
+     * @param connection JDBC connection.
+     * @param tableName table to inspect.
+     * @return row estimate by partition name.
+     */
+    @VisibleForTesting
+    Map<String, Long> getPartitionRowCounts(final Connection connection, final TableName tableName)
+    {
+        Map<String, Long> rowCounts = new HashMap<>();
+        try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(GET_PARTITION_ROW_COUNTS_QUERY)
+                .withParameters(Arrays.asList(tableName.getTableName(), tableName.getSchemaName())).build();
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+                long tableRows = resultSet.getLong("table_rows");
+                if (!resultSet.wasNull()) {
+                    rowCounts.put(resultSet.getString(PARTITION_COLUMN_NAME), tableRows);
+                }
             }
         }
+        catch (SQLException sqlException) {
+            LOGGER.warn("Unable to read partition row counts, partitions are not split further: {}", sqlException.getMessage());
+            return Collections.emptyMap();
+        }
+        return rowCounts;
+    }
 
-        return new GetSplitsResponse(getSplitsRequest.getCatalogName(), splits, null);
+    /**
+     * Reads the bounds of the partitions of a RANGE or LIST partitioned table whose partitioning expression is a single
+     * column, other tables are not pruned. A range partition holds the values from the LESS THAN value of the partition
+     * before it up to, excluding, its own.
+     *
+     * @param connection JDBC connection.
+     * @param parameters table name and schema name.
+     * @return bounds by partition name, partitions without a known bound are missing.
+     */
+    @VisibleForTesting
+    Map<String, PartitionBound> getPartitionBounds(final Connection connection, final List<String> parameters)
+    {
+        Map<String, PartitionBound> partitionBounds = new HashMap<>();
+        try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(GET_PARTITION_BOUNDS_QUERY).withParameters(parameters).build();
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            String lower = null;
+            while (resultSet.next()) {
+                String partitionName = resultSet.getString(PARTITION_COLUMN_NAME);
+                if (partitionBounds.containsKey(partitionName)) {
+                    // one row per sub partition
+                    continue;
+                }
+                String partitionMethod = resultSet.getString("partition_method");
+                String description = resultSet.getString("partition_description");
+                Matcher matcher = SINGLE_COLUMN_EXPRESSION.matcher(String.valueOf(resultSet.getString("partition_expression")));
+                if (partitionMethod == null || description == null || !matcher.matches()) {
+                    return Collections.emptyMap();
+                }
+                String columnName = matcher.group(1);
+                if (partitionMethod.startsWith("RANGE")) {
+                    String upper = "MAXVALUE".equalsIgnoreCase(description.trim()) ? null : PartitionBound.unquote(description.trim());
+                    partitionBounds.put(partitionName, PartitionBound.range(columnName, lower, true, upper, false));
+                    lower = upper;
+                }
+                else if (partitionMethod.startsWith("LIST")) {
+                    List<String> values = new ArrayList<>();
+                    for (String literal : PartitionBound.splitLiterals(description)) {
+                        if (!"NULL".equalsIgnoreCase(literal)) {
+                            values.add(PartitionBound.unquote(literal));
+                        }
+                    }
+                    partitionBounds.put(partitionName, PartitionBound.list(columnName, values));
+                }
+                else {
+                    return Collections.emptyMap();
+                }
+            }
+        }
+        catch (SQLException sqlException) {
+            LOGGER.warn("Unable to read partition bounds, partitions are not pruned: {}", sqlException.getMessage());
+            return Collections.emptyMap();
+        }
+        return partitionBounds;
     }
 
     private int decodeContinuationToken(GetSplitsRequest request)
@@ -23,8 +23,13 @@ import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder;
 import com.google.common.base.Strings;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Extends {@link JdbcSplitQueryBuilder} and implements MySql specific SQL clauses for split.
@@ -34,6 +39,9 @@ import java.util.List;
 public class MySqlQueryStringBuilder
         extends JdbcSplitQueryBuilder
 {
+    private static final String CREATE_IN_LIST_TABLE = "CREATE TEMPORARY TABLE %s AS SELECT %s AS v FROM %s WHERE 1 = 0";
+    private static final String DROP_IN_LIST_TABLE = "DROP TEMPORARY TABLE IF EXISTS %s";
+
     public MySqlQueryStringBuilder(final String quoteCharacters)
     {
         super(quoteCharacters);
@@ -66,4 +74,37 @@ public class MySqlQueryStringBuilder
     {
         return Collections.emptyList();
     }
+
+    /**
+     * MySql can bind neither arrays nor collections, long IN-lists are joined against a session temporary table. This
+     * needs the CREATE TEMPORARY TABLES privilege, without it the IN-list is expanded instead.
+     */
+    @Override
+    protected Optional<String> buildInListPredicate(final InList inList)
+    {
+        return Optional.of(inList.getQuotedColumnName() + " IN (SELECT v FROM " + inList.getTempTableName() + ")");
+    }
+
+    @Override
+    protected boolean prepareInList(final Connection jdbcConnection, final InList inList)
+            throws SQLException
+    {
+        fillInListTempTable(jdbcConnection, inList, CREATE_IN_LIST_TABLE, DROP_IN_LIST_TABLE);
+        return true;
+    }
+
+    @Override
+    protected void releaseInList(final Connection jdbcConnection, final InList inList)
+            throws SQLException
+    {
+        try (Statement statement = jdbcConnection.createStatement()) {
+            statement.execute(String.format(DROP_IN_LIST_TABLE, inList.getTempTableName()));
+        }
+    }
+
+    @Override
+    protected int bindInList(final Connection jdbcConnection, final PreparedStatement statement, final int parameterIndex, final InList inList)
+    {
+        return 0;
+    }
 }
@@ -26,6 +26,7 @@ import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
 import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionInfo;
 import com.amazonaws.athena.connectors.jdbc.connection.GenericJdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
+import com.amazonaws.athena.connectors.jdbc.manager.FetchSizePolicy;
 import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcRecordHandler;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder;
@@ -55,9 +56,9 @@ import static com.amazonaws.athena.connectors.mysql.MySqlConstants.MYSQL_NAME;
 public class MySqlRecordHandler
         extends JdbcRecordHandler
 {
-    private static final Logger LOGGER = LoggerFactory.getLogger(MySqlRecordHandler.class);
+    static final String MYSQL_QUOTE_CHARACTER = "`";
 
-    private static final String MYSQL_QUOTE_CHARACTER = "`";
+    private static final Logger LOGGER = LoggerFactory.getLogger(MySqlRecordHandler.class);
 
     private final JdbcSplitQueryBuilder jdbcSplitQueryBuilder;
 
@@ -86,7 +87,7 @@ public class MySqlRecordHandler
     MySqlRecordHandler(final DatabaseConnectionConfig databaseConnectionConfig, final AmazonS3 amazonS3, final AWSSecretsManager secretsManager,
             final AmazonAthena athena, final JdbcConnectionFactory jdbcConnectionFactory, final JdbcSplitQueryBuilder jdbcSplitQueryBuilder)
     {
-        super(amazonS3, secretsManager, athena, databaseConnectionConfig, jdbcConnectionFactory);
+        super(amazonS3, secretsManager, athena, databaseConnectionConfig, jdbcConnectionFactory, new FetchSizePolicy(FetchSizePolicy.Dialect.ROW_STREAMING));
         this.jdbcSplitQueryBuilder = Validate.notNull(jdbcSplitQueryBuilder, "query builder must not be null");
     }
 
@@ -95,10 +96,12 @@ public class MySqlRecordHandler
             throws SQLException
     {
         PreparedStatement preparedStatement = jdbcSplitQueryBuilder.buildSql(jdbcConnection, null, tableName.getSchemaName(), tableName.getTableName(), schema, constraints, split);
-
-        // Disable fetching all rows.
-        preparedStatement.setFetchSize(Integer.MIN_VALUE);
-
         return preparedStatement;
     }
+
+    @Override
+    protected void releaseSplitSql(Connection jdbcConnection, PreparedStatement preparedStatement)
+    {
+        jdbcSplitQueryBuilder.releaseSql(jdbcConnection, preparedStatement);
+    }
 }
@@ -27,6 +27,8 @@ import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
 import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
@@ -139,6 +141,60 @@ public class MySqlMetadataHandlerTest
         Mockito.verify(preparedStatement, Mockito.times(1)).setString(2, tableName.getSchemaName());
     }
 
+    @Test
+    public void doGetTableLayoutWithPrunedPartitions()
+            throws Exception
+    {
+        BlockAllocator blockAllocator = new BlockAllocatorImpl();
+        Constraints constraints = new Constraints(Collections.singletonMap("id",
+                SortedRangeSet.of(false, Range.greaterThanOrEqual(blockAllocator, org.apache.arrow.vector.types.Types.MinorType.BIGINT.getType(), 150L))));
+        TableName tableName = new TableName("testSchema", "testTable");
+        Schema partitionSchema = this.mySqlMetadataHandler.getPartitionSchema("testCatalogName");
+        Set<String> partitionCols = partitionSchema.getFields().stream().map(Field::getName).collect(Collectors.toSet());
+        GetTableLayoutRequest getTableLayoutRequest = new GetTableLayoutRequest(this.federatedIdentity, "testQueryId", "testCatalogName", tableName, constraints, partitionSchema, partitionCols);
+
+        PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(MySqlMetadataHandler.GET_PARTITIONS_QUERY)).thenReturn(preparedStatement);
+        ResultSet resultSet = mockResultSet(new String[] {"partition_name"}, new int[] {Types.VARCHAR},
+                new Object[][] {{"p0"}, {"p1"}, {"p2"}}, new AtomicInteger(-1));
+        Mockito.when(preparedStatement.executeQuery()).thenReturn(resultSet);
+
+        PreparedStatement boundsStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(MySqlMetadataHandler.GET_PARTITION_BOUNDS_QUERY)).thenReturn(boundsStatement);
+        String[] columns = {"partition_name", "partition_method", "partition_expression", "partition_description"};
+        int[] types = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+        Object[][] values = {{"p0", "RANGE", "`id`", "100"}, {"p0", "RANGE", "`id`", "100"}, {"p1", "RANGE", "`id`", "200"},
+                {"p2", "RANGE", "`id`", "MAXVALUE"}};
+        ResultSet boundsResultSet = mockResultSet(columns, types, values, new AtomicInteger(-1));
+        Mockito.when(boundsStatement.executeQuery()).thenReturn(boundsResultSet);
+
+        GetTableLayoutResponse getTableLayoutResponse = this.mySqlMetadataHandler.doGetTableLayout(blockAllocator, getTableLayoutRequest);
+
+        List<String> actualValues = new ArrayList<>();
+        for (int i = 0; i < getTableLayoutResponse.getPartitions().getRowCount(); i++) {
+            actualValues.add(BlockUtils.rowToString(getTableLayoutResponse.getPartitions(), i));
+        }
+        Assert.assertEquals(Arrays.asList("[partition_name : p1]", "[partition_name : p2]"), actualValues);
+        Mockito.verify(boundsStatement, Mockito.times(1)).setString(1, tableName.getTableName());
+        Mockito.verify(boundsStatement, Mockito.times(1)).setString(2, tableName.getSchemaName());
+    }
+
+    @Test
+    public void getPartitionBoundsSkipsExpressionPartitioning()
+            throws Exception
+    {
+        Connection connection = Mockito.mock(Connection.class);
+        PreparedStatement boundsStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(connection.prepareStatement(MySqlMetadataHandler.GET_PARTITION_BOUNDS_QUERY)).thenReturn(boundsStatement);
+        String[] columns = {"partition_name", "partition_method", "partition_expression", "partition_description"};
+        int[] types = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+        Object[][] values = {{"p0", "RANGE", "year(`created`)", "2020"}};
+        ResultSet boundsResultSet = mockResultSet(columns, types, values, new AtomicInteger(-1));
+        Mockito.when(boundsStatement.executeQuery()).thenReturn(boundsResultSet);
+
+        Assert.assertTrue(this.mySqlMetadataHandler.getPartitionBounds(connection, Arrays.asList("testTable", "testSchema")).isEmpty());
+    }
+
     @Test
     public void doGetTableLayoutWithNoPartitions()
             throws Exception
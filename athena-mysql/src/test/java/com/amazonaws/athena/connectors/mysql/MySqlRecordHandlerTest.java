@@ -42,12 +42,16 @@ import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import static com.amazonaws.athena.connectors.mysql.MySqlConstants.MYSQL_NAME;
 
@@ -148,6 +152,104 @@ public class MySqlRecordHandlerTest
         Mockito.verify(preparedStatement, Mockito.times(1)).setBoolean(11, true);
     }
 
+    @Test
+    public void buildSplitSqlWithLargeInList()
+            throws SQLException
+    {
+        TableName tableName = new TableName("testSchema", "testTable");
+        Schema schema = getLargeInListSchema();
+        Split split = getLargeInListSplit();
+        Constraints constraints = getLargeInListConstraints(300);
+
+        Statement ddl = Mockito.mock(Statement.class);
+        Mockito.when(this.connection.createStatement()).thenReturn(ddl);
+        PreparedStatement insert = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement("INSERT INTO athena_in_list_0 (v) VALUES (?)")).thenReturn(insert);
+        String expectedSql = "SELECT `testCol1` FROM `testSchema`.`testTable` PARTITION(p0)  WHERE (`testCol1` IN (SELECT v FROM athena_in_list_0))";
+        PreparedStatement expectedPreparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(Mockito.eq(expectedSql))).thenReturn(expectedPreparedStatement);
+
+        PreparedStatement preparedStatement = this.mySqlRecordHandler.buildSplitSql(this.connection, "testCatalogName", tableName, schema, constraints, split);
+        Assert.assertSame(expectedPreparedStatement, preparedStatement);
+        preparedStatement.setFetchSize(10);
+        preparedStatement.close();
+        this.mySqlRecordHandler.releaseSplitSql(this.connection, preparedStatement);
+
+        InOrder inOrder = Mockito.inOrder(ddl, insert, this.connection, expectedPreparedStatement);
+        inOrder.verify(ddl).execute("DROP TEMPORARY TABLE IF EXISTS athena_in_list_0");
+        inOrder.verify(ddl).execute("CREATE TEMPORARY TABLE athena_in_list_0 AS SELECT `testCol1` AS v FROM `testSchema`.`testTable` WHERE 1 = 0");
+        inOrder.verify(insert, Mockito.times(300)).addBatch();
+        inOrder.verify(insert).executeBatch();
+        inOrder.verify(this.connection).prepareStatement(expectedSql);
+        inOrder.verify(expectedPreparedStatement).setFetchSize(10);
+        inOrder.verify(expectedPreparedStatement).close();
+        //The temporary table is dropped once the split's statement is closed and released.
+        inOrder.verify(ddl).execute("DROP TEMPORARY TABLE IF EXISTS athena_in_list_0");
+        Mockito.verify(insert).setObject(1, "v299");
+        Mockito.verify(expectedPreparedStatement, Mockito.never()).setString(Mockito.anyInt(), Mockito.anyString());
+    }
+
+    @Test
+    public void buildSplitSqlWithLargeInListWithoutTemporaryTables()
+            throws SQLException
+    {
+        TableName tableName = new TableName("testSchema", "testTable");
+        Schema schema = getLargeInListSchema();
+        Split split = getLargeInListSplit();
+        Constraints constraints = getLargeInListConstraints(300);
+
+        Statement ddl = Mockito.mock(Statement.class);
+        Mockito.when(this.connection.createStatement()).thenReturn(ddl);
+        Mockito.when(ddl.execute(Mockito.startsWith("CREATE TEMPORARY TABLE")))
+                .thenThrow(new SQLException("CREATE TEMPORARY TABLES command denied", "42000", 1044));
+        String expectedSql = "SELECT `testCol1` FROM `testSchema`.`testTable` PARTITION(p0)  WHERE (`testCol1` IN (" +
+                String.join(",", Collections.nCopies(300, "?")) + "))";
+        PreparedStatement expectedPreparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(Mockito.eq(expectedSql))).thenReturn(expectedPreparedStatement);
+
+        PreparedStatement preparedStatement = this.mySqlRecordHandler.buildSplitSql(this.connection, "testCatalogName", tableName, schema, constraints, split);
+        this.mySqlRecordHandler.releaseSplitSql(this.connection, preparedStatement);
+
+        //Without the privilege the IN-list is expanded and the statement is returned as is.
+        Assert.assertEquals(expectedPreparedStatement, preparedStatement);
+        Mockito.verify(expectedPreparedStatement).setString(1, "v0");
+        Mockito.verify(expectedPreparedStatement).setString(300, "v299");
+        Mockito.verify(this.connection, Mockito.never()).prepareStatement(Mockito.startsWith("INSERT INTO"));
+        Mockito.verify(ddl, Mockito.times(2)).execute("DROP TEMPORARY TABLE IF EXISTS athena_in_list_0");
+    }
+
+    private Schema getLargeInListSchema()
+    {
+        return SchemaBuilder.newBuilder()
+                .addField(FieldBuilder.newBuilder("testCol1", Types.MinorType.VARCHAR.getType()).build())
+                .addField(FieldBuilder.newBuilder("partition_name", Types.MinorType.VARCHAR.getType()).build())
+                .build();
+    }
+
+    private Split getLargeInListSplit()
+    {
+        Split split = Mockito.mock(Split.class);
+        Mockito.when(split.getProperties()).thenReturn(Collections.singletonMap("partition_name", "p0"));
+        Mockito.when(split.getProperty(Mockito.eq(MySqlMetadataHandler.BLOCK_PARTITION_COLUMN_NAME))).thenReturn("p0");
+        return split;
+    }
+
+    private Constraints getLargeInListConstraints(int numValues)
+    {
+        List<Range> ranges = new ArrayList<>();
+        for (int i = 0; i < numValues; i++) {
+            Range range = Mockito.mock(Range.class, Mockito.RETURNS_DEEP_STUBS);
+            Mockito.when(range.isSingleValue()).thenReturn(true);
+            Mockito.when(range.getLow().getValue()).thenReturn("v" + i);
+            ranges.add(range);
+        }
+        ValueSet valueSet = Mockito.mock(SortedRangeSet.class, Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(valueSet.getRanges().getOrderedRanges()).thenReturn(ranges);
+        Constraints constraints = Mockito.mock(Constraints.class);
+        Mockito.when(constraints.getSummary()).thenReturn(Collections.singletonMap("testCol1", valueSet));
+        return constraints;
+    }
+
     private ValueSet getSingleValueSet(Object value) {
         Range range = Mockito.mock(Range.class, Mockito.RETURNS_DEEP_STUBS);
         Mockito.when(range.isSingleValue()).thenReturn(true);
@@ -20,8 +20,10 @@
 package com.amazonaws.athena.connectors.neptune;
 
 import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
+import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockWriter;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
@@ -37,6 +39,7 @@ import com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesResponse;
 import com.amazonaws.athena.connector.lambda.metadata.glue.GlueFieldLexer;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory;
+import com.amazonaws.athena.connectors.neptune.propertygraph.Enums.TableSchemaMetaType;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.glue.AWSGlue;
 import com.amazonaws.services.glue.model.GetTablesRequest;
@@ -44,15 +47,21 @@ import com.amazonaws.services.glue.model.GetTablesResult;
 import com.amazonaws.services.glue.model.Table;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import org.apache.arrow.util.VisibleForTesting;
+import org.apache.arrow.vector.complex.reader.FieldReader;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.tinkerpop.gremlin.driver.Client;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * This class is part of an tutorial that will walk you through how to build a
@@ -75,23 +84,51 @@ public class NeptuneMetadataHandler extends GlueMetadataHandler
     private final Logger logger = LoggerFactory.getLogger(NeptuneMetadataHandler.class);
     private static final String SOURCE_TYPE = "neptune"; // Used to denote the 'type' of this connector for diagnostic
                                                          // purposes.
+    // Split properties (and partition columns) carrying the [low, high) element id range a split should read.
+    public static final String ID_RANGE_LOW = "id_range_low";
+    public static final String ID_RANGE_HIGH = "id_range_high";
+    // Env variable controlling how many id range splits a single Vertex/Edge label is read with, defaults to 1.
+    private static final String SPLIT_COUNT_ENV = "neptune_split_count";
+    // Number of element ids sampled per requested split when picking id range boundaries.
+    private static final int SAMPLES_PER_SPLIT = 100;
+
     private final AWSGlue glue;
     private final String glueDBName;
+    private final NeptuneConnection neptuneConnection;
+    private final int splitCount;
 
     public NeptuneMetadataHandler()
     {
         super(false, SOURCE_TYPE);
         this.glue = getAwsGlue();
         this.glueDBName = System.getenv("glue_database_name");
+        this.splitCount = getSplitCount();
+        this.neptuneConnection = splitCount > 1 ? new NeptuneConnection(System.getenv("neptune_endpoint"),
+                System.getenv("neptune_port"), Boolean.parseBoolean(System.getenv("iam_enabled"))) : null;
     }
 
     @VisibleForTesting
     protected NeptuneMetadataHandler(AWSGlue glue, NeptuneConnection neptuneConnection, EncryptionKeyFactory keyFactory,
             AWSSecretsManager awsSecretsManager, AmazonAthena athena, String spillBucket, String spillPrefix)
             {
+        this(glue, neptuneConnection, keyFactory, awsSecretsManager, athena, spillBucket, spillPrefix, getSplitCount());
+    }
+
+    @VisibleForTesting
+    protected NeptuneMetadataHandler(AWSGlue glue, NeptuneConnection neptuneConnection, EncryptionKeyFactory keyFactory,
+            AWSSecretsManager awsSecretsManager, AmazonAthena athena, String spillBucket, String spillPrefix, int splitCount)
+            {
         super(glue, keyFactory, awsSecretsManager, athena, SOURCE_TYPE, spillBucket, spillPrefix);
         this.glue = glue;
         this.glueDBName = System.getenv("glue_database_name");
+        this.neptuneConnection = neptuneConnection;
+        this.splitCount = splitCount;
+    }
+
+    private static int getSplitCount()
+    {
+        String splitCount = System.getenv(SPLIT_COUNT_ENV);
+        return (splitCount == null || splitCount.trim().isEmpty()) ? 1 : Integer.parseInt(splitCount.trim());
     }
 
     /**
@@ -182,14 +219,84 @@ public class NeptuneMetadataHandler extends GlueMetadataHandler
     }
 
     /**
-     * Our table doesn't support complex layouts or partitioning so we simply make
-     * this method a NoOp.
+     * When parallel reads are enabled (neptune_split_count > 1) we add the id range columns to the partition schema so
+     * that the ranges computed in getPartitions(...) are passed on to doGetSplits(...).
+     *
+     * @see GlueMetadataHandler
+     */
+    @Override
+    public void enhancePartitionSchema(SchemaBuilder partitionSchemaBuilder, GetTableLayoutRequest request)
+    {
+        if (splitCount > 1) {
+            partitionSchemaBuilder.addStringField(ID_RANGE_LOW);
+            partitionSchemaBuilder.addStringField(ID_RANGE_HIGH);
+        }
+    }
+
+    /**
+     * Neptune doesn't have partitions but, when parallel reads are enabled, we generate one 'partition' per element id
+     * range so that a large Vertex/Edge label can be read by multiple splits in parallel. The range boundaries are
+     * picked from a random sample of the label's element ids so that each range holds roughly the same number of
+     * elements.
+     *
+     * @note Neptune element ids are Strings, ranges are compared as Strings and together cover the entire id space.
      */
     @Override
     public void getPartitions(BlockWriter blockWriter, GetTableLayoutRequest request,
             QueryStatusChecker queryStatusChecker) throws Exception 
     {
-        // No implemenation as connector doesn't support partitioning
+        if (splitCount <= 1) {
+            return;
+        }
+
+        List<String> boundaries = sampleIdBoundaries(request.getSchema(), request.getTableName());
+        logger.info("getPartitions: table[{}] id range boundaries[{}]", request.getTableName(), boundaries);
+
+        String low = null;
+        for (String high : boundaries) {
+            writeIdRange(blockWriter, low, high);
+            low = high;
+        }
+        writeIdRange(blockWriter, low, null);
+    }
+
+    private void writeIdRange(BlockWriter blockWriter, String low, String high)
+    {
+        blockWriter.writeRows((Block block, int rowNum) -> {
+            block.setValue(ID_RANGE_LOW, rowNum, low);
+            block.setValue(ID_RANGE_HIGH, rowNum, high);
+            return 1;
+        });
+    }
+
+    /**
+     * Samples the element ids of the Vertex/Edge label backing the table and picks splitCount - 1 distinct, sorted
+     * boundaries which divide the sample into equally sized ranges.
+     */
+    private List<String> sampleIdBoundaries(Schema schema, TableName tableName)
+    {
+        String type = schema.getCustomMetadata().get("componenttype");
+        String glabel = schema.getCustomMetadata().get("glabel");
+        String labelName = (glabel != null && !glabel.trim().isEmpty()) ? glabel : tableName.getTableName();
+
+        Client client = neptuneConnection.getNeptuneClientConnection();
+        GraphTraversalSource graphTraversalSource = neptuneConnection.getTraversalSource(client);
+        GraphTraversal<?, ?> traversal = TableSchemaMetaType.valueOf(type.toUpperCase()) == TableSchemaMetaType.EDGE ?
+                graphTraversalSource.E().hasLabel(labelName) : graphTraversalSource.V().hasLabel(labelName);
+
+        List<String> sample = new ArrayList<>();
+        traversal.id().sample(splitCount * SAMPLES_PER_SPLIT).forEachRemaining(next -> sample.add(next.toString()));
+        Collections.sort(sample);
+
+        TreeSet<String> boundaries = new TreeSet<>();
+        for (int i = 1; i < splitCount && !sample.isEmpty(); i++) {
+            boundaries.add(sample.get(i * sample.size() / splitCount));
+        }
+        //the lowest sampled id would produce an empty first range
+        if (!sample.isEmpty()) {
+            boundaries.remove(sample.get(0));
+        }
+        return new ArrayList<>(boundaries);
     }
 
     /**
@@ -211,19 +318,40 @@ public class NeptuneMetadataHandler extends GlueMetadataHandler
      */
 
     /*
-     * Since our connector does not support parallel scans we generate a single
-     * Split and include the connection details as a property on the split so that
-     * the RecordHandler has easy access to it.
+     * Unless parallel reads are enabled we generate a single Split. Otherwise we
+     * generate one Split per element id range produced by getPartitions(...).
      */
     @Override
     public GetSplitsResponse doGetSplits(BlockAllocator blockAllocator, GetSplitsRequest request) 
     {
-        // Every split must have a unique location if we wish to spill to avoid failures
-        SpillLocation spillLocation = makeSpillLocation(request);
+        Block partitions = request.getPartitions();
+        if (partitions.getFieldVector(ID_RANGE_LOW) == null) {
+            // Every split must have a unique location if we wish to spill to avoid failures
+            SpillLocation spillLocation = makeSpillLocation(request);
+
+            // Since parallel reads are not enabled we return a fixed split.
+            return new GetSplitsResponse(request.getCatalogName(),
+                    Split.newBuilder(spillLocation, makeEncryptionKey()).build());
+        }
+
+        Set<Split> splits = new HashSet<>();
+        FieldReader lowReader = partitions.getFieldReader(ID_RANGE_LOW);
+        FieldReader highReader = partitions.getFieldReader(ID_RANGE_HIGH);
+        for (int curPartition = 0; curPartition < partitions.getRowCount(); curPartition++) {
+            lowReader.setPosition(curPartition);
+            highReader.setPosition(curPartition);
+
+            Split.Builder splitBuilder = Split.newBuilder(makeSpillLocation(request), makeEncryptionKey());
+            if (lowReader.isSet()) {
+                splitBuilder.add(ID_RANGE_LOW, lowReader.readText().toString());
+            }
+            if (highReader.isSet()) {
+                splitBuilder.add(ID_RANGE_HIGH, highReader.readText().toString());
+            }
+            splits.add(splitBuilder.build());
+        }
 
-        // Since our connector does not support parallel reads we return a fixed split.
-        return new GetSplitsResponse(request.getCatalogName(),
-                Split.newBuilder(spillLocation, makeEncryptionKey()).build());
+        return new GetSplitsResponse(request.getCatalogName(), splits);
     }
 
     @Override
@@ -23,29 +23,37 @@ import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
 import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
 import com.amazonaws.athena.connector.lambda.data.writers.GeneratedRowWriter;
+import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.predicate.EquatableValueSet;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
 import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
 import com.amazonaws.athena.connectors.neptune.NeptuneConnection;
+import com.amazonaws.athena.connectors.neptune.NeptuneMetadataHandler;
 import com.amazonaws.athena.connectors.neptune.NeptuneRecordHandler;
+import com.amazonaws.athena.connectors.neptune.propertygraph.Enums.SpecialKeys;
 import com.amazonaws.athena.connectors.neptune.propertygraph.Enums.TableSchemaMetaType;
 import com.amazonaws.athena.connectors.neptune.propertygraph.rowwriters.EdgeRowWriter;
 import com.amazonaws.athena.connectors.neptune.propertygraph.rowwriters.VertexRowWriter;
 import org.apache.arrow.util.VisibleForTesting;
 import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.tinkerpop.gremlin.driver.Client;
 import org.apache.tinkerpop.gremlin.groovy.jsr223.GroovyTranslator;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.WithOptions;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * This class is part of an tutorial that will walk you through how to build a
@@ -123,8 +131,10 @@ public class PropertyGraphHandler
             switch (tableSchemaMetaType) {
                 case VERTEX:
                     graphTraversal = graphTraversalSource.V().hasLabel(labelName);
+                    getQueryPartForIdRange(graphTraversal, recordsRequest.getSplit());
                     getQueryPartForContraintsMap(graphTraversal, recordsRequest);
-                    graphTraversal = graphTraversal.valueMap().with(WithOptions.tokens);
+                    graphTraversal = graphTraversal.valueMap(getProjectedPropertyKeys(graphTraversal, recordsRequest.getSchema()))
+                            .with(WithOptions.tokens);
 
                     for (final Field nextField : recordsRequest.getSchema().getFields()) {
                         VertexRowWriter.writeRowTemplate(builder, nextField);
@@ -134,8 +144,9 @@ public class PropertyGraphHandler
 
                 case EDGE:
                     graphTraversal = graphTraversalSource.E().hasLabel(labelName);
+                    getQueryPartForIdRange(graphTraversal, recordsRequest.getSplit());
                     getQueryPartForContraintsMap(graphTraversal, recordsRequest);
-                    graphTraversal = graphTraversal.elementMap();
+                    graphTraversal = graphTraversal.elementMap(getProjectedPropertyKeys(graphTraversal, recordsRequest.getSchema()));
 
                     for (final Field nextField : recordsRequest.getSchema().getFields()) {
                         EdgeRowWriter.writeRowTemplate(builder, nextField);
@@ -164,6 +175,84 @@ public class PropertyGraphHandler
         logger.info("readWithConstraint: numRows[{}]", numRows);
     }
 
+    /**
+     * Used to restrict the traversal to the element id range of the split, if
+     * NeptuneMetadataHandler generated one.
+     *
+     * @param traversal Gremlin Traversal, traversal is updated based on the
+     *                  split's id range
+     * @param split     The split being read
+     *
+     * @return A Gremlin Query Part equivalent to the split's id range.
+     */
+    public GraphTraversal getQueryPartForIdRange(GraphTraversal traversal, final Split split)
+    {
+        String low = split.getProperty(NeptuneMetadataHandler.ID_RANGE_LOW);
+        String high = split.getProperty(NeptuneMetadataHandler.ID_RANGE_HIGH);
+
+        if (low != null) {
+            traversal = traversal.has(T.id, P.gte(low));
+        }
+
+        if (high != null) {
+            traversal = traversal.has(T.id, P.lt(high));
+        }
+
+        return traversal;
+    }
+
+    /**
+     * Used to generate the property keys to fetch for the requested columns so
+     * that Neptune only returns the properties the query needs.
+     *
+     * @param traversal The traversal of the split, before valueMap()/elementMap()
+     *                  has been applied.
+     * @param schema    The projected schema of the read request
+     *
+     * @return The property keys to pass to valueMap()/elementMap().
+     * @note Property keys are matched case sensitively by Neptune while Glue
+     *       column names are lower case, so when enable_caseinsensitivematch is
+     *       true (the default) each column is resolved to the property keys of
+     *       the split's elements which match it regardless of case. Only the
+     *       distinct keys are returned by Neptune for that, not their values.
+     */
+    @VisibleForTesting
+    protected String[] getProjectedPropertyKeys(final GraphTraversal traversal, final Schema schema)
+    {
+        boolean enableCaseInsensitiveMatch = (System.getenv("enable_caseinsensitivematch") == null) ? true
+                : Boolean.parseBoolean(System.getenv("enable_caseinsensitivematch"));
+
+        Set<String> columns = new TreeSet<>(enableCaseInsensitiveMatch ? String.CASE_INSENSITIVE_ORDER : null);
+        for (Field next : schema.getFields()) {
+            if (!isSpecialKey(next.getName())) {
+                columns.add(next.getName());
+            }
+        }
+
+        if (!enableCaseInsensitiveMatch || columns.isEmpty()) {
+            return columns.toArray(new String[0]);
+        }
+
+        Set<String> keys = new LinkedHashSet<>(columns);
+        GraphTraversal keyTraversal = (GraphTraversal) traversal.asAdmin().clone();
+        keyTraversal.properties().key().dedup().forEachRemaining((Object key) -> {
+            if (columns.contains(key.toString())) {
+                keys.add(key.toString());
+            }
+        });
+        return keys.toArray(new String[0]);
+    }
+
+    private static boolean isSpecialKey(String fieldName)
+    {
+        for (SpecialKeys next : SpecialKeys.values()) {
+            if (next.toString().equalsIgnoreCase(fieldName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Used to generate Gremlin Query part for Constraint Map
      * 
@@ -20,7 +20,14 @@
 package com.amazonaws.athena.connectors.neptune;
 
 import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutResponse;
 import com.amazonaws.athena.connector.lambda.metadata.GetTableRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetTableResponse;
 import com.amazonaws.athena.connector.lambda.metadata.ListSchemasRequest;
@@ -38,6 +45,10 @@ import com.amazonaws.services.glue.model.StorageDescriptor;
 import com.amazonaws.services.glue.model.Table;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.tinkerpop.gremlin.driver.Client;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -47,9 +58,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -180,4 +194,74 @@ public class NeptuneMetadataHandlerTest extends TestBase {
         logger.info("doGetTable - exit");
     }
 
+    @Test
+    public void doGetSplitsSingleSplit() throws Exception {
+        logger.info("doGetSplitsSingleSplit - enter");
+
+        Schema schema = SchemaBuilder.newBuilder()
+                .addStringField("name")
+                .addMetadata("componenttype", "vertex")
+                .build();
+
+        GetTableLayoutRequest layoutReq = new GetTableLayoutRequest(IDENTITY, QUERY_ID, DEFAULT_CATALOG, TABLE_NAME,
+                new Constraints(new HashMap<>()), schema, Collections.emptySet());
+
+        try (GetTableLayoutResponse layoutRes = handler.doGetTableLayout(allocator, layoutReq);
+                GetSplitsResponse res = handler.doGetSplits(allocator, new GetSplitsRequest(IDENTITY, QUERY_ID,
+                        DEFAULT_CATALOG, TABLE_NAME, layoutRes.getPartitions(), new ArrayList<>(),
+                        new Constraints(new HashMap<>()), null))) {
+            assertEquals(1, res.getSplits().size());
+            assertTrue(res.getSplits().iterator().next().getProperties().isEmpty());
+        }
+
+        logger.info("doGetSplitsSingleSplit - exit");
+    }
+
+    @Test
+    public void doGetSplitsIdRanges() throws Exception {
+        logger.info("doGetSplitsIdRanges - enter");
+
+        TinkerGraph tinkerGraph = TinkerGraph.open();
+        for (int i = 0; i < 30; i++) {
+            tinkerGraph.addVertex(T.id, String.format("v%02d", i), T.label, "default");
+        }
+        tinkerGraph.addVertex(T.id, "other", T.label, "other");
+
+        when(neptuneConnection.getTraversalSource(any(Client.class))).thenReturn(tinkerGraph.traversal());
+
+        NeptuneMetadataHandler splittingHandler = new NeptuneMetadataHandler(glue, neptuneConnection,
+                new LocalKeyFactory(), mock(AWSSecretsManager.class), mock(AmazonAthena.class), "spill-bucket",
+                "spill-prefix", 3);
+
+        Schema schema = SchemaBuilder.newBuilder()
+                .addStringField("name")
+                .addMetadata("componenttype", "vertex")
+                .addMetadata("glabel", "default")
+                .build();
+
+        GetTableLayoutRequest layoutReq = new GetTableLayoutRequest(IDENTITY, QUERY_ID, DEFAULT_CATALOG, TABLE_NAME,
+                new Constraints(new HashMap<>()), schema, Collections.emptySet());
+
+        try (GetTableLayoutResponse layoutRes = splittingHandler.doGetTableLayout(allocator, layoutReq);
+                GetSplitsResponse res = splittingHandler.doGetSplits(allocator, new GetSplitsRequest(IDENTITY, QUERY_ID,
+                        DEFAULT_CATALOG, TABLE_NAME, layoutRes.getPartitions(), new ArrayList<>(),
+                        new Constraints(new HashMap<>()), null))) {
+            assertEquals(3, res.getSplits().size());
+
+            //the ranges must be contiguous and together cover every id
+            Set<String> lows = new HashSet<>();
+            Set<String> highs = new HashSet<>();
+            for (Split next : res.getSplits()) {
+                lows.add(next.getProperty(NeptuneMetadataHandler.ID_RANGE_LOW));
+                highs.add(next.getProperty(NeptuneMetadataHandler.ID_RANGE_HIGH));
+            }
+            assertTrue(lows.contains(null));
+            assertTrue(highs.contains(null));
+            lows.remove(null);
+            highs.remove(null);
+            assertEquals(lows, highs);
+        }
+
+        logger.info("doGetSplitsIdRanges - exit");
+    }
 }
@@ -0,0 +1,81 @@
+/*-
+ * #%L
+ * athena-neptune
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.neptune.propertygraph;
+
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connectors.neptune.NeptuneConnection;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.WithOptions;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class PropertyGraphHandlerTest
+{
+    private TinkerGraph tinkerGraph;
+    private PropertyGraphHandler handler;
+
+    @Before
+    public void setUp()
+    {
+        tinkerGraph = TinkerGraph.open();
+        Vertex vertex = tinkerGraph.addVertex(T.label, "person");
+        vertex.property("name", "name1");
+        vertex.property("Age", 10);
+        vertex.property("address", "address1");
+        tinkerGraph.addVertex(T.label, "other").property("age", 20);
+
+        handler = new PropertyGraphHandler(mock(NeptuneConnection.class));
+    }
+
+    @Test
+    public void getProjectedPropertyKeysResolvesCase()
+    {
+        //Glue column names are lower case, the default enable_caseinsensitivematch resolves them to the graph's keys
+        Schema schema = SchemaBuilder.newBuilder()
+                .addStringField("id")
+                .addStringField("name")
+                .addIntField("age")
+                .build();
+
+        GraphTraversal traversal = tinkerGraph.traversal().V().hasLabel("person");
+        String[] keys = handler.getProjectedPropertyKeys(traversal, schema);
+        assertEquals(new HashSet<>(Arrays.asList("name", "age", "Age")), new HashSet<>(Arrays.asList(keys)));
+
+        //only the projected properties are fetched, and resolving the keys didn't consume the split's traversal
+        Map<Object, Object> row = (Map<Object, Object>) traversal.valueMap(keys).with(WithOptions.tokens).next();
+        Set<Object> fetched = new HashSet<>(row.keySet());
+        assertTrue(fetched.remove(T.id));
+        assertTrue(fetched.remove(T.label));
+        assertEquals(new HashSet<>(Arrays.asList("name", "Age")), fetched);
+    }
+}
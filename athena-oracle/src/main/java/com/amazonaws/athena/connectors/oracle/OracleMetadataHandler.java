@@ -29,7 +29,7 @@ import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.data.SupportedTypes;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
-import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
 import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
@@ -42,6 +42,8 @@ import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcArrowTypeConverter;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcMetadataHandler;
 import com.amazonaws.athena.connectors.jdbc.manager.PreparedStatementBuilder;
+import com.amazonaws.athena.connectors.jdbc.splits.PartitionBound;
+import com.amazonaws.athena.connectors.jdbc.splits.SubPartitionSplitter;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.annotations.VisibleForTesting;
@@ -59,11 +61,16 @@ import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 /**
  * Handles metadata for ORACLE. User must have access to `schemata`, `tables`, `columns`, `partitions` tables in
@@ -76,9 +83,17 @@ public class OracleMetadataHandler
     static final String BLOCK_PARTITION_COLUMN_NAME = "PARTITION_NAME";
     static final String ALL_PARTITIONS = "0";
     static final String PARTITION_COLUMN_NAME = "PARTITION_NAME";
+    static final String GET_PARTITION_BOUNDS_QUERY = "SELECT p.PARTITION_NAME, p.HIGH_VALUE, t.PARTITIONING_TYPE, t.PARTITIONING_KEY_COUNT, k.COLUMN_NAME " +
+            "FROM USER_TAB_PARTITIONS p JOIN USER_PART_TABLES t ON t.TABLE_NAME = p.TABLE_NAME " +
+            "JOIN USER_PART_KEY_COLUMNS k ON k.NAME = p.TABLE_NAME AND k.OBJECT_TYPE = 'TABLE' AND k.COLUMN_POSITION = 1 " +
+            "WHERE p.TABLE_NAME = ? ORDER BY p.PARTITION_POSITION";
+    static final String GET_PARTITION_ROW_COUNTS_QUERY = "SELECT PARTITION_NAME, NUM_ROWS FROM USER_TAB_PARTITIONS WHERE TABLE_NAME = ? " +
+            "UNION ALL SELECT '" + ALL_PARTITIONS + "' AS PARTITION_NAME, NUM_ROWS FROM USER_TABLES WHERE TABLE_NAME = ?";
+    private static final Pattern DATETIME_LITERAL = Pattern.compile("(?:TO_DATE\\(|TIMESTAMP)\\s*'\\s*([^']*)'", Pattern.CASE_INSENSITIVE);
     private static final Logger LOGGER = LoggerFactory.getLogger(OracleMetadataHandler.class);
     private static final int MAX_SPLITS_PER_REQUEST = 1000_000;
     private static final String COLUMN_NAME = "COLUMN_NAME";
+    private final OracleQueryStringBuilder queryBuilder = new OracleQueryStringBuilder(OracleRecordHandler.ORACLE_QUOTE_CHARACTER);
 
     /**
      * Instantiates handler to be used by Lambda function directly.
@@ -122,7 +137,7 @@ public class OracleMetadataHandler
      *
      * If it is a table with no partition, then data will be fetched with single split.
      * If it is a partitioned table, we are fetching the partition info and creating splits equals to the number of partitions
-     * for parallel processing.
+     * for parallel processing. Partitions whose bounds can't match the query constraints are left out.
      * @param blockWriter
      * @param getTableLayoutRequest
      * @param queryStatusChecker
@@ -134,6 +149,7 @@ public class OracleMetadataHandler
                 getTableLayoutRequest.getTableName().getTableName());
         try (Connection connection = getJdbcConnectionFactory().getConnection(getCredentialProvider())) {
           List<String> parameters = Arrays.asList(getTableLayoutRequest.getTableName().getTableName().toUpperCase());
+            Constraints constraints = getTableLayoutRequest.getConstraints();
             try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(GET_PARTITIONS_QUERY).withParameters(parameters).build();
                  ResultSet resultSet = preparedStatement.executeQuery()) {
                 // Return a single partition if no partitions defined
@@ -146,11 +162,17 @@ public class OracleMetadataHandler
                     });
                 }
                 else {
+                    Map<String, PartitionBound> partitionBounds = PartitionBound.canPrune(constraints)
+                            ? getPartitionBounds(connection, parameters) : Collections.emptyMap();
                     do {
                         final String partitionName = resultSet.getString(PARTITION_COLUMN_NAME);
+                        PartitionBound partitionBound = partitionBounds.get(partitionName);
+                        if (partitionBound != null && !partitionBound.mayMatch(constraints)) {
+                            LOGGER.debug("Pruning partition {}", partitionName);
+                            continue;
+                        }
 
-                        // 1. Returns all partitions of table, we are not supporting constraints push down to filter partitions.
-                        // 2. This API is not paginated, we could use order by and limit clause with offsets here.
+                        // This API is not paginated, we could use order by and limit clause with offsets here.
                         blockWriter.writeRows((Block block, int rowNum) -> {
                             block.setValue(BLOCK_PARTITION_COLUMN_NAME, rowNum, partitionName);
                             LOGGER.debug("Adding partition {}", partitionName);
@@ -168,6 +190,77 @@ public class OracleMetadataHandler
     }
 
     /**
+     * Reads the bounds of the partitions of a RANGE or LIST partitioned table with a single partitioning column, other
+     * tables are not pruned. A range partition holds the keys from the HIGH_VALUE of the partition before it up to,
+     * excluding, its own HIGH_VALUE.
+     *
+     * @param connection JDBC connection.
+     * @param parameters upper case table name.
+     * @return bounds by partition name, partitions without a known bound are missing.
+     */
+    @VisibleForTesting
+    Map<String, PartitionBound> getPartitionBounds(final Connection connection, final List<String> parameters)
+    {
+        Map<String, PartitionBound> partitionBounds = new HashMap<>();
+        try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(GET_PARTITION_BOUNDS_QUERY).withParameters(parameters).build();
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            String lower = null;
+            while (resultSet.next()) {
+                String partitioningType = resultSet.getString("PARTITIONING_TYPE");
+                if (resultSet.getInt("PARTITIONING_KEY_COUNT") != 1) {
+                    return Collections.emptyMap();
+                }
+                String partitionName = resultSet.getString(PARTITION_COLUMN_NAME);
+                String columnName = resultSet.getString(COLUMN_NAME);
+                String highValue = resultSet.getString("HIGH_VALUE");
+                if ("RANGE".equals(partitioningType)) {
+                    String upper = parseHighValue(highValue);
+                    partitionBounds.put(partitionName, PartitionBound.range(columnName, lower, true, upper, false));
+                    lower = upper;
+                }
+                else if ("LIST".equals(partitioningType)) {
+                    if (highValue != null && !"DEFAULT".equalsIgnoreCase(highValue.trim())) {
+                        List<String> values = new ArrayList<>();
+                        for (String literal : PartitionBound.splitLiterals(highValue)) {
+                            if (!"NULL".equalsIgnoreCase(literal)) {
+                                values.add(parseHighValue(literal));
+                            }
+                        }
+                        partitionBounds.put(partitionName, PartitionBound.list(columnName, values));
+                    }
+                }
+                else {
+                    return Collections.emptyMap();
+                }
+            }
+        }
+        catch (SQLException sqlException) {
+            LOGGER.warn("Unable to read partition bounds, partitions are not pruned: {}", sqlException.getMessage());
+            return Collections.emptyMap();
+        }
+        return partitionBounds;
+    }
+
+    /**
+     * @param highValue HIGH_VALUE literal such as 100, 'A', TO_DATE(' 2020-01-01 00:00:00', 'SYYYY-MM-DD HH24:MI:SS', ...)
+     * or TIMESTAMP' 2020-01-01 00:00:00'.
+     * @return the literal value, null for MAXVALUE.
+     */
+    static String parseHighValue(final String highValue)
+    {
+        if (highValue == null || "MAXVALUE".equalsIgnoreCase(highValue.trim())) {
+            return null;
+        }
+        Matcher matcher = DATETIME_LITERAL.matcher(highValue);
+        if (matcher.find()) {
+            return matcher.group(1).trim();
+        }
+        return PartitionBound.unquote(highValue.trim());
+    }
+
+    /**
+     * Creates a split per partition. Partitions, or unpartitioned tables, whose optimizer statistics count more rows
+     * than a single split should read are cut further into key ranges or ORA_HASH buckets of the primary key.
      *
      * @param blockAllocator
      * @param getSplitsRequest
@@ -182,29 +275,72 @@ public class OracleMetadataHandler
         Set<Split> splits = new HashSet<>();
         Block partitions = getSplitsRequest.getPartitions();
 
-        // TODO consider splitting further depending on #rows or data size. Could use Hash key for splitting if no partitions.
-        for (int curPartition = partitionContd; curPartition < partitions.getRowCount(); curPartition++) {
-            FieldReader locationReader = partitions.getFieldReader(BLOCK_PARTITION_COLUMN_NAME);
-            locationReader.setPosition(curPartition);
-
-            SpillLocation spillLocation = makeSpillLocation(getSplitsRequest);
-
-            LOGGER.info("{}: Input partition is {}", getSplitsRequest.getQueryId(), locationReader.readText());
+        try (Connection connection = getJdbcConnectionFactory().getConnection(getCredentialProvider())) {
+            Map<String, Long> rowCounts = getPartitionRowCounts(connection, getSplitsRequest.getTableName());
+            for (int curPartition = partitionContd; curPartition < partitions.getRowCount(); curPartition++) {
+                FieldReader locationReader = partitions.getFieldReader(BLOCK_PARTITION_COLUMN_NAME);
+                locationReader.setPosition(curPartition);
+                String partitionName = String.valueOf(locationReader.readText());
 
-            Split.Builder splitBuilder = Split.newBuilder(spillLocation, makeEncryptionKey())
-                    .add(BLOCK_PARTITION_COLUMN_NAME, String.valueOf(locationReader.readText()));
+                LOGGER.info("{}: Input partition is {}", getSplitsRequest.getQueryId(), partitionName);
 
-            splits.add(splitBuilder.build());
+                List<String> subPartitions = rowCounts.containsKey(partitionName)
+                        ? getSubPartitions(connection, queryBuilder, getSplitsRequest.getTableName(), rowCounts.get(partitionName), ALL_PARTITIONS.equals(partitionName))
+                        : Collections.emptyList();
+                if (subPartitions.isEmpty()) {
+                    splits.add(Split.newBuilder(makeSpillLocation(getSplitsRequest), makeEncryptionKey())
+                            .add(BLOCK_PARTITION_COLUMN_NAME, partitionName)
+                            .build());
+                }
+                for (String subPartition : subPartitions) {
+                    splits.add(Split.newBuilder(makeSpillLocation(getSplitsRequest), makeEncryptionKey())
+                            .add(BLOCK_PARTITION_COLUMN_NAME, partitionName)
+                            .add(SubPartitionSplitter.SUB_PARTITION_PROPERTY, subPartition)
+                            .build());
+                }
 
-            if (splits.size() >= MAX_SPLITS_PER_REQUEST) {
-                //We exceeded the number of split we want to return in a single request, return and provide a continuation token.
-                return new GetSplitsResponse(getSplitsRequest.getCatalogName(), splits, encodeContinuationToken(curPartition + 1));
+                if (splits.size() >= MAX_SPLITS_PER_REQUEST) {
+                    //We exceeded the number of split we want to return in a single request, return and provide a continuation token.
+                    return new GetSplitsResponse(getSplitsRequest.getCatalogName(), splits, encodeContinuationToken(curPartition + 1));
+                }
             }
         }
+        catch (SQLException sqlException) {
+            throw new RuntimeException(sqlException.getErrorCode() + ": " + sqlException.getMessage(), sqlException);
+        }
 
         return new GetSplitsResponse(getSplitsRequest.getCatalogName(), splits, null);
     }
 
+    /**
+     * Reads the row counts of the last statistics gathering, the whole table's under {@link #ALL_PARTITIONS}.
+     *
+     * @param connection JDBC connection.
+     * @param tableName table to inspect.
+     * @return row count by partition name, partitions without statistics are missing.
+     */
+    @VisibleForTesting
+    Map<String, Long> getPartitionRowCounts(final Connection connection, final TableName tableName)
+    {
+        Map<String, Long> rowCounts = new HashMap<>();
+        String upperCaseTableName = tableName.getTableName().toUpperCase();
+        try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(GET_PARTITION_ROW_COUNTS_QUERY)
+                .withParameters(Arrays.asList(upperCaseTableName, upperCaseTableName)).build();
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+                long numRows = resultSet.getLong("NUM_ROWS");
+                if (!resultSet.wasNull()) {
+                    rowCounts.put(resultSet.getString(PARTITION_COLUMN_NAME), numRows);
+                }
+            }
+        }
+        catch (SQLException sqlException) {
+            LOGGER.warn("Unable to read partition row counts, partitions are not split further: {}", sqlException.getMessage());
+            return Collections.emptyMap();
+        }
+        return rowCounts;
+    }
+
     private int decodeContinuationToken(GetSplitsRequest request)
     {
         if (request.hasContinuationToken()) {
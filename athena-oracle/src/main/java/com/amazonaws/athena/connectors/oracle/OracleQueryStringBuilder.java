@@ -22,10 +22,17 @@ package com.amazonaws.athena.connectors.oracle;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder;
 import com.google.common.base.Strings;
+import oracle.jdbc.OracleConnection;
+import org.apache.arrow.vector.types.Types;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
 
 /**
  * Extends {@link JdbcSplitQueryBuilder} and implements ORACLE specific SQL clauses for split.
@@ -35,6 +42,11 @@ import java.util.Set;
 public class OracleQueryStringBuilder
         extends JdbcSplitQueryBuilder
 {
+    private static final String NUMBER_LIST = "SYS.ODCINUMBERLIST";
+    private static final String VARCHAR2_LIST = "SYS.ODCIVARCHAR2LIST";
+    private static final String DATE_LIST = "SYS.ODCIDATELIST";
+    private static final int MAX_VARCHAR2_LIST_ELEMENT_BYTES = 4000;
+
     public OracleQueryStringBuilder(final String quoteCharacters)
     {
         super(quoteCharacters);
@@ -59,9 +71,7 @@ public class OracleQueryStringBuilder
             return String.format(" FROM %s ", tableName);
         }
 
-        Set<String> partitionVals = split.getProperties().keySet();
-        String partValue = split.getProperty(partitionVals.iterator().next());
-        return String.format(" FROM %s ", tableName + " " + "PARTITION " + "(" + partValue + ")");
+        return String.format(" FROM %s ", tableName + " " + "PARTITION " + "(" + partitionName + ")");
     }
 
     @Override
@@ -69,4 +79,57 @@ public class OracleQueryStringBuilder
     {
         return Collections.emptyList();
     }
+
+    /**
+     * ORA_HASH spreads keys of any type evenly over the buckets.
+     */
+    @Override
+    public Optional<String> buildHashBucketExpression(final String columnName, final int columnType, final int bucketCount)
+    {
+        return Optional.of(String.format("ORA_HASH(%s, %d)", quote(columnName), bucketCount - 1));
+    }
+
+    /**
+     * Binds long IN-lists as one of the built-in SYS.ODCI*LIST collections. Besides keeping the statement text
+     * stable this also avoids ORA-01795, Oracle accepts at most 1000 expressions in an IN-list.
+     */
+    @Override
+    protected Optional<String> buildInListPredicate(final InList inList)
+    {
+        return collectionType(inList).map(collectionType -> inList.getQuotedColumnName() + " IN (SELECT COLUMN_VALUE FROM TABLE(?))");
+    }
+
+    @Override
+    protected int bindInList(final Connection jdbcConnection, final PreparedStatement statement, final int parameterIndex, final InList inList)
+            throws SQLException
+    {
+        String collectionType = collectionType(inList).orElseThrow();
+        Object[] elements = inList.getValues().stream()
+                .map(value -> NUMBER_LIST.equals(collectionType) ? new BigDecimal(toInListText(inList.getType(), value)) : toJdbcValue(inList.getType(), value))
+                .toArray();
+        statement.setArray(parameterIndex, jdbcConnection.unwrap(OracleConnection.class).createOracleArray(collectionType, elements));
+        return 1;
+    }
+
+    private static Optional<String> collectionType(final InList inList)
+    {
+        switch (Types.getMinorTypeForArrowType(inList.getType())) {
+            case BIGINT:
+            case INT:
+            case SMALLINT:
+            case TINYINT:
+            case FLOAT8:
+            case FLOAT4:
+            case DECIMAL:
+                return Optional.of(NUMBER_LIST);
+            case DATEDAY:
+                return Optional.of(DATE_LIST);
+            case VARCHAR:
+                boolean fits = inList.getValues().stream()
+                        .allMatch(value -> String.valueOf(value).getBytes(StandardCharsets.UTF_8).length <= MAX_VARCHAR2_LIST_ELEMENT_BYTES);
+                return fits ? Optional.of(VARCHAR2_LIST) : Optional.empty();
+            default:
+                return Optional.empty();
+        }
+    }
 }
@@ -54,9 +54,8 @@ import static com.amazonaws.athena.connectors.oracle.OracleConstants.ORACLE_NAME
 public class OracleRecordHandler
         extends JdbcRecordHandler
 {
+    static final String ORACLE_QUOTE_CHARACTER = "\"";
     private static final Logger LOGGER = LoggerFactory.getLogger(OracleRecordHandler.class);
-    private static final int FETCH_SIZE = 1000;
-    private static final String ORACLE_QUOTE_CHARACTER = "\"";
 
     private final JdbcSplitQueryBuilder jdbcSplitQueryBuilder;
 
@@ -94,10 +93,6 @@ public class OracleRecordHandler
             throws SQLException
     {
         PreparedStatement preparedStatement = jdbcSplitQueryBuilder.buildSql(jdbcConnection, null, tableName.getSchemaName(), tableName.getTableName(), schema, constraints, split);
-
-        // Disable fetching all rows.
-        preparedStatement.setFetchSize(FETCH_SIZE);
-
         return preparedStatement;
     }
 }
@@ -27,17 +27,22 @@ import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.metadata.*;
 import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
 import com.amazonaws.athena.connectors.jdbc.TestBase;
 import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcCredentialProvider;
+import com.amazonaws.athena.connectors.jdbc.splits.HashBucket;
+import com.amazonaws.athena.connectors.jdbc.splits.SubPartitionSplitter;
 import com.amazonaws.athena.connectors.oracle.OracleMetadataHandler;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
 import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+import com.google.common.collect.ImmutableMap;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.Assert;
@@ -50,6 +55,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -137,6 +143,53 @@ public class OracleMetadataHandlerTest
         Mockito.verify(preparedStatement, Mockito.times(1)).setString(1, tableName.getTableName());
     }
 
+    @Test
+    public void doGetTableLayoutWithPrunedPartitions()
+            throws Exception
+    {
+        BlockAllocator blockAllocator = new BlockAllocatorImpl();
+        int day = (int) LocalDate.of(2020, 1, 2).toEpochDay();
+        Constraints constraints = new Constraints(Collections.singletonMap("sale_date",
+                SortedRangeSet.of(false, Range.equal(blockAllocator, org.apache.arrow.vector.types.Types.MinorType.DATEDAY.getType(), day))));
+        TableName tableName = new TableName("testSchema", "TESTTABLE");
+        Schema partitionSchema = this.oracleMetadataHandler.getPartitionSchema("testCatalogName");
+        Set<String> partitionCols = partitionSchema.getFields().stream().map(Field::getName).collect(Collectors.toSet());
+        GetTableLayoutRequest getTableLayoutRequest = new GetTableLayoutRequest(this.federatedIdentity, "testQueryId", "testCatalogName", tableName, constraints, partitionSchema, partitionCols);
+
+        PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(OracleMetadataHandler.GET_PARTITIONS_QUERY)).thenReturn(preparedStatement);
+        ResultSet resultSet = mockResultSet(new String[] {"PARTITION_NAME"}, new int[] {Types.VARCHAR},
+                new Object[][] {{"P0"}, {"P1"}, {"P2"}}, new AtomicInteger(-1));
+        Mockito.when(preparedStatement.executeQuery()).thenReturn(resultSet);
+
+        PreparedStatement boundsStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(OracleMetadataHandler.GET_PARTITION_BOUNDS_QUERY)).thenReturn(boundsStatement);
+        String[] columns = {"PARTITION_NAME", "HIGH_VALUE", "PARTITIONING_TYPE", "PARTITIONING_KEY_COUNT", "COLUMN_NAME"};
+        int[] types = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR};
+        Object[][] values = {
+                {"P0", "TO_DATE(' 2020-01-02 00:00:00', 'SYYYY-MM-DD HH24:MI:SS', 'NLS_CALENDAR=GREGORIAN')", "RANGE", 1, "SALE_DATE"},
+                {"P1", "TO_DATE(' 2020-01-03 00:00:00', 'SYYYY-MM-DD HH24:MI:SS', 'NLS_CALENDAR=GREGORIAN')", "RANGE", 1, "SALE_DATE"},
+                {"P2", "MAXVALUE", "RANGE", 1, "SALE_DATE"}};
+        ResultSet boundsResultSet = mockResultSet(columns, types, values, new AtomicInteger(-1));
+        Mockito.when(boundsStatement.executeQuery()).thenReturn(boundsResultSet);
+
+        GetTableLayoutResponse getTableLayoutResponse = this.oracleMetadataHandler.doGetTableLayout(blockAllocator, getTableLayoutRequest);
+
+        Assert.assertEquals(1, getTableLayoutResponse.getPartitions().getRowCount());
+        Assert.assertEquals("[PARTITION_NAME : P1]", BlockUtils.rowToString(getTableLayoutResponse.getPartitions(), 0));
+        Mockito.verify(boundsStatement, Mockito.times(1)).setString(1, tableName.getTableName());
+    }
+
+    @Test
+    public void parseHighValue()
+    {
+        Assert.assertEquals("2020-01-02 00:00:00", OracleMetadataHandler.parseHighValue("TO_DATE(' 2020-01-02 00:00:00', 'SYYYY-MM-DD HH24:MI:SS', 'NLS_CALENDAR=GREGORIAN')"));
+        Assert.assertEquals("2020-01-02 00:00:00", OracleMetadataHandler.parseHighValue("TIMESTAMP' 2020-01-02 00:00:00'"));
+        Assert.assertEquals("100", OracleMetadataHandler.parseHighValue("100"));
+        Assert.assertEquals("A", OracleMetadataHandler.parseHighValue("'A'"));
+        Assert.assertNull(OracleMetadataHandler.parseHighValue("MAXVALUE"));
+    }
+
     @Test
     public void doGetTableLayoutWithNoPartitions()
             throws Exception
@@ -270,6 +323,51 @@ public class OracleMetadataHandlerTest
         Assert.assertEquals(expectedSplits, actualSplits);
     }
 
+    @Test
+    public void doGetSplitsWithOversizedPartition()
+            throws Exception
+    {
+        BlockAllocator blockAllocator = new BlockAllocatorImpl();
+        Constraints constraints = Mockito.mock(Constraints.class);
+        TableName tableName = new TableName("testSchema", "testTable");
+
+        PreparedStatement partitionsStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(OracleMetadataHandler.GET_PARTITIONS_QUERY)).thenReturn(partitionsStatement);
+        ResultSet partitions = mockResultSet(new String[] {OracleMetadataHandler.PARTITION_COLUMN_NAME}, new int[] {Types.VARCHAR},
+                new Object[][] {{"p0"}, {"p1"}}, new AtomicInteger(-1));
+        Mockito.when(partitionsStatement.executeQuery()).thenReturn(partitions);
+
+        PreparedStatement rowCountsStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(OracleMetadataHandler.GET_PARTITION_ROW_COUNTS_QUERY)).thenReturn(rowCountsStatement);
+        ResultSet rowCounts = mockResultSet(new String[] {OracleMetadataHandler.PARTITION_COLUMN_NAME, "NUM_ROWS"}, new int[] {Types.VARCHAR, Types.NUMERIC},
+                new Object[][] {{"p0", 12_000_000L}, {"p1", 10L}}, new AtomicInteger(-1));
+        Mockito.when(rowCounts.getLong("NUM_ROWS")).thenReturn(12_000_000L, 10L);
+        Mockito.when(rowCountsStatement.executeQuery()).thenReturn(rowCounts);
+
+        ResultSet primaryKeys = mockResultSet(new String[] {"COLUMN_NAME", "KEY_SEQ"}, new Object[][] {{"ID", 1}}, new AtomicInteger(-1));
+        Mockito.when(this.connection.getMetaData().getPrimaryKeys(Mockito.any(), Mockito.eq("testSchema"), Mockito.eq("testTable"))).thenReturn(primaryKeys);
+        ResultSet columns = mockResultSet(new String[] {"COLUMN_NAME", "DATA_TYPE"}, new Object[][] {{"ID", Types.NUMERIC}}, new AtomicInteger(-1));
+        Mockito.when(this.connection.getMetaData().getColumns(Mockito.any(), Mockito.eq("testSchema"), Mockito.eq("testTable"), Mockito.any())).thenReturn(columns);
+        Mockito.when(this.connection.getMetaData().getSearchStringEscape()).thenReturn(null);
+
+        Schema partitionSchema = this.oracleMetadataHandler.getPartitionSchema("testCatalogName");
+        Set<String> partitionCols = partitionSchema.getFields().stream().map(Field::getName).collect(Collectors.toSet());
+        GetTableLayoutRequest getTableLayoutRequest = new GetTableLayoutRequest(this.federatedIdentity, "testQueryId", "testCatalogName", tableName, constraints, partitionSchema, partitionCols);
+        GetTableLayoutResponse getTableLayoutResponse = this.oracleMetadataHandler.doGetTableLayout(blockAllocator, getTableLayoutRequest);
+
+        GetSplitsRequest getSplitsRequest = new GetSplitsRequest(this.federatedIdentity, "testQueryId", "testCatalogName", tableName, getTableLayoutResponse.getPartitions(), new ArrayList<>(partitionCols), constraints, null);
+        GetSplitsResponse getSplitsResponse = this.oracleMetadataHandler.doGetSplits(new BlockAllocatorImpl(), getSplitsRequest);
+
+        Set<Map<String, String>> expectedSplits = new HashSet<>();
+        for (int bucket = 0; bucket < 3; bucket++) {
+            expectedSplits.add(ImmutableMap.of(OracleMetadataHandler.BLOCK_PARTITION_COLUMN_NAME, "p0",
+                    SubPartitionSplitter.SUB_PARTITION_PROPERTY, new HashBucket("ID", Types.NUMERIC, bucket, 3).encode()));
+        }
+        expectedSplits.add(Collections.singletonMap(OracleMetadataHandler.BLOCK_PARTITION_COLUMN_NAME, "p1"));
+        Set<Map<String, String>> actualSplits = getSplitsResponse.getSplits().stream().map(Split::getProperties).collect(Collectors.toSet());
+        Assert.assertEquals(expectedSplits, actualSplits);
+    }
+
     @Test
     public void doGetTable()
             throws SQLException
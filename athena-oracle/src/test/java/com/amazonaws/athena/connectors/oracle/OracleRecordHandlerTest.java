@@ -32,22 +32,30 @@ import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcCredentialProvider;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder;
+import com.amazonaws.athena.connectors.jdbc.splits.HashBucket;
+import com.amazonaws.athena.connectors.jdbc.splits.SubPartitionSplitter;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import oracle.jdbc.OracleConnection;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.math.BigDecimal;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import static com.amazonaws.athena.connectors.oracle.OracleConstants.ORACLE_NAME;
 
@@ -93,12 +101,12 @@ public class OracleRecordHandlerTest
         schemaBuilder.addField(FieldBuilder.newBuilder("testCol6", Types.MinorType.TINYINT.getType()).build());
         schemaBuilder.addField(FieldBuilder.newBuilder("testCol7", Types.MinorType.FLOAT8.getType()).build());
         schemaBuilder.addField(FieldBuilder.newBuilder("testCol8", Types.MinorType.BIT.getType()).build());
-        schemaBuilder.addField(FieldBuilder.newBuilder("partition_name", Types.MinorType.VARCHAR.getType()).build());
+        schemaBuilder.addField(FieldBuilder.newBuilder(OracleMetadataHandler.BLOCK_PARTITION_COLUMN_NAME, Types.MinorType.VARCHAR.getType()).build());
         Schema schema = schemaBuilder.build();
 
         Split split = Mockito.mock(Split.class);
-        Mockito.when(split.getProperties()).thenReturn(Collections.singletonMap("partition_name", "p0"));
-        Mockito.when(split.getProperty(Mockito.eq("partition_name"))).thenReturn("p0");
+        Mockito.when(split.getProperties()).thenReturn(Collections.singletonMap(OracleMetadataHandler.BLOCK_PARTITION_COLUMN_NAME, "p0"));
+        Mockito.when(split.getProperty(Mockito.eq(OracleMetadataHandler.BLOCK_PARTITION_COLUMN_NAME))).thenReturn("p0");
 
         Range range1a = Mockito.mock(Range.class, Mockito.RETURNS_DEEP_STUBS);
         Mockito.when(range1a.isSingleValue()).thenReturn(true);
@@ -149,6 +157,77 @@ public class OracleRecordHandlerTest
         Mockito.verify(preparedStatement, Mockito.times(1)).setBoolean(11, true);
     }
 
+    @Test
+    public void buildSplitSqlWithLargeInList()
+            throws SQLException
+    {
+        TableName tableName = new TableName("testSchema", "testTable");
+        Schema schema = SchemaBuilder.newBuilder()
+                .addField(FieldBuilder.newBuilder("testCol1", Types.MinorType.INT.getType()).build())
+                .addField(FieldBuilder.newBuilder("PARTITION_NAME", Types.MinorType.VARCHAR.getType()).build())
+                .build();
+        Split split = Mockito.mock(Split.class);
+        Mockito.when(split.getProperties()).thenReturn(Collections.singletonMap("PARTITION_NAME", "0"));
+        Mockito.when(split.getProperty(Mockito.eq(OracleMetadataHandler.BLOCK_PARTITION_COLUMN_NAME))).thenReturn("0");
+
+        List<Range> ranges = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Range range = Mockito.mock(Range.class, Mockito.RETURNS_DEEP_STUBS);
+            Mockito.when(range.isSingleValue()).thenReturn(true);
+            Mockito.when(range.getLow().getValue()).thenReturn(i);
+            ranges.add(range);
+        }
+        ValueSet valueSet = Mockito.mock(SortedRangeSet.class, Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(valueSet.getRanges().getOrderedRanges()).thenReturn(ranges);
+        Constraints constraints = Mockito.mock(Constraints.class);
+        Mockito.when(constraints.getSummary()).thenReturn(Collections.singletonMap("testCol1", valueSet));
+
+        String expectedSql = "SELECT \"testCol1\" FROM \"testSchema\".\"testTable\"  WHERE (\"testCol1\" IN (SELECT COLUMN_VALUE FROM TABLE(?)))";
+        PreparedStatement expectedPreparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(Mockito.eq(expectedSql))).thenReturn(expectedPreparedStatement);
+        OracleConnection oracleConnection = Mockito.mock(OracleConnection.class);
+        Mockito.when(this.connection.unwrap(OracleConnection.class)).thenReturn(oracleConnection);
+        Array array = Mockito.mock(Array.class);
+        Mockito.when(oracleConnection.createOracleArray(Mockito.eq("SYS.ODCINUMBERLIST"), Mockito.any(Object[].class))).thenReturn(array);
+
+        PreparedStatement preparedStatement = this.oracleRecordHandler.buildSplitSql(this.connection, "testCatalogName", tableName, schema, constraints, split);
+
+        Assert.assertEquals(expectedPreparedStatement, preparedStatement);
+        Mockito.verify(preparedStatement, Mockito.times(1)).setArray(1, array);
+        ArgumentCaptor<Object[]> elements = ArgumentCaptor.forClass(Object[].class);
+        Mockito.verify(oracleConnection).createOracleArray(Mockito.eq("SYS.ODCINUMBERLIST"), elements.capture());
+        Assert.assertEquals(300, elements.getValue().length);
+        Assert.assertEquals(new BigDecimal(299), elements.getValue()[299]);
+    }
+
+    @Test
+    public void buildSplitSqlWithHashBucket()
+            throws SQLException
+    {
+        TableName tableName = new TableName("testSchema", "testTable");
+        Schema schema = SchemaBuilder.newBuilder()
+                .addField(FieldBuilder.newBuilder("testCol1", Types.MinorType.INT.getType()).build())
+                .addField(FieldBuilder.newBuilder(OracleMetadataHandler.BLOCK_PARTITION_COLUMN_NAME, Types.MinorType.VARCHAR.getType()).build())
+                .build();
+        Split split = Mockito.mock(Split.class);
+        Mockito.when(split.getProperties()).thenReturn(ImmutableMap.of(OracleMetadataHandler.BLOCK_PARTITION_COLUMN_NAME, "p0",
+                SubPartitionSplitter.SUB_PARTITION_PROPERTY, new HashBucket("ID", java.sql.Types.NUMERIC, 2, 4).encode()));
+        Mockito.when(split.getProperty(Mockito.eq(OracleMetadataHandler.BLOCK_PARTITION_COLUMN_NAME))).thenReturn("p0");
+        ValueSet valueSet = getSingleValueSet(1);
+        Constraints constraints = Mockito.mock(Constraints.class);
+        Mockito.when(constraints.getSummary()).thenReturn(Collections.singletonMap("testCol1", valueSet));
+
+        String expectedSql = "SELECT \"testCol1\" FROM \"testSchema\".\"testTable\" PARTITION (p0)  WHERE (\"testCol1\" = ?) AND (\"ID\" IS NOT NULL AND ORA_HASH(\"ID\", 3) = ?)";
+        PreparedStatement expectedPreparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(Mockito.eq(expectedSql))).thenReturn(expectedPreparedStatement);
+
+        PreparedStatement preparedStatement = this.oracleRecordHandler.buildSplitSql(this.connection, "testCatalogName", tableName, schema, constraints, split);
+
+        Assert.assertEquals(expectedPreparedStatement, preparedStatement);
+        Mockito.verify(preparedStatement, Mockito.times(1)).setInt(1, 1);
+        Mockito.verify(preparedStatement, Mockito.times(1)).setInt(2, 2);
+    }
+
     private ValueSet getSingleValueSet(Object value) {
         Range range = Mockito.mock(Range.class, Mockito.RETURNS_DEEP_STUBS);
         Mockito.when(range.isSingleValue()).thenReturn(true);
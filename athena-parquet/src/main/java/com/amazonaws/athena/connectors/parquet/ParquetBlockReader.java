@@ -0,0 +1,531 @@
+/*-
+ * #%L
+ * athena-parquet
+ * %%
+ * Copyright (C) 2019 - 2022 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.parquet;
+
+import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads flat Parquet files, such as those written by Redshift's UNLOAD or Vertica's EXPORT TO PARQUET, straight into
+ * Arrow blocks. Only the columns of the requested schema are read, one row group at a time, and values go from the
+ * Parquet column readers to the Arrow vectors without an intermediate row representation. Columns with constraints are
+ * checked with the {@link ConstraintEvaluator} as they are written. Columns given a constant value, such as partition
+ * columns, are filled with it rather than read. If row group constraints are given, row groups whose statistics show
+ * they can't hold a matching row are skipped without being fetched, see {@link RowGroupStatisticsFilter}.
+ */
+public class ParquetBlockReader
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParquetBlockReader.class);
+    private static final int ROWS_PER_BATCH = 64;
+    private static final long JULIAN_EPOCH_DAY = 2_440_588L;
+
+    private final InputFile inputFile;
+    private final Schema schema;
+    private final Map<String, String> constantValues;
+    private final Constraints rowGroupConstraints;
+
+    /**
+     * @param inputFile Parquet file to read.
+     * @param schema schema of the rows to read.
+     * @param constantValues values of columns which aren't read from the file, e.g. the split properties.
+     * @param rowGroupConstraints constraints used to skip row groups, null to read every row group.
+     */
+    public ParquetBlockReader(final InputFile inputFile, final Schema schema, final Map<String, String> constantValues,
+            final Constraints rowGroupConstraints)
+    {
+        this.inputFile = inputFile;
+        this.schema = schema;
+        this.constantValues = constantValues;
+        this.rowGroupConstraints = rowGroupConstraints;
+    }
+
+    /**
+     * Writes all rows of the file which pass the spiller's constraints.
+     *
+     * @param spiller spiller to write to.
+     * @param queryStatusChecker stops the read once the query terminated.
+     * @return number of rows read from the file, rows of skipped row groups are not counted.
+     * @throws IOException if the file can't be read.
+     */
+    public long read(final BlockSpiller spiller, final QueryStatusChecker queryStatusChecker)
+            throws IOException
+    {
+        long rowsRead = 0;
+        try (ParquetFileReader reader = ParquetFileReader.open(inputFile)) {
+            MessageType fileSchema = reader.getFooter().getFileMetaData().getSchema();
+            String createdBy = reader.getFooter().getFileMetaData().getCreatedBy();
+
+            List<Field> fields = schema.getFields();
+            ColumnDescriptor[] descriptors = new ColumnDescriptor[fields.size()];
+            ColumnWriter[] writers = new ColumnWriter[fields.size()];
+            List<Type> requested = new ArrayList<>();
+            ConstraintEvaluator evaluator = spiller.getConstraintEvaluator();
+            for (int i = 0; i < fields.size(); i++) {
+                Field field = fields.get(i);
+                // Columns missing from the file are null unless given a value.
+                if (constantValues.containsKey(field.getName()) || !fileSchema.containsField(field.getName())) {
+                    writers[i] = makeConstantWriter(field, constantValues.get(field.getName()), evaluator);
+                    continue;
+                }
+                Type type = fileSchema.getType(field.getName());
+                if (!type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED)) {
+                    throw new UnsupportedOperationException("Only flat Parquet columns are supported, got " + type + " in " + inputFile);
+                }
+                requested.add(type);
+                descriptors[i] = fileSchema.getColumnDescription(new String[] {type.getName()});
+                writers[i] = makeWriter(field, descriptors[i], evaluator);
+            }
+            MessageType requestedSchema = new MessageType(fileSchema.getName(), requested);
+            reader.setRequestedSchema(requestedSchema);
+            GroupRecordConverter converter = new GroupRecordConverter(requestedSchema);
+            RowGroupStatisticsFilter statisticsFilter = new RowGroupStatisticsFilter(fields, descriptors, rowGroupConstraints);
+
+            RowGroupWriter rowGroupWriter = new RowGroupWriter(fields, writers);
+            for (BlockMetaData rowGroupMetaData : reader.getRowGroups()) {
+                if (!queryStatusChecker.isQueryRunning()) {
+                    break;
+                }
+                if (!statisticsFilter.canMatch(rowGroupMetaData)) {
+                    LOGGER.debug("Skipping row group of {} rows at {} in {}", rowGroupMetaData.getRowCount(),
+                            rowGroupMetaData.getStartingPos(), inputFile);
+                    reader.skipNextRowGroup();
+                    continue;
+                }
+                PageReadStore rowGroup = reader.readNextRowGroup();
+                ColumnReadStoreImpl columnReadStore = new ColumnReadStoreImpl(rowGroup, converter.getRootConverter(), requestedSchema, createdBy);
+                ColumnReader[] readers = new ColumnReader[descriptors.length];
+                for (int i = 0; i < descriptors.length; i++) {
+                    readers[i] = descriptors[i] != null ? columnReadStore.getColumnReader(descriptors[i]) : null;
+                }
+                long remaining = rowGroup.getRowCount();
+                while (remaining > 0 && queryStatusChecker.isQueryRunning()) {
+                    int batchSize = (int) Math.min(ROWS_PER_BATCH, remaining);
+                    spiller.writeRows((Block block, int startRow) -> rowGroupWriter.write(block, startRow, readers, batchSize));
+                    remaining -= batchSize;
+                    rowsRead += batchSize;
+                }
+            }
+        }
+        return rowsRead;
+    }
+
+    private static ColumnWriter makeConstantWriter(final Field field, final String value, final ConstraintEvaluator evaluator)
+    {
+        String fieldName = field.getName();
+        return (FieldVector vector, int rowNum, ColumnReader reader) -> {
+            if (!evaluator.apply(fieldName, value)) {
+                return false;
+            }
+            BlockUtils.setValue(vector, rowNum, value);
+            return true;
+        };
+    }
+
+    /**
+     * Makes the writer of a column read from the file. Unconstrained columns of primitive Arrow types are written
+     * straight to their vector, the others are converted to the Java type {@link BlockUtils#setValue} expects.
+     */
+    private static ColumnWriter makeWriter(final Field field, final ColumnDescriptor descriptor, final ConstraintEvaluator evaluator)
+    {
+        int maxDefinitionLevel = descriptor.getMaxDefinitionLevel();
+        String fieldName = field.getName();
+        if (!evaluator.makeConstraintProjector(fieldName).isPresent()) {
+            switch (Types.getMinorTypeForArrowType(field.getType())) {
+                case BIGINT:
+                    return (FieldVector vector, int rowNum, ColumnReader reader) -> {
+                        if (reader.getCurrentDefinitionLevel() < maxDefinitionLevel) {
+                            ((BigIntVector) vector).setNull(rowNum);
+                        }
+                        else {
+                            ((BigIntVector) vector).setSafe(rowNum, readLong(reader));
+                        }
+                        return true;
+                    };
+                case INT:
+                    return (FieldVector vector, int rowNum, ColumnReader reader) -> {
+                        if (reader.getCurrentDefinitionLevel() < maxDefinitionLevel) {
+                            ((IntVector) vector).setNull(rowNum);
+                        }
+                        else {
+                            ((IntVector) vector).setSafe(rowNum, (int) readLong(reader));
+                        }
+                        return true;
+                    };
+                case FLOAT8:
+                    return (FieldVector vector, int rowNum, ColumnReader reader) -> {
+                        if (reader.getCurrentDefinitionLevel() < maxDefinitionLevel) {
+                            ((Float8Vector) vector).setNull(rowNum);
+                        }
+                        else {
+                            ((Float8Vector) vector).setSafe(rowNum, readDouble(reader));
+                        }
+                        return true;
+                    };
+                case DATEDAY:
+                    return (FieldVector vector, int rowNum, ColumnReader reader) -> {
+                        if (reader.getCurrentDefinitionLevel() < maxDefinitionLevel) {
+                            ((DateDayVector) vector).setNull(rowNum);
+                        }
+                        else {
+                            ((DateDayVector) vector).setSafe(rowNum, (int) readEpochDay(reader));
+                        }
+                        return true;
+                    };
+                case VARCHAR:
+                    return (FieldVector vector, int rowNum, ColumnReader reader) -> {
+                        if (reader.getCurrentDefinitionLevel() < maxDefinitionLevel) {
+                            ((VarCharVector) vector).setNull(rowNum);
+                        }
+                        else if (isString(reader.getDescriptor().getPrimitiveType())) {
+                            ByteBuffer bytes = reader.getBinary().toByteBuffer();
+                            ((VarCharVector) vector).setSafe(rowNum, bytes, bytes.position(), bytes.remaining());
+                        }
+                        else {
+                            ((VarCharVector) vector).setSafe(rowNum, readString(reader).getBytes(StandardCharsets.UTF_8));
+                        }
+                        return true;
+                    };
+                default:
+                    break;
+            }
+        }
+
+        ValueReader valueReader = makeValueReader(field);
+        return (FieldVector vector, int rowNum, ColumnReader reader) -> {
+            Object value = reader.getCurrentDefinitionLevel() < maxDefinitionLevel ? null : valueReader.read(reader);
+            if (!evaluator.apply(fieldName, value)) {
+                return false;
+            }
+            BlockUtils.setValue(vector, rowNum, value);
+            return true;
+        };
+    }
+
+    /**
+     * @return reader converting the current value of a column to the Java type of the Arrow field.
+     */
+    private static ValueReader makeValueReader(final Field field)
+    {
+        ArrowType type = field.getType();
+        switch (Types.getMinorTypeForArrowType(type)) {
+            case BIGINT:
+                return ParquetBlockReader::readLong;
+            case INT:
+                return (ColumnReader reader) -> (int) readLong(reader);
+            case SMALLINT:
+                return (ColumnReader reader) -> (short) readLong(reader);
+            case TINYINT:
+                return (ColumnReader reader) -> (byte) readLong(reader);
+            case FLOAT8:
+                return ParquetBlockReader::readDouble;
+            case FLOAT4:
+                return (ColumnReader reader) -> (float) readDouble(reader);
+            case BIT:
+                return ColumnReader::getBoolean;
+            case DATEDAY:
+                return (ColumnReader reader) -> LocalDate.ofEpochDay(readEpochDay(reader));
+            case DATEMILLI:
+                return (ColumnReader reader) -> LocalDateTime.ofInstant(Instant.ofEpochMilli(readTimestampMillis(reader)), ZoneOffset.UTC);
+            case DECIMAL:
+                int scale = ((ArrowType.Decimal) type).getScale();
+                return (ColumnReader reader) -> readDecimal(reader).setScale(scale, RoundingMode.HALF_UP);
+            case VARCHAR:
+                return ParquetBlockReader::readString;
+            case VARBINARY:
+                return (ColumnReader reader) -> reader.getBinary().getBytes();
+            default:
+                throw new UnsupportedOperationException("Unsupported Arrow type " + type + " for column " + field.getName());
+        }
+    }
+
+    /**
+     * @return true for binary columns holding text, which are copied to VARCHAR vectors as they are.
+     */
+    static boolean isString(final PrimitiveType primitiveType)
+    {
+        if (primitiveType.getPrimitiveTypeName() != PrimitiveType.PrimitiveTypeName.BINARY) {
+            return false;
+        }
+        LogicalTypeAnnotation annotation = primitiveType.getLogicalTypeAnnotation();
+        return annotation == null
+                || annotation instanceof LogicalTypeAnnotation.StringLogicalTypeAnnotation
+                || annotation instanceof LogicalTypeAnnotation.EnumLogicalTypeAnnotation
+                || annotation instanceof LogicalTypeAnnotation.JsonLogicalTypeAnnotation;
+    }
+
+    private static long readLong(final ColumnReader reader)
+    {
+        switch (reader.getDescriptor().getPrimitiveType().getPrimitiveTypeName()) {
+            case INT32:
+                return reader.getInteger();
+            case INT64:
+                return reader.getLong();
+            default:
+                throw new UnsupportedOperationException("Can't read an integer from " + reader.getDescriptor());
+        }
+    }
+
+    private static double readDouble(final ColumnReader reader)
+    {
+        switch (reader.getDescriptor().getPrimitiveType().getPrimitiveTypeName()) {
+            case FLOAT:
+                return reader.getFloat();
+            case DOUBLE:
+                return reader.getDouble();
+            case INT32:
+                return reader.getInteger();
+            case INT64:
+                return reader.getLong();
+            default:
+                throw new UnsupportedOperationException("Can't read a floating point number from " + reader.getDescriptor());
+        }
+    }
+
+    private static BigDecimal readDecimal(final ColumnReader reader)
+    {
+        PrimitiveType primitiveType = reader.getDescriptor().getPrimitiveType();
+        switch (primitiveType.getPrimitiveTypeName()) {
+            case INT32:
+                return toDecimal(primitiveType, reader.getInteger());
+            case INT64:
+                return toDecimal(primitiveType, reader.getLong());
+            case BINARY:
+            case FIXED_LEN_BYTE_ARRAY:
+                return new BigDecimal(new BigInteger(reader.getBinary().getBytes()), decimalScale(primitiveType));
+            case FLOAT:
+            case DOUBLE:
+                return BigDecimal.valueOf(readDouble(reader));
+            default:
+                throw new UnsupportedOperationException("Can't read a decimal from " + reader.getDescriptor());
+        }
+    }
+
+    static BigDecimal toDecimal(final PrimitiveType primitiveType, final long unscaledValue)
+    {
+        return BigDecimal.valueOf(unscaledValue, decimalScale(primitiveType));
+    }
+
+    static int decimalScale(final PrimitiveType primitiveType)
+    {
+        LogicalTypeAnnotation annotation = primitiveType.getLogicalTypeAnnotation();
+        return annotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation
+                ? ((LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) annotation).getScale() : 0;
+    }
+
+    private static long readEpochDay(final ColumnReader reader)
+    {
+        PrimitiveType primitiveType = reader.getDescriptor().getPrimitiveType();
+        if (primitiveType.getPrimitiveTypeName() == PrimitiveType.PrimitiveTypeName.INT32) {
+            return reader.getInteger();
+        }
+        return Math.floorDiv(readTimestampMillis(reader), TimeUnit.DAYS.toMillis(1));
+    }
+
+    private static long readTimestampMillis(final ColumnReader reader)
+    {
+        PrimitiveType primitiveType = reader.getDescriptor().getPrimitiveType();
+        switch (primitiveType.getPrimitiveTypeName()) {
+            case INT96:
+                // INT96 timestamps are the nanoseconds of the day followed by the julian day, both little endian.
+                ByteBuffer bytes = reader.getBinary().toByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+                long nanosOfDay = bytes.getLong();
+                long julianDay = bytes.getInt();
+                return TimeUnit.DAYS.toMillis(julianDay - JULIAN_EPOCH_DAY) + TimeUnit.NANOSECONDS.toMillis(nanosOfDay);
+            case INT32:
+                return TimeUnit.DAYS.toMillis(reader.getInteger());
+            default:
+                return toTimestampMillis(primitiveType, reader.getLong());
+        }
+    }
+
+    /**
+     * @return milliseconds since the epoch of an INT64 timestamp in the unit of its annotation, milliseconds if it
+     * has none.
+     */
+    static long toTimestampMillis(final PrimitiveType primitiveType, final long value)
+    {
+        LogicalTypeAnnotation annotation = primitiveType.getLogicalTypeAnnotation();
+        if (annotation instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) {
+            switch (((LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) annotation).getUnit()) {
+                case MICROS:
+                    return Math.floorDiv(value, 1000L);
+                case NANOS:
+                    return Math.floorDiv(value, 1_000_000L);
+                default:
+                    return value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Reads the current value of any column as text, for source types without an Arrow counterpart which are mapped to
+     * VARCHAR, such as Vertica's BOOLEAN and TIMESTAMP. Dates and timestamps are rendered as yyyy-MM-dd HH:mm:ss.
+     */
+    private static String readString(final ColumnReader reader)
+    {
+        PrimitiveType primitiveType = reader.getDescriptor().getPrimitiveType();
+        LogicalTypeAnnotation annotation = primitiveType.getLogicalTypeAnnotation();
+        if (annotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) {
+            return readDecimal(reader).toPlainString();
+        }
+        if (annotation instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation) {
+            return LocalDate.ofEpochDay(reader.getInteger()).toString();
+        }
+        if (annotation instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation
+                || primitiveType.getPrimitiveTypeName() == PrimitiveType.PrimitiveTypeName.INT96) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(readTimestampMillis(reader)), ZoneOffset.UTC).toString().replace('T', ' ');
+        }
+        switch (primitiveType.getPrimitiveTypeName()) {
+            case BOOLEAN:
+                return String.valueOf(reader.getBoolean());
+            case INT32:
+                return String.valueOf(reader.getInteger());
+            case INT64:
+                return String.valueOf(reader.getLong());
+            case FLOAT:
+                return String.valueOf(reader.getFloat());
+            case DOUBLE:
+                return String.valueOf(reader.getDouble());
+            default:
+                return reader.getBinary().toStringUsingUTF8();
+        }
+    }
+
+    private interface ColumnWriter
+    {
+        /**
+         * Writes the current value of a column to a row of the block.
+         *
+         * @param vector vector of the column in the block.
+         * @param rowNum row to write to.
+         * @param reader reader positioned on the value, null for columns not read from the file.
+         * @return true if the value passed the column's constraints.
+         */
+        boolean write(FieldVector vector, int rowNum, ColumnReader reader);
+    }
+
+    private interface ValueReader
+    {
+        Object read(ColumnReader reader);
+    }
+
+    /**
+     * Writes batches of rows of a row group into a Block. The writers and field names are held in arrays indexed by
+     * position in the requested schema, and the Block's vectors are looked up once per batch.
+     */
+    private static class RowGroupWriter
+    {
+        private final String[] fieldNames;
+        private final ColumnWriter[] writers;
+        private final FieldVector[] vectors;
+
+        RowGroupWriter(final List<Field> fields, final ColumnWriter[] writers)
+        {
+            this.fieldNames = fields.stream().map(Field::getName).toArray(String[]::new);
+            this.writers = writers;
+            this.vectors = new FieldVector[writers.length];
+        }
+
+        /**
+         * Reads the next rows of the row group and writes those which pass all constraints to consecutive rows of
+         * the Block.
+         *
+         * @param block The Block to write into.
+         * @param startRow The row number in the Block to write the first row to.
+         * @param readers The column readers of the row group, null for columns not read from the file.
+         * @param rowCount The number of rows to read.
+         * @return The number of rows written.
+         */
+        int write(final Block block, final int startRow, final ColumnReader[] readers, final int rowCount)
+        {
+            for (int i = 0; i < vectors.length; i++) {
+                vectors[i] = block.getFieldVector(fieldNames[i]);
+            }
+
+            int rowNum = startRow;
+            for (int row = 0; row < rowCount; row++) {
+                boolean matched = true;
+                for (int i = 0; i < writers.length; i++) {
+                    ColumnReader reader = readers[i];
+                    if (matched) {
+                        matched = writers[i].write(vectors[i], rowNum, reader);
+                    }
+                    if (reader != null) {
+                        // Every column advances by one value per row, whether or not the row is kept.
+                        if (reader.getCurrentDefinitionLevel() == reader.getDescriptor().getMaxDefinitionLevel()) {
+                            reader.skip();
+                        }
+                        reader.consume();
+                    }
+                }
+                //A row which failed a constraint is overwritten by the next row.
+                if (matched) {
+                    rowNum++;
+                }
+            }
+            return rowNum - startRow;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*-
+ * #%L
+ * athena-parquet
+ * %%
+ * Copyright (C) 2019 - 2022 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.parquet;
+
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Marker;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveComparator;
+import org.apache.parquet.schema.PrimitiveType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides from the min/max and null count statistics of its column chunks whether a row group can hold a row matching
+ * the constraints. Both the statistics and the constraint values are converted to a common form per Arrow type, the
+ * same conversion {@link ParquetBlockReader} applies to the values it reads, so a row group is only skipped when none
+ * of its values could pass. Columns whose statistics are missing or can't be compared never rule a row group out.
+ */
+public class RowGroupStatisticsFilter
+{
+    private final List<Field> fields;
+    private final ColumnDescriptor[] descriptors;
+    private final Constraints constraints;
+
+    /**
+     * @param fields fields of the requested schema.
+     * @param descriptors file columns of the fields, by position, null for fields not found in the file.
+     * @param constraints constraints of the read.
+     */
+    public RowGroupStatisticsFilter(final List<Field> fields, final ColumnDescriptor[] descriptors, final Constraints constraints)
+    {
+        this.fields = fields;
+        this.descriptors = descriptors;
+        this.constraints = constraints;
+    }
+
+    /**
+     * @param rowGroup metadata of the row group.
+     * @return false if no row of the row group can match the constraints.
+     */
+    public boolean canMatch(final BlockMetaData rowGroup)
+    {
+        if (constraints == null || constraints.getSummary() == null || constraints.getSummary().isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            ValueSet valueSet = constraints.getSummary().get(fields.get(i).getName());
+            if (descriptors[i] == null || !(valueSet instanceof SortedRangeSet)) {
+                continue;
+            }
+            ColumnChunkMetaData columnChunk = findColumnChunk(rowGroup, descriptors[i]);
+            if (columnChunk != null && !canMatch(fields.get(i).getType(), descriptors[i].getPrimitiveType(), columnChunk.getStatistics(),
+                    rowGroup.getRowCount(), (SortedRangeSet) valueSet)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ColumnChunkMetaData findColumnChunk(final BlockMetaData rowGroup, final ColumnDescriptor descriptor)
+    {
+        ColumnPath path = ColumnPath.get(descriptor.getPath());
+        for (ColumnChunkMetaData columnChunk : rowGroup.getColumns()) {
+            if (columnChunk.getPath().equals(path)) {
+                return columnChunk;
+            }
+        }
+        return null;
+    }
+
+    private static boolean canMatch(final ArrowType arrowType, final PrimitiveType primitiveType, final Statistics<?> statistics,
+            final long rowCount, final SortedRangeSet valueSet)
+    {
+        if (statistics == null || statistics.isEmpty()) {
+            return true;
+        }
+        boolean mayHaveNulls = !statistics.isNumNullsSet() || statistics.getNumNulls() > 0;
+        if (valueSet.isNullAllowed() && mayHaveNulls) {
+            return true;
+        }
+        if (!statistics.hasNonNullValue()) {
+            // Every value of the chunk is null, if the null count is known.
+            return !statistics.isNumNullsSet() || statistics.getNumNulls() < rowCount;
+        }
+
+        Types.MinorType minorType = Types.getMinorTypeForArrowType(arrowType);
+        Comparable<?> min = fromStatistic(arrowType, primitiveType, statistics.genericGetMin());
+        Comparable<?> max = fromStatistic(arrowType, primitiveType, statistics.genericGetMax());
+        if (min == null || max == null) {
+            return true;
+        }
+        for (Range range : valueSet.getRanges().getOrderedRanges()) {
+            if (!range.getHigh().isUpperUnbounded()) {
+                Comparable<?> high = fromConstraint(minorType, range.getHigh().getValue());
+                if (high == null) {
+                    return true;
+                }
+                int comparison = compare(high, min);
+                if (comparison < 0 || (comparison == 0 && range.getHigh().getBound() == Marker.Bound.BELOW)) {
+                    continue;
+                }
+            }
+            if (!range.getLow().isLowerUnbounded()) {
+                Comparable<?> low = fromConstraint(minorType, range.getLow().getValue());
+                if (low == null) {
+                    return true;
+                }
+                int comparison = compare(low, max);
+                if (comparison > 0 || (comparison == 0 && range.getLow().getBound() == Marker.Bound.ABOVE)) {
+                    continue;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Converts a min or max statistic to the form constraint values of the Arrow type are compared in.
+     *
+     * @return the converted value, null if the statistic can't be compared with the constraint values.
+     */
+    private static Comparable<?> fromStatistic(final ArrowType arrowType, final PrimitiveType primitiveType, final Object value)
+    {
+        PrimitiveType.PrimitiveTypeName typeName = primitiveType.getPrimitiveTypeName();
+        LogicalTypeAnnotation annotation = primitiveType.getLogicalTypeAnnotation();
+        switch (Types.getMinorTypeForArrowType(arrowType)) {
+            case BIGINT:
+            case INT:
+            case SMALLINT:
+            case TINYINT:
+                if ((typeName == PrimitiveType.PrimitiveTypeName.INT32 || typeName == PrimitiveType.PrimitiveTypeName.INT64)
+                        && (annotation == null || annotation instanceof LogicalTypeAnnotation.IntLogicalTypeAnnotation)) {
+                    return ((Number) value).longValue();
+                }
+                return null;
+            case FLOAT8:
+            case FLOAT4:
+                if (typeName == PrimitiveType.PrimitiveTypeName.FLOAT || typeName == PrimitiveType.PrimitiveTypeName.DOUBLE) {
+                    double number = ((Number) value).doubleValue();
+                    return Double.isNaN(number) ? null : number;
+                }
+                return null;
+            case DECIMAL:
+                if (!(annotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation)) {
+                    return null;
+                }
+                BigDecimal decimal;
+                if (typeName == PrimitiveType.PrimitiveTypeName.INT32 || typeName == PrimitiveType.PrimitiveTypeName.INT64) {
+                    decimal = ParquetBlockReader.toDecimal(primitiveType, ((Number) value).longValue());
+                }
+                else {
+                    decimal = new BigDecimal(new BigInteger(((Binary) value).getBytes()), ParquetBlockReader.decimalScale(primitiveType));
+                }
+                // Rounded like the values read, which could otherwise land on the other side of a bound.
+                return decimal.setScale(((ArrowType.Decimal) arrowType).getScale(), RoundingMode.HALF_UP);
+            case DATEDAY:
+                if (annotation instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation) {
+                    return ((Number) value).longValue();
+                }
+                if (annotation instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) {
+                    return Math.floorDiv(ParquetBlockReader.toTimestampMillis(primitiveType, (Long) value), TimeUnit.DAYS.toMillis(1));
+                }
+                return null;
+            case DATEMILLI:
+                if (annotation instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation) {
+                    return TimeUnit.DAYS.toMillis(((Number) value).longValue());
+                }
+                if (annotation instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) {
+                    return ParquetBlockReader.toTimestampMillis(primitiveType, (Long) value);
+                }
+                return null;
+            case VARCHAR:
+                // Only text keeps its order, numbers and timestamps rendered as text don't.
+                return ParquetBlockReader.isString(primitiveType) ? (Binary) value : null;
+            case BIT:
+                return typeName == PrimitiveType.PrimitiveTypeName.BOOLEAN ? (Boolean) value : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Converts a constraint value, as held by a {@link Marker}, to the form of {@link #fromStatistic}.
+     */
+    private static Comparable<?> fromConstraint(final Types.MinorType minorType, final Object value)
+    {
+        switch (minorType) {
+            case BIGINT:
+            case INT:
+            case SMALLINT:
+            case TINYINT:
+                return ((Number) value).longValue();
+            case FLOAT8:
+            case FLOAT4:
+                double number = ((Number) value).doubleValue();
+                return Double.isNaN(number) ? null : number;
+            case DECIMAL:
+                return (BigDecimal) value;
+            case DATEDAY:
+                return value instanceof LocalDate ? ((LocalDate) value).toEpochDay() : ((Number) value).longValue();
+            case DATEMILLI:
+                return value instanceof LocalDateTime ? ((LocalDateTime) value).toInstant(ZoneOffset.UTC).toEpochMilli() : ((Number) value).longValue();
+            case VARCHAR:
+                return Binary.fromString(value.toString());
+            case BIT:
+                return (Boolean) value;
+            default:
+                return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(final Comparable<?> left, final Comparable<?> right)
+    {
+        if (left instanceof Binary) {
+            // Parquet orders text by its unsigned UTF-8 bytes.
+            return PrimitiveComparator.UNSIGNED_LEXICOGRAPHICAL_BINARY_COMPARATOR.compare((Binary) left, (Binary) right);
+        }
+        if (left instanceof BigDecimal) {
+            return ((BigDecimal) left).compareTo((BigDecimal) right);
+        }
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+}
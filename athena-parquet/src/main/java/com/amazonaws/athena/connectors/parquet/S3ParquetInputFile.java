@@ -0,0 +1,204 @@
+/*-
+ * #%L
+ * athena-parquet
+ * %%
+ * Copyright (C) 2019 - 2022 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.parquet;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import org.apache.commons.lang3.Validate;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Parquet {@link InputFile} over an S3 object. Reads are served with ranged GETs, so only the footer and the column
+ * chunks being read are fetched rather than the whole object. Small reads, such as the footer and page headers, are
+ * widened to {@link #MIN_RANGE_BYTES} and served from the last fetched range.
+ */
+public class S3ParquetInputFile
+        implements InputFile
+{
+    static final int MIN_RANGE_BYTES = 1024 * 1024;
+
+    private final AmazonS3 amazonS3;
+    private final String bucket;
+    private final String key;
+    private long length = -1;
+
+    public S3ParquetInputFile(final AmazonS3 amazonS3, final String bucket, final String key)
+    {
+        this.amazonS3 = Validate.notNull(amazonS3, "amazonS3 must not be null");
+        this.bucket = Validate.notBlank(bucket, "bucket must not be blank");
+        this.key = Validate.notBlank(key, "key must not be blank");
+    }
+
+    @Override
+    public long getLength()
+    {
+        if (length < 0) {
+            length = amazonS3.getObjectMetadata(bucket, key).getContentLength();
+        }
+        return length;
+    }
+
+    @Override
+    public SeekableInputStream newStream()
+    {
+        return new RangedStream(getLength());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "s3://" + bucket + "/" + key;
+    }
+
+    private class RangedStream
+            extends SeekableInputStream
+    {
+        private final long length;
+        private long position;
+        private byte[] buffer = new byte[0];
+        private long bufferStart;
+
+        RangedStream(final long length)
+        {
+            this.length = length;
+        }
+
+        @Override
+        public long getPos()
+        {
+            return position;
+        }
+
+        @Override
+        public void seek(final long newPosition)
+                throws IOException
+        {
+            if (newPosition < 0 || newPosition > length) {
+                throw new EOFException("Seek to " + newPosition + " outside of " + S3ParquetInputFile.this);
+            }
+            position = newPosition;
+        }
+
+        @Override
+        public int read()
+                throws IOException
+        {
+            if (position >= length) {
+                return -1;
+            }
+            fill(1);
+            return buffer[(int) (position++ - bufferStart)] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int len)
+                throws IOException
+        {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= length) {
+                return -1;
+            }
+            int toRead = (int) Math.min(len, length - position);
+            readFully(bytes, offset, toRead);
+            return toRead;
+        }
+
+        @Override
+        public void readFully(final byte[] bytes)
+                throws IOException
+        {
+            readFully(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void readFully(final byte[] bytes, final int offset, final int len)
+                throws IOException
+        {
+            if (position + len > length) {
+                throw new EOFException("Read of " + len + " bytes at " + position + " past the end of " + S3ParquetInputFile.this);
+            }
+            fill(len);
+            System.arraycopy(buffer, (int) (position - bufferStart), bytes, offset, len);
+            position += len;
+        }
+
+        @Override
+        public int read(final ByteBuffer byteBuffer)
+                throws IOException
+        {
+            if (!byteBuffer.hasRemaining()) {
+                return 0;
+            }
+            if (position >= length) {
+                return -1;
+            }
+            int toRead = (int) Math.min(byteBuffer.remaining(), length - position);
+            fill(toRead);
+            byteBuffer.put(buffer, (int) (position - bufferStart), toRead);
+            position += toRead;
+            return toRead;
+        }
+
+        @Override
+        public void readFully(final ByteBuffer byteBuffer)
+                throws IOException
+        {
+            int len = byteBuffer.remaining();
+            if (position + len > length) {
+                throw new EOFException("Read of " + len + " bytes at " + position + " past the end of " + S3ParquetInputFile.this);
+            }
+            fill(len);
+            byteBuffer.put(buffer, (int) (position - bufferStart), len);
+            position += len;
+        }
+
+        /**
+         * Makes sure the buffer holds the len bytes following the current position, fetching them if it doesn't.
+         */
+        private void fill(final int len)
+                throws IOException
+        {
+            if (position >= bufferStart && position + len <= bufferStart + buffer.length) {
+                return;
+            }
+            long end = Math.min(length, position + Math.max(len, MIN_RANGE_BYTES));
+            byte[] range = new byte[(int) (end - position)];
+            GetObjectRequest request = new GetObjectRequest(bucket, key).withRange(position, end - 1);
+            try (S3Object object = amazonS3.getObject(request);
+                    S3ObjectInputStream stream = object.getObjectContent()) {
+                int read = stream.readNBytes(range, 0, range.length);
+                if (read < range.length) {
+                    throw new EOFException("Got " + read + " of " + range.length + " bytes at " + position + " from " + S3ParquetInputFile.this);
+                }
+            }
+            buffer = range;
+            bufferStart = position;
+        }
+    }
+}
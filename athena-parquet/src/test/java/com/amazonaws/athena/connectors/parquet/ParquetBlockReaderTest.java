@@ -0,0 +1,182 @@
+/*-
+ * #%L
+ * athena-parquet
+ * %%
+ * Copyright (C) 2019 - 2022 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.parquet;
+
+import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.S3BlockSpiller;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.data.SpillConfig;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class ParquetBlockReaderTest
+{
+    private static final String OBJECT_KEY = "testQueryId/0_0.parquet";
+    // The file holds ids 0 to 299 in three row groups of 100 rows, the third one starting at this offset.
+    private static final long THIRD_ROW_GROUP_START = 6301;
+
+    private AmazonS3 amazonS3;
+    private QueryStatusChecker queryStatusChecker;
+    private BlockAllocator allocator;
+    private List<GetObjectRequest> getObjectRequests;
+
+    @Before
+    public void setup()
+            throws Exception
+    {
+        byte[] object;
+        try (InputStream inputStream = getClass().getResourceAsStream("/export/0_0.parquet")) {
+            object = ByteStreams.toByteArray(inputStream);
+        }
+        this.amazonS3 = Mockito.mock(AmazonS3.class);
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setContentLength(object.length);
+        Mockito.when(this.amazonS3.getObjectMetadata("testBucket", OBJECT_KEY)).thenReturn(objectMetadata);
+        this.getObjectRequests = new ArrayList<>();
+        Mockito.when(this.amazonS3.getObject(Mockito.any(GetObjectRequest.class))).thenAnswer((InvocationOnMock invocation) -> {
+            GetObjectRequest request = (GetObjectRequest) invocation.getArguments()[0];
+            this.getObjectRequests.add(request);
+            long[] range = request.getRange();
+            S3Object s3Object = new S3Object();
+            s3Object.setObjectContent(new ByteArrayInputStream(object, (int) range[0], (int) (range[1] - range[0] + 1)));
+            return s3Object;
+        });
+
+        this.queryStatusChecker = Mockito.mock(QueryStatusChecker.class);
+        Mockito.when(this.queryStatusChecker.isQueryRunning()).thenReturn(true);
+        this.allocator = new BlockAllocatorImpl();
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.allocator.close();
+    }
+
+    @Test
+    public void readWithRowGroupConstraints()
+            throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder().addBigIntField("id").build();
+        Constraints constraints = makeIdConstraints(250L);
+
+        try (S3BlockSpiller spiller = makeSpiller(schema, constraints)) {
+            long rowsRead = new ParquetBlockReader(new S3ParquetInputFile(this.amazonS3, "testBucket", OBJECT_KEY), schema,
+                    Collections.emptyMap(), constraints).read(spiller, this.queryStatusChecker);
+
+            Assert.assertEquals(100, rowsRead);
+            Assert.assertEquals(50, spiller.getBlock().getRowCount());
+        }
+        // Only the third row group holds ids from 250, the first two are never fetched.
+        this.getObjectRequests.forEach(request -> Assert.assertTrue(request.getRange()[0] >= THIRD_ROW_GROUP_START));
+    }
+
+    @Test
+    public void readWithoutRowGroupConstraints()
+            throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder().addBigIntField("id").build();
+        Constraints constraints = makeIdConstraints(250L);
+
+        try (S3BlockSpiller spiller = makeSpiller(schema, constraints)) {
+            long rowsRead = new ParquetBlockReader(new S3ParquetInputFile(this.amazonS3, "testBucket", OBJECT_KEY), schema,
+                    Collections.emptyMap(), null).read(spiller, this.queryStatusChecker);
+
+            // Every row group is read, the constraints are still applied to the rows.
+            Assert.assertEquals(300, rowsRead);
+            Assert.assertEquals(50, spiller.getBlock().getRowCount());
+        }
+        Assert.assertTrue(this.getObjectRequests.stream().anyMatch(request -> request.getRange()[0] < THIRD_ROW_GROUP_START));
+    }
+
+    @Test
+    public void readWithConstantValues()
+            throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addBigIntField("id")
+                .addStringField("partition_name")
+                .addStringField("not_exported")
+                .build();
+        Map<String, String> constantValues = ImmutableMap.of("partition_name", "p0");
+
+        try (S3BlockSpiller spiller = makeSpiller(schema, new Constraints(Collections.emptyMap()))) {
+            new ParquetBlockReader(new S3ParquetInputFile(this.amazonS3, "testBucket", OBJECT_KEY), schema, constantValues, null)
+                    .read(spiller, this.queryStatusChecker);
+
+            Block block = spiller.getBlock();
+            Assert.assertEquals(300, block.getRowCount());
+            Assert.assertEquals("[id : 299], [partition_name : p0], [not_exported : null]", BlockUtils.rowToString(block, 299));
+        }
+    }
+
+    private Constraints makeIdConstraints(long minId)
+    {
+        return new Constraints(Collections.singletonMap("id",
+                SortedRangeSet.of(Range.greaterThanOrEqual(this.allocator, Types.MinorType.BIGINT.getType(), minId))));
+    }
+
+    private S3BlockSpiller makeSpiller(Schema schema, Constraints constraints)
+    {
+        SpillConfig spillConfig = SpillConfig.newBuilder()
+                .withEncryptionKey(new LocalKeyFactory().create())
+                .withRequestId("testQueryId")
+                .withMaxBlockBytes(100_000_000L)
+                .withMaxInlineBlockBytes(100_000_000L)
+                .withSpillLocation(S3SpillLocation.newBuilder()
+                        .withBucket("spillBucket")
+                        .withPrefix("spill")
+                        .withQueryId("testQueryId")
+                        .withSplitId("testSplitId")
+                        .withIsDirectory(true)
+                        .build())
+                .build();
+        return new S3BlockSpiller(this.amazonS3, spillConfig, this.allocator, schema, new ConstraintEvaluator(this.allocator, schema, constraints));
+    }
+}
@@ -25,6 +25,7 @@ import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockWriter;
 import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
 import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
@@ -36,6 +37,7 @@ import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcMetadataHandler;
 import com.amazonaws.athena.connectors.jdbc.manager.PreparedStatementBuilder;
+import com.amazonaws.athena.connectors.jdbc.splits.PartitionBound;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.annotations.VisibleForTesting;
@@ -51,11 +53,16 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static com.amazonaws.athena.connectors.postgresql.PostGreSqlConstants.POSTGRESQL_DEFAULT_PORT;
 import static com.amazonaws.athena.connectors.postgresql.PostGreSqlConstants.POSTGRESQL_DRIVER_CLASS;
@@ -74,6 +81,11 @@ public class PostGreSqlMetadataHandler
             "ON pg_inherits.inhparent = parent.oid JOIN pg_class child ON pg_inherits.inhrelid = child.oid JOIN pg_namespace nmsp_parent " +
             "ON nmsp_parent.oid = parent.relnamespace JOIN pg_namespace nmsp_child ON nmsp_child.oid = child.relnamespace where nmsp_parent.nspname = ? " +
             "AND parent.relname = ?";
+    public static final String GET_PARTITION_BOUNDS_QUERY = "SELECT nmsp_child.nspname AS child_schema, child.relname AS child, " +
+            "pg_get_expr(child.relpartbound, child.oid) AS partition_bound, pg_get_partkeydef(parent.oid) AS partition_key FROM pg_inherits " +
+            "JOIN pg_class parent ON pg_inherits.inhparent = parent.oid JOIN pg_class child ON pg_inherits.inhrelid = child.oid " +
+            "JOIN pg_namespace nmsp_parent ON nmsp_parent.oid = parent.relnamespace JOIN pg_namespace nmsp_child ON nmsp_child.oid = child.relnamespace " +
+            "where nmsp_parent.nspname = ? AND parent.relname = ?";
     public static final String BLOCK_PARTITION_COLUMN_NAME = "partition_name";
     public static final String BLOCK_PARTITION_SCHEMA_COLUMN_NAME = "partition_schema_name";
     public static final String ALL_PARTITIONS = "*";
@@ -81,6 +93,9 @@ public class PostGreSqlMetadataHandler
     private static final String PARTITION_SCHEMA_NAME = "child_schema";
     private static final String PARTITION_NAME = "child";
     private static final int MAX_SPLITS_PER_REQUEST = 1000_000;
+    private static final Pattern PARTITION_KEY = Pattern.compile("^(RANGE|LIST) \\((\"[^\"]+\"|[^\\s,()\"]+)\\)$");
+    private static final Pattern RANGE_BOUND = Pattern.compile("^FOR VALUES FROM \\((.*?)\\) TO \\((.*)\\)$");
+    private static final Pattern LIST_BOUND = Pattern.compile("^FOR VALUES IN \\((.*)\\)$");
 
     /**
      * Instantiates handler to be used by Lambda function directly.
@@ -126,6 +141,7 @@ public class PostGreSqlMetadataHandler
         try (Connection connection = getJdbcConnectionFactory().getConnection(getCredentialProvider())) {
             List<String> parameters = Arrays.asList(getTableLayoutRequest.getTableName().getSchemaName(),
                     getTableLayoutRequest.getTableName().getTableName());
+            Constraints constraints = getTableLayoutRequest.getConstraints();
             try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(GET_PARTITIONS_QUERY).withParameters(parameters).build();
                     ResultSet resultSet = preparedStatement.executeQuery()) {
                 // Return a single partition if no partitions defined
@@ -138,12 +154,18 @@ public class PostGreSqlMetadataHandler
                     });
                 }
                 else {
+                    Map<String, PartitionBound> partitionBounds = PartitionBound.canPrune(constraints)
+                            ? getPartitionBounds(connection, parameters) : Collections.emptyMap();
                     do {
                         final String partitionSchemaName = resultSet.getString(PARTITION_SCHEMA_NAME);
                         final String partitionName = resultSet.getString(PARTITION_NAME);
+                        PartitionBound partitionBound = partitionBounds.get(partitionSchemaName + "." + partitionName);
+                        if (partitionBound != null && !partitionBound.mayMatch(constraints)) {
+                            LOGGER.debug("Pruning partition {}.{}", partitionSchemaName, partitionName);
+                            continue;
+                        }
 
-                        // 1. Returns all partitions of table, we are not supporting constraints push down to filter partitions.
-                        // 2. This API is not paginated, we could use order by and limit clause with offsets here.
+                        // This API is not paginated, we could use order by and limit clause with offsets here.
                         blockWriter.writeRows((Block block, int rowNum) -> {
                             block.setValue(BLOCK_PARTITION_SCHEMA_COLUMN_NAME, rowNum, partitionSchemaName);
                             block.setValue(BLOCK_PARTITION_COLUMN_NAME, rowNum, partitionName);
@@ -160,6 +182,61 @@ public class PostGreSqlMetadataHandler
         }
     }
 
+    /**
+     * Reads the bounds of the partitions of a table declaratively partitioned by RANGE or LIST on a single column, other
+     * tables, inheritance children and DEFAULT partitions are not pruned.
+     *
+     * @param connection JDBC connection.
+     * @param parameters schema name and table name.
+     * @return bounds by qualified partition name, partitions without a known bound are missing.
+     */
+    protected Map<String, PartitionBound> getPartitionBounds(final Connection connection, final List<String> parameters)
+    {
+        Map<String, PartitionBound> partitionBounds = new HashMap<>();
+        try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(GET_PARTITION_BOUNDS_QUERY).withParameters(parameters).build();
+                ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+                String partitionKey = resultSet.getString("partition_key");
+                String bound = resultSet.getString("partition_bound");
+                Matcher keyMatcher = PARTITION_KEY.matcher(String.valueOf(partitionKey));
+                if (!keyMatcher.matches() || bound == null) {
+                    continue;
+                }
+                String columnName = keyMatcher.group(2).replace("\"", "");
+                String qualifiedName = resultSet.getString(PARTITION_SCHEMA_NAME) + "." + resultSet.getString(PARTITION_NAME);
+                Matcher rangeMatcher = RANGE_BOUND.matcher(bound);
+                Matcher listMatcher = LIST_BOUND.matcher(bound);
+                if (rangeMatcher.matches()) {
+                    partitionBounds.put(qualifiedName, PartitionBound.range(columnName, toBoundValue(rangeMatcher.group(1)), true,
+                            toBoundValue(rangeMatcher.group(2)), false));
+                }
+                else if (listMatcher.matches()) {
+                    List<String> values = new ArrayList<>();
+                    for (String literal : PartitionBound.splitLiterals(listMatcher.group(1))) {
+                        if (!"NULL".equalsIgnoreCase(literal)) {
+                            values.add(PartitionBound.unquote(literal));
+                        }
+                    }
+                    partitionBounds.put(qualifiedName, PartitionBound.list(columnName, values));
+                }
+            }
+        }
+        catch (SQLException sqlException) {
+            LOGGER.warn("Unable to read partition bounds, partitions are not pruned: {}", sqlException.getMessage());
+            return Collections.emptyMap();
+        }
+        return partitionBounds;
+    }
+
+    private static String toBoundValue(final String literal)
+    {
+        String trimmed = literal.trim();
+        if ("MINVALUE".equalsIgnoreCase(trimmed) || "MAXVALUE".equalsIgnoreCase(trimmed)) {
+            return null;
+        }
+        return PartitionBound.unquote(trimmed);
+    }
+
     @Override
     public GetSplitsResponse doGetSplits(BlockAllocator blockAllocator, GetSplitsRequest getSplitsRequest)
     {
@@ -22,9 +22,14 @@ package com.amazonaws.athena.connectors.postgresql;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder;
 import com.google.common.base.Strings;
+import org.apache.arrow.vector.types.Types;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Extends {@link JdbcSplitQueryBuilder} and implements PostGreSql specific SQL clauses for split.
@@ -72,4 +77,54 @@ public class PostGreSqlQueryStringBuilder
 
         return Collections.emptyList();
     }
+
+    /**
+     * Binds long IN-lists as one text array cast to the column type, {@code col = ANY (?::int8[])}, so the statement
+     * text does not depend on the list length.
+     */
+    @Override
+    protected Optional<String> buildInListPredicate(final InList inList)
+    {
+        return arrayType(inList).map(arrayType -> inList.getQuotedColumnName() + " = ANY (?::" + arrayType + "[])");
+    }
+
+    @Override
+    protected int bindInList(final Connection jdbcConnection, final PreparedStatement statement, final int parameterIndex, final InList inList)
+            throws SQLException
+    {
+        Object[] values = inList.getValues().stream()
+                .map(value -> toInListText(inList.getType(), value))
+                .toArray();
+        statement.setArray(parameterIndex, jdbcConnection.createArrayOf("text", values));
+        return 1;
+    }
+
+    private static Optional<String> arrayType(final InList inList)
+    {
+        switch (Types.getMinorTypeForArrowType(inList.getType())) {
+            case BIGINT:
+                return Optional.of("int8");
+            case INT:
+                return Optional.of("int4");
+            case SMALLINT:
+            case TINYINT:
+                return Optional.of("int2");
+            case FLOAT8:
+                return Optional.of("float8");
+            case FLOAT4:
+                return Optional.of("float4");
+            case BIT:
+                return Optional.of("bool");
+            case DECIMAL:
+                return Optional.of("numeric");
+            case DATEDAY:
+                return Optional.of("date");
+            case DATEMILLI:
+                return Optional.of("timestamp");
+            case VARCHAR:
+                return Optional.of("text");
+            default:
+                return Optional.empty();
+        }
+    }
 }
@@ -27,6 +27,8 @@ import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
 import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
@@ -60,6 +62,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -148,6 +151,46 @@ public class PostGreSqlMetadataHandlerTest
         Mockito.verify(preparedStatement, Mockito.times(1)).setString(2, tableName.getTableName());
     }
 
+    @Test
+    public void doGetTableLayoutWithPrunedPartitions()
+            throws Exception
+    {
+        BlockAllocator blockAllocator = new BlockAllocatorImpl();
+        int day = (int) LocalDate.of(2021, 6, 1).toEpochDay();
+        Constraints constraints = new Constraints(Collections.singletonMap("sale_date",
+                SortedRangeSet.of(false, Range.equal(blockAllocator, org.apache.arrow.vector.types.Types.MinorType.DATEDAY.getType(), day))));
+        TableName tableName = new TableName("testSchema", "testTable");
+        Schema partitionSchema = this.postGreSqlMetadataHandler.getPartitionSchema("testCatalogName");
+        Set<String> partitionCols = partitionSchema.getFields().stream().map(Field::getName).collect(Collectors.toSet());
+        GetTableLayoutRequest getTableLayoutRequest = new GetTableLayoutRequest(this.federatedIdentity, "testQueryId", "testCatalogName", tableName, constraints, partitionSchema, partitionCols);
+
+        PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(PostGreSqlMetadataHandler.GET_PARTITIONS_QUERY)).thenReturn(preparedStatement);
+        ResultSet resultSet = mockResultSet(new String[] {"child_schema", "child"}, new int[] {Types.VARCHAR, Types.VARCHAR},
+                new Object[][] {{"s0", "p2020"}, {"s0", "p2021"}, {"s0", "pdefault"}}, new AtomicInteger(-1));
+        Mockito.when(preparedStatement.executeQuery()).thenReturn(resultSet);
+
+        PreparedStatement boundsStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(PostGreSqlMetadataHandler.GET_PARTITION_BOUNDS_QUERY)).thenReturn(boundsStatement);
+        String[] columns = {"child_schema", "child", "partition_bound", "partition_key"};
+        int[] types = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+        Object[][] values = {
+                {"s0", "p2020", "FOR VALUES FROM ('2020-01-01') TO ('2021-01-01')", "RANGE (sale_date)"},
+                {"s0", "p2021", "FOR VALUES FROM ('2021-01-01') TO ('2022-01-01')", "RANGE (sale_date)"},
+                {"s0", "pdefault", "DEFAULT", "RANGE (sale_date)"}};
+        ResultSet boundsResultSet = mockResultSet(columns, types, values, new AtomicInteger(-1));
+        Mockito.when(boundsStatement.executeQuery()).thenReturn(boundsResultSet);
+
+        GetTableLayoutResponse getTableLayoutResponse = this.postGreSqlMetadataHandler.doGetTableLayout(blockAllocator, getTableLayoutRequest);
+
+        List<String> actualValues = new ArrayList<>();
+        for (int i = 0; i < getTableLayoutResponse.getPartitions().getRowCount(); i++) {
+            actualValues.add(BlockUtils.rowToString(getTableLayoutResponse.getPartitions(), i));
+        }
+        Assert.assertEquals(Arrays.asList("[partition_schema_name : s0], [partition_name : p2021]",
+                "[partition_schema_name : s0], [partition_name : pdefault]"), actualValues);
+    }
+
     @Test
     public void doGetTableLayoutWithNoPartitions()
             throws Exception
@@ -25,5 +25,22 @@ public class RedshiftConstants
     public static final String REDSHIFT_DRIVER_CLASS = "com.amazon.redshift.jdbc.Driver";
     public static final int REDSHIFT_DEFAULT_PORT = 5439;
 
+    /**
+     * Environment variable naming the S3 bucket UNLOAD writes to, setting it enables reading tables through UNLOAD.
+     */
+    public static final String UNLOAD_BUCKET_ENV = "unload_bucket";
+    /**
+     * Environment variable holding the ARN of the IAM role Redshift assumes to write to the unload bucket.
+     */
+    public static final String UNLOAD_IAM_ROLE_ENV = "unload_iam_role";
+    /**
+     * Environment variable bounding how long, in seconds, doGetSplits waits for UNLOAD before cancelling it.
+     */
+    public static final String UNLOAD_TIMEOUT_ENV = "unload_timeout_seconds";
+    // Leaves a Lambda with the maximum timeout of 900 seconds time to list the unloaded files.
+    public static final int DEFAULT_UNLOAD_TIMEOUT_SECONDS = 600;
+    public static final String UNLOAD_BUCKET_PROPERTY = "unloadBucket";
+    public static final String UNLOAD_OBJECT_KEY_PROPERTY = "unloadObjectKey";
+
     private RedshiftConstants() {}
 }
@@ -19,27 +19,85 @@
  */
 package com.amazonaws.athena.connectors.redshift;
 
+import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableRequest;
 import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
 import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionInfo;
 import com.amazonaws.athena.connectors.jdbc.connection.GenericJdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
+import com.amazonaws.athena.connectors.jdbc.splits.PartitionBound;
 import com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler;
 import com.amazonaws.services.athena.AmazonAthena;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.arrow.util.VisibleForTesting;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.athena.connectors.postgresql.PostGreSqlConstants.POSTGRES_QUOTE_CHARACTER;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.DEFAULT_UNLOAD_TIMEOUT_SECONDS;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_DEFAULT_PORT;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_DRIVER_CLASS;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_NAME;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.UNLOAD_BUCKET_ENV;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.UNLOAD_BUCKET_PROPERTY;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.UNLOAD_IAM_ROLE_ENV;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.UNLOAD_OBJECT_KEY_PROPERTY;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.UNLOAD_TIMEOUT_ENV;
 
 /**
- * Handles metadata for PostGreSql. User must have access to `schemata`, `tables`, `columns`, `partitions` tables in
- * information_schema.
+ * Handles metadata for Redshift. Tables are read over JDBC like PostgreSQL tables unless the unload_bucket environment
+ * variable is set, then doGetSplits runs UNLOAD to write the table, with the constraints pushed down, as Parquet files
+ * under a per-query prefix of that bucket and creates one split per file, see {@link RedshiftRecordHandler}. The bucket
+ * should expire objects with a lifecycle rule, unloaded files aren't deleted by the connector. UNLOAD is cancelled once
+ * the query terminates or after unload_timeout_seconds.
  */
 public class RedshiftMetadataHandler
         extends PostGreSqlMetadataHandler
 {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedshiftMetadataHandler.class);
+    private static final long QUERY_STATUS_CHECK_INTERVAL_MS = 1000;
+
+    private static final ScheduledExecutorService UNLOAD_WATCHDOG = Executors.newSingleThreadScheduledExecutor((Runnable runnable) -> {
+        Thread thread = new Thread(runnable, "RedshiftUnloadWatchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AmazonS3 amazonS3;
+    private final String unloadBucket;
+    private final String unloadIamRole;
+    private final int unloadTimeoutSeconds = getUnloadTimeoutSeconds(System.getenv(UNLOAD_TIMEOUT_ENV));
+    private final RedshiftUnloadQueryBuilder unloadQueryBuilder = new RedshiftUnloadQueryBuilder(POSTGRES_QUOTE_CHARACTER);
+
     /**
      * Instantiates handler to be used by Lambda function directly.
      *
@@ -53,11 +111,155 @@ public class RedshiftMetadataHandler
     public RedshiftMetadataHandler(final DatabaseConnectionConfig databaseConnectionConfig)
     {
         super(databaseConnectionConfig, new GenericJdbcConnectionFactory(databaseConnectionConfig, JDBC_PROPERTIES, new DatabaseConnectionInfo(REDSHIFT_DRIVER_CLASS, REDSHIFT_DEFAULT_PORT)));
+        this.unloadBucket = System.getenv(UNLOAD_BUCKET_ENV);
+        this.unloadIamRole = System.getenv(UNLOAD_IAM_ROLE_ENV);
+        this.amazonS3 = StringUtils.isNotBlank(unloadBucket) ? AmazonS3ClientBuilder.defaultClient() : null;
     }
 
     @VisibleForTesting
     RedshiftMetadataHandler(DatabaseConnectionConfig databaseConnectionConfig, AWSSecretsManager secretsManager, AmazonAthena athena, JdbcConnectionFactory jdbcConnectionFactory)
+    {
+        this(databaseConnectionConfig, secretsManager, athena, jdbcConnectionFactory, null, null, null);
+    }
+
+    @VisibleForTesting
+    RedshiftMetadataHandler(DatabaseConnectionConfig databaseConnectionConfig, AWSSecretsManager secretsManager, AmazonAthena athena, JdbcConnectionFactory jdbcConnectionFactory,
+            AmazonS3 amazonS3, String unloadBucket, String unloadIamRole)
     {
         super(databaseConnectionConfig, secretsManager, athena, jdbcConnectionFactory);
+        this.amazonS3 = amazonS3;
+        this.unloadBucket = unloadBucket;
+        this.unloadIamRole = unloadIamRole;
+    }
+
+    /**
+     * Redshift has no declarative partitioning to read bounds from.
+     */
+    @Override
+    protected Map<String, PartitionBound> getPartitionBounds(final Connection connection, final List<String> parameters)
+    {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public GetSplitsResponse doGetSplits(BlockAllocator blockAllocator, GetSplitsRequest getSplitsRequest)
+    {
+        if (StringUtils.isBlank(unloadBucket)) {
+            return super.doGetSplits(blockAllocator, getSplitsRequest);
+        }
+
+        Set<String> partitionColumns = new HashSet<>(getSplitsRequest.getPartitionCols());
+        partitionColumns.add(BLOCK_PARTITION_SCHEMA_COLUMN_NAME);
+        partitionColumns.add(BLOCK_PARTITION_COLUMN_NAME);
+        // The request only carries the partition schema, UNLOAD needs the table's columns.
+        Schema tableSchema = doGetTable(blockAllocator, new GetTableRequest(getSplitsRequest.getIdentity(), getSplitsRequest.getQueryId(),
+                getSplitsRequest.getCatalogName(), getSplitsRequest.getTableName())).getSchema();
+        String select = unloadQueryBuilder.buildSelect(getSplitsRequest.getTableName().getSchemaName(), getSplitsRequest.getTableName().getTableName(),
+                tableSchema, getSplitsRequest.getConstraints(), partitionColumns);
+        // The prefix only depends on the query and the unloaded SELECT, so retries overwrite their own files and
+        // several scans of the same table in a query don't collide.
+        String prefix = getSplitsRequest.getQueryId() + "/" + UUID.nameUUIDFromBytes(select.getBytes(StandardCharsets.UTF_8)) + "/";
+        try (QueryStatusChecker queryStatusChecker = makeQueryStatusChecker(getSplitsRequest.getQueryId())) {
+            unload(unloadQueryBuilder.buildUnload(select, unloadBucket, prefix, unloadIamRole), queryStatusChecker);
+        }
+
+        List<String> keys = listUnloadedObjects(prefix);
+        LOGGER.info("{}: UNLOAD wrote {} files under s3://{}/{}", getSplitsRequest.getQueryId(), keys.size(), unloadBucket, prefix);
+        if (keys.isEmpty()) {
+            // Nothing matched, a split without object key reads no rows.
+            keys = Collections.singletonList("");
+        }
+        Set<Split> splits = new HashSet<>();
+        for (String key : keys) {
+            splits.add(Split.newBuilder(makeSpillLocation(getSplitsRequest), makeEncryptionKey())
+                    .add(BLOCK_PARTITION_SCHEMA_COLUMN_NAME, ALL_PARTITIONS)
+                    .add(BLOCK_PARTITION_COLUMN_NAME, ALL_PARTITIONS)
+                    .add(UNLOAD_BUCKET_PROPERTY, unloadBucket)
+                    .add(UNLOAD_OBJECT_KEY_PROPERTY, key)
+                    .build());
+        }
+        return new GetSplitsResponse(getSplitsRequest.getCatalogName(), splits, null);
+    }
+
+    @SuppressFBWarnings("SQL_NONCONSTANT_STRING_PASSED_TO_EXECUTE")
+    private void unload(final String unloadStatement, final QueryStatusChecker queryStatusChecker)
+    {
+        try (Connection connection = getJdbcConnectionFactory().getConnection(getCredentialProvider());
+                Statement statement = connection.createStatement()) {
+            LOGGER.debug("Unloading with: {}", unloadStatement);
+            statement.setQueryTimeout(unloadTimeoutSeconds);
+            ScheduledFuture<?> watchdog = UNLOAD_WATCHDOG.scheduleWithFixedDelay(() -> cancelIfQueryTerminated(statement, queryStatusChecker),
+                    QUERY_STATUS_CHECK_INTERVAL_MS, QUERY_STATUS_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            try {
+                statement.execute(unloadStatement);
+            }
+            finally {
+                watchdog.cancel(false);
+            }
+        }
+        catch (SQLException sqlException) {
+            if (!queryStatusChecker.isQueryRunning()) {
+                throw new RuntimeException("UNLOAD cancelled, the query is no longer running: " + sqlException.getMessage(), sqlException);
+            }
+            throw new RuntimeException(sqlException.getErrorCode() + ": " + sqlException.getMessage(), sqlException);
+        }
+    }
+
+    private static void cancelIfQueryTerminated(final Statement statement, final QueryStatusChecker queryStatusChecker)
+    {
+        if (queryStatusChecker.isQueryRunning()) {
+            return;
+        }
+        try {
+            LOGGER.info("Query is no longer running, cancelling UNLOAD");
+            statement.cancel();
+        }
+        catch (SQLException sqlException) {
+            LOGGER.warn("Could not cancel UNLOAD: {}", sqlException.getMessage());
+        }
+    }
+
+    /**
+     * Parses the unload_timeout_seconds environment variable.
+     *
+     * @param unloadTimeout The value of the variable, null if it is not set.
+     * @return The timeout of an UNLOAD in seconds, DEFAULT_UNLOAD_TIMEOUT_SECONDS if the variable is not set.
+     */
+    @VisibleForTesting
+    static int getUnloadTimeoutSeconds(String unloadTimeout)
+    {
+        if (StringUtils.isBlank(unloadTimeout)) {
+            return DEFAULT_UNLOAD_TIMEOUT_SECONDS;
+        }
+        int timeoutSeconds;
+        try {
+            timeoutSeconds = Integer.parseInt(unloadTimeout.trim());
+        }
+        catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(UNLOAD_TIMEOUT_ENV + " must be a positive number of seconds but was " + unloadTimeout, ex);
+        }
+        if (timeoutSeconds <= 0) {
+            throw new IllegalArgumentException(UNLOAD_TIMEOUT_ENV + " must be a positive number of seconds but was " + unloadTimeout);
+        }
+        return timeoutSeconds;
+    }
+
+    private List<String> listUnloadedObjects(final String prefix)
+    {
+        List<String> keys = new ArrayList<>();
+        ListObjectsV2Request request = new ListObjectsV2Request().withBucketName(unloadBucket).withPrefix(prefix);
+        ListObjectsV2Result result;
+        do {
+            result = amazonS3.listObjectsV2(request);
+            for (S3ObjectSummary objectSummary : result.getObjectSummaries()) {
+                // Skip zero byte objects such as folder markers.
+                if (objectSummary.getSize() > 0) {
+                    keys.add(objectSummary.getKey());
+                }
+            }
+            request.setContinuationToken(result.getNextContinuationToken());
+        }
+        while (result.isTruncated());
+        return keys;
     }
 }
@@ -19,15 +19,20 @@
  */
 package com.amazonaws.athena.connectors.redshift;
 
+import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
+import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
 import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
 import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionInfo;
 import com.amazonaws.athena.connectors.jdbc.connection.GenericJdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder;
+import com.amazonaws.athena.connectors.parquet.ParquetBlockReader;
+import com.amazonaws.athena.connectors.parquet.S3ParquetInputFile;
 import com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler;
 import com.amazonaws.athena.connectors.postgresql.PostGreSqlMuxCompositeHandler;
-import com.amazonaws.athena.connectors.postgresql.PostGreSqlQueryStringBuilder;
 import com.amazonaws.athena.connectors.postgresql.PostGreSqlRecordHandler;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.athena.AmazonAthenaClientBuilder;
@@ -39,16 +44,22 @@ import org.apache.arrow.util.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+
 import static com.amazonaws.athena.connectors.postgresql.PostGreSqlConstants.POSTGRES_QUOTE_CHARACTER;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_DEFAULT_PORT;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_DRIVER_CLASS;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_NAME;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.UNLOAD_BUCKET_PROPERTY;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.UNLOAD_OBJECT_KEY_PROPERTY;
 
 public class RedshiftRecordHandler
         extends PostGreSqlRecordHandler
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(RedshiftRecordHandler.class);
 
+    private final AmazonS3 amazonS3;
+
     /**
      * Instantiates handler to be used by Lambda function directly.
      *
@@ -61,13 +72,41 @@ public class RedshiftRecordHandler
 
     public RedshiftRecordHandler(final DatabaseConnectionConfig databaseConnectionConfig)
     {
-        super(databaseConnectionConfig, AmazonS3ClientBuilder.defaultClient(), AWSSecretsManagerClientBuilder.defaultClient(), AmazonAthenaClientBuilder.defaultClient(),
-                new GenericJdbcConnectionFactory(databaseConnectionConfig, PostGreSqlMetadataHandler.JDBC_PROPERTIES, new DatabaseConnectionInfo(REDSHIFT_DRIVER_CLASS, REDSHIFT_DEFAULT_PORT)), new PostGreSqlQueryStringBuilder(POSTGRES_QUOTE_CHARACTER));
+        this(databaseConnectionConfig, AmazonS3ClientBuilder.defaultClient(), AWSSecretsManagerClientBuilder.defaultClient(), AmazonAthenaClientBuilder.defaultClient(),
+                new GenericJdbcConnectionFactory(databaseConnectionConfig, PostGreSqlMetadataHandler.JDBC_PROPERTIES, new DatabaseConnectionInfo(REDSHIFT_DRIVER_CLASS, REDSHIFT_DEFAULT_PORT)), new RedshiftQueryStringBuilder(POSTGRES_QUOTE_CHARACTER));
     }
 
     @VisibleForTesting
     RedshiftRecordHandler(DatabaseConnectionConfig databaseConnectionConfig, AmazonS3 amazonS3, AWSSecretsManager secretsManager, AmazonAthena athena, JdbcConnectionFactory jdbcConnectionFactory, JdbcSplitQueryBuilder jdbcSplitQueryBuilder)
     {
         super(databaseConnectionConfig, amazonS3, secretsManager, athena, jdbcConnectionFactory, jdbcSplitQueryBuilder);
+        this.amazonS3 = amazonS3;
+    }
+
+    /**
+     * Reads splits created from UNLOAD output from S3, see {@link RedshiftMetadataHandler}, and other splits over JDBC.
+     */
+    @Override
+    public void readWithConstraint(BlockSpiller blockSpiller, ReadRecordsRequest readRecordsRequest, QueryStatusChecker queryStatusChecker)
+    {
+        Split split = readRecordsRequest.getSplit();
+        if (!split.getProperties().containsKey(UNLOAD_OBJECT_KEY_PROPERTY)) {
+            super.readWithConstraint(blockSpiller, readRecordsRequest, queryStatusChecker);
+            return;
+        }
+
+        String key = split.getProperty(UNLOAD_OBJECT_KEY_PROPERTY);
+        if (key.isEmpty()) {
+            LOGGER.info("{}: UNLOAD returned no rows", readRecordsRequest.getQueryId());
+            return;
+        }
+        S3ParquetInputFile inputFile = new S3ParquetInputFile(amazonS3, split.getProperty(UNLOAD_BUCKET_PROPERTY), key);
+        try {
+            long rows = new ParquetBlockReader(inputFile, readRecordsRequest.getSchema(), split.getProperties(), null).read(blockSpiller, queryStatusChecker);
+            LOGGER.info("{}: {} rows read from {}", readRecordsRequest.getQueryId(), rows, inputFile);
+        }
+        catch (IOException ex) {
+            throw new RuntimeException("Error reading unloaded file " + inputFile + ": " + ex.getMessage(), ex);
+        }
     }
 }
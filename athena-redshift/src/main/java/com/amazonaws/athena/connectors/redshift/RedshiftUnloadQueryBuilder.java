@@ -0,0 +1,213 @@
+/*-
+ * #%L
+ * athena-redshift
+ * %%
+ * Copyright (C) 2019 - 2022 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.redshift;
+
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Marker;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.google.common.base.Joiner;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.commons.lang3.Validate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the UNLOAD statements used to read tables through S3. UNLOAD takes its query as a string literal and doesn't
+ * accept bind parameters, so unlike {@link com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder} the
+ * constraints are rendered as SQL literals. Constraints on types without a literal form here are left out, they are
+ * still applied when the unloaded rows are read.
+ */
+public class RedshiftUnloadQueryBuilder
+{
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final String quoteCharacter;
+
+    /**
+     * @param quoteCharacter database quote character for enclosing identifiers.
+     */
+    public RedshiftUnloadQueryBuilder(final String quoteCharacter)
+    {
+        this.quoteCharacter = Validate.notBlank(quoteCharacter, "quoteCharacter must not be blank");
+    }
+
+    /**
+     * @param schema table schema name.
+     * @param table table name.
+     * @param tableSchema table schema (column and type information).
+     * @param constraints constraints passed by Athena to push down.
+     * @param excludedColumns columns not stored in the table, e.g. partition columns.
+     * @return SELECT statement with the constraints inlined.
+     */
+    public String buildSelect(final String schema, final String table, final Schema tableSchema, final Constraints constraints,
+            final Set<String> excludedColumns)
+    {
+        List<Field> columns = tableSchema.getFields().stream()
+                .filter(field -> !excludedColumns.contains(field.getName()))
+                .collect(Collectors.toList());
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (columns.isEmpty()) {
+            sql.append("null");
+        }
+        else {
+            sql.append(columns.stream().map(field -> quote(field.getName())).collect(Collectors.joining(", ")));
+        }
+        sql.append(" FROM ").append(quote(schema)).append('.').append(quote(table));
+
+        List<String> conjuncts = new ArrayList<>();
+        if (constraints.getSummary() != null) {
+            for (Field column : columns) {
+                ValueSet valueSet = constraints.getSummary().get(column.getName());
+                if (valueSet != null) {
+                    toPredicate(column.getName(), valueSet, column.getType()).ifPresent(conjuncts::add);
+                }
+            }
+        }
+        if (!conjuncts.isEmpty()) {
+            sql.append(" WHERE ").append(Joiner.on(" AND ").join(conjuncts));
+        }
+        return sql.toString();
+    }
+
+    /**
+     * @param select query whose result is unloaded, see {@link #buildSelect}.
+     * @param bucket S3 bucket to unload to.
+     * @param prefix S3 key prefix of the unloaded files.
+     * @param iamRole ARN of the IAM role Redshift assumes to write to the bucket.
+     * @return UNLOAD statement writing the result as Parquet files.
+     */
+    public String buildUnload(final String select, final String bucket, final String prefix, final String iamRole)
+    {
+        Validate.notBlank(iamRole, "iamRole must not be blank");
+        return String.format("UNLOAD (%s) TO %s IAM_ROLE %s FORMAT AS PARQUET ALLOWOVERWRITE",
+                toStringLiteral(select), toStringLiteral("s3://" + bucket + "/" + prefix), toStringLiteral(iamRole));
+    }
+
+    private Optional<String> toPredicate(final String columnName, final ValueSet valueSet, final ArrowType type)
+    {
+        if (!(valueSet instanceof SortedRangeSet)) {
+            return Optional.empty();
+        }
+        String column = quote(columnName);
+        if (valueSet.isNone() && valueSet.isNullAllowed()) {
+            return Optional.of(String.format("(%s IS NULL)", column));
+        }
+        Range span = ((SortedRangeSet) valueSet).getSpan();
+        if (!valueSet.isNullAllowed() && span.getLow().isLowerUnbounded() && span.getHigh().isUpperUnbounded()) {
+            return Optional.of(String.format("(%s IS NOT NULL)", column));
+        }
+
+        List<String> disjuncts = new ArrayList<>();
+        if (valueSet.isNullAllowed()) {
+            disjuncts.add(String.format("(%s IS NULL)", column));
+        }
+        List<String> singleValues = new ArrayList<>();
+        for (Range range : valueSet.getRanges().getOrderedRanges()) {
+            if (range.isSingleValue()) {
+                Optional<String> literal = toLiteral(type, range.getLow().getValue());
+                if (!literal.isPresent()) {
+                    return Optional.empty();
+                }
+                singleValues.add(literal.get());
+                continue;
+            }
+            List<String> rangeConjuncts = new ArrayList<>();
+            if (!range.getLow().isLowerUnbounded()) {
+                Optional<String> literal = toLiteral(type, range.getLow().getValue());
+                if (!literal.isPresent()) {
+                    return Optional.empty();
+                }
+                rangeConjuncts.add(column + (range.getLow().getBound() == Marker.Bound.ABOVE ? " > " : " >= ") + literal.get());
+            }
+            if (!range.getHigh().isUpperUnbounded()) {
+                Optional<String> literal = toLiteral(type, range.getHigh().getValue());
+                if (!literal.isPresent()) {
+                    return Optional.empty();
+                }
+                rangeConjuncts.add(column + (range.getHigh().getBound() == Marker.Bound.BELOW ? " < " : " <= ") + literal.get());
+            }
+            disjuncts.add("(" + Joiner.on(" AND ").join(rangeConjuncts) + ")");
+        }
+        if (singleValues.size() == 1) {
+            disjuncts.add(column + " = " + singleValues.get(0));
+        }
+        else if (singleValues.size() > 1) {
+            disjuncts.add(column + " IN (" + Joiner.on(",").join(singleValues) + ")");
+        }
+        if (disjuncts.isEmpty()) {
+            return Optional.of("(FALSE)");
+        }
+        return Optional.of("(" + Joiner.on(" OR ").join(disjuncts) + ")");
+    }
+
+    private static Optional<String> toLiteral(final ArrowType type, final Object value)
+    {
+        switch (Types.getMinorTypeForArrowType(type)) {
+            case BIGINT:
+            case INT:
+            case SMALLINT:
+            case TINYINT:
+                return Optional.of(String.valueOf(((Number) value).longValue()));
+            case FLOAT4:
+            case FLOAT8:
+                double number = ((Number) value).doubleValue();
+                return Double.isFinite(number) ? Optional.of(String.valueOf(value)) : Optional.empty();
+            case DECIMAL:
+                return Optional.of(((BigDecimal) value).toPlainString());
+            case BIT:
+                return Optional.of(((Boolean) value) ? "TRUE" : "FALSE");
+            case DATEDAY:
+                return Optional.of("DATE " + toStringLiteral(LocalDate.ofEpochDay(((Number) value).longValue()).toString()));
+            case DATEMILLI:
+                return Optional.of("TIMESTAMP " + toStringLiteral(((LocalDateTime) value).format(TIMESTAMP_FORMAT)));
+            case VARCHAR:
+                return Optional.of(toStringLiteral(String.valueOf(value)));
+            default:
+                return Optional.empty();
+        }
+    }
+
+    /**
+     * Redshift treats backslashes in string literals as escape characters, both they and quotes are doubled.
+     */
+    static String toStringLiteral(final String value)
+    {
+        return "'" + value.replace("\\", "\\\\").replace("'", "''") + "'";
+    }
+
+    private String quote(final String name)
+    {
+        return quoteCharacter + name.replace(quoteCharacter, quoteCharacter + quoteCharacter) + quoteCharacter;
+    }
+}
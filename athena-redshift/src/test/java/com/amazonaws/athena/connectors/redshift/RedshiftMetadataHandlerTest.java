@@ -19,6 +19,7 @@
  */
 package com.amazonaws.athena.connectors.redshift;
 
+import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
 import com.amazonaws.athena.connector.lambda.data.BlockUtils;
@@ -27,6 +28,8 @@ import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
 import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
@@ -40,6 +43,14 @@ import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcCredentialProvider;
 import com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler;
 import com.amazonaws.services.athena.AmazonAthena;
+import com.amazonaws.services.athena.model.GetQueryExecutionRequest;
+import com.amazonaws.services.athena.model.GetQueryExecutionResult;
+import com.amazonaws.services.athena.model.QueryExecution;
+import com.amazonaws.services.athena.model.QueryExecutionStatus;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
 import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
@@ -52,14 +63,17 @@ import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -68,6 +82,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -283,6 +300,139 @@ public class RedshiftMetadataHandlerTest
         Assert.assertEquals(expectedSplits, actualSplits);
     }
 
+    @Test
+    public void doGetSplitsWithUnload()
+            throws Exception
+    {
+        AmazonS3 amazonS3 = Mockito.mock(AmazonS3.class);
+        RedshiftMetadataHandler redshiftMetadataHandler = new RedshiftMetadataHandler(databaseConnectionConfig, this.secretsManager, this.athena,
+                this.jdbcConnectionFactory, amazonS3, "testBucket", "arn:aws:iam::123456789012:role/unload");
+
+        String[] schema = {"DATA_TYPE", "COLUMN_NAME", "COLUMN_SIZE", "DECIMAL_DIGITS", "TYPE_NAME"};
+        Object[][] values = {{Types.BIGINT, "id", 0, 0, "int8"}, {Types.VARCHAR, "name", 0, 0, "varchar"}};
+        ResultSet resultSet = mockResultSet(schema, values, new AtomicInteger(-1));
+        TableName tableName = new TableName("testSchema", "testTable");
+        Mockito.when(connection.getMetaData().getColumns("testCatalog", tableName.getSchemaName(), tableName.getTableName(), null)).thenReturn(resultSet);
+        Mockito.when(connection.getCatalog()).thenReturn("testCatalog");
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+
+        ListObjectsV2Result listObjectsResult = new ListObjectsV2Result();
+        for (String key : Arrays.asList("0000_part_00.parquet", "0001_part_00.parquet", "folder_marker")) {
+            S3ObjectSummary objectSummary = new S3ObjectSummary();
+            objectSummary.setKey(key);
+            objectSummary.setSize(key.endsWith(".parquet") ? 1024 : 0);
+            listObjectsResult.getObjectSummaries().add(objectSummary);
+        }
+        ArgumentCaptor<ListObjectsV2Request> listObjectsRequest = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        Mockito.when(amazonS3.listObjectsV2(listObjectsRequest.capture())).thenReturn(listObjectsResult);
+
+        BlockAllocator blockAllocator = new BlockAllocatorImpl();
+        Schema partitionSchema = redshiftMetadataHandler.getPartitionSchema("testCatalog");
+        Set<String> partitionCols = partitionSchema.getFields().stream().map(Field::getName).collect(Collectors.toSet());
+        Block partitions = blockAllocator.createBlock(partitionSchema);
+        partitions.setValue(PostGreSqlMetadataHandler.BLOCK_PARTITION_SCHEMA_COLUMN_NAME, 0, "*");
+        partitions.setValue(PostGreSqlMetadataHandler.BLOCK_PARTITION_COLUMN_NAME, 0, "*");
+        partitions.setRowCount(1);
+        Constraints constraints = new Constraints(ImmutableMap.of(
+                "id", SortedRangeSet.copyOf(org.apache.arrow.vector.types.Types.MinorType.BIGINT.getType(),
+                        Collections.singletonList(Range.greaterThan(blockAllocator, org.apache.arrow.vector.types.Types.MinorType.BIGINT.getType(), 10L)), false),
+                "name", SortedRangeSet.copyOf(org.apache.arrow.vector.types.Types.MinorType.VARCHAR.getType(),
+                        Collections.singletonList(Range.equal(blockAllocator, org.apache.arrow.vector.types.Types.MinorType.VARCHAR.getType(), "o'neil")), false)));
+
+        GetSplitsRequest getSplitsRequest = new GetSplitsRequest(this.federatedIdentity, "testQueryId", "testCatalog", tableName, partitions,
+                new ArrayList<>(partitionCols), constraints, null);
+        GetSplitsResponse getSplitsResponse = redshiftMetadataHandler.doGetSplits(blockAllocator, getSplitsRequest);
+
+        String select = "SELECT \"id\", \"name\" FROM \"testSchema\".\"testTable\" WHERE ((\"id\" > 10)) AND (\"name\" = 'o''neil')";
+        String prefix = "testQueryId/" + UUID.nameUUIDFromBytes(select.getBytes(StandardCharsets.UTF_8)) + "/";
+        Mockito.verify(statement).setQueryTimeout(RedshiftConstants.DEFAULT_UNLOAD_TIMEOUT_SECONDS);
+        Mockito.verify(statement).execute("UNLOAD ('SELECT \"id\", \"name\" FROM \"testSchema\".\"testTable\" WHERE ((\"id\" > 10)) AND (\"name\" = ''o''''neil'')') "
+                + "TO 's3://testBucket/" + prefix + "' IAM_ROLE 'arn:aws:iam::123456789012:role/unload' FORMAT AS PARQUET ALLOWOVERWRITE");
+        Assert.assertEquals("testBucket", listObjectsRequest.getValue().getBucketName());
+        Assert.assertEquals(prefix, listObjectsRequest.getValue().getPrefix());
+
+        Set<Map<String, String>> expectedSplits = new HashSet<>();
+        expectedSplits.add(ImmutableMap.of("partition_schema_name", "*", "partition_name", "*",
+                "unloadBucket", "testBucket", "unloadObjectKey", "0000_part_00.parquet"));
+        expectedSplits.add(ImmutableMap.of("partition_schema_name", "*", "partition_name", "*",
+                "unloadBucket", "testBucket", "unloadObjectKey", "0001_part_00.parquet"));
+        Set<Map<String, String>> actualSplits = getSplitsResponse.getSplits().stream().map(Split::getProperties).collect(Collectors.toSet());
+        Assert.assertEquals(expectedSplits, actualSplits);
+        Assert.assertNull(getSplitsResponse.getContinuationToken());
+    }
+
+    @Test
+    public void doGetSplitsWithUnloadCancelledWhenQueryTerminates()
+            throws Exception
+    {
+        AmazonAthena athena = Mockito.mock(AmazonAthena.class);
+        Mockito.when(athena.getQueryExecution(Mockito.any(GetQueryExecutionRequest.class))).thenReturn(new GetQueryExecutionResult()
+                .withQueryExecution(new QueryExecution().withStatus(new QueryExecutionStatus().withState("CANCELLED"))));
+        AmazonS3 amazonS3 = Mockito.mock(AmazonS3.class);
+        RedshiftMetadataHandler redshiftMetadataHandler = new RedshiftMetadataHandler(databaseConnectionConfig, this.secretsManager, athena,
+                this.jdbcConnectionFactory, amazonS3, "testBucket", "arn:aws:iam::123456789012:role/unload");
+
+        String[] schema = {"DATA_TYPE", "COLUMN_NAME", "COLUMN_SIZE", "DECIMAL_DIGITS", "TYPE_NAME"};
+        Object[][] values = {{Types.BIGINT, "id", 0, 0, "int8"}};
+        ResultSet resultSet = mockResultSet(schema, values, new AtomicInteger(-1));
+        TableName tableName = new TableName("testSchema", "testTable");
+        Mockito.when(connection.getMetaData().getColumns("testCatalog", tableName.getSchemaName(), tableName.getTableName(), null)).thenReturn(resultSet);
+        Mockito.when(connection.getCatalog()).thenReturn("testCatalog");
+        // UNLOAD runs until the watchdog cancels it.
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.doAnswer(invocation -> {
+            cancelled.countDown();
+            return null;
+        }).when(statement).cancel();
+        Mockito.when(statement.execute(Mockito.anyString())).thenAnswer(invocation -> {
+            if (!cancelled.await(30, TimeUnit.SECONDS)) {
+                return true;
+            }
+            throw new SQLException("Query cancelled on user's request");
+        });
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+
+        BlockAllocator blockAllocator = new BlockAllocatorImpl();
+        Schema partitionSchema = redshiftMetadataHandler.getPartitionSchema("testCatalog");
+        Set<String> partitionCols = partitionSchema.getFields().stream().map(Field::getName).collect(Collectors.toSet());
+        Block partitions = blockAllocator.createBlock(partitionSchema);
+        partitions.setValue(PostGreSqlMetadataHandler.BLOCK_PARTITION_SCHEMA_COLUMN_NAME, 0, "*");
+        partitions.setValue(PostGreSqlMetadataHandler.BLOCK_PARTITION_COLUMN_NAME, 0, "*");
+        partitions.setRowCount(1);
+        GetSplitsRequest getSplitsRequest = new GetSplitsRequest(this.federatedIdentity, "testCancelledQueryId", "testCatalog", tableName, partitions,
+                new ArrayList<>(partitionCols), new Constraints(Collections.emptyMap()), null);
+
+        try {
+            redshiftMetadataHandler.doGetSplits(blockAllocator, getSplitsRequest);
+            Assert.fail("Expected UNLOAD to be cancelled");
+        }
+        catch (RuntimeException ex) {
+            Assert.assertTrue(ex.getMessage(), ex.getMessage().contains("no longer running"));
+        }
+        Mockito.verify(statement).cancel();
+        Mockito.verifyZeroInteractions(amazonS3);
+    }
+
+    @Test
+    public void getUnloadTimeoutSeconds()
+    {
+        Assert.assertEquals(RedshiftConstants.DEFAULT_UNLOAD_TIMEOUT_SECONDS, RedshiftMetadataHandler.getUnloadTimeoutSeconds(null));
+        Assert.assertEquals(RedshiftConstants.DEFAULT_UNLOAD_TIMEOUT_SECONDS, RedshiftMetadataHandler.getUnloadTimeoutSeconds(" "));
+        Assert.assertEquals(120, RedshiftMetadataHandler.getUnloadTimeoutSeconds("120"));
+
+        for (String invalid : new String[] {"ten", "0", "-5"}) {
+            try {
+                RedshiftMetadataHandler.getUnloadTimeoutSeconds(invalid);
+                Assert.fail("Expected " + invalid + " to be rejected");
+            }
+            catch (IllegalArgumentException ex) {
+                Assert.assertTrue(ex.getMessage(), ex.getMessage().contains(RedshiftConstants.UNLOAD_TIMEOUT_ENV));
+            }
+        }
+    }
+
     @Test
     public void doGetTableWithArrayColumns()
             throws Exception
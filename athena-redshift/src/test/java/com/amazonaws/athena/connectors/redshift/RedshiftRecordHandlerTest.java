@@ -19,6 +19,10 @@
  */
 package com.amazonaws.athena.connectors.redshift;
 
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
 import com.amazonaws.athena.connector.lambda.data.FieldBuilder;
 import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
@@ -28,18 +32,27 @@ import com.amazonaws.athena.connector.lambda.domain.predicate.Marker;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
 import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.records.RecordResponse;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
 import com.amazonaws.athena.connectors.jdbc.TestBase;
 import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcCredentialProvider;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder;
 import com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler;
-import com.amazonaws.athena.connectors.postgresql.PostGreSqlQueryStringBuilder;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Schema;
@@ -47,18 +60,27 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_NAME;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.UNLOAD_BUCKET_PROPERTY;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.UNLOAD_OBJECT_KEY_PROPERTY;
 
 public class RedshiftRecordHandlerTest
         extends TestBase
@@ -72,6 +94,7 @@ public class RedshiftRecordHandlerTest
     private AmazonS3 amazonS3;
     private AWSSecretsManager secretsManager;
     private AmazonAthena athena;
+    private byte[] unloadedObject;
 
     @Before
     public void setup()
@@ -82,7 +105,7 @@ public class RedshiftRecordHandlerTest
         this.connection = Mockito.mock(Connection.class);
         this.jdbcConnectionFactory = Mockito.mock(JdbcConnectionFactory.class);
         Mockito.when(this.jdbcConnectionFactory.getConnection(Mockito.mock(JdbcCredentialProvider.class))).thenReturn(this.connection);
-        jdbcSplitQueryBuilder = new PostGreSqlQueryStringBuilder("\"");
+        jdbcSplitQueryBuilder = new RedshiftQueryStringBuilder("\"");
         final DatabaseConnectionConfig databaseConnectionConfig = new DatabaseConnectionConfig("testCatalog", REDSHIFT_NAME,
                 "redshift://jdbc:redshift://hostname/user=A&password=B");
 
@@ -208,6 +231,180 @@ public class RedshiftRecordHandlerTest
         logger.info("buildSplitSqlForDateTest - exit");
     }
 
+    @Test
+    public void buildSplitSqlWithLargeInList()
+            throws SQLException
+    {
+        logger.info("buildSplitSqlWithLargeInList - enter");
+
+        TableName tableName = new TableName("testSchema", "testTable");
+
+        SchemaBuilder schemaBuilder = SchemaBuilder.newBuilder();
+        schemaBuilder.addField(FieldBuilder.newBuilder("testCol1", Types.MinorType.BIGINT.getType()).build());
+        schemaBuilder.addField(FieldBuilder.newBuilder("partition_schema_name", Types.MinorType.VARCHAR.getType()).build());
+        schemaBuilder.addField(FieldBuilder.newBuilder("partition_name", Types.MinorType.VARCHAR.getType()).build());
+        Schema schema = schemaBuilder.build();
+
+        Split split = Mockito.mock(Split.class);
+        Mockito.when(split.getProperties()).thenReturn(ImmutableMap.of("partition_schema_name", "s0", "partition_name", "p0"));
+        Mockito.when(split.getProperty(Mockito.eq(PostGreSqlMetadataHandler.BLOCK_PARTITION_SCHEMA_COLUMN_NAME))).thenReturn("s0");
+        Mockito.when(split.getProperty(Mockito.eq(PostGreSqlMetadataHandler.BLOCK_PARTITION_COLUMN_NAME))).thenReturn("p0");
+
+        List<Range> ranges = new ArrayList<>();
+        for (long i = 0; i < 300; i++) {
+            Range range = Mockito.mock(Range.class, Mockito.RETURNS_DEEP_STUBS);
+            Mockito.when(range.isSingleValue()).thenReturn(true);
+            Mockito.when(range.getLow().getValue()).thenReturn(i);
+            ranges.add(range);
+        }
+        ValueSet valueSet = Mockito.mock(SortedRangeSet.class, Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(valueSet.getRanges().getOrderedRanges()).thenReturn(ranges);
+        Constraints constraints = Mockito.mock(Constraints.class);
+        Mockito.when(constraints.getSummary()).thenReturn(Collections.singletonMap("testCol1", valueSet));
+
+        // Redshift can't bind arrays, so unlike PostGreSql the list is not turned into "= ANY (?::int8[])".
+        String expectedSql = "SELECT \"testCol1\" FROM \"s0\".\"p0\"  WHERE (\"testCol1\" IN (" +
+                String.join(",", Collections.nCopies(300, "?")) + "))";
+        PreparedStatement expectedPreparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(Mockito.eq(expectedSql))).thenReturn(expectedPreparedStatement);
+
+        PreparedStatement preparedStatement = this.redshiftRecordHandler.buildSplitSql(this.connection, "testCatalogName", tableName, schema, constraints, split);
+
+        Assert.assertEquals(expectedPreparedStatement, preparedStatement);
+        Mockito.verify(preparedStatement, Mockito.times(1)).setLong(1, 0L);
+        Mockito.verify(preparedStatement, Mockito.times(1)).setLong(300, 299L);
+        Mockito.verify(this.connection, Mockito.never()).createArrayOf(Mockito.anyString(), Mockito.any());
+
+        logger.info("buildSplitSqlWithLargeInList - exit");
+    }
+
+    @Test
+    public void readWithConstraintFromUnload()
+            throws Exception
+    {
+        logger.info("readWithConstraintFromUnload - enter");
+
+        try (BlockAllocator allocator = new BlockAllocatorImpl()) {
+            List<GetObjectRequest> getObjectRequests = mockUnloadedObject("testQueryId/0000_part_00.parquet");
+            Constraints constraints = new Constraints(Collections.singletonMap("qty",
+                    SortedRangeSet.of(Range.equal(allocator, Types.MinorType.INT.getType(), 5))));
+
+            ReadRecordsResponse response = readUnloadedObject(allocator, "testQueryId/0000_part_00.parquet", constraints);
+
+            // Rows with qty = 5 among the 150 recorded rows, whose qty is id % 13.
+            Block block = response.getRecords();
+            Assert.assertEquals(12, block.getRowCount());
+            Assert.assertEquals("[id : 5], [name : name_5], [amount : 6.25], [created : 19005], [updated : null], [score : 1.25], [active : false], " +
+                    "[qty : 5], [partition_schema_name : *], [partition_name : *]", BlockUtils.rowToString(block, 0));
+            Assert.assertEquals("[id : 148], [name : name_1], [amount : 185.00], [created : 19148], [updated : 2022-01-01T00:02:28], [score : 37.0], [active : true], " +
+                    "[qty : 5], [partition_schema_name : *], [partition_name : *]", BlockUtils.rowToString(block, 11));
+
+            // Footer and column chunks are fetched with ranged GETs, the first one being the footer length at the end of the file.
+            Assert.assertFalse(getObjectRequests.isEmpty());
+            getObjectRequests.forEach(request -> Assert.assertNotNull(request.getRange()));
+            Assert.assertEquals(this.unloadedObject.length - 1, getObjectRequests.get(0).getRange()[1]);
+        }
+
+        logger.info("readWithConstraintFromUnload - exit");
+    }
+
+    @Test
+    public void readWithConstraintFromUnloadWithoutConstraints()
+            throws Exception
+    {
+        logger.info("readWithConstraintFromUnloadWithoutConstraints - enter");
+
+        try (BlockAllocator allocator = new BlockAllocatorImpl()) {
+            mockUnloadedObject("testQueryId/0000_part_00.parquet");
+
+            ReadRecordsResponse response = readUnloadedObject(allocator, "testQueryId/0000_part_00.parquet", new Constraints(Collections.emptyMap()));
+
+            Block block = response.getRecords();
+            Assert.assertEquals(150, block.getRowCount());
+            Assert.assertEquals("[id : 3], [name : null], [amount : 3.75], [created : 19003], [updated : 2022-01-01T00:00:03], [score : 0.75], [active : false], " +
+                    "[qty : 3], [partition_schema_name : *], [partition_name : *]", BlockUtils.rowToString(block, 3));
+            Assert.assertEquals("[id : 42], [name : name_0 o'neil], [amount : 52.50], [created : 19042], [updated : 2022-01-01T00:00:42], [score : 10.5], [active : true], " +
+                    "[qty : 3], [partition_schema_name : *], [partition_name : *]", BlockUtils.rowToString(block, 42));
+        }
+
+        logger.info("readWithConstraintFromUnloadWithoutConstraints - exit");
+    }
+
+    @Test
+    public void readWithConstraintFromEmptyUnload()
+            throws Exception
+    {
+        try (BlockAllocator allocator = new BlockAllocatorImpl()) {
+            ReadRecordsResponse response = readUnloadedObject(allocator, "", new Constraints(Collections.emptyMap()));
+
+            Assert.assertEquals(0, response.getRecords().getRowCount());
+            Mockito.verifyZeroInteractions(this.amazonS3);
+        }
+    }
+
+    /**
+     * Serves the recorded UNLOAD output from the mocked S3 client, honouring the range of each GET.
+     *
+     * @return the GET requests made to the object.
+     */
+    private List<GetObjectRequest> mockUnloadedObject(String key)
+            throws IOException
+    {
+        try (InputStream inputStream = getClass().getResourceAsStream("/unload/0000_part_00.parquet")) {
+            this.unloadedObject = ByteStreams.toByteArray(inputStream);
+        }
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setContentLength(this.unloadedObject.length);
+        Mockito.when(this.amazonS3.getObjectMetadata("testBucket", key)).thenReturn(objectMetadata);
+
+        List<GetObjectRequest> getObjectRequests = new ArrayList<>();
+        Mockito.when(this.amazonS3.getObject(Mockito.any(GetObjectRequest.class))).thenAnswer((InvocationOnMock invocation) -> {
+            GetObjectRequest request = (GetObjectRequest) invocation.getArguments()[0];
+            getObjectRequests.add(request);
+            long[] range = request.getRange() != null ? request.getRange() : new long[] {0, this.unloadedObject.length - 1};
+            S3Object s3Object = new S3Object();
+            s3Object.setObjectContent(new ByteArrayInputStream(this.unloadedObject, (int) range[0], (int) (range[1] - range[0] + 1)));
+            return s3Object;
+        });
+        return getObjectRequests;
+    }
+
+    private ReadRecordsResponse readUnloadedObject(BlockAllocator allocator, String key, Constraints constraints)
+            throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addField(FieldBuilder.newBuilder("id", Types.MinorType.BIGINT.getType()).build())
+                .addField(FieldBuilder.newBuilder("name", Types.MinorType.VARCHAR.getType()).build())
+                .addField(FieldBuilder.newBuilder("amount", new ArrowType.Decimal(12, 2)).build())
+                .addField(FieldBuilder.newBuilder("created", Types.MinorType.DATEDAY.getType()).build())
+                .addField(FieldBuilder.newBuilder("updated", Types.MinorType.DATEMILLI.getType()).build())
+                .addField(FieldBuilder.newBuilder("score", Types.MinorType.FLOAT8.getType()).build())
+                .addField(FieldBuilder.newBuilder("active", Types.MinorType.BIT.getType()).build())
+                .addField(FieldBuilder.newBuilder("qty", Types.MinorType.INT.getType()).build())
+                .addField(FieldBuilder.newBuilder(PostGreSqlMetadataHandler.BLOCK_PARTITION_SCHEMA_COLUMN_NAME, Types.MinorType.VARCHAR.getType()).build())
+                .addField(FieldBuilder.newBuilder(PostGreSqlMetadataHandler.BLOCK_PARTITION_COLUMN_NAME, Types.MinorType.VARCHAR.getType()).build())
+                .build();
+        Split split = Split.newBuilder(S3SpillLocation.newBuilder()
+                                .withBucket("spillBucket")
+                                .withSplitId(UUID.randomUUID().toString())
+                                .withQueryId("testQueryId")
+                                .withIsDirectory(true)
+                                .build(),
+                        new LocalKeyFactory().create())
+                .add(PostGreSqlMetadataHandler.BLOCK_PARTITION_SCHEMA_COLUMN_NAME, PostGreSqlMetadataHandler.ALL_PARTITIONS)
+                .add(PostGreSqlMetadataHandler.BLOCK_PARTITION_COLUMN_NAME, PostGreSqlMetadataHandler.ALL_PARTITIONS)
+                .add(UNLOAD_BUCKET_PROPERTY, "testBucket")
+                .add(UNLOAD_OBJECT_KEY_PROPERTY, key)
+                .build();
+        ReadRecordsRequest request = new ReadRecordsRequest(new FederatedIdentity("arn", "account", Collections.emptyMap(), Collections.emptyList()),
+                "testCatalog", "testQueryId", new TableName("testSchema", "testTable"), schema, split, constraints,
+                100_000_000_000L, 100_000_000_000L);
+
+        RecordResponse response = this.redshiftRecordHandler.doReadRecords(allocator, request);
+        Assert.assertTrue(response instanceof ReadRecordsResponse);
+        return (ReadRecordsResponse) response;
+    }
+
     private ValueSet getSingleValueSet(Object value) {
         Range range = Mockito.mock(Range.class, Mockito.RETURNS_DEEP_STUBS);
         Mockito.when(range.isSingleValue()).thenReturn(true);
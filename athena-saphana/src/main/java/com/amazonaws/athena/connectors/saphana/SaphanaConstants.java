@@ -54,6 +54,15 @@ public final class SaphanaConstants
             "FROM SYS.VIEW_COLUMNS WHERE VIEW_NAME = ? AND SCHEMA_NAME = ?";
 
     static final int MAX_SPLITS_PER_REQUEST = 1000_000;
+    /**
+     * row count of a table, used to size keyset splits of unpartitioned tables
+     */
+    static final String COUNT_RECORDS_QUERY = "SELECT RECORD_COUNT FROM M_TABLES WHERE SCHEMA_NAME = ? AND TABLE_NAME = ?";
+    /**
+     * Environment variable with the number of rows per keyset split of an unpartitioned table. Unpartitioned tables
+     * are read with a single split when it is not set.
+     */
+    static final String PAGE_COUNT_ENV = "pagecount";
     /**
      * view query for saphana
      */
@@ -42,6 +42,7 @@ import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcArrowTypeConverter;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcMetadataHandler;
 import com.amazonaws.athena.connectors.jdbc.manager.PreparedStatementBuilder;
+import com.amazonaws.athena.connectors.jdbc.splits.KeysetRange;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.annotations.VisibleForTesting;
@@ -63,6 +64,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -74,6 +76,7 @@ import static com.amazonaws.athena.connectors.saphana.SaphanaConstants.TO_WELL_K
 public class SaphanaMetadataHandler extends JdbcMetadataHandler
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(SaphanaMetadataHandler.class);
+    private final SaphanaQueryStringBuilder queryBuilder = new SaphanaQueryStringBuilder(SAPHANA_QUOTE_CHARACTER);
 
     public SaphanaMetadataHandler()
     {
@@ -156,14 +159,25 @@ public class SaphanaMetadataHandler extends JdbcMetadataHandler
                 try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection)
                         .withQuery(SaphanaConstants.GET_PARTITIONS_QUERY).withParameters(parameters).build();
                      ResultSet resultSet = preparedStatement.executeQuery()) {
-                    // Return a single partition if no partitions defined
+                    // Return a single partition, or keyset ranges of the primary key, if no partitions defined
                     if (!resultSet.next()) {
-                        blockWriter.writeRows((Block block, int rowNum) ->
-                        {
-                            block.setValue(SaphanaConstants.BLOCK_PARTITION_COLUMN_NAME, rowNum, SaphanaConstants.ALL_PARTITIONS);
-                            //we wrote 1 row so we return 1
-                            return 1;
-                        });
+                        List<KeysetRange> keysetRanges = getKeysetRanges(connection, getTableLayoutRequest.getTableName());
+                        if (keysetRanges.isEmpty()) {
+                            blockWriter.writeRows((Block block, int rowNum) ->
+                            {
+                                block.setValue(SaphanaConstants.BLOCK_PARTITION_COLUMN_NAME, rowNum, SaphanaConstants.ALL_PARTITIONS);
+                                //we wrote 1 row so we return 1
+                                return 1;
+                            });
+                        }
+                        for (KeysetRange keysetRange : keysetRanges) {
+                            final String partitionName = keysetRange.encode();
+                            blockWriter.writeRows((Block block, int rowNum) ->
+                            {
+                                block.setValue(SaphanaConstants.BLOCK_PARTITION_COLUMN_NAME, rowNum, partitionName);
+                                return 1;
+                            });
+                        }
                     }
                     else {
                         do {
@@ -187,6 +201,39 @@ public class SaphanaMetadataHandler extends JdbcMetadataHandler
         }
     }
 
+    /**
+     * Splits an unpartitioned table into ranges of its leading primary key column, sized by the "pagecount"
+     * environment variable.
+     * @param connection
+     * @param tableName
+     * @return keyset ranges, empty if the table should be read with a single split
+     */
+    private List<KeysetRange> getKeysetRanges(Connection connection, TableName tableName)
+    {
+        String pageCount = System.getenv(SaphanaConstants.PAGE_COUNT_ENV);
+        if (pageCount == null || pageCount.isBlank() || !queryBuilder.supportsKeysetSplits()) {
+            return List.of();
+        }
+        List<String> parameters = Arrays.asList(tableName.getSchemaName(), tableName.getTableName());
+        try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection)
+                .withQuery(SaphanaConstants.COUNT_RECORDS_QUERY).withParameters(parameters).build();
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            if (resultSet == null || !resultSet.next()) {
+                return List.of();
+            }
+            long numRanges = (long) Math.ceil((double) resultSet.getLong(1) / Long.parseLong(pageCount));
+            Optional<String> keyColumn = getPrimaryKeyColumn(connection, tableName);
+            if (numRanges < 2 || keyColumn.isEmpty()) {
+                return List.of();
+            }
+            return getKeysetRanges(connection, queryBuilder, tableName, keyColumn.get(), (int) Math.min(numRanges, SaphanaConstants.MAX_SPLITS_PER_REQUEST));
+        }
+        catch (SQLException sqlException) {
+            LOGGER.warn("Unable to compute keyset splits for {}", tableName, sqlException);
+            return List.of();
+        }
+    }
+
     /**
      *
      * @param blockAllocator
@@ -26,6 +26,7 @@ import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
 import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder;
+import com.amazonaws.athena.connectors.jdbc.splits.KeysetRange;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
@@ -51,6 +52,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
@@ -93,9 +95,9 @@ public class SaphanaQueryStringBuilder extends JdbcSplitQueryBuilder
                     "returning query {}, partition {}", query, partitionName);
             return query;
         }
-        else if (SaphanaConstants.ALL_PARTITIONS.equals(partitionName)) {
+        else if (SaphanaConstants.ALL_PARTITIONS.equals(partitionName) || KeysetRange.isKeysetRange(partitionName)) {
             query = String.format(" FROM %s ", tableName);
-            LOGGER.debug("SaphanaQueryStringBuilder:getFromClauseWithSplit when SaphanaConstants.ALL_PARTITIONS.equals(partitionName) " +
+            LOGGER.debug("SaphanaQueryStringBuilder:getFromClauseWithSplit when whole table or keyset range " +
                     "returning query {}, partition {}", query, partitionName);
             return query;
         }
@@ -148,6 +150,8 @@ public class SaphanaQueryStringBuilder extends JdbcSplitQueryBuilder
 
         List<String> clauses = toConjuncts(tableSchema.getFields(), constraints, accumulator, split.getProperties());
         clauses.addAll(getPartitionWhereClauses(split));
+        Optional<KeysetRange> keysetRange = getKeysetRange(split);
+        keysetRange.ifPresent(range -> clauses.add(range.toClause(quote(range.getColumnName()))));
         if (!clauses.isEmpty()) {
             sql.append(" WHERE ")
                     .append(Joiner.on(" AND ").join(clauses));
@@ -205,10 +209,19 @@ public class SaphanaQueryStringBuilder extends JdbcSplitQueryBuilder
                     throw new UnsupportedOperationException(String.format("Can't handle type: %s, %s", typeAndValue.getType(), minorTypeForArrowType));
             }
         }
+        if (keysetRange.isPresent()) {
+            keysetRange.get().bind(statement, accumulator.size() + 1);
+        }
 
         return statement;
     }
 
+    @Override
+    public boolean supportsKeysetSplits()
+    {
+        return true;
+    }
+
     @Override
     protected String quote(String name)
     {
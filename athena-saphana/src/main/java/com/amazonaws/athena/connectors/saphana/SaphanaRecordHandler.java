@@ -54,7 +54,6 @@ public class SaphanaRecordHandler extends JdbcRecordHandler
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(SaphanaRecordHandler.class);
 
-    private static final int FETCH_SIZE = 1000;
     private final JdbcSplitQueryBuilder jdbcSplitQueryBuilder;
     public SaphanaRecordHandler()
     {
@@ -92,8 +91,6 @@ public class SaphanaRecordHandler extends JdbcRecordHandler
         LOGGER.debug("SaphanaQueryStringBuilder::buildSplitSql clearing field children from schema");
         clearChildren(schema);
 
-        // Disable fetching all rows.
-        preparedStatement.setFetchSize(FETCH_SIZE);
         return preparedStatement;
     }
 
@@ -19,13 +19,21 @@
  */
 package com.amazonaws.athena.connectors.saphana;
 
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connectors.jdbc.splits.KeysetRange;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -60,4 +68,28 @@ public class SaphanaQueryStringBuilderTest
         List<String> partitionWhereClauseList1 = builder.getPartitionWhereClauses(split);
         Assert.assertEquals(expectedPartitionWhereClauseList1, partitionWhereClauseList1);
     }
+
+    @Test
+    public void testBuildSqlWithKeysetRange()
+            throws SQLException
+    {
+        String partition = new KeysetRange("ID", java.sql.Types.BIGINT, "10", "20").encode();
+        Split split = Mockito.mock(Split.class);
+        Mockito.when(split.getProperties()).thenReturn(Collections.singletonMap(BLOCK_PARTITION_COLUMN_NAME, partition));
+        Mockito.when(split.getProperty(Mockito.eq(BLOCK_PARTITION_COLUMN_NAME))).thenReturn(partition);
+        Schema schema = SchemaBuilder.newBuilder()
+                .addField("ID", Types.MinorType.BIGINT.getType())
+                .addField(BLOCK_PARTITION_COLUMN_NAME, Types.MinorType.VARCHAR.getType())
+                .build();
+        Connection connection = Mockito.mock(Connection.class);
+        PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        String expectedSql = "SELECT \"ID\" FROM \"schema\".\"table\"  WHERE (\"ID\" >= ? AND \"ID\" < ?)";
+        Mockito.when(connection.prepareStatement(expectedSql)).thenReturn(statement);
+
+        SaphanaQueryStringBuilder builder = new SaphanaQueryStringBuilder("\"");
+        Assert.assertSame(statement, builder.buildSql(connection, null, "schema", "table", schema,
+                new Constraints(Collections.emptyMap()), split));
+        Mockito.verify(statement).setLong(1, 10L);
+        Mockito.verify(statement).setLong(2, 20L);
+    }
 }
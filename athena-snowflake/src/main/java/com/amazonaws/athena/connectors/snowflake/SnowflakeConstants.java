@@ -25,6 +25,7 @@ public final class SnowflakeConstants
     public static final String SNOWFLAKE_NAME = "snowflake";
     public static final String SNOWFLAKE_DRIVER_CLASS = "com.snowflake.client.jdbc.SnowflakeDriver";
     public static final int SNOWFLAKE_DEFAULT_PORT = 1025;
+    public static final String SNOWFLAKE_QUOTE_CHARACTER = "\"";
 
     private SnowflakeConstants() {}
 }
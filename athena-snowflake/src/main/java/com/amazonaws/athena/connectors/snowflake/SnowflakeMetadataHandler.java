@@ -46,6 +46,7 @@ import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcArrowTypeConverter;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcMetadataHandler;
 import com.amazonaws.athena.connectors.jdbc.manager.PreparedStatementBuilder;
+import com.amazonaws.athena.connectors.jdbc.splits.KeysetRange;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.annotations.VisibleForTesting;
@@ -69,7 +70,10 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static java.util.Map.entry;
@@ -99,6 +103,12 @@ public class SnowflakeMetadataHandler extends JdbcMetadataHandler
      */
     static final String VIEW_CHECK_QUERY = "SELECT * FROM information_schema.views WHERE table_schema = ? AND table_name = ?";
     static final String ALL_PARTITIONS = "*";
+    /**
+     * Clustering key of a table, e.g. LINEAR(C1, C2), used for keyset splits when there is no primary key.
+     */
+    static final String CLUSTERING_KEY_QUERY = "SELECT clustering_key FROM information_schema.tables WHERE table_schema = ? AND table_name = ?";
+    private static final Pattern LEADING_CLUSTERING_COLUMN = Pattern.compile("^\\w*\\(\\s*(\"[^\"]+\"|[A-Za-z_][A-Za-z0-9_$]*)\\s*[,)]");
+    private final SnowflakeQueryStringBuilder queryBuilder = new SnowflakeQueryStringBuilder(SnowflakeConstants.SNOWFLAKE_QUOTE_CHARACTER);
     /**
      * Instantiates handler to be used by Lambda function directly.
      *
@@ -194,9 +204,24 @@ public class SnowflakeMetadataHandler extends JdbcMetadataHandler
                 double limitValue = totalRecordCount / totalpagecount;
                 limit = (int) Math.ceil(limitValue);
                 if (totalRecordCount > 0) {
+                    // Prefer ranges of an orderable key, each split then scans only its own rows.
+                    List<KeysetRange> keysetRanges = limit > 1 && queryBuilder.supportsKeysetSplits()
+                            ? getKeysetRanges(connection, getTableLayoutRequest.getTableName(), (int) Math.min(limit, totalPartitionlimit))
+                            : List.of();
+                    if (!keysetRanges.isEmpty()) {
+                        for (KeysetRange keysetRange : keysetRanges) {
+                            final String partitionVal = keysetRange.encode();
+                            LOGGER.info("partitionVal {} ", partitionVal);
+                            blockWriter.writeRows((Block block, int rowNum) ->
+                            {
+                                block.setValue(BLOCK_PARTITION_COLUMN_NAME, rowNum, partitionVal);
+                                return 1;
+                            });
+                        }
+                    }
                     // if number of partitions are more than defined limit as in environment variable "partitionlimit"
                     // it will be treated as a single partition.
-                    if (limit > totalPartitionlimit) {
+                    else if (limit > totalPartitionlimit) {
                         final String partitionVal = BLOCK_PARTITION_COLUMN_NAME + "-limit-" + totalRecordCount + "-offset-" + offset;
                         LOGGER.info("partitionVal {} ", partitionVal);
                         blockWriter.writeRows((Block block, int rowNum) ->
@@ -237,6 +262,69 @@ public class SnowflakeMetadataHandler extends JdbcMetadataHandler
         }
     }
 
+    /**
+     * Splits the table on its leading primary key column, or on its leading clustering key column if it has no
+     * primary key.
+     * @param connection
+     * @param tableName
+     * @param numRanges
+     * @return keyset ranges, empty if the table has no usable key
+     */
+    private List<KeysetRange> getKeysetRanges(Connection connection, TableName tableName, int numRanges)
+    {
+        try {
+            Optional<String> keyColumn = getPrimaryKeyColumn(connection, tableName);
+            if (keyColumn.isEmpty()) {
+                keyColumn = getClusteringKeyColumn(connection, tableName);
+            }
+            if (keyColumn.isEmpty()) {
+                LOGGER.info("No primary or clustering key on {}, using limit and offset splits", tableName);
+                return List.of();
+            }
+            return getKeysetRanges(connection, queryBuilder, tableName, keyColumn.get(), numRanges);
+        }
+        catch (SQLException sqlException) {
+            LOGGER.warn("Unable to find a key for keyset splits on {}", tableName, sqlException);
+            return List.of();
+        }
+    }
+
+    private Optional<String> getClusteringKeyColumn(Connection connection, TableName tableName) throws SQLException
+    {
+        List<String> parameters = Arrays.asList(tableName.getSchemaName(), tableName.getTableName());
+        try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection)
+                .withQuery(CLUSTERING_KEY_QUERY).withParameters(parameters).build();
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            if (resultSet == null || !resultSet.next()) {
+                return Optional.empty();
+            }
+            return parseClusteringKey(resultSet.getString(1));
+        }
+    }
+
+    /**
+     * Extracts the leading column of a clustering key such as LINEAR(C1, C2). Expressions are not orderable keys
+     * we can bind ranges to and are ignored.
+     * @param clusteringKey
+     * @return leading clustering column
+     */
+    static Optional<String> parseClusteringKey(String clusteringKey)
+    {
+        if (clusteringKey == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = LEADING_CLUSTERING_COLUMN.matcher(clusteringKey.trim());
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+        String column = matcher.group(1);
+        if (column.startsWith("\"")) {
+            return Optional.of(column.substring(1, column.length() - 1));
+        }
+        // unquoted identifiers are stored upper case
+        return Optional.of(column.toUpperCase());
+    }
+
     /**
      * Check if the input table is a view and returns viewflag accordingly
      * @param getTableLayoutRequest
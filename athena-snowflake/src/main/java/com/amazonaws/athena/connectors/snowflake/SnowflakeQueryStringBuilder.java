@@ -22,6 +22,7 @@ package com.amazonaws.athena.connectors.snowflake;
 
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder;
+import com.amazonaws.athena.connectors.jdbc.splits.KeysetRange;
 import com.google.common.base.Strings;
 
 import java.util.Collections;
@@ -36,6 +37,14 @@ public class SnowflakeQueryStringBuilder
         extends JdbcSplitQueryBuilder
 {
     private static final String EMPTY_STRING = "";
+    /**
+     * Sampled key values per wanted range, more samples give more even ranges.
+     */
+    private static final int KEYSET_SAMPLES_PER_RANGE = 100;
+    /**
+     * Upper limit of Snowflake fixed-size row sampling.
+     */
+    private static final int MAX_KEYSET_SAMPLE_ROWS = 1_000_000;
 
     public SnowflakeQueryStringBuilder(final String quoteCharacters)
     {
@@ -63,8 +72,8 @@ public class SnowflakeQueryStringBuilder
     }
 
     /**
-     * logic to apply limits in query, if partition value does not contain "-", no limit and offset condition
-     * to be applied, else apply limits and offset as per "p-limit-3000-offset-0" pattern.
+     * logic to apply limits in query, if partition value is a keyset range or does not contain "-", no limit and
+     * offset condition to be applied, else apply limits and offset as per "p-limit-3000-offset-0" pattern.
      * @param split
      * @return
      */
@@ -74,7 +83,7 @@ public class SnowflakeQueryStringBuilder
         String xLimit = "";
         String xOffset = "";
         String partitionVal = split.getProperty(split.getProperties().keySet().iterator().next()); //p-limit-3000-offset-0
-        if (!partitionVal.contains("-")) {
+        if (KeysetRange.isKeysetRange(partitionVal) || !partitionVal.contains("-")) {
             return EMPTY_STRING;
         }
         else {
@@ -84,4 +93,22 @@ public class SnowflakeQueryStringBuilder
         }
         return " limit " + xLimit + " offset " + xOffset;
     }
+
+    @Override
+    public boolean supportsKeysetSplits()
+    {
+        return true;
+    }
+
+    /**
+     * Samples the key with Snowflake's fixed-size row sampling instead of ranking the whole table.
+     */
+    @Override
+    public String buildKeysetBoundaryQuery(String catalog, String schema, String table, String keyColumn, int numRanges)
+    {
+        String key = quote(keyColumn);
+        long sampleRows = Math.min((long) numRanges * KEYSET_SAMPLES_PER_RANGE, MAX_KEYSET_SAMPLE_ROWS);
+        return String.format("SELECT %s FROM %s SAMPLE (%d ROWS) WHERE %s IS NOT NULL ORDER BY %s",
+                key, qualifiedTableName(catalog, schema, table), sampleRows, key, key);
+    }
 }
@@ -29,6 +29,7 @@ import com.amazonaws.athena.connectors.jdbc.TestBase;
 import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcCredentialProvider;
+import com.amazonaws.athena.connectors.jdbc.splits.KeysetRange;
 import com.amazonaws.athena.connectors.snowflake.SnowflakeConstants;
 import com.amazonaws.athena.connectors.snowflake.SnowflakeMetadataHandler;
 import com.amazonaws.services.athena.AmazonAthena;
@@ -135,6 +136,53 @@ public class SnowflakeMetadataHandlerTest
         Mockito.verify(preparedStatement, Mockito.times(1)).setString(1, tableName.getTableName());
         Mockito.verify(resultSet, Mockito.times(2)).getInt(1);
     }
+    @Test
+    public void doGetTableLayoutKeysetPartitions()
+            throws Exception {
+        environmentVariables.set("pagecount", "100000");
+        environmentVariables.set("partitionlimit", "15");
+        BlockAllocator blockAllocator = new BlockAllocatorImpl();
+        Constraints constraints = Mockito.mock(Constraints.class);
+        TableName tableName = new TableName("testSchema", "testTable");
+        Schema partitionSchema = this.snowflakeMetadataHandler.getPartitionSchema("testCatalogName");
+        Set<String> partitionCols = new HashSet<>(Arrays.asList("partition"));
+        GetTableLayoutRequest getTableLayoutRequest = new GetTableLayoutRequest(this.federatedIdentity, "testQueryId", "testCatalogName", tableName, constraints, partitionSchema, partitionCols);
+
+        PreparedStatement countStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(SnowflakeMetadataHandler.COUNT_RECORDS_QUERY)).thenReturn(countStatement);
+        ResultSet countResultSet = mockResultSet(new String[] {"row_count"}, new int[] {Types.INTEGER}, new Object[][] {{200000}}, new AtomicInteger(-1));
+        Mockito.when(countStatement.executeQuery()).thenReturn(countResultSet);
+        Mockito.when(countResultSet.getInt(1)).thenReturn(200000);
+
+        Mockito.when(this.connection.getCatalog()).thenReturn("testCatalog");
+        ResultSet primaryKeys = mockResultSet(new String[] {"COLUMN_NAME", "KEY_SEQ"}, new Object[][] {{"ID", 1}}, new AtomicInteger(-1));
+        Mockito.when(this.connection.getMetaData().getPrimaryKeys("testCatalog", "testSchema", "testTable")).thenReturn(primaryKeys);
+
+        String boundaryQuery = "SELECT \"ID\" FROM \"testSchema\".\"testTable\" SAMPLE (200 ROWS) WHERE \"ID\" IS NOT NULL ORDER BY \"ID\"";
+        ResultSet samples = mockResultSet(new String[] {"ID"}, new int[] {Types.VARCHAR}, new Object[][] {{"a"}, {"b"}, {"c"}, {"d"}}, new AtomicInteger(-1));
+        Mockito.when(samples.getString(1)).thenReturn("a", "b", "c", "d");
+        Mockito.when(this.connection.createStatement().executeQuery(boundaryQuery)).thenReturn(samples);
+
+        GetTableLayoutResponse getTableLayoutResponse = this.snowflakeMetadataHandler.doGetTableLayout(blockAllocator, getTableLayoutRequest);
+
+        Assert.assertEquals(2, getTableLayoutResponse.getPartitions().getRowCount());
+        List<String> actualValues = new ArrayList<>();
+        for (int i = 0; i < getTableLayoutResponse.getPartitions().getRowCount(); i++) {
+            actualValues.add(BlockUtils.rowToString(getTableLayoutResponse.getPartitions(), i));
+        }
+        Assert.assertEquals(Arrays.asList(
+                "[partition : " + new KeysetRange("ID", Types.VARCHAR, null, "c").encode() + "]",
+                "[partition : " + new KeysetRange("ID", Types.VARCHAR, "c", null).encode() + "]"), actualValues);
+    }
+
+    @Test
+    public void parseClusteringKey() {
+        Assert.assertEquals(Optional.of("C1"), SnowflakeMetadataHandler.parseClusteringKey("LINEAR(c1, C2)"));
+        Assert.assertEquals(Optional.of("Mixed Case"), SnowflakeMetadataHandler.parseClusteringKey("LINEAR(\"Mixed Case\")"));
+        Assert.assertEquals(Optional.empty(), SnowflakeMetadataHandler.parseClusteringKey("LINEAR(to_date(ts), id)"));
+        Assert.assertEquals(Optional.empty(), SnowflakeMetadataHandler.parseClusteringKey(null));
+    }
+
     @Test
     public void doGetTableLayoutSinglePartition()
             throws Exception {
@@ -19,11 +19,13 @@
  */
 package com.amazonaws.athena.connectors.snowflake;
 import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connectors.jdbc.splits.KeysetRange;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -52,5 +54,17 @@ public class SnowflakeQueryStringBuilderTest
         List<String> expected = new ArrayList<>();
         Assert.assertEquals(expected, fromClauseWithSplit);
     }
-}
 
+    @Test
+    public void testKeysetSplit()
+    {
+        Split split = Mockito.mock(Split.class);
+        SnowflakeQueryStringBuilder builder = new SnowflakeQueryStringBuilder("\"");
+        String partition = new KeysetRange("ID", Types.BIGINT, "10", "20").encode();
+        Mockito.when(split.getProperties()).thenReturn(Collections.singletonMap("partition", partition));
+        Mockito.when(split.getProperty(Mockito.eq("partition"))).thenReturn(partition);
+        Assert.assertEquals("", builder.appendLimitOffset(split));
+        Assert.assertEquals("SELECT \"ID\" FROM \"schema\".\"table\" SAMPLE (300 ROWS) WHERE \"ID\" IS NOT NULL ORDER BY \"ID\"",
+                builder.buildKeysetBoundaryQuery(null, "schema", "table", "ID", 3));
+    }
+}
@@ -29,6 +29,7 @@ import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.data.SupportedTypes;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
 import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
@@ -44,6 +45,7 @@ import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcArrowTypeConverter;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcMetadataHandler;
 import com.amazonaws.athena.connectors.jdbc.manager.PreparedStatementBuilder;
+import com.amazonaws.athena.connectors.jdbc.splits.PartitionBound;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.annotations.VisibleForTesting;
@@ -65,6 +67,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -117,6 +120,13 @@ public class SqlServerMetadataHandler extends JdbcMetadataHandler
             "    AND ic.column_id = c.column_id   " +
             "WHERE t.object_id = (select object_id from sys.objects o where o.name = ? " +
             "and schema_id = (select schema_id from sys.schemas s where s.name = ?))";
+    /**
+     * Query for retrieving the boundary values of a partition function, as ISO text for date and time values
+     */
+    static final String GET_PARTITION_BOUNDARIES_QUERY = "SELECT prv.boundary_id AS BOUNDARY_ID, " +
+            "CONVERT(NVARCHAR(4000), prv.value, 126) AS BOUNDARY_VALUE, pf.boundary_value_on_right AS BOUNDARY_ON_RIGHT " +
+            "FROM sys.partition_functions pf JOIN sys.partition_range_values prv ON prv.function_id = pf.function_id " +
+            "WHERE pf.name = ? ORDER BY prv.boundary_id";
     static final String VIEW_CHECK_QUERY = "select TYPE_DESC from sys.objects where name = ? and schema_id = (select schema_id from sys.schemas s where s.name = ?)";
 
     public SqlServerMetadataHandler()
@@ -152,7 +162,7 @@ public class SqlServerMetadataHandler extends JdbcMetadataHandler
      * Check whether input table is a view or not. If it's a view, it will not have any partition info and
      * data will be fetched with single split.If it's a table with no partition, then data will be fetched with single split.
      * If it's a partitioned table, we are fetching the partition info and creating splits equals to the number of partitions
-     * for parallel processing.
+     * for parallel processing. Partitions whose boundaries can't match the query constraints are left out.
      * @param blockWriter
      * @param getTableLayoutRequest
      * @param queryStatusChecker
@@ -211,17 +221,25 @@ public class SqlServerMetadataHandler extends JdbcMetadataHandler
                     String partitionInfo = (!partitionDetails.isEmpty() && partitionDetails.size() == 2) ?
                             ":::" + partitionDetails.get(0) + ":::" + partitionDetails.get(1) : "";
 
+                    Constraints constraints = getTableLayoutRequest.getConstraints();
+                    Map<String, PartitionBound> partitionBounds = PartitionBound.canPrune(constraints) && partitionDetails.size() == 2
+                            ? getPartitionBounds(connection, partitionDetails.get(0), partitionDetails.get(1)) : Collections.emptyMap();
+
                     // Include the first partition because it's not retrieved from GET_PARTITIONS_QUERY
-                    blockWriter.writeRows((Block block, int rowNum) ->
-                    {
-                        block.setValue(PARTITION_NUMBER, rowNum, "1" + partitionInfo);
-                        return 1;
-                    });
+                    if (mayMatch(partitionBounds, "1", constraints)) {
+                        blockWriter.writeRows((Block block, int rowNum) ->
+                        {
+                            block.setValue(PARTITION_NUMBER, rowNum, "1" + partitionInfo);
+                            return 1;
+                        });
+                    }
                     if (resultSet.next()) {
                         do {
                             final String partitionNumber = resultSet.getString(PARTITION_NUMBER);
-                            // 1. Returns all partitions of table, we are not supporting constraints push down to filter partitions.
-                            // 2. This API is not paginated, we could use order by and limit clause with offsets here.
+                            if (!mayMatch(partitionBounds, partitionNumber, constraints)) {
+                                continue;
+                            }
+                            // This API is not paginated, we could use order by and limit clause with offsets here.
                             blockWriter.writeRows((Block block, int rowNum) ->
                             {
                                 block.setValue(PARTITION_NUMBER, rowNum, partitionNumber + partitionInfo);
@@ -297,6 +315,53 @@ public class SqlServerMetadataHandler extends JdbcMetadataHandler
         return String.valueOf(partition);
     }
 
+    private static boolean mayMatch(Map<String, PartitionBound> partitionBounds, String partitionNumber, Constraints constraints)
+    {
+        PartitionBound partitionBound = partitionBounds.get(partitionNumber);
+        if (partitionBound != null && !partitionBound.mayMatch(constraints)) {
+            LOGGER.debug("Pruning partition {}", partitionNumber);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads the boundary values of the partition function and turns them into the range of every partition number. With
+     * RANGE RIGHT a boundary value is the lowest value of the partition after it, with RANGE LEFT the highest value of
+     * the partition before it.
+     * @param connection
+     * @param partitionFunction
+     * @param partitioningColumn
+     * @return bounds by partition number, empty if the boundaries can't be read.
+     */
+    @VisibleForTesting
+    Map<String, PartitionBound> getPartitionBounds(Connection connection, String partitionFunction, String partitioningColumn)
+    {
+        List<String> boundaries = new ArrayList<>();
+        boolean boundaryOnRight = true;
+        try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(GET_PARTITION_BOUNDARIES_QUERY)
+                .withParameters(Collections.singletonList(partitionFunction)).build();
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+                boundaries.add(resultSet.getString("BOUNDARY_VALUE"));
+                boundaryOnRight = resultSet.getBoolean("BOUNDARY_ON_RIGHT");
+            }
+        }
+        catch (SQLException sqlException) {
+            LOGGER.warn("Unable to read partition boundaries, partitions are not pruned: {}", sqlException.getMessage());
+            return Collections.emptyMap();
+        }
+
+        Map<String, PartitionBound> partitionBounds = new HashMap<>();
+        for (int partitionNumber = 1; partitionNumber <= boundaries.size() + 1; partitionNumber++) {
+            String lower = partitionNumber > 1 ? boundaries.get(partitionNumber - 2) : null;
+            String upper = partitionNumber <= boundaries.size() ? boundaries.get(partitionNumber - 1) : null;
+            partitionBounds.put(String.valueOf(partitionNumber),
+                    PartitionBound.range(partitioningColumn, lower, boundaryOnRight, upper, !boundaryOnRight));
+        }
+        return partitionBounds;
+    }
+
     /**
      * If the table have partitions fetch those partition details from sql server metadata tables.
      * This information will be used while forming the custom query to get specific partition as a split
@@ -21,16 +21,27 @@ package com.amazonaws.athena.connectors.sqlserver;
 
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class SqlServerQueryStringBuilder extends JdbcSplitQueryBuilder
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(SqlServerQueryStringBuilder.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int MAX_NVARCHAR_LENGTH = 4000;
     public SqlServerQueryStringBuilder(String quoteCharacters)
     {
         super(quoteCharacters);
@@ -73,4 +84,61 @@ public class SqlServerQueryStringBuilder extends JdbcSplitQueryBuilder
         }
         return Collections.emptyList();
     }
+
+    /**
+     * Binds long IN-lists as one JSON array expanded by OPENJSON. This stays below the limit of 2100 parameters per
+     * statement and, unlike table-valued parameters, needs no table type created in the database.
+     */
+    @Override
+    protected Optional<String> buildInListPredicate(final InList inList)
+    {
+        return sqlType(inList).map(sqlType -> inList.getQuotedColumnName() + " IN (SELECT v FROM OPENJSON(?) WITH (v " + sqlType + " '$'))");
+    }
+
+    @Override
+    protected int bindInList(final Connection jdbcConnection, final PreparedStatement statement, final int parameterIndex, final InList inList)
+            throws SQLException
+    {
+        List<String> values = inList.getValues().stream()
+                .map(value -> toInListText(inList.getType(), value))
+                .collect(Collectors.toList());
+        try {
+            statement.setString(parameterIndex, OBJECT_MAPPER.writeValueAsString(values));
+        }
+        catch (JsonProcessingException e) {
+            throw new SQLException("Unable to serialize IN-list values", e);
+        }
+        return 1;
+    }
+
+    private static Optional<String> sqlType(final InList inList)
+    {
+        switch (Types.getMinorTypeForArrowType(inList.getType())) {
+            case BIGINT:
+                return Optional.of("bigint");
+            case INT:
+                return Optional.of("int");
+            case SMALLINT:
+            case TINYINT:
+                return Optional.of("smallint");
+            case FLOAT8:
+                return Optional.of("float");
+            case FLOAT4:
+                return Optional.of("real");
+            case BIT:
+                return Optional.of("bit");
+            case DECIMAL:
+                ArrowType.Decimal decimal = (ArrowType.Decimal) inList.getType();
+                return Optional.of(String.format("decimal(%d, %d)", decimal.getPrecision(), decimal.getScale()));
+            case DATEDAY:
+                return Optional.of("date");
+            case DATEMILLI:
+                return Optional.of("datetime2(3)");
+            case VARCHAR:
+                boolean fits = inList.getValues().stream().allMatch(value -> String.valueOf(value).length() <= MAX_NVARCHAR_LENGTH);
+                return Optional.of(fits ? "nvarchar(4000)" : "nvarchar(max)");
+            default:
+                return Optional.empty();
+        }
+    }
 }
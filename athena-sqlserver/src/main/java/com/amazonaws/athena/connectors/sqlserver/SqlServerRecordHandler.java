@@ -46,7 +46,6 @@ import java.sql.SQLException;
 public class SqlServerRecordHandler extends JdbcRecordHandler
 {
     private static final String SQLSERVER_QUOTE_CHARACTER = "\"";
-    private static final int FETCH_SIZE = 1000;
     private final JdbcSplitQueryBuilder jdbcSplitQueryBuilder;
 
     public SqlServerRecordHandler()
@@ -80,8 +79,6 @@ public class SqlServerRecordHandler extends JdbcRecordHandler
     {
         PreparedStatement preparedStatement = jdbcSplitQueryBuilder.buildSql(jdbcConnection, null, tableName.getSchemaName(), tableName.getTableName(),
                 schema, constraints, split);
-        // Disable fetching all rows.
-        preparedStatement.setFetchSize(FETCH_SIZE);
         return preparedStatement;
     }
 }
@@ -27,6 +27,8 @@ import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
 import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
@@ -156,6 +158,49 @@ public class SqlServerMetadataHandlerTest
                 getTableLayoutRequest.getTableName().getTableName());
     }
 
+    @Test
+    public void doGetTableLayoutWithPrunedPartitions()
+            throws Exception
+    {
+        BlockAllocator blockAllocator = new BlockAllocatorImpl();
+        Constraints constraints = new Constraints(Collections.singletonMap("pc",
+                SortedRangeSet.of(false, Range.lessThan(blockAllocator, org.apache.arrow.vector.types.Types.MinorType.INT.getType(), 100))));
+        TableName tableName = new TableName("testSchema", "testTable");
+        Schema partitionSchema = this.sqlServerMetadataHandler.getPartitionSchema("testCatalogName");
+        Set<String> partitionCols = partitionSchema.getFields().stream().map(Field::getName).collect(Collectors.toSet());
+        GetTableLayoutRequest getTableLayoutRequest = new GetTableLayoutRequest(this.federatedIdentity, "testQueryId", "testCatalogName", tableName, constraints, partitionSchema, partitionCols);
+
+        PreparedStatement rowCountPreparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(sqlServerMetadataHandler.ROW_COUNT_QUERY)).thenReturn(rowCountPreparedStatement);
+        ResultSet rowCountResultSet = mockResultSet(new String[] {"ROW_COUNT"}, new int[] {Types.INTEGER}, new Object[][] {{2}}, new AtomicInteger(-1));
+        Mockito.when(rowCountPreparedStatement.executeQuery()).thenReturn(rowCountResultSet);
+
+        PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(sqlServerMetadataHandler.GET_PARTITIONS_QUERY)).thenReturn(preparedStatement);
+        ResultSet resultSet = mockResultSet(new String[] {sqlServerMetadataHandler.PARTITION_NUMBER}, new int[] {Types.VARCHAR}, new Object[][] {{"2"}, {"3"}}, new AtomicInteger(-1));
+        Mockito.when(preparedStatement.executeQuery()).thenReturn(resultSet);
+
+        PreparedStatement partFuncPreparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(sqlServerMetadataHandler.GET_PARTITION_DETAILS_QUERY)).thenReturn(partFuncPreparedStatement);
+        ResultSet partFuncResultSet = mockResultSet(new String[] {"PARTITION FUNCTION", "PARTITIONING COLUMN"}, new int[] {Types.VARCHAR, Types.VARCHAR}, new Object[][] {{"pf", "pc"}}, new AtomicInteger(-1));
+        Mockito.when(partFuncPreparedStatement.executeQuery()).thenReturn(partFuncResultSet);
+
+        PreparedStatement boundariesPreparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(sqlServerMetadataHandler.GET_PARTITION_BOUNDARIES_QUERY)).thenReturn(boundariesPreparedStatement);
+        ResultSet boundariesResultSet = mockResultSet(new String[] {"BOUNDARY_ID", "BOUNDARY_VALUE"}, new int[] {Types.INTEGER, Types.VARCHAR}, new Object[][] {{1, "100"}, {2, "200"}}, new AtomicInteger(-1));
+        Mockito.when(boundariesResultSet.getBoolean("BOUNDARY_ON_RIGHT")).thenReturn(true);
+        Mockito.when(boundariesPreparedStatement.executeQuery()).thenReturn(boundariesResultSet);
+
+        GetTableLayoutResponse getTableLayoutResponse = this.sqlServerMetadataHandler.doGetTableLayout(blockAllocator, getTableLayoutRequest);
+
+        List<String> actualValues = new ArrayList<>();
+        for (int i = 0; i < getTableLayoutResponse.getPartitions().getRowCount(); i++) {
+            actualValues.add(BlockUtils.rowToString(getTableLayoutResponse.getPartitions(), i));
+        }
+        Assert.assertEquals(Collections.singletonList("[PARTITION_NUMBER : 1:::pf:::pc]"), actualValues);
+        Mockito.verify(boundariesPreparedStatement, Mockito.times(1)).setString(1, "pf");
+    }
+
     @Test
     public void doGetTableLayoutWithNoPartitions()
             throws Exception
@@ -19,13 +19,25 @@
  */
 package com.amazonaws.athena.connectors.sqlserver;
 
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.testng.Assert;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 public class SqlServerQueryStringBuilderTest
 {
@@ -61,4 +73,36 @@ public class SqlServerQueryStringBuilderTest
         Assert.assertEquals(Collections.singletonList(" $PARTITION.pf(col) = 1"), builder.getPartitionWhereClauses(split1));
 
     }
+
+    @Test
+    public void testLargeInListUsesOpenJson()
+            throws SQLException
+    {
+        List<Range> ranges = new ArrayList<>();
+        StringBuilder expectedJson = new StringBuilder("[");
+        for (int i = 0; i < 300; i++) {
+            Range range = Mockito.mock(Range.class, Mockito.RETURNS_DEEP_STUBS);
+            Mockito.when(range.isSingleValue()).thenReturn(true);
+            Mockito.when(range.getLow().getValue()).thenReturn(LocalDateTime.of(2020, 1, 1, 0, 0).plusMinutes(i));
+            ranges.add(range);
+            expectedJson.append(i == 0 ? "" : ",").append('"').append(LocalDateTime.of(2020, 1, 1, 0, 0).plusMinutes(i)).append(":00.000\"");
+        }
+        expectedJson.append(']');
+        ValueSet valueSet = Mockito.mock(SortedRangeSet.class, Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(valueSet.getRanges().getOrderedRanges()).thenReturn(ranges);
+        Constraints constraints = Mockito.mock(Constraints.class);
+        Mockito.when(constraints.getSummary()).thenReturn(Collections.singletonMap("ts", valueSet));
+        Schema schema = SchemaBuilder.newBuilder().addField("ts", Types.MinorType.DATEMILLI.getType()).build();
+        Split split = Mockito.mock(Split.class);
+        Mockito.when(split.getProperties()).thenReturn(Collections.emptyMap());
+
+        Connection connection = Mockito.mock(Connection.class);
+        PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        String expectedSql = "SELECT \"ts\" FROM \"schema\".\"table\"  WHERE (\"ts\" IN (SELECT v FROM OPENJSON(?) WITH (v datetime2(3) '$')))";
+        Mockito.when(connection.prepareStatement(expectedSql)).thenReturn(statement);
+
+        SqlServerQueryStringBuilder builder = new SqlServerQueryStringBuilder("\"");
+        Assert.assertEquals(builder.buildSql(connection, null, "schema", "table", schema, constraints, split), statement);
+        Mockito.verify(statement).setString(1, expectedJson.toString());
+    }
 }
@@ -28,7 +28,6 @@ import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.data.SupportedTypes;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
-import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
 import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
@@ -41,6 +40,7 @@ import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcMetadataHandler;
 import com.amazonaws.athena.connectors.jdbc.manager.PreparedStatementBuilder;
+import com.amazonaws.athena.connectors.jdbc.splits.SubPartitionSplitter;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.annotations.VisibleForTesting;
@@ -61,8 +61,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -81,6 +83,16 @@ public class TeradataMetadataHandler extends JdbcMetadataHandler
      * Query for retrieving view info Teradata
      */
     static final String VIEW_CHECK_QUERY = "SELECT * FROM dbc.Tables WHERE UPPER(DatabaseName) = UPPER(?)  and tablekind='V' and UPPER(TableName)=UPPER(?) ";
+    /**
+     * Row count of the most recent statistics collected on the table
+     */
+    static final String GET_ROW_COUNT_QUERY = "SELECT MAX(RowCount) AS row_count FROM DBC.TableStatsV WHERE UPPER(DatabaseName) = UPPER(?) AND UPPER(TableName) = UPPER(?)";
+    /**
+     * Leading column of the table's primary index
+     */
+    static final String PRIMARY_INDEX_QUERY = "SELECT ColumnName FROM DBC.IndicesV WHERE UPPER(DatabaseName) = UPPER(?) AND UPPER(TableName) = UPPER(?) " +
+            "AND IndexType IN ('P', 'Q') AND ColumnPosition = 1";
+    private final TeradataQueryStringBuilder queryBuilder = new TeradataQueryStringBuilder(TeradataRecordHandler.TERADATA_QUOTE_CHARACTER);
     /**
      * Instantiates handler to be used by Lambda function directly.
      *
@@ -266,6 +278,10 @@ public class TeradataMetadataHandler extends JdbcMetadataHandler
             }
         }
     }
+    /**
+     * Creates a split per partition. A table read by a single split, see {@link #useNonPartitionApproach}, is cut into
+     * key ranges or row hash buckets of its primary index when its statistics count more rows than a split should read.
+     */
     @Override
     public GetSplitsResponse doGetSplits(BlockAllocator blockAllocator, GetSplitsRequest getSplitsRequest)
     {
@@ -273,27 +289,81 @@ public class TeradataMetadataHandler extends JdbcMetadataHandler
         int partitionContd = decodeContinuationToken(getSplitsRequest);
         Set<Split> splits = new HashSet<>();
         Block partitions = getSplitsRequest.getPartitions();
-        // TODO consider splitting further depending on #rows or data size. Could use Hash key for splitting if no partitions.
-        for (int curPartition = partitionContd; curPartition < partitions.getRowCount(); curPartition++) {
-            FieldReader locationReader = partitions.getFieldReader(BLOCK_PARTITION_COLUMN_NAME);
-            locationReader.setPosition(curPartition);
+        try (Connection connection = getJdbcConnectionFactory().getConnection(getCredentialProvider())) {
+            for (int curPartition = partitionContd; curPartition < partitions.getRowCount(); curPartition++) {
+                FieldReader locationReader = partitions.getFieldReader(BLOCK_PARTITION_COLUMN_NAME);
+                locationReader.setPosition(curPartition);
+                String partitionName = String.valueOf(locationReader.readText());
 
-            SpillLocation spillLocation = makeSpillLocation(getSplitsRequest);
+                LOGGER.info("{}: Input partition is {}", getSplitsRequest.getQueryId(), partitionName);
 
-            LOGGER.info("{}: Input partition is {}", getSplitsRequest.getQueryId(), locationReader.readText());
+                List<String> subPartitions = ALL_PARTITIONS.equals(partitionName)
+                        ? getSubPartitions(connection, queryBuilder, getSplitsRequest.getTableName(), getTableRowCount(connection, getSplitsRequest.getTableName()), true)
+                        : Collections.emptyList();
+                if (subPartitions.isEmpty()) {
+                    splits.add(Split.newBuilder(makeSpillLocation(getSplitsRequest), makeEncryptionKey())
+                            .add(BLOCK_PARTITION_COLUMN_NAME, partitionName)
+                            .build());
+                }
+                for (String subPartition : subPartitions) {
+                    splits.add(Split.newBuilder(makeSpillLocation(getSplitsRequest), makeEncryptionKey())
+                            .add(BLOCK_PARTITION_COLUMN_NAME, partitionName)
+                            .add(SubPartitionSplitter.SUB_PARTITION_PROPERTY, subPartition)
+                            .build());
+                }
 
-            Split.Builder splitBuilder = Split.newBuilder(spillLocation, makeEncryptionKey())
-                    .add(BLOCK_PARTITION_COLUMN_NAME, String.valueOf(locationReader.readText()));
+                if (splits.size() >= MAX_SPLITS_PER_REQUEST) {
+                    //We exceeded the number of split we want to return in a single request, return and provide a continuation token.
+                    return new GetSplitsResponse(getSplitsRequest.getCatalogName(), splits, encodeContinuationToken(curPartition + 1));
+                }
+            }
+        }
+        catch (SQLException sqlException) {
+            throw new RuntimeException(sqlException.getErrorCode() + ": " + sqlException.getMessage(), sqlException);
+        }
 
-            splits.add(splitBuilder.build());
+        return new GetSplitsResponse(getSplitsRequest.getCatalogName(), splits, null);
+    }
 
-            if (splits.size() >= MAX_SPLITS_PER_REQUEST) {
-                //We exceeded the number of split we want to return in a single request, return and provide a continuation token.
-                return new GetSplitsResponse(getSplitsRequest.getCatalogName(), splits, encodeContinuationToken(curPartition + 1));
+    /**
+     * Reads the row count of the table's most recent statistics.
+     * @param connection
+     * @param tableName
+     * @return row count, -1 if the table has no statistics
+     */
+    @VisibleForTesting
+    long getTableRowCount(final Connection connection, final TableName tableName)
+    {
+        List<String> parameters = Arrays.asList(tableName.getSchemaName(), tableName.getTableName());
+        try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(GET_ROW_COUNT_QUERY).withParameters(parameters).build();
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            if (resultSet.next()) {
+                long rowCount = resultSet.getLong("row_count");
+                return resultSet.wasNull() ? -1 : rowCount;
             }
         }
+        catch (SQLException sqlException) {
+            LOGGER.warn("Unable to read table statistics, table is not split further: {}", sqlException.getMessage());
+        }
+        return -1;
+    }
 
-        return new GetSplitsResponse(getSplitsRequest.getCatalogName(), splits, null);
+    /**
+     * Rows are spread over the AMPs by their primary index, which makes its leading column the natural key to cut a
+     * table on. Falls back to the primary key for tables without a primary index.
+     */
+    @Override
+    protected Optional<String> getSubPartitionKeyColumn(final Connection connection, final TableName tableName)
+            throws SQLException
+    {
+        List<String> parameters = Arrays.asList(tableName.getSchemaName(), tableName.getTableName());
+        try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(PRIMARY_INDEX_QUERY).withParameters(parameters).build();
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            if (resultSet.next()) {
+                return Optional.of(resultSet.getString("ColumnName").trim());
+            }
+        }
+        return super.getSubPartitionKeyColumn(connection, tableName);
     }
 
     private int decodeContinuationToken(GetSplitsRequest request)
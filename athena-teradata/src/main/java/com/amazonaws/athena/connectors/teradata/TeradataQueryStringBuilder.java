@@ -26,6 +26,7 @@ import com.google.common.base.Strings;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 public class TeradataQueryStringBuilder extends JdbcSplitQueryBuilder
 {
@@ -49,6 +50,15 @@ public class TeradataQueryStringBuilder extends JdbcSplitQueryBuilder
         return String.format(" FROM %s ", tableName);
     }
 
+    /**
+     * Buckets on the row hash Teradata distributes rows over the AMPs with, so keys of any type spread evenly.
+     */
+    @Override
+    public Optional<String> buildHashBucketExpression(final String columnName, final int columnType, final int bucketCount)
+    {
+        return Optional.of(String.format("HASHBUCKET(HASHROW(%s)) MOD %d", quote(columnName), bucketCount));
+    }
+
     @Override
     protected List<String> getPartitionWhereClauses(Split split)
     {
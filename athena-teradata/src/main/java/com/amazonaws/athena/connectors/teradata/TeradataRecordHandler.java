@@ -45,8 +45,7 @@ import java.sql.SQLException;
 
 public class TeradataRecordHandler extends JdbcRecordHandler
 {
-    private static final String TERADATA_QUOTE_CHARACTER = "\"";
-    private static final int FETCH_SIZE = 1000;
+    static final String TERADATA_QUOTE_CHARACTER = "\"";
     private final JdbcSplitQueryBuilder jdbcSplitQueryBuilder;
     public TeradataRecordHandler()
     {
@@ -75,8 +74,6 @@ public class TeradataRecordHandler extends JdbcRecordHandler
     public PreparedStatement buildSplitSql(Connection jdbcConnection, String catalogName, TableName tableName, Schema schema, Constraints constraints, Split split) throws SQLException
     {
         PreparedStatement preparedStatement = jdbcSplitQueryBuilder.buildSql(jdbcConnection, null, tableName.getSchemaName(), tableName.getTableName(), schema, constraints, split);
-        // Disable fetching all rows.
-        preparedStatement.setFetchSize(FETCH_SIZE);
         return preparedStatement;
     }
 }
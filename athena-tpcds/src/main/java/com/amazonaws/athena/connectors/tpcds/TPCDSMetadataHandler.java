@@ -37,6 +37,7 @@ import com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesResponse;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory;
 import com.amazonaws.services.athena.AmazonAthena;
+import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.collect.ImmutableSet;
 import com.teradata.tpcds.Table;
@@ -96,6 +97,17 @@ public class TPCDSMetadataHandler
         super(keyFactory, secretsManager, athena, SOURCE_TYPE, spillBucket, spillPrefix);
     }
 
+    @VisibleForTesting
+    protected TPCDSMetadataHandler(EncryptionKeyFactory keyFactory,
+            AWSSecretsManager secretsManager,
+            AmazonAthena athena,
+            AmazonS3 amazonS3,
+            String spillBucket,
+            String spillPrefix)
+    {
+        super(keyFactory, secretsManager, athena, amazonS3, SOURCE_TYPE, spillBucket, spillPrefix);
+    }
+
     /**
      * Returns our static list of schemas which correspond to the scale factor of the dataset we will generate.
      *
@@ -22,8 +22,10 @@ package com.amazonaws.athena.connectors.tpcds;
 import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
 import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
 import com.amazonaws.athena.connector.lambda.handlers.RecordHandler;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
 import com.amazonaws.services.athena.AmazonAthena;
@@ -38,6 +40,12 @@ import com.teradata.tpcds.Table;
 import com.teradata.tpcds.column.Column;
 import com.teradata.tpcds.column.ColumnType;
 import org.apache.arrow.util.VisibleForTesting;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.slf4j.Logger;
@@ -45,12 +53,15 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static com.amazonaws.athena.connectors.tpcds.TPCDSMetadataHandler.SPLIT_NUMBER_FIELD;
 import static com.amazonaws.athena.connectors.tpcds.TPCDSMetadataHandler.SPLIT_SCALE_FACTOR_FIELD;
@@ -76,6 +87,12 @@ public class TPCDSRecordHandler
      */
     private static final String SOURCE_TYPE = "tpcds";
 
+    /**
+     * The number of generated rows written to the BlockSpiller per call. The BlockSpiller checks the size of its Block
+     * after every call, so this is kept small enough that Blocks still spill close to the configured size.
+     */
+    private static final int ROWS_PER_BATCH = 64;
+
     public TPCDSRecordHandler()
     {
         super(AmazonS3ClientBuilder.defaultClient(), AWSSecretsManagerClientBuilder.defaultClient(), AmazonAthenaClientBuilder.defaultClient(), SOURCE_TYPE);
@@ -112,16 +129,14 @@ public class TPCDSRecordHandler
         Results results = constructResults(table, session);
         Iterator<List<List<String>>> itr = results.iterator();
 
-        Map<Integer, CellWriter> writers = makeWriters(recordsRequest.getSchema(), table);
+        TableWriter writer = makeTableWriter(recordsRequest.getSchema(), table, spiller.getConstraintEvaluator());
+        List<List<String>> batch = new ArrayList<>(ROWS_PER_BATCH);
         while (itr.hasNext() && queryStatusChecker.isQueryRunning()) {
-            List<String> row = itr.next().get(0);
-            spiller.writeRows((Block block, int numRow) -> {
-                boolean matched = true;
-                for (Map.Entry<Integer, CellWriter> nextWriter : writers.entrySet()) {
-                    matched &= nextWriter.getValue().write(block, numRow, row.get(nextWriter.getKey()));
-                }
-                return matched ? 1 : 0;
-            });
+            batch.clear();
+            while (batch.size() < ROWS_PER_BATCH && itr.hasNext()) {
+                batch.add(itr.next().get(0));
+            }
+            spiller.writeRows((Block block, int startRow) -> writer.write(block, startRow, batch));
         }
     }
 
@@ -145,33 +160,39 @@ public class TPCDSRecordHandler
     }
 
     /**
-     * Generates the CellWriters used to convert the TPCDS Generators data to Apache Arrow.
+     * Generates the TableWriter used to convert the TPCDS Generators data to Apache Arrow.
      *
      * @param schemaForRead The schema to read/project.
      * @param table The TPCDS Table we are reading from.
-     * @return Map<Integer, CellWriter> where integer is the Column position in the TPCDS data set and the CellWriter
-     * can be used to read,convert,write the value at that position for any row into the correct position and type
-     * in our Apache Arrow response.
+     * @param evaluator The ConstraintEvaluator for the read, columns with constraints are checked as they are written.
+     * @return A TableWriter which holds a CellWriter for each projected column, indexed by the column's position in
+     * schemaForRead, along with the position of the column in the TPCDS data set.
      */
-    private Map<Integer, CellWriter> makeWriters(Schema schemaForRead, Table table)
+    private TableWriter makeTableWriter(Schema schemaForRead, Table table, ConstraintEvaluator evaluator)
     {
-        Map<String, Column> columnPositions = new HashMap<>();
+        Map<String, Column> columns = new HashMap<>();
         for (Column next : table.getColumns()) {
-            columnPositions.put(next.getName(), next);
+            columns.put(next.getName(), next);
         }
 
-        //We use this approach to reduce the overhead of field lookups. This isn't as good as true columnar processing
-        //using Arrow but it gets us ~80% of the way there from a rows/second per cpu-cycle perspective.
-        Map<Integer, CellWriter> writers = new HashMap<>();
-        for (Field nextField : schemaForRead.getFields()) {
-            Column column = columnPositions.get(nextField.getName());
-            writers.put(column.getPosition(), makeWriter(nextField, column));
+        List<Field> fields = schemaForRead.getFields();
+        String[] fieldNames = new String[fields.size()];
+        int[] positions = new int[fields.size()];
+        CellWriter[] writers = new CellWriter[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            Field nextField = fields.get(i);
+            Column column = columns.get(nextField.getName());
+            fieldNames[i] = nextField.getName();
+            positions[i] = column.getPosition();
+            writers[i] = evaluator.makeConstraintProjector(nextField.getName()).isPresent() ?
+                    makeConstrainedWriter(nextField, column, evaluator) : makeWriter(nextField, column);
         }
-        return writers;
+        return new TableWriter(fieldNames, positions, writers);
     }
 
     /**
-     * Makes a CellWriter for the provided Apache Arrow Field and TPCDS Column.
+     * Makes a CellWriter for the provided Apache Arrow Field and TPCDS Column which parses values straight into the
+     * column's vector, without boxing them or creating intermediate objects where possible.
      *
      * @param field The Apache Arrow Field.
      * @param column The corresponding TPCDS Column.
@@ -182,47 +203,174 @@ public class TPCDSRecordHandler
         ColumnType type = column.getType();
         switch (type.getBase()) {
             case IDENTIFIER:
-                return (Block block, int rowNum, String rawValue) -> {
-                    Long value = (rawValue != null) ? Long.parseLong(rawValue) : null;
-                    return block.setValue(field.getName(), rowNum, value);
+                return (FieldVector vector, int rowNum, String rawValue) -> {
+                    if (rawValue == null) {
+                        BlockUtils.setValue(vector, rowNum, null);
+                    }
+                    else {
+                        ((BigIntVector) vector).setSafe(rowNum, Long.parseLong(rawValue));
+                    }
+                    return true;
                 };
             case INTEGER:
-                return (Block block, int rowNum, String rawValue) -> {
-                    Integer value = (rawValue != null) ? Integer.parseInt(rawValue) : null;
-                    return block.setValue(field.getName(), rowNum, value);
+                return (FieldVector vector, int rowNum, String rawValue) -> {
+                    if (rawValue == null) {
+                        BlockUtils.setValue(vector, rowNum, null);
+                    }
+                    else {
+                        ((IntVector) vector).setSafe(rowNum, Integer.parseInt(rawValue));
+                    }
+                    return true;
                 };
             case DATE:
-                return (Block block, int rowNum, String rawValue) -> {
-                    LocalDate value = (rawValue != null) ? LocalDate.parse(rawValue) : null;
-                    return block.setValue(field.getName(), rowNum, value);
+                return (FieldVector vector, int rowNum, String rawValue) -> {
+                    if (rawValue == null) {
+                        BlockUtils.setValue(vector, rowNum, null);
+                    }
+                    else {
+                        ((DateDayVector) vector).setSafe(rowNum, TPCDSUtils.parseEpochDay(rawValue));
+                    }
+                    return true;
                 };
             case DECIMAL:
-                return (Block block, int rowNum, String rawValue) -> {
-                    BigDecimal value = (rawValue != null) ? new BigDecimal(rawValue) : null;
-                    return block.setValue(field.getName(), rowNum, value);
+                return (FieldVector vector, int rowNum, String rawValue) -> {
+                    if (rawValue == null) {
+                        BlockUtils.setValue(vector, rowNum, null);
+                        return true;
+                    }
+                    DecimalVector decimalVector = (DecimalVector) vector;
+                    long unscaled = TPCDSUtils.parseUnscaledDecimal(rawValue, decimalVector.getPrecision(), decimalVector.getScale());
+                    if (unscaled != TPCDSUtils.UNPARSEABLE_DECIMAL) {
+                        decimalVector.setSafe(rowNum, unscaled);
+                    }
+                    else {
+                        BlockUtils.setValue(vector, rowNum, new BigDecimal(rawValue));
+                    }
+                    return true;
                 };
             case TIME:
             case CHAR:
             case VARCHAR:
-                return (Block block, int rowNum, String rawValue) -> {
-                    return block.setValue(field.getName(), rowNum, rawValue);
+                return (FieldVector vector, int rowNum, String rawValue) -> {
+                    if (rawValue == null) {
+                        BlockUtils.setValue(vector, rowNum, null);
+                    }
+                    else {
+                        ((VarCharVector) vector).setSafe(rowNum, rawValue.getBytes(StandardCharsets.UTF_8));
+                    }
+                    return true;
                 };
         }
         throw new IllegalArgumentException("Unsupported TPC-DS type " + column.getName() + ":" + column.getType().getBase());
     }
 
+    /**
+     * Makes a CellWriter for a column with constraints. These convert each value to the Java type the
+     * ConstraintEvaluator expects for the column, so that constraints are applied exactly as Block.setValue(...) would
+     * apply them.
+     *
+     * @param field The Apache Arrow Field.
+     * @param column The corresponding TPCDS Column.
+     * @param evaluator The ConstraintEvaluator to apply to each value before writing it.
+     * @return The CellWriter that can be used to convert, constrain and write values for the provided Field/Column pair.
+     */
+    private CellWriter makeConstrainedWriter(Field field, Column column, ConstraintEvaluator evaluator)
+    {
+        Function<String, Object> converter;
+        switch (column.getType().getBase()) {
+            case IDENTIFIER:
+                converter = Long::parseLong;
+                break;
+            case INTEGER:
+                converter = Integer::parseInt;
+                break;
+            case DATE:
+                converter = LocalDate::parse;
+                break;
+            case DECIMAL:
+                converter = BigDecimal::new;
+                break;
+            case TIME:
+            case CHAR:
+            case VARCHAR:
+                converter = (String rawValue) -> rawValue;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported TPC-DS type " + column.getName() + ":" + column.getType().getBase());
+        }
+
+        String fieldName = field.getName();
+        return (FieldVector vector, int rowNum, String rawValue) -> {
+            Object value = (rawValue != null) ? converter.apply(rawValue) : null;
+            if (!evaluator.apply(fieldName, value)) {
+                return false;
+            }
+            BlockUtils.setValue(vector, rowNum, value);
+            return true;
+        };
+    }
+
     public interface CellWriter
     {
         /**
          * Converts a value from TPCDS' string representation into the appropriate Apache Arrow type
-         * and writes it to the correct field in the provided Block and row. The implementation should
+         * and writes it to the provided vector and row. The implementation should
          * also apply constraints as an optimization.
          *
-         * @param block The Apache Arrow Block to write into.
-         * @param rowNum The row number in the Arrow Block to write into.
-         * @param value The value to convert and write into the Apache Arrow Block.
+         * @param vector The Apache Arrow vector, of the Block being written, to write into.
+         * @param rowNum The row number in the Arrow vector to write into.
+         * @param value The value to convert and write into the Apache Arrow vector.
          * @return True if the value passed all Contraints.
          */
-        boolean write(Block block, int rowNum, String value);
+        boolean write(FieldVector vector, int rowNum, String value);
+    }
+
+    /**
+     * Writes batches of rows from the TPCDS generator into a Block. The writer, source position and field name of each
+     * projected column are held in arrays so that writing a row is a simple loop, and the Block's vectors are looked up
+     * once per batch rather than once per value.
+     */
+    private static class TableWriter
+    {
+        private final String[] fieldNames;
+        private final int[] positions;
+        private final CellWriter[] writers;
+        private final FieldVector[] vectors;
+
+        TableWriter(String[] fieldNames, int[] positions, CellWriter[] writers)
+        {
+            this.fieldNames = fieldNames;
+            this.positions = positions;
+            this.writers = writers;
+            this.vectors = new FieldVector[writers.length];
+        }
+
+        /**
+         * Writes the rows which pass all constraints to consecutive rows of the Block.
+         *
+         * @param block The Block to write into.
+         * @param startRow The row number in the Block to write the first row to.
+         * @param rows The rows to write, as generated by TPCDS.
+         * @return The number of rows written.
+         */
+        int write(Block block, int startRow, List<List<String>> rows)
+        {
+            for (int i = 0; i < vectors.length; i++) {
+                vectors[i] = block.getFieldVector(fieldNames[i]);
+            }
+
+            int rowNum = startRow;
+            for (List<String> row : rows) {
+                boolean matched = true;
+                for (int i = 0; i < writers.length && matched; i++) {
+                    matched = writers[i].write(vectors[i], rowNum, row.get(positions[i]));
+                }
+                //A row which failed a constraint is overwritten by the next row.
+                if (matched) {
+                    rowNum++;
+                }
+            }
+            return rowNum - startRow;
+        }
     }
 }
@@ -28,6 +28,7 @@ import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
 
+import java.time.LocalDate;
 import java.util.Optional;
 
 /**
@@ -36,6 +37,14 @@ import java.util.Optional;
  */
 public class TPCDSUtils
 {
+    /**
+     * Returned by parseUnscaledDecimal(...) for values which can't be represented as an unscaled long.
+     */
+    public static final long UNPARSEABLE_DECIMAL = Long.MIN_VALUE;
+
+    //The largest number of digits that always fit in a long.
+    private static final int MAX_LONG_DIGITS = 18;
+
     private TPCDSUtils() {}
 
     /**
@@ -103,4 +112,90 @@ public class TPCDSUtils
 
         return table.get();
     }
+
+    /**
+     * Parses a date in TPCDS' yyyy-MM-dd format to the number of days since the epoch, without going through a
+     * DateTimeFormatter.
+     *
+     * @param value The date to parse.
+     * @return The number of days since 1970-01-01.
+     */
+    public static int parseEpochDay(String value)
+    {
+        if (value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return (int) LocalDate.parse(value).toEpochDay();
+        }
+        int year = parseDigits(value, 0, 4);
+        int month = parseDigits(value, 5, 7);
+        int day = parseDigits(value, 8, 10);
+        if (year < 0 || month < 0 || day < 0) {
+            return (int) LocalDate.parse(value).toEpochDay();
+        }
+        return (int) LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    /**
+     * Parses a decimal in TPCDS' plain format (e.g. -123.45) to its unscaled value at the given scale, which is what
+     * Apache Arrow's DecimalVector stores, without creating a BigDecimal.
+     *
+     * @param value The decimal to parse.
+     * @param precision The precision of the column.
+     * @param scale The scale of the column.
+     * @return The unscaled value (e.g. -12345 for -123.45 at scale 2), or UNPARSEABLE_DECIMAL if the value is not in
+     * plain format, has more fractional digits than the scale, or doesn't fit the precision or a long. Such values
+     * should be converted using BigDecimal instead.
+     */
+    public static long parseUnscaledDecimal(String value, int precision, int scale)
+    {
+        int length = value.length();
+        int pos = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            pos++;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; pos < length; pos++) {
+            char next = value.charAt(pos);
+            if (next == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (next < '0' || next > '9' || ++digits > MAX_LONG_DIGITS) {
+                return UNPARSEABLE_DECIMAL;
+            }
+            unscaled = unscaled * 10 + (next - '0');
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+        }
+
+        fractionDigits = Math.max(fractionDigits, 0);
+        if (digits == 0 || fractionDigits > scale || digits - fractionDigits + scale > Math.min(precision, MAX_LONG_DIGITS)) {
+            return UNPARSEABLE_DECIMAL;
+        }
+        for (int i = fractionDigits; i < scale; i++) {
+            unscaled *= 10;
+        }
+        return negative ? -unscaled : unscaled;
+    }
+
+    /**
+     * @return The value of the decimal digits in value[start, end), or -1 if any of them is not a digit.
+     */
+    private static int parseDigits(String value, int start, int end)
+    {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char next = value.charAt(i);
+            if (next < '0' || next > '9') {
+                return -1;
+            }
+            result = result * 10 + (next - '0');
+        }
+        return result;
+    }
 }
@@ -50,10 +50,14 @@ import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.ByteStreams;
+import com.teradata.tpcds.Results;
+import com.teradata.tpcds.Session;
 import com.teradata.tpcds.Table;
 import com.teradata.tpcds.column.Column;
+import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.Text;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -66,6 +70,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -309,6 +316,92 @@ public class TPCDSRecordHandlerTest
         logger.info("doReadRecordForTPCDSTIMETypeColumn: exit");
     }
 
+    @Test
+    public void doReadRecordsWritesGeneratedValues()
+            throws Exception
+    {
+        for (Table next : Table.getBaseTables()) {
+            if (next.getName().equals("item")) {
+                table = next;
+            }
+        }
+        SchemaBuilder schemaBuilder = SchemaBuilder.newBuilder();
+        for (Column nextCol : table.getColumns()) {
+            schemaBuilder.addField(TPCDSUtils.convertColumn(nextCol));
+        }
+        Schema schema = schemaBuilder.build();
+
+        ReadRecordsRequest request = new ReadRecordsRequest(identity,
+                "catalog",
+                "queryId-" + System.currentTimeMillis(),
+                new TableName("tpcds1", table.getName()),
+                schema,
+                Split.newBuilder(S3SpillLocation.newBuilder()
+                                .withBucket(UUID.randomUUID().toString())
+                                .withSplitId(UUID.randomUUID().toString())
+                                .withQueryId(UUID.randomUUID().toString())
+                                .withIsDirectory(true)
+                                .build(),
+                        keyFactory.create())
+                        .add(SPLIT_NUMBER_FIELD, "0")
+                        .add(SPLIT_TOTAL_NUMBER_FIELD, "100")
+                        .add(SPLIT_SCALE_FACTOR_FIELD, "1")
+                        .build(),
+                new Constraints(ImmutableMap.of()),
+                100_000_000_000L,
+                100_000_000_000L
+        );
+
+        try (ReadRecordsResponse response = (ReadRecordsResponse) handler.doReadRecords(allocator, request)) {
+            Session session = Session.getDefaultSession()
+                    .withScale(1)
+                    .withParallelism(100)
+                    .withChunkNumber(1)
+                    .withTable(table)
+                    .withNoSexism(true);
+            List<List<String>> expectedRows = new ArrayList<>();
+            for (List<List<String>> next : Results.constructResults(table, session)) {
+                expectedRows.add(next.get(0));
+            }
+
+            //Spans more than one batch of rows, including the decimal, date and varchar columns.
+            assertTrue(expectedRows.size() > 64);
+            assertEquals(expectedRows.size(), response.getRecordCount());
+            for (int row = 0; row < expectedRows.size(); row++) {
+                for (Column column : table.getColumns()) {
+                    String rawValue = expectedRows.get(row).get(column.getPosition());
+                    FieldVector vector = response.getRecords().getFieldVector(column.getName());
+                    assertEquals(column.getName() + " row " + row, expectedValue(column, rawValue), actualValue(vector, row));
+                }
+            }
+        }
+    }
+
+    private static Object expectedValue(Column column, String rawValue)
+    {
+        if (rawValue == null) {
+            return null;
+        }
+        switch (column.getType().getBase()) {
+            case IDENTIFIER:
+                return Long.parseLong(rawValue);
+            case INTEGER:
+                return Integer.parseInt(rawValue);
+            case DATE:
+                return (int) LocalDate.parse(rawValue).toEpochDay();
+            case DECIMAL:
+                return new BigDecimal(rawValue).setScale(column.getType().getScale().get(), RoundingMode.HALF_UP);
+            default:
+                return rawValue;
+        }
+    }
+
+    private static Object actualValue(FieldVector vector, int row)
+    {
+        Object value = vector.getObject(row);
+        return (value instanceof Text) ? value.toString() : value;
+    }
+
     private class ByteHolder
     {
         private byte[] bytes;
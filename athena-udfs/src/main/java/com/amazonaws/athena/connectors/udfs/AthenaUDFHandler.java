@@ -23,6 +23,7 @@ import com.amazonaws.athena.connector.lambda.handlers.UserDefinedFunctionHandler
 import com.amazonaws.athena.connector.lambda.security.CachableSecretsManager;
 import com.amazonaws.services.secretsmanager.AWSSecretsManagerClient;
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.arrow.vector.VarCharVector;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -31,21 +32,39 @@ import javax.crypto.NoSuchPaddingException;
 import javax.crypto.spec.SecretKeySpec;
 
 import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
+/**
+ * Common UDFs for Athena.
+ * <p>
+ * The codec and cipher contexts used by these UDFs are expensive to create relative to the work done for a single row
+ * so they are pooled per thread and reused across rows (and invocations of a warm Lambda). Data keys are cached by
+ * secret name and only re-decoded if the value of the secret changes. Each UDF also has a batch overload which
+ * processes all the rows of a request in one call (see UserDefinedFunctionHandler).
+ */
 public class AthenaUDFHandler
         extends UserDefinedFunctionHandler
 {
     private static final String SOURCE_TYPE = "athena_common_udfs";
+    private static final String CIPHER_ALGORITHM = "AES";
+    private static final int BUFFER_SIZE = 4096;
+    //Pooled output streams which grew beyond this size are not kept around for the next row.
+    private static final int MAX_POOLED_STREAM_SIZE = 1024 * 1024;
 
     private final CachableSecretsManager cachableSecretsManager;
+    private final Map<String, DataKey> dataKeys = new ConcurrentHashMap<>();
+    private final ThreadLocal<CodecContext> codecContexts = ThreadLocal.withInitial(CodecContext::new);
+    private final ThreadLocal<Map<String, CipherContext>> encryptCiphers = ThreadLocal.withInitial(HashMap::new);
+    private final ThreadLocal<Map<String, CipherContext>> decryptCiphers = ThreadLocal.withInitial(HashMap::new);
 
     public AthenaUDFHandler()
     {
@@ -69,30 +88,25 @@ public class AthenaUDFHandler
     public String compress(String input)
     {
         byte[] inputBytes = input.getBytes(StandardCharsets.UTF_8);
+        return new String(compress(inputBytes), StandardCharsets.ISO_8859_1);
+    }
 
-        // create compressor
-        Deflater compressor = new Deflater();
-        compressor.setInput(inputBytes);
-        compressor.finish();
-
-        // compress bytes to output stream
-        byte[] buffer = new byte[4096];
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(inputBytes.length);
-        while (!compressor.finished()) {
-            int bytes = compressor.deflate(buffer);
-            byteArrayOutputStream.write(buffer, 0, bytes);
-        }
-
-        try {
-            byteArrayOutputStream.close();
-        }
-        catch (IOException e) {
-            throw new RuntimeException("Failed to close ByteArrayOutputStream", e);
+    /**
+     * Batch version of {@link #compress(String)}, null inputs produce null outputs.
+     *
+     * @param input the Strings to be compressed
+     * @param output the vector that the compressed Strings are written to
+     */
+    public void compress(VarCharVector input, VarCharVector output)
+    {
+        for (int i = 0; i < input.getValueCount(); i++) {
+            if (input.isNull(i)) {
+                output.setNull(i);
+            }
+            else {
+                output.setSafe(i, compress(input.get(i)));
+            }
         }
-
-        // return encoded string
-        byte[] compressedBytes = byteArrayOutputStream.toByteArray();
-        return Base64.getEncoder().encodeToString(compressedBytes);
     }
 
     /**
@@ -104,38 +118,26 @@ public class AthenaUDFHandler
      */
     public String decompress(String input)
     {
-        byte[] inputBytes = Base64.getDecoder().decode((input));
-
-        // create decompressor
-        Inflater decompressor = new Inflater();
-        decompressor.setInput(inputBytes, 0, inputBytes.length);
+        byte[] inputBytes = input.getBytes(StandardCharsets.ISO_8859_1);
+        return new String(decompress(inputBytes), StandardCharsets.UTF_8);
+    }
 
-        // decompress bytes to output stream
-        byte[] buffer = new byte[4096];
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(inputBytes.length);
-        try {
-            while (!decompressor.finished()) {
-                int bytes = decompressor.inflate(buffer);
-                if (bytes == 0 && decompressor.needsInput()) {
-                    throw new DataFormatException("Input is truncated");
-                }
-                byteArrayOutputStream.write(buffer, 0, bytes);
+    /**
+     * Batch version of {@link #decompress(String)}, null inputs produce null outputs.
+     *
+     * @param input the Strings to be decompressed
+     * @param output the vector that the decompressed Strings are written to
+     */
+    public void decompress(VarCharVector input, VarCharVector output)
+    {
+        for (int i = 0; i < input.getValueCount(); i++) {
+            if (input.isNull(i)) {
+                output.setNull(i);
+            }
+            else {
+                output.setSafe(i, decompress(input.get(i)));
             }
         }
-        catch (DataFormatException e) {
-            throw new RuntimeException("Failed to decompress string", e);
-        }
-
-        try {
-            byteArrayOutputStream.close();
-        }
-        catch (IOException e) {
-            throw new RuntimeException("Failed to close ByteArrayOutputStream", e);
-        }
-
-        // return decoded string
-        byte[] decompressedBytes = byteArrayOutputStream.toByteArray();
-        return new String(decompressedBytes, StandardCharsets.UTF_8);
     }
 
     /**
@@ -150,17 +152,25 @@ public class AthenaUDFHandler
      */
     public String decrypt(String ciphertext, String secretName)
     {
-        String secretString = cachableSecretsManager.getSecret(secretName);
-        byte[] plaintextKey = Base64.getDecoder().decode(secretString);
+        return new String(decrypt(ciphertext.getBytes(StandardCharsets.ISO_8859_1), secretName), StandardCharsets.UTF_8);
+    }
 
-        try {
-            Cipher cipher = getCipher(Cipher.DECRYPT_MODE, plaintextKey);
-            byte[] encryptedContent = Base64.getDecoder().decode(ciphertext.getBytes());
-            byte[] plainTextBytes = cipher.doFinal(encryptedContent);
-            return new String(plainTextBytes);
-        }
-        catch (IllegalBlockSizeException | BadPaddingException e) {
-            throw new RuntimeException(e);
+    /**
+     * Batch version of {@link #decrypt(String, String)}, null inputs produce null outputs.
+     *
+     * @param ciphertext
+     * @param secretName
+     * @param output the vector that the plaintext is written to
+     */
+    public void decrypt(VarCharVector ciphertext, VarCharVector secretName, VarCharVector output)
+    {
+        for (int i = 0; i < ciphertext.getValueCount(); i++) {
+            if (ciphertext.isNull(i) || secretName.isNull(i)) {
+                output.setNull(i);
+            }
+            else {
+                output.setSafe(i, decrypt(ciphertext.get(i), secretName.getObject(i).toString()));
+            }
         }
     }
 
@@ -176,25 +186,142 @@ public class AthenaUDFHandler
      */
     public String encrypt(String plaintext, String secretName)
     {
-        String secretString = cachableSecretsManager.getSecret(secretName);
-        byte[] plaintextKey = Base64.getDecoder().decode(secretString);
+        return new String(encrypt(plaintext.getBytes(StandardCharsets.UTF_8), secretName), StandardCharsets.ISO_8859_1);
+    }
 
+    /**
+     * Batch version of {@link #encrypt(String, String)}, null inputs produce null outputs.
+     *
+     * @param plaintext
+     * @param secretName
+     * @param output the vector that the ciphertext is written to
+     */
+    public void encrypt(VarCharVector plaintext, VarCharVector secretName, VarCharVector output)
+    {
+        for (int i = 0; i < plaintext.getValueCount(); i++) {
+            if (plaintext.isNull(i) || secretName.isNull(i)) {
+                output.setNull(i);
+            }
+            else {
+                output.setSafe(i, encrypt(plaintext.get(i), secretName.getObject(i).toString()));
+            }
+        }
+    }
+
+    /**
+     * @param input the UTF-8 bytes to be compressed
+     * @return the Base64 encoded, compressed bytes
+     */
+    private byte[] compress(byte[] input)
+    {
+        CodecContext context = codecContexts.get();
+        Deflater compressor = context.compressor;
+        ByteArrayOutputStream byteArrayOutputStream = context.stream();
         try {
-            Cipher cipher = getCipher(Cipher.ENCRYPT_MODE, plaintextKey);
-            byte[] encryptedContent = cipher.doFinal(plaintext.getBytes());
-            byte[] encodedContent = Base64.getEncoder().encode(encryptedContent);
-            return new String(encodedContent);
+            compressor.setInput(input);
+            compressor.finish();
+            while (!compressor.finished()) {
+                int bytes = compressor.deflate(context.buffer);
+                byteArrayOutputStream.write(context.buffer, 0, bytes);
+            }
+            return Base64.getEncoder().encode(byteArrayOutputStream.toByteArray());
+        }
+        finally {
+            compressor.reset();
+            context.release(byteArrayOutputStream);
+        }
+    }
+
+    /**
+     * @param input the Base64 encoded, compressed bytes
+     * @return the decompressed UTF-8 bytes
+     */
+    private byte[] decompress(byte[] input)
+    {
+        byte[] inputBytes = Base64.getDecoder().decode(input);
+
+        CodecContext context = codecContexts.get();
+        Inflater decompressor = context.decompressor;
+        ByteArrayOutputStream byteArrayOutputStream = context.stream();
+        try {
+            decompressor.setInput(inputBytes, 0, inputBytes.length);
+            while (!decompressor.finished()) {
+                int bytes = decompressor.inflate(context.buffer);
+                if (bytes == 0 && decompressor.needsInput()) {
+                    throw new DataFormatException("Input is truncated");
+                }
+                byteArrayOutputStream.write(context.buffer, 0, bytes);
+            }
+            return byteArrayOutputStream.toByteArray();
+        }
+        catch (DataFormatException e) {
+            throw new RuntimeException("Failed to decompress string", e);
+        }
+        finally {
+            decompressor.reset();
+            context.release(byteArrayOutputStream);
+        }
+    }
+
+    /**
+     * @param ciphertext the Base64 encoded ciphertext
+     * @param secretName the name of the secret holding the data key
+     * @return the plaintext bytes
+     */
+    private byte[] decrypt(byte[] ciphertext, String secretName)
+    {
+        return doFinal(decryptCiphers.get(), Cipher.DECRYPT_MODE, secretName, Base64.getDecoder().decode(ciphertext));
+    }
+
+    /**
+     * @param plaintext the plaintext bytes
+     * @param secretName the name of the secret holding the data key
+     * @return the Base64 encoded ciphertext
+     */
+    private byte[] encrypt(byte[] plaintext, String secretName)
+    {
+        return Base64.getEncoder().encode(doFinal(encryptCiphers.get(), Cipher.ENCRYPT_MODE, secretName, plaintext));
+    }
+
+    private byte[] doFinal(Map<String, CipherContext> ciphers, int cipherMode, String secretName, byte[] input)
+    {
+        SecretKeySpec dataKey = getDataKey(secretName);
+        CipherContext context = ciphers.get(secretName);
+        if (context == null || context.dataKey != dataKey) {
+            context = new CipherContext(dataKey, getCipher(cipherMode, dataKey));
+            ciphers.put(secretName, context);
+        }
+
+        try {
+            //Cipher.doFinal(...) leaves the Cipher in its initialized state, ready to be used for the next row.
+            return context.cipher.doFinal(input);
         }
         catch (IllegalBlockSizeException | BadPaddingException e) {
+            //The state of a Cipher which failed part way through is undefined so we don't reuse it.
+            ciphers.remove(secretName);
             throw new RuntimeException(e);
         }
     }
 
-    private Cipher getCipher(int cipherMode, byte[] plainTextDataKey)
+    /**
+     * Gets the data key stored in the given secret. The secret value itself comes from the CachableSecretsManager,
+     * we only cache the decoded key so that it is decoded once for as long as the value of the secret doesn't change.
+     */
+    private SecretKeySpec getDataKey(String secretName)
+    {
+        String secretString = cachableSecretsManager.getSecret(secretName);
+        DataKey dataKey = dataKeys.get(secretName);
+        if (dataKey == null || !dataKey.secretString.equals(secretString)) {
+            dataKey = new DataKey(secretString, new SecretKeySpec(Base64.getDecoder().decode(secretString), CIPHER_ALGORITHM));
+            dataKeys.put(secretName, dataKey);
+        }
+        return dataKey.key;
+    }
+
+    private Cipher getCipher(int cipherMode, SecretKeySpec skeySpec)
     {
         try {
-            Cipher cipher = Cipher.getInstance("AES");
-            SecretKeySpec skeySpec = new SecretKeySpec(plainTextDataKey, "AES");
+            Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
             cipher.init(cipherMode, skeySpec);
             return cipher;
         }
@@ -202,4 +329,58 @@ public class AthenaUDFHandler
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * The decoded data key of a secret along with the secret value it was decoded from.
+     */
+    private static class DataKey
+    {
+        private final String secretString;
+        private final SecretKeySpec key;
+
+        private DataKey(String secretString, SecretKeySpec key)
+        {
+            this.secretString = secretString;
+            this.key = key;
+        }
+    }
+
+    /**
+     * An initialized Cipher along with the data key it was initialized with.
+     */
+    private static class CipherContext
+    {
+        private final SecretKeySpec dataKey;
+        private final Cipher cipher;
+
+        private CipherContext(SecretKeySpec dataKey, Cipher cipher)
+        {
+            this.dataKey = dataKey;
+            this.cipher = cipher;
+        }
+    }
+
+    /**
+     * Per thread compression state, reset after every row.
+     */
+    private static class CodecContext
+    {
+        private final Deflater compressor = new Deflater();
+        private final Inflater decompressor = new Inflater();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(BUFFER_SIZE);
+
+        private ByteArrayOutputStream stream()
+        {
+            byteArrayOutputStream.reset();
+            return byteArrayOutputStream;
+        }
+
+        private void release(ByteArrayOutputStream stream)
+        {
+            if (stream.size() > MAX_POOLED_STREAM_SIZE) {
+                byteArrayOutputStream = new ByteArrayOutputStream(BUFFER_SIZE);
+            }
+        }
+    }
 }
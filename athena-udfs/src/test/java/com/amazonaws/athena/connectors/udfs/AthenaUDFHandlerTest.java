@@ -20,6 +20,10 @@
 package com.amazonaws.athena.connectors.udfs;
 
 import com.amazonaws.athena.connector.lambda.security.CachableSecretsManager;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -27,11 +31,14 @@ import org.junit.Test;
 import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.zip.DataFormatException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -40,6 +47,8 @@ public class AthenaUDFHandlerTest
     private static final String DUMMY_SECRET_NAME = "dummy_secret";
 
     private AthenaUDFHandler athenaUDFHandler;
+    private CachableSecretsManager cachableSecretsManager;
+    private BufferAllocator allocator;
 
     private static final String PLAINTEXT_DATA_KEY = "AQIDBAUGBwgJAAECAwQFBg==";
 
@@ -49,9 +58,16 @@ public class AthenaUDFHandlerTest
     @Before
     public void setup()
     {
-        CachableSecretsManager cachableSecretsManager = mock(CachableSecretsManager.class);
+        cachableSecretsManager = mock(CachableSecretsManager.class);
         when(cachableSecretsManager.getSecret(DUMMY_SECRET_NAME)).thenReturn(PLAINTEXT_DATA_KEY);
         this.athenaUDFHandler = new AthenaUDFHandler(cachableSecretsManager);
+        this.allocator = new RootAllocator(Long.MAX_VALUE);
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
     }
 
     @Test
@@ -95,6 +111,7 @@ public class AthenaUDFHandlerTest
     {
         try {
             athenaUDFHandler.decompress("");
+            fail("Expected decompressing an empty input to fail");
         }
         catch (RuntimeException e) {
             assertTrue(e.getCause() instanceof DataFormatException);
@@ -132,6 +149,98 @@ public class AthenaUDFHandlerTest
         assertEquals(expected, result);
     }
 
+    @Test
+    public void testCodecReuse()
+    {
+        //A failed row must not leave the pooled codec in a bad state for the following rows.
+        try {
+            athenaUDFHandler.decompress("");
+            fail("Expected decompressing an empty input to fail");
+        }
+        catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof DataFormatException);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            String input = "StringToBeCompressed" + i;
+            assertEquals(input, athenaUDFHandler.decompress(athenaUDFHandler.compress(input)));
+        }
+    }
+
+    @Test
+    public void testKmsDataKeyRotation() throws Exception
+    {
+        String rotatedDataKey = "BQYHCAkAAQIDBAUGBwgJAA==";
+        String content = "abcdef";
+
+        String encrypted = athenaUDFHandler.encrypt(content, DUMMY_SECRET_NAME);
+        assertEquals(content, athenaUDFHandler.decrypt(encrypted, DUMMY_SECRET_NAME));
+
+        when(cachableSecretsManager.getSecret(DUMMY_SECRET_NAME)).thenReturn(rotatedDataKey);
+        SecretKeySpec skeySpec = new SecretKeySpec(decoder.decode(rotatedDataKey), "AES");
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.ENCRYPT_MODE, skeySpec);
+        String expected = new String(encoder.encode(cipher.doFinal(content.getBytes())));
+
+        assertEquals(expected, athenaUDFHandler.encrypt(content, DUMMY_SECRET_NAME));
+        assertEquals(content, athenaUDFHandler.decrypt(expected, DUMMY_SECRET_NAME));
+    }
+
+    @Test
+    public void testBatchCompressAndDecompress()
+    {
+        try (VarCharVector input = new VarCharVector("input", allocator);
+                VarCharVector compressed = new VarCharVector("compressed", allocator);
+                VarCharVector output = new VarCharVector("output", allocator)) {
+            input.allocateNew();
+            input.setSafe(0, "StringToBeCompressed".getBytes(StandardCharsets.UTF_8));
+            input.setNull(1);
+            input.setSafe(2, "\u00e9t\u00e9".getBytes(StandardCharsets.UTF_8));
+            input.setValueCount(3);
+
+            athenaUDFHandler.compress(input, compressed);
+            compressed.setValueCount(3);
+            assertEquals("eJwLLinKzEsPyXdKdc7PLShKLS5OTQEAUrEH9w==", compressed.getObject(0).toString());
+            assertTrue(compressed.isNull(1));
+
+            athenaUDFHandler.decompress(compressed, output);
+            output.setValueCount(3);
+            assertEquals("StringToBeCompressed", output.getObject(0).toString());
+            assertNull(output.getObject(1));
+            assertEquals("\u00e9t\u00e9", output.getObject(2).toString());
+        }
+    }
+
+    @Test
+    public void testBatchEncryptAndDecrypt()
+    {
+        try (VarCharVector input = new VarCharVector("input", allocator);
+                VarCharVector secretNames = new VarCharVector("secret", allocator);
+                VarCharVector encrypted = new VarCharVector("encrypted", allocator);
+                VarCharVector output = new VarCharVector("output", allocator)) {
+            input.allocateNew();
+            secretNames.allocateNew();
+            for (int i = 0; i < 3; i++) {
+                input.setSafe(i, ("abcdef" + i).getBytes(StandardCharsets.UTF_8));
+                secretNames.setSafe(i, DUMMY_SECRET_NAME.getBytes(StandardCharsets.UTF_8));
+            }
+            input.setNull(1);
+            input.setValueCount(3);
+            secretNames.setValueCount(3);
+
+            athenaUDFHandler.encrypt(input, secretNames, encrypted);
+            encrypted.setValueCount(3);
+            assertEquals(athenaUDFHandler.encrypt("abcdef0", DUMMY_SECRET_NAME), encrypted.getObject(0).toString());
+            assertTrue(encrypted.isNull(1));
+
+            athenaUDFHandler.decrypt(encrypted, secretNames, output);
+            output.setValueCount(3);
+            assertEquals("abcdef0", output.getObject(0).toString());
+            assertNull(output.getObject(1));
+            assertEquals("abcdef2", output.getObject(2).toString());
+        }
+    }
+
     /**
      * This UT is used to test {@link AthenaUDFHandler#decrypt(String, String)} method end-to-end.
      * It requires AWS Secret Manager setup and AWS credential setup.
@@ -0,0 +1,272 @@
+/*-
+ * #%L
+ * athena-vertica
+ * %%
+ * Copyright (C) 2019 - 2020 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.vertica;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.records.RecordResponse;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
+import com.amazonaws.services.athena.AmazonAthena;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import com.google.common.io.ByteStreams;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class VerticaRecordHandlerTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(VerticaRecordHandlerTest.class);
+    private static final String EXPORTED_OBJECT_KEY = "testQueryId/0_0.parquet";
+    // The exported file holds ids 0 to 299 in three row groups of 100 rows, the third one starting at this offset.
+    private static final long THIRD_ROW_GROUP_START = 6301;
+
+    private VerticaRecordHandler verticaRecordHandler;
+    private AmazonS3 amazonS3;
+    private BlockAllocator allocator;
+    private byte[] exportedObject;
+
+    @Before
+    public void setup()
+    {
+        this.amazonS3 = Mockito.mock(AmazonS3.class);
+        this.verticaRecordHandler = new VerticaRecordHandler(this.amazonS3, Mockito.mock(AWSSecretsManager.class), Mockito.mock(AmazonAthena.class));
+        this.allocator = new BlockAllocatorImpl();
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.allocator.close();
+    }
+
+    @Test
+    public void readWithConstraint()
+            throws Exception
+    {
+        logger.info("readWithConstraint - enter");
+
+        List<GetObjectRequest> getObjectRequests = mockExportedObject();
+
+        ReadRecordsResponse response = readExportedObject(makeSchema(), EXPORTED_OBJECT_KEY, new Constraints(Collections.emptyMap()));
+
+        Block block = response.getRecords();
+        Assert.assertEquals(300, block.getRowCount());
+        Assert.assertEquals("[id : 5], [name : name_0_5], [price : 6.25], [day : 19005], [created_at : null], [flag : false], " +
+                "[rating : 2.5], [score : 1.25]", BlockUtils.rowToString(block, 5));
+        Assert.assertEquals("[id : 42], [name : name_0_0], [price : 52.50], [day : 19042], [created_at : 2022-01-01 00:00:42], [flag : true], " +
+                "[rating : 21.0], [score : 10.5]", BlockUtils.rowToString(block, 42));
+        Assert.assertEquals("[id : 203], [name : null], [price : 253.75], [day : 19203], [created_at : 2022-01-01 00:03:23], [flag : false], " +
+                "[rating : 101.5], [score : 50.75]", BlockUtils.rowToString(block, 203));
+
+        // Footer and column chunks are fetched with ranged GETs, the first one being the footer length at the end of the file.
+        Assert.assertFalse(getObjectRequests.isEmpty());
+        getObjectRequests.forEach(request -> Assert.assertNotNull(request.getRange()));
+        Assert.assertEquals(this.exportedObject.length - 1, getObjectRequests.get(0).getRange()[1]);
+
+        logger.info("readWithConstraint - exit");
+    }
+
+    @Test
+    public void readWithConstraintProjection()
+            throws Exception
+    {
+        logger.info("readWithConstraintProjection - enter");
+
+        mockExportedObject();
+        Schema schema = SchemaBuilder.newBuilder()
+                .addFloat8Field("score")
+                .addBigIntField("id")
+                .addStringField("not_exported")
+                .build();
+
+        ReadRecordsResponse response = readExportedObject(schema, EXPORTED_OBJECT_KEY, new Constraints(Collections.emptyMap()));
+
+        Block block = response.getRecords();
+        Assert.assertEquals(300, block.getRowCount());
+        Assert.assertEquals("[score : 74.75], [id : 299], [not_exported : null]", BlockUtils.rowToString(block, 299));
+
+        logger.info("readWithConstraintProjection - exit");
+    }
+
+    @Test
+    public void readWithConstraintSkipsRowGroups()
+            throws Exception
+    {
+        logger.info("readWithConstraintSkipsRowGroups - enter");
+
+        List<GetObjectRequest> getObjectRequests = mockExportedObject();
+        Constraints constraints = new Constraints(Collections.singletonMap("id",
+                SortedRangeSet.of(Range.greaterThanOrEqual(this.allocator, Types.MinorType.BIGINT.getType(), 250L))));
+
+        ReadRecordsResponse response = readExportedObject(makeSchema(), EXPORTED_OBJECT_KEY, constraints);
+
+        Block block = response.getRecords();
+        Assert.assertEquals(50, block.getRowCount());
+        Assert.assertEquals("[id : 250], [name : name_2_5], [price : 312.50], [day : 19250], [created_at : 2022-01-01 00:04:10], [flag : true], " +
+                "[rating : 125.0], [score : 62.5]", BlockUtils.rowToString(block, 0));
+
+        // Only the third row group holds ids from 250, the first two are never fetched.
+        getObjectRequests.forEach(request -> Assert.assertTrue(request.getRange()[0] >= THIRD_ROW_GROUP_START));
+
+        logger.info("readWithConstraintSkipsRowGroups - exit");
+    }
+
+    @Test
+    public void readWithConstraintOnString()
+            throws Exception
+    {
+        logger.info("readWithConstraintOnString - enter");
+
+        List<GetObjectRequest> getObjectRequests = mockExportedObject();
+        Constraints constraints = new Constraints(Collections.singletonMap("name",
+                SortedRangeSet.of(Range.equal(this.allocator, Types.MinorType.VARCHAR.getType(), "name_1_3"))));
+
+        ReadRecordsResponse response = readExportedObject(makeSchema(), EXPORTED_OBJECT_KEY, constraints);
+
+        // Ids from 100 to 199 with id % 7 = 3, but for 143 whose name is null.
+        Block block = response.getRecords();
+        Assert.assertEquals(14, block.getRowCount());
+        Assert.assertEquals("[id : 101], [name : name_1_3], [price : 126.25], [day : 19101], [created_at : 2022-01-01 00:01:41], [flag : false], " +
+                "[rating : 50.5], [score : 25.25]", BlockUtils.rowToString(block, 0));
+
+        // Neither the first row group nor the third one are fetched.
+        Assert.assertEquals(1, getObjectRequests.stream().filter(request -> request.getRange()[0] < THIRD_ROW_GROUP_START).count());
+
+        logger.info("readWithConstraintOnString - exit");
+    }
+
+    @Test
+    public void readWithConstraintNoMatchingRowGroup()
+            throws Exception
+    {
+        mockExportedObject();
+        Constraints constraints = new Constraints(Collections.singletonMap("score",
+                SortedRangeSet.of(Range.greaterThan(this.allocator, Types.MinorType.FLOAT8.getType(), 100.0))));
+
+        ReadRecordsResponse response = readExportedObject(makeSchema(), EXPORTED_OBJECT_KEY, constraints);
+
+        Assert.assertEquals(0, response.getRecords().getRowCount());
+    }
+
+    @Test
+    public void readWithConstraintEmptyExport()
+            throws Exception
+    {
+        ReadRecordsResponse response = readExportedObject(makeSchema(), "", new Constraints(Collections.emptyMap()));
+
+        Assert.assertEquals(0, response.getRecords().getRowCount());
+        Mockito.verifyZeroInteractions(this.amazonS3);
+    }
+
+    private static Schema makeSchema()
+    {
+        return SchemaBuilder.newBuilder()
+                .addBigIntField("id")
+                .addStringField("name")
+                .addDecimalField("price", 10, 2)
+                .addDateDayField("day")
+                .addStringField("created_at")
+                .addStringField("flag")
+                .addFloat4Field("rating")
+                .addFloat8Field("score")
+                .build();
+    }
+
+    /**
+     * Serves the recorded export from the mocked S3 client, honouring the range of each GET.
+     *
+     * @return the GET requests made to the object.
+     */
+    private List<GetObjectRequest> mockExportedObject()
+            throws IOException
+    {
+        try (InputStream inputStream = getClass().getResourceAsStream("/export/0_0.parquet")) {
+            this.exportedObject = ByteStreams.toByteArray(inputStream);
+        }
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setContentLength(this.exportedObject.length);
+        Mockito.when(this.amazonS3.getObjectMetadata("testBucket", EXPORTED_OBJECT_KEY)).thenReturn(objectMetadata);
+
+        List<GetObjectRequest> getObjectRequests = new ArrayList<>();
+        Mockito.when(this.amazonS3.getObject(Mockito.any(GetObjectRequest.class))).thenAnswer((InvocationOnMock invocation) -> {
+            GetObjectRequest request = (GetObjectRequest) invocation.getArguments()[0];
+            getObjectRequests.add(request);
+            long[] range = request.getRange() != null ? request.getRange() : new long[] {0, this.exportedObject.length - 1};
+            S3Object s3Object = new S3Object();
+            s3Object.setObjectContent(new ByteArrayInputStream(this.exportedObject, (int) range[0], (int) (range[1] - range[0] + 1)));
+            return s3Object;
+        });
+        return getObjectRequests;
+    }
+
+    private ReadRecordsResponse readExportedObject(Schema schema, String key, Constraints constraints)
+            throws Exception
+    {
+        Split split = Split.newBuilder(S3SpillLocation.newBuilder()
+                                .withBucket("spillBucket")
+                                .withSplitId(UUID.randomUUID().toString())
+                                .withQueryId("testQueryId")
+                                .withIsDirectory(true)
+                                .build(),
+                        new LocalKeyFactory().create())
+                .add("query_id", "testQueryId")
+                .add("exportBucket", "testBucket")
+                .add("s3ObjectKey", key)
+                .build();
+        ReadRecordsRequest request = new ReadRecordsRequest(new FederatedIdentity("arn", "account", Collections.emptyMap(), Collections.emptyList()),
+                "testCatalog", "testQueryId", new TableName("testSchema", "testTable"), schema, split, constraints,
+                100_000_000_000L, 100_000_000_000L);
+
+        RecordResponse response = this.verticaRecordHandler.doReadRecords(this.allocator, request);
+        Assert.assertTrue(response instanceof ReadRecordsResponse);
+        return (ReadRecordsResponse) response;
+    }
+}